@@ -16,6 +16,9 @@
 
 package org.springframework.cache.caffeine;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.function.Function;
 
@@ -105,11 +108,27 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 		return this.cache.getIfPresent(key);
 	}
 
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, Object> storeValues = (this.cache instanceof LoadingCache ?
+				((LoadingCache<Object, Object>) this.cache).getAll(keys) : this.cache.getAllPresent(keys));
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(storeValues.size());
+		storeValues.forEach((key, storeValue) -> result.put(key, toValueWrapper(storeValue)));
+		return result;
+	}
+
 	@Override
 	public void put(Object key, @Nullable Object value) {
 		this.cache.put(key, toStoreValue(value));
 	}
 
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		Map<Object, Object> storeEntries = new LinkedHashMap<>(entries.size());
+		entries.forEach((key, value) -> storeEntries.put(key, toStoreValue(value)));
+		this.cache.putAll(storeEntries);
+	}
+
 	@Override
 	@Nullable
 	public ValueWrapper putIfAbsent(Object key, @Nullable final Object value) {
@@ -128,6 +147,11 @@ public class CaffeineCache extends AbstractValueAdaptingCache {
 		return (this.cache.asMap().remove(key) != null);
 	}
 
+	@Override
+	public void evictAll(Collection<?> keys) {
+		this.cache.invalidateAll(keys);
+	}
+
 	@Override
 	public void clear() {
 		this.cache.invalidateAll();
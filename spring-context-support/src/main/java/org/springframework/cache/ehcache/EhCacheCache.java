@@ -16,6 +16,11 @@
 
 package org.springframework.cache.ehcache;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 import net.sf.ehcache.Ehcache;
@@ -122,11 +127,31 @@ public class EhCacheCache implements Cache {
 		return value;
 	}
 
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, Element> elements = this.cache.getAll(keys);
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(elements.size());
+		elements.forEach((key, element) -> {
+			// Ehcache reports keys without mapping with a null Element
+			if (element != null) {
+				result.put(key, toValueWrapper(element));
+			}
+		});
+		return result;
+	}
+
 	@Override
 	public void put(Object key, @Nullable Object value) {
 		this.cache.put(new Element(key, value));
 	}
 
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		List<Element> elements = new ArrayList<>(entries.size());
+		entries.forEach((key, value) -> elements.add(new Element(key, value)));
+		this.cache.putAll(elements);
+	}
+
 	@Override
 	@Nullable
 	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
@@ -144,6 +169,11 @@ public class EhCacheCache implements Cache {
 		return this.cache.remove(key);
 	}
 
+	@Override
+	public void evictAll(Collection<?> keys) {
+		this.cache.removeAll(keys);
+	}
+
 	@Override
 	public void clear() {
 		this.cache.removeAll();
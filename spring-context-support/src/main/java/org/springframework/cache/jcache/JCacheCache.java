@@ -16,6 +16,10 @@
 
 package org.springframework.cache.jcache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 import javax.cache.Cache;
@@ -89,11 +93,26 @@ public class JCacheCache extends AbstractValueAdaptingCache {
 		}
 	}
 
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, Object> storeValues = this.cache.getAll(new LinkedHashSet<>(keys));
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(storeValues.size());
+		storeValues.forEach((key, storeValue) -> result.put(key, toValueWrapper(storeValue)));
+		return result;
+	}
+
 	@Override
 	public void put(Object key, @Nullable Object value) {
 		this.cache.put(key, toStoreValue(value));
 	}
 
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		Map<Object, Object> storeEntries = new LinkedHashMap<>(entries.size());
+		entries.forEach((key, value) -> storeEntries.put(key, toStoreValue(value)));
+		this.cache.putAll(storeEntries);
+	}
+
 	@Override
 	@Nullable
 	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
@@ -111,6 +130,11 @@ public class JCacheCache extends AbstractValueAdaptingCache {
 		return this.cache.remove(key);
 	}
 
+	@Override
+	public void evictAll(Collection<?> keys) {
+		this.cache.removeAll(new LinkedHashSet<>(keys));
+	}
+
 	@Override
 	public void clear() {
 		this.cache.removeAll();
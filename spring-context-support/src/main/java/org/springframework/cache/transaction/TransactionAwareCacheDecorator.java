@@ -16,6 +16,8 @@
 
 package org.springframework.cache.transaction;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 import org.springframework.cache.Cache;
@@ -91,6 +93,11 @@ public class TransactionAwareCacheDecorator implements Cache {
 		return this.targetCache.get(key, valueLoader);
 	}
 
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		return this.targetCache.getAll(keys);
+	}
+
 	@Override
 	public void put(final Object key, @Nullable final Object value) {
 		if (TransactionSynchronizationManager.isSynchronizationActive()) {
@@ -106,6 +113,21 @@ public class TransactionAwareCacheDecorator implements Cache {
 		}
 	}
 
+	@Override
+	public void putAll(final Map<?, ?> entries) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					TransactionAwareCacheDecorator.this.targetCache.putAll(entries);
+				}
+			});
+		}
+		else {
+			this.targetCache.putAll(entries);
+		}
+	}
+
 	@Override
 	@Nullable
 	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
@@ -132,6 +154,21 @@ public class TransactionAwareCacheDecorator implements Cache {
 		return this.targetCache.evictIfPresent(key);
 	}
 
+	@Override
+	public void evictAll(final Collection<?> keys) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					TransactionAwareCacheDecorator.this.targetCache.evictAll(keys);
+				}
+			});
+		}
+		else {
+			this.targetCache.evictAll(keys);
+		}
+	}
+
 	@Override
 	public void clear() {
 		if (TransactionSynchronizationManager.isSynchronizationActive()) {
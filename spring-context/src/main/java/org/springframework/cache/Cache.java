@@ -16,7 +16,12 @@
 
 package org.springframework.cache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.springframework.lang.Nullable;
 
@@ -100,6 +105,77 @@ public interface Cache {
 	@Nullable
 	<T> T get(Object key, Callable<T> valueLoader);
 
+	/**
+	 * Return the value to which this cache maps the specified key,
+	 * as a future which is being completed once the value has been
+	 * looked up. This is the non-blocking variant of {@link #get(Object)},
+	 * to be overridden by cache providers with an asynchronous client API.
+	 * <p>The default implementation performs a {@link #get(Object)} call
+	 * right away, returning an already completed future.
+	 * @param key the key whose associated value is to be returned
+	 * @return a future for the value to which this cache maps the specified
+	 * key, contained within a {@link ValueWrapper} which may also hold a
+	 * cached {@code null} value. A future completed with a straight
+	 * {@code null} indicates that the cache contains no mapping for this key.
+	 * @since 5.2.3
+	 * @see #get(Object)
+	 */
+	default CompletableFuture<ValueWrapper> retrieve(Object key) {
+		return CompletableFuture.completedFuture(get(key));
+	}
+
+	/**
+	 * Return the value to which this cache maps the specified key, obtaining
+	 * that value from the given asynchronous {@code valueLoader} if necessary.
+	 * This is the non-blocking variant of {@link #get(Object, Callable)} for
+	 * values that are being computed as a {@link CompletableFuture}.
+	 * <p>If possible, implementations should ensure that concurrent retrievals
+	 * for the same key share a single {@code valueLoader} invocation.
+	 * <p>The default implementation checks {@link #get(Object)} and, on a miss,
+	 * calls the {@code valueLoader}, {@link #put putting} the value into the
+	 * cache once the returned future completes successfully.
+	 * @param key the key whose associated value is to be returned
+	 * @param valueLoader the callback for obtaining the value asynchronously
+	 * @return a future for the value to which this cache maps the specified key
+	 * @since 5.2.3
+	 * @see #get(Object, Callable)
+	 */
+	@SuppressWarnings("unchecked")
+	default <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		ValueWrapper existingValue = get(key);
+		if (existingValue != null) {
+			return CompletableFuture.completedFuture((T) existingValue.get());
+		}
+		return valueLoader.get().thenApply(value -> {
+			put(key, value);
+			return value;
+		});
+	}
+
+	/**
+	 * Return the values to which this cache maps the specified keys,
+	 * in a single bulk operation if supported by the cache provider.
+	 * <p>The returned map contains an entry for each key that this cache
+	 * contains a mapping for, with no entries for keys not found in the cache.
+	 * <p>The default implementation delegates to {@link #get(Object)}
+	 * for each key.
+	 * @param keys the keys whose associated values are to be returned
+	 * @return a map from each cached key to its value wrapper
+	 * (never {@code null}, potentially empty)
+	 * @since 5.2.3
+	 * @see #get(Object)
+	 */
+	default Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(keys.size());
+		for (Object key : keys) {
+			ValueWrapper value = get(key);
+			if (value != null) {
+				result.put(key, value);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Associate the specified value with the specified key in this cache.
 	 * <p>If the cache previously contained a mapping for this key, the old
@@ -150,6 +226,20 @@ public interface Cache {
 		return existingValue;
 	}
 
+	/**
+	 * Associate the specified values with the specified keys in this cache,
+	 * in a single bulk operation if supported by the cache provider.
+	 * <p>Registration may be deferred in the same way as for {@link #put}.
+	 * <p>The default implementation delegates to {@link #put(Object, Object)}
+	 * for each entry.
+	 * @param entries the key-value pairs to associate
+	 * @since 5.2.3
+	 * @see #put(Object, Object)
+	 */
+	default void putAll(Map<?, ?> entries) {
+		entries.forEach(this::put);
+	}
+
 	/**
 	 * Evict the mapping for this key from this cache if it is present.
 	 * <p>Actual eviction may be performed in an asynchronous or deferred
@@ -182,6 +272,20 @@ public interface Cache {
 		return false;
 	}
 
+	/**
+	 * Evict the mappings for the specified keys from this cache,
+	 * in a single bulk operation if supported by the cache provider.
+	 * <p>Eviction may be deferred in the same way as for {@link #evict}.
+	 * <p>The default implementation delegates to {@link #evict(Object)}
+	 * for each key.
+	 * @param keys the keys whose mappings are to be removed from the cache
+	 * @since 5.2.3
+	 * @see #evict(Object)
+	 */
+	default void evictAll(Collection<?> keys) {
+		keys.forEach(this::evict);
+	}
+
 	/**
 	 * Clear the cache through removing all mappings.
 	 * <p>Actual clearing may be performed in an asynchronous or deferred
@@ -221,6 +325,25 @@ public interface Cache {
 	}
 
 
+	/**
+	 * A {@link ValueWrapper} for a cached value which is due for refresh,
+	 * as returned from {@link #get(Object)} by caches which refresh their
+	 * entries ahead of expiration. Callers which are able to recompute the
+	 * value may trigger a refresh, while using the current value meanwhile.
+	 * @since 5.2.3
+	 * @see org.springframework.cache.support.RefreshAheadCacheDecorator
+	 */
+	interface RefreshableValueWrapper extends ValueWrapper {
+
+		/**
+		 * Refresh the cached value through the given loader, typically
+		 * in the background, unless a refresh is in progress already.
+		 * @param refreshLoader the callback for recomputing the value
+		 */
+		void refresh(Callable<?> refreshLoader);
+	}
+
+
 	/**
 	 * Wrapper exception to be thrown from {@link #get(Object, Callable)}
 	 * in case of the value loader callback failing with an exception.
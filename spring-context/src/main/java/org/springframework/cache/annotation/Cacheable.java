@@ -179,4 +179,27 @@ public @interface Cacheable {
 	 */
 	boolean sync() default false;
 
+	/**
+	 * Cache each element of a collection of keys individually, with the method
+	 * returning a {@link java.util.Map} from each key to its value. Cached values
+	 * are obtained in a single {@link org.springframework.cache.Cache#getAll bulk
+	 * lookup}, and the method is invoked with the missing keys only, its result
+	 * being stored in the cache and merged with the cached values.
+	 * <p>The keys are taken from the first {@link java.util.Collection} parameter
+	 * of the method. Narrowing that argument to the missing keys requires a
+	 * proxy-based invocation; other invokers receive the full collection, still
+	 * leading to a correct (merged) result. This mode comes with the following
+	 * limitations:
+	 * <ol>
+	 * <li>{@link #key()}, {@link #keyGenerator()} and {@link #unless()}
+	 * are not supported</li>
+	 * <li>Only one cache may be specified</li>
+	 * <li>No other cache-related operation can be combined</li>
+	 * </ol>
+	 * @since 5.2.3
+	 * @see org.springframework.cache.Cache#getAll
+	 * @see org.springframework.cache.Cache#putAll
+	 */
+	boolean multiKey() default false;
+
 }
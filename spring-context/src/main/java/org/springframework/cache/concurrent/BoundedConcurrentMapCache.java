@@ -0,0 +1,631 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.core.serializer.support.SerializationDelegate;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Bounded variant of {@link ConcurrentMapCache}: a simple in-memory
+ * {@link org.springframework.cache.Cache} implementation based on a
+ * {@link ConcurrentHashMap}, limited to a maximum number of entries and
+ * optionally expiring entries after a time-to-live, without requiring
+ * a third-party caching library.
+ *
+ * <p>Eviction follows a segmented LRU policy: new entries go into a probation
+ * segment and are only promoted into the protected segment (holding 80% of
+ * the maximum size) when accessed again, so that a burst of one-time entries
+ * does not flush frequently used entries out of the cache. Cache hits never
+ * block: recency updates are skipped while another thread holds the eviction
+ * lock, trading some precision of the LRU order for read throughput.
+ *
+ * <p>Expired entries are removed on access or once they reach the end of the
+ * eviction order. Hit, miss, eviction and expiration counts are exposed
+ * for monitoring purposes.
+ *
+ * <p>Typically obtained through {@link ConcurrentMapCacheManager} with a
+ * {@link ConcurrentMapCacheManager#setMaximumSize "maximumSize"} and/or
+ * {@link ConcurrentMapCacheManager#setTimeToLive "timeToLive"} setting.
+ * For advanced local caching needs, consider
+ * {@link org.springframework.cache.caffeine.CaffeineCache}.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see ConcurrentMapCacheManager#setMaximumSize
+ * @see ConcurrentMapCacheManager#setTimeToLive
+ */
+public class BoundedConcurrentMapCache extends AbstractValueAdaptingCache {
+
+	private static final float PROTECTED_RATIO = 0.8f;
+
+
+	private final String name;
+
+	private final int maximumSize;
+
+	private final int maximumProtectedSize;
+
+	private final long timeToLive;
+
+	@Nullable
+	private final SerializationDelegate serialization;
+
+	private final ConcurrentHashMap<Object, Node> store;
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final Segment probationSegment = new Segment();
+
+	private final Segment protectedSegment = new Segment();
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	private final LongAdder expirationCount = new LongAdder();
+
+
+	/**
+	 * Create a new BoundedConcurrentMapCache with the specified name
+	 * and maximum size, with no expiration of entries.
+	 * @param name the name of the cache
+	 * @param maximumSize the maximum number of entries in the cache
+	 */
+	public BoundedConcurrentMapCache(String name, int maximumSize) {
+		this(name, maximumSize, null, true);
+	}
+
+	/**
+	 * Create a new BoundedConcurrentMapCache with the specified name,
+	 * maximum size and time-to-live.
+	 * @param name the name of the cache
+	 * @param maximumSize the maximum number of entries in the cache
+	 * @param timeToLive the time after which an entry expires once written
+	 * (must be positive), or {@code null} for no expiration
+	 * @param allowNullValues whether to allow {@code null} values
+	 * (adapting them to an internal null holder value)
+	 */
+	public BoundedConcurrentMapCache(String name, int maximumSize, @Nullable Duration timeToLive,
+			boolean allowNullValues) {
+
+		this(name, maximumSize, timeToLive, allowNullValues, null);
+	}
+
+	/**
+	 * Create a new BoundedConcurrentMapCache with the specified name,
+	 * maximum size and time-to-live. If the {@link SerializationDelegate}
+	 * is specified, {@link #isStoreByValue() store-by-value} is enabled.
+	 * @param name the name of the cache
+	 * @param maximumSize the maximum number of entries in the cache
+	 * @param timeToLive the time after which an entry expires once written
+	 * (must be positive), or {@code null} for no expiration
+	 * @param allowNullValues whether to allow {@code null} values
+	 * (adapting them to an internal null holder value)
+	 * @param serialization the {@link SerializationDelegate} to use
+	 * to serialize cache entry or {@code null} to store the reference
+	 */
+	protected BoundedConcurrentMapCache(String name, int maximumSize, @Nullable Duration timeToLive,
+			boolean allowNullValues, @Nullable SerializationDelegate serialization) {
+
+		super(allowNullValues);
+		Assert.notNull(name, "Name must not be null");
+		Assert.isTrue(maximumSize > 0, "Maximum size must be greater than 0");
+		Assert.isTrue(timeToLive == null || (!timeToLive.isNegative() && !timeToLive.isZero()),
+				"Time-to-live must be positive");
+		this.name = name;
+		this.maximumSize = maximumSize;
+		this.maximumProtectedSize = (int) (maximumSize * PROTECTED_RATIO);
+		this.timeToLive = (timeToLive != null ? timeToLive.toNanos() : 0);
+		this.serialization = serialization;
+		this.store = new ConcurrentHashMap<>(Math.min(maximumSize, 256));
+	}
+
+
+	/**
+	 * Return whether this cache stores a copy of each entry ({@code true}) or
+	 * a reference ({@code false}, default). If store by value is enabled, each
+	 * entry in the cache must be serializable.
+	 */
+	public final boolean isStoreByValue() {
+		return (this.serialization != null);
+	}
+
+	/**
+	 * Return the maximum number of entries in this cache.
+	 */
+	public final int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * Return the default time-to-live for entries in this cache,
+	 * or {@code null} if entries do not expire by default.
+	 */
+	@Nullable
+	public final Duration getTimeToLive() {
+		return (this.timeToLive > 0 ? Duration.ofNanos(this.timeToLive) : null);
+	}
+
+	@Override
+	public final String getName() {
+		return this.name;
+	}
+
+	/**
+	 * This implementation returns the cache itself since there is
+	 * no separate native cache structure to expose.
+	 */
+	@Override
+	public final Object getNativeCache() {
+		return this;
+	}
+
+	@Override
+	@Nullable
+	protected Object lookup(Object key) {
+		Node node = this.store.get(key);
+		if (node == null) {
+			this.missCount.increment();
+			return null;
+		}
+		if (node.isExpired(System.nanoTime())) {
+			this.missCount.increment();
+			expire(node);
+			return null;
+		}
+		this.hitCount.increment();
+		onAccess(node);
+		return node.value;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		Object storeValue = lookup(key);
+		if (storeValue != null) {
+			return (T) fromStoreValue(storeValue);
+		}
+		Node[] written = new Node[2];
+		Node node = this.store.compute(key, (k, existing) -> {
+			if (existing != null && !existing.isExpired(System.nanoTime())) {
+				return existing;
+			}
+			written[1] = existing;
+			Object value;
+			try {
+				value = toStoreValue(valueLoader.call());
+			}
+			catch (Throwable ex) {
+				throw new ValueRetrievalException(key, valueLoader, ex);
+			}
+			written[0] = new Node(k, value, expirationTime(this.timeToLive));
+			return written[0];
+		});
+		if (written[0] != null) {
+			onWrite(written[0], written[1]);
+		}
+		return (T) fromStoreValue(node.value);
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		put(key, value, this.timeToLive);
+	}
+
+	/**
+	 * Associate the specified value with the specified key in this cache,
+	 * expiring the entry after the given time-to-live instead of the
+	 * cache's default {@link #getTimeToLive() time-to-live}.
+	 * @param key the key with which the specified value is to be associated
+	 * @param value the value to be associated with the specified key
+	 * @param timeToLive the time after which the entry expires (must be positive),
+	 * or {@code null} for no expiration
+	 * @throws IllegalArgumentException if the time-to-live is zero or negative
+	 * @see #put(Object, Object)
+	 */
+	public void put(Object key, @Nullable Object value, @Nullable Duration timeToLive) {
+		Assert.isTrue(timeToLive == null || (!timeToLive.isNegative() && !timeToLive.isZero()),
+				"Time-to-live must be positive");
+		put(key, value, (timeToLive != null ? timeToLive.toNanos() : 0));
+	}
+
+	private void put(Object key, @Nullable Object value, long timeToLive) {
+		Node node = new Node(key, toStoreValue(value), expirationTime(timeToLive));
+		onWrite(node, this.store.put(key, node));
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		Object storeValue = toStoreValue(value);
+		Node[] written = new Node[2];
+		Node node = this.store.compute(key, (k, existing) -> {
+			if (existing != null && !existing.isExpired(System.nanoTime())) {
+				return existing;
+			}
+			written[1] = existing;
+			written[0] = new Node(k, storeValue, expirationTime(this.timeToLive));
+			return written[0];
+		});
+		if (written[0] != null) {
+			onWrite(written[0], written[1]);
+			return null;
+		}
+		return toValueWrapper(node.value);
+	}
+
+	@Override
+	public void evict(Object key) {
+		evictIfPresent(key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		Node node = this.store.remove(key);
+		if (node == null) {
+			return false;
+		}
+		onRemoval(node);
+		return !node.isExpired(System.nanoTime());
+	}
+
+	@Override
+	public void clear() {
+		this.evictionLock.lock();
+		try {
+			this.store.clear();
+			this.probationSegment.clear();
+			this.protectedSegment.clear();
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean invalidate() {
+		boolean notEmpty = !this.store.isEmpty();
+		clear();
+		return notEmpty;
+	}
+
+
+	/**
+	 * Return the current number of entries in this cache, possibly
+	 * including expired entries which have not been removed yet.
+	 */
+	public int getSize() {
+		return this.store.size();
+	}
+
+	/**
+	 * Return the number of lookups which found a cached value.
+	 */
+	public long getHitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * Return the number of lookups which did not find a cached value.
+	 */
+	public long getMissCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Return the ratio of lookups which found a cached value,
+	 * or {@code 1.0} if there have not been any lookups yet.
+	 */
+	public double getHitRatio() {
+		long hits = getHitCount();
+		long requests = hits + getMissCount();
+		return (requests > 0 ? (double) hits / requests : 1.0);
+	}
+
+	/**
+	 * Return the number of entries which have been evicted
+	 * in order to stay within the maximum size.
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.sum();
+	}
+
+	/**
+	 * Return the number of entries which have been removed
+	 * because of an expired time-to-live.
+	 */
+	public long getExpirationCount() {
+		return this.expirationCount.sum();
+	}
+
+	/**
+	 * Reset the hit, miss, eviction and expiration counts.
+	 */
+	public void resetStatistics() {
+		this.hitCount.reset();
+		this.missCount.reset();
+		this.evictionCount.reset();
+		this.expirationCount.reset();
+	}
+
+
+	private static long expirationTime(long timeToLive) {
+		if (timeToLive <= 0) {
+			return 0;
+		}
+		long expirationTime = System.nanoTime() + timeToLive;
+		// 0 is reserved for "no expiration"
+		return (expirationTime != 0 ? expirationTime : 1);
+	}
+
+	private void expire(Node node) {
+		if (this.store.remove(node.key, node)) {
+			this.expirationCount.increment();
+			onRemoval(node);
+		}
+	}
+
+	/**
+	 * Record an access to the given node, unless another thread
+	 * currently holds the eviction lock (in which case we rather
+	 * accept a less accurate eviction order than blocking the read).
+	 */
+	private void onAccess(Node node) {
+		if (this.evictionLock.tryLock()) {
+			try {
+				if (node.segment == this.probationSegment) {
+					// Second access: promote into protected segment
+					this.probationSegment.unlink(node);
+					this.protectedSegment.linkFirst(node);
+					while (this.protectedSegment.size > this.maximumProtectedSize) {
+						Node demoted = this.protectedSegment.last();
+						this.protectedSegment.unlink(demoted);
+						this.probationSegment.linkFirst(demoted);
+					}
+				}
+				else if (node.segment == this.protectedSegment) {
+					this.protectedSegment.moveToFirst(node);
+				}
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+	}
+
+	private void onWrite(Node node, @Nullable Node replaced) {
+		this.evictionLock.lock();
+		try {
+			if (replaced != null && replaced.segment != null) {
+				replaced.segment.unlink(replaced);
+			}
+			// The node may have been replaced or removed in the meantime
+			if (this.store.get(node.key) == node) {
+				this.probationSegment.linkFirst(node);
+				evictIfNecessary();
+			}
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	private void onRemoval(Node node) {
+		this.evictionLock.lock();
+		try {
+			if (node.segment != null) {
+				node.segment.unlink(node);
+			}
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	private void evictIfNecessary() {
+		while (this.probationSegment.size + this.protectedSegment.size > this.maximumSize) {
+			Node victim = (this.probationSegment.size > 0 ?
+					this.probationSegment.last() : this.protectedSegment.last());
+			victim.segment.unlink(victim);
+			if (this.store.remove(victim.key, victim)) {
+				if (victim.isExpired(System.nanoTime())) {
+					this.expirationCount.increment();
+				}
+				else {
+					this.evictionCount.increment();
+				}
+			}
+		}
+	}
+
+	@Override
+	protected Object toStoreValue(@Nullable Object userValue) {
+		Object storeValue = super.toStoreValue(userValue);
+		if (this.serialization != null) {
+			try {
+				return serializeValue(this.serialization, storeValue);
+			}
+			catch (Throwable ex) {
+				throw new IllegalArgumentException("Failed to serialize cache value '" + userValue +
+						"'. Does it implement Serializable?", ex);
+			}
+		}
+		else {
+			return storeValue;
+		}
+	}
+
+	private Object serializeValue(SerializationDelegate serialization, Object storeValue) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			serialization.serialize(storeValue, out);
+			return out.toByteArray();
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	@Override
+	protected Object fromStoreValue(@Nullable Object storeValue) {
+		if (storeValue != null && this.serialization != null) {
+			try {
+				return super.fromStoreValue(deserializeValue(this.serialization, storeValue));
+			}
+			catch (Throwable ex) {
+				throw new IllegalArgumentException("Failed to deserialize cache value '" + storeValue + "'", ex);
+			}
+		}
+		else {
+			return super.fromStoreValue(storeValue);
+		}
+	}
+
+	private Object deserializeValue(SerializationDelegate serialization, Object storeValue) throws IOException {
+		ByteArrayInputStream in = new ByteArrayInputStream((byte[]) storeValue);
+		try {
+			return serialization.deserialize(in);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+
+	/**
+	 * A cache entry, linked into one of the eviction segments
+	 * while guarded by the eviction lock.
+	 */
+	private static final class Node {
+
+		final Object key;
+
+		final Object value;
+
+		final long expirationTime;
+
+		@Nullable
+		Segment segment;
+
+		@Nullable
+		Node previous;
+
+		@Nullable
+		Node next;
+
+		Node(Object key, Object value, long expirationTime) {
+			this.key = key;
+			this.value = value;
+			this.expirationTime = expirationTime;
+		}
+
+		boolean isExpired(long now) {
+			return (this.expirationTime != 0 && now - this.expirationTime >= 0);
+		}
+	}
+
+
+	/**
+	 * A doubly-linked list of nodes in access order, most recent first.
+	 */
+	private static final class Segment {
+
+		@Nullable
+		private Node first;
+
+		@Nullable
+		private Node last;
+
+		int size;
+
+		Node last() {
+			Assert.state(this.last != null, "Segment is empty");
+			return this.last;
+		}
+
+		void linkFirst(Node node) {
+			node.segment = this;
+			node.previous = null;
+			node.next = this.first;
+			if (this.first != null) {
+				this.first.previous = node;
+			}
+			else {
+				this.last = node;
+			}
+			this.first = node;
+			this.size++;
+		}
+
+		void unlink(Node node) {
+			Node previous = node.previous;
+			Node next = node.next;
+			if (previous != null) {
+				previous.next = next;
+			}
+			else {
+				this.first = next;
+			}
+			if (next != null) {
+				next.previous = previous;
+			}
+			else {
+				this.last = previous;
+			}
+			node.segment = null;
+			node.previous = null;
+			node.next = null;
+			this.size--;
+		}
+
+		void moveToFirst(Node node) {
+			if (this.first != node) {
+				unlink(node);
+				linkFirst(node);
+			}
+		}
+
+		void clear() {
+			Node node = this.first;
+			while (node != null) {
+				Node next = node.next;
+				node.segment = null;
+				node.previous = null;
+				node.next = null;
+				node = next;
+			}
+			this.first = null;
+			this.last = null;
+			this.size = 0;
+		}
+	}
+
+}
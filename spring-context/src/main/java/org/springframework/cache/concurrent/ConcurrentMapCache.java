@@ -19,6 +19,9 @@ package org.springframework.cache.concurrent;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -141,6 +144,11 @@ public class ConcurrentMapCache extends AbstractValueAdaptingCache {
 	@Override
 	@Nullable
 	public <T> T get(Object key, Callable<T> valueLoader) {
+		// Fast path for cache hits, avoiding computeIfAbsent's bin locking
+		Object storeValue = this.store.get(key);
+		if (storeValue != null) {
+			return (T) fromStoreValue(storeValue);
+		}
 		return (T) fromStoreValue(this.store.computeIfAbsent(key, k -> {
 			try {
 				return toStoreValue(valueLoader.call());
@@ -151,11 +159,31 @@ public class ConcurrentMapCache extends AbstractValueAdaptingCache {
 		}));
 	}
 
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(keys.size());
+		for (Object key : keys) {
+			Object storeValue = this.store.get(key);
+			if (storeValue != null) {
+				result.put(key, toValueWrapper(storeValue));
+			}
+		}
+		return result;
+	}
+
 	@Override
 	public void put(Object key, @Nullable Object value) {
 		this.store.put(key, toStoreValue(value));
 	}
 
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		// Convert all values upfront, not storing any entry in case of serialization failure
+		Map<Object, Object> storeEntries = new LinkedHashMap<>(entries.size());
+		entries.forEach((key, value) -> storeEntries.put(key, toStoreValue(value)));
+		this.store.putAll(storeEntries);
+	}
+
 	@Override
 	@Nullable
 	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
@@ -173,6 +201,13 @@ public class ConcurrentMapCache extends AbstractValueAdaptingCache {
 		return (this.store.remove(key) != null);
 	}
 
+	@Override
+	public void evictAll(Collection<?> keys) {
+		for (Object key : keys) {
+			this.store.remove(key);
+		}
+	}
+
 	@Override
 	public void clear() {
 		this.store.clear();
@@ -16,6 +16,7 @@
 
 package org.springframework.cache.concurrent;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -26,8 +27,11 @@ import java.util.concurrent.ConcurrentMap;
 import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.StableCacheManager;
 import org.springframework.core.serializer.support.SerializationDelegate;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 
 /**
  * {@link CacheManager} implementation that lazily builds {@link ConcurrentMapCache}
@@ -35,9 +39,11 @@ import org.springframework.lang.Nullable;
  * the set of cache names is pre-defined through {@link #setCacheNames}, with no
  * dynamic creation of further cache regions at runtime.
  *
- * <p>Note: This is by no means a sophisticated CacheManager; it comes with no
- * cache configuration options. However, it may be useful for testing or simple
- * caching scenarios. For advanced local caching needs, consider
+ * <p>Note: This is by no means a sophisticated CacheManager; it comes with
+ * few cache configuration options. However, it may be useful for testing or simple
+ * caching scenarios, with a {@link #setMaximumSize "maximumSize"} and/or a
+ * {@link #setTimeToLive "timeToLive"} setting keeping the caches bounded through
+ * {@link BoundedConcurrentMapCache} instances. For advanced local caching needs, consider
  * {@link org.springframework.cache.jcache.JCacheCacheManager},
  * {@link org.springframework.cache.ehcache.EhCacheCacheManager},
  * {@link org.springframework.cache.caffeine.CaffeineCacheManager}.
@@ -45,17 +51,25 @@ import org.springframework.lang.Nullable;
  * @author Juergen Hoeller
  * @since 3.1
  * @see ConcurrentMapCache
+ * @see BoundedConcurrentMapCache
  */
-public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderAware {
+public class ConcurrentMapCacheManager implements StableCacheManager, BeanClassLoaderAware {
 
 	private final ConcurrentMap<String, Cache> cacheMap = new ConcurrentHashMap<>(16);
 
+	private volatile long cacheGeneration;
+
 	private boolean dynamic = true;
 
 	private boolean allowNullValues = true;
 
 	private boolean storeByValue = false;
 
+	private int maximumSize = 0;
+
+	@Nullable
+	private Duration timeToLive;
+
 	@Nullable
 	private SerializationDelegate serialization;
 
@@ -88,6 +102,7 @@ public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderA
 			for (String name : cacheNames) {
 				this.cacheMap.put(name, createConcurrentMapCache(name));
 			}
+			this.cacheGeneration++;
 			this.dynamic = false;
 		}
 		else {
@@ -146,6 +161,64 @@ public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderA
 		return this.storeByValue;
 	}
 
+	/**
+	 * Specify the maximum number of entries for each cache in this cache manager,
+	 * evicting entries beyond that size in a segmented LRU fashion.
+	 * <p>Default is "0", not limiting the number of entries. A value greater than
+	 * 0 leads to the creation of {@link BoundedConcurrentMapCache} instances.
+	 * <p>Note: A change of the maximum size setting will reset all existing caches,
+	 * if any, to reconfigure them with the new size limit.
+	 * @since 5.2.3
+	 * @see BoundedConcurrentMapCache
+	 */
+	public void setMaximumSize(int maximumSize) {
+		Assert.isTrue(maximumSize >= 0, "Maximum size must not be negative");
+		if (maximumSize != this.maximumSize) {
+			this.maximumSize = maximumSize;
+			// Need to recreate all Cache instances with the new size limit...
+			recreateCaches();
+		}
+	}
+
+	/**
+	 * Return the maximum number of entries for each cache in this cache manager,
+	 * or "0" if the number of entries is not limited.
+	 * @since 5.2.3
+	 */
+	public int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * Specify the time after which an entry expires once written,
+	 * for each cache in this cache manager.
+	 * <p>Default is none, with entries never expiring. A (positive) time-to-live leads
+	 * to the creation of {@link BoundedConcurrentMapCache} instances.
+	 * <p>Note: A change of the time-to-live setting will reset all existing caches,
+	 * if any, to reconfigure them with the new expiration setting.
+	 * @since 5.2.3
+	 * @see BoundedConcurrentMapCache
+	 */
+	public void setTimeToLive(@Nullable Duration timeToLive) {
+		Assert.isTrue(timeToLive == null || (!timeToLive.isNegative() && !timeToLive.isZero()),
+				"Time-to-live must be positive");
+		if (!ObjectUtils.nullSafeEquals(timeToLive, this.timeToLive)) {
+			this.timeToLive = timeToLive;
+			// Need to recreate all Cache instances with the new expiration setting...
+			recreateCaches();
+		}
+	}
+
+	/**
+	 * Return the time after which an entry expires once written,
+	 * or {@code null} if entries do not expire.
+	 * @since 5.2.3
+	 */
+	@Nullable
+	public Duration getTimeToLive() {
+		return this.timeToLive;
+	}
+
 	@Override
 	public void setBeanClassLoader(ClassLoader classLoader) {
 		this.serialization = new SerializationDelegate(classLoader);
@@ -156,6 +229,11 @@ public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderA
 	}
 
 
+	@Override
+	public long getCacheGeneration() {
+		return this.cacheGeneration;
+	}
+
 	@Override
 	public Collection<String> getCacheNames() {
 		return Collections.unmodifiableSet(this.cacheMap.keySet());
@@ -181,18 +259,25 @@ public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderA
 		for (Map.Entry<String, Cache> entry : this.cacheMap.entrySet()) {
 			entry.setValue(createConcurrentMapCache(entry.getKey()));
 		}
+		this.cacheGeneration++;
 	}
 
 	/**
 	 * Create a new ConcurrentMapCache instance for the specified cache name.
+	 * <p>Creates a {@link BoundedConcurrentMapCache} if a maximum size
+	 * or a time-to-live has been specified.
 	 * @param name the name of the cache
 	 * @return the ConcurrentMapCache (or a decorator thereof)
 	 */
 	protected Cache createConcurrentMapCache(String name) {
 		SerializationDelegate actualSerialization = (isStoreByValue() ? this.serialization : null);
+		if (this.maximumSize > 0 || this.timeToLive != null) {
+			return new BoundedConcurrentMapCache(name,
+					(this.maximumSize > 0 ? this.maximumSize : Integer.MAX_VALUE), this.timeToLive,
+					isAllowNullValues(), actualSerialization);
+		}
 		return new ConcurrentMapCache(name, new ConcurrentHashMap<>(256),
 				isAllowNullValues(), actualSerialization);
-
 	}
 
 }
@@ -25,11 +25,16 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.aop.support.AopUtils;
@@ -42,8 +47,12 @@ import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.StableCacheManager;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.CollectionFactory;
+import org.springframework.core.ReactiveAdapter;
+import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -83,12 +92,19 @@ import org.springframework.util.function.SupplierUtils;
 public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		implements BeanFactoryAware, InitializingBean, SmartInitializingSingleton {
 
+	private static final boolean reactorPresent = ClassUtils.isPresent(
+			"reactor.core.publisher.Flux", CacheAspectSupport.class.getClassLoader());
+
+
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	private final Map<CacheOperationCacheKey, CacheOperationMetadata> metadataCache = new ConcurrentHashMap<>(1024);
 
 	private final CacheOperationExpressionEvaluator evaluator = new CacheOperationExpressionEvaluator();
 
+	@Nullable
+	private transient volatile ReactiveCachingHandler reactiveCachingHandler;
+
 	@Nullable
 	private CacheOperationSource cacheOperationSource;
 
@@ -377,13 +393,35 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			if (isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
 				Object key = generateKey(context, CacheOperationExpressionEvaluator.NO_RESULT);
 				Cache cache = context.getCaches().iterator().next();
+				if (CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
+					// Non-blocking retrieval: concurrent misses may share a single invocation
+					return cache.retrieve(key, () -> (CompletableFuture<?>) invokeOperation(invoker));
+				}
+				ReactiveCachingHandler reactiveCachingHandler = getReactiveCachingHandler();
+				ReactiveAdapter adapter = (reactiveCachingHandler != null ?
+						reactiveCachingHandler.getAdapter(method) : null);
+				if (adapter != null) {
+					return reactiveCachingHandler.executeSynchronized(invoker, adapter, cache, key);
+				}
+				if (contexts.isRefreshable()) {
+					// Serve an existing entry first, refreshing it through a proxy re-invocation
+					// if due: the value loader below is bound to the current invocation.
+					Cache.ValueWrapper cacheHit = findInCaches(context, key, invoker);
+					if (cacheHit != null) {
+						return wrapCacheValue(method, cacheHit.get());
+					}
+				}
 				try {
 					return wrapCacheValue(method, cache.get(key, () -> unwrapReturnValue(invokeOperation(invoker))));
 				}
 				catch (Cache.ValueRetrievalException ex) {
 					// The invoker wraps any Throwable in a ThrowableWrapper instance so we
 					// can just make sure that one bubbles up the stack.
-					throw (CacheOperationInvoker.ThrowableWrapper) ex.getCause();
+					Throwable cause = ex.getCause();
+					if (cause instanceof CacheOperationInvoker.ThrowableWrapper) {
+						throw (CacheOperationInvoker.ThrowableWrapper) cause;
+					}
+					throw new CacheOperationInvoker.ThrowableWrapper(cause != null ? cause : ex);
 				}
 			}
 			else {
@@ -392,13 +430,34 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			}
 		}
 
+		// Special handling of multi-key invocation
+		if (contexts.isMultiKey()) {
+			CacheOperationContext context = contexts.get(CacheableOperation.class).iterator().next();
+			if (isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
+				return executeMultiKey(invoker, method, context);
+			}
+			else {
+				// No caching required, only call the underlying method
+				return invokeOperation(invoker);
+			}
+		}
+
 
 		// Process any early evictions
 		processCacheEvicts(contexts.get(CacheEvictOperation.class), true,
 				CacheOperationExpressionEvaluator.NO_RESULT);
 
+		// Special handling of reactive return types, operating on the emitted value(s)
+		ReactiveCachingHandler reactiveCachingHandler = getReactiveCachingHandler();
+		ReactiveAdapter adapter = (reactiveCachingHandler != null ?
+				reactiveCachingHandler.getAdapter(method) : null);
+		if (adapter != null) {
+			return reactiveCachingHandler.execute(invoker, adapter, contexts);
+		}
+
 		// Check if we have a cached item matching the conditions
-		Cache.ValueWrapper cacheHit = findCachedItem(contexts.get(CacheableOperation.class));
+		Cache.ValueWrapper cacheHit = findCachedItem(contexts.get(CacheableOperation.class),
+				(contexts.isRefreshable() ? invoker : null));
 
 		// Collect puts from any @Cacheable miss, if no cached item is found
 		List<CachePutRequest> cachePutRequests = new LinkedList<>();
@@ -435,6 +494,86 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return returnValue;
 	}
 
+	@Nullable
+	private Object executeMultiKey(CacheOperationInvoker invoker, Method method, CacheOperationContext context) {
+		Object[] args = context.getArgs();
+		int keysIndex = findMultiKeyParameterIndex(method);
+		Collection<?> keys = (Collection<?>) args[keysIndex];
+		if (CollectionUtils.isEmpty(keys)) {
+			return invokeOperation(invoker);
+		}
+
+		Cache cache = context.getCaches().iterator().next();
+		Map<Object, Cache.ValueWrapper> cachedValues = cache.getAll(keys);
+		Map<?, ?> loadedValues = null;
+		if (cachedValues.size() < keys.size()) {
+			Collection<Object> missingKeys =
+					CollectionFactory.createApproximateCollection(keys, keys.size() - cachedValues.size());
+			for (Object key : keys) {
+				if (!cachedValues.containsKey(key)) {
+					missingKeys.add(key);
+				}
+			}
+			if (!missingKeys.isEmpty()) {
+				if (logger.isTraceEnabled()) {
+					logger.trace(missingKeys.size() + " of " + keys.size() + " keys not found in cache '" +
+							cache.getName() + "' for operation " + context.getOperation());
+				}
+				// Invoke the method for the missing keys only (effective for proxy-based invocations)
+				args[keysIndex] = missingKeys;
+				try {
+					loadedValues = (Map<?, ?>) invokeOperation(invoker);
+				}
+				finally {
+					args[keysIndex] = keys;
+				}
+				if (!CollectionUtils.isEmpty(loadedValues)) {
+					cache.putAll(loadedValues);
+				}
+			}
+		}
+
+		Map<Object, Object> result = CollectionFactory.createMap(method.getReturnType(), keys.size());
+		for (Object key : keys) {
+			Cache.ValueWrapper cachedValue = cachedValues.get(key);
+			if (cachedValue != null) {
+				result.put(key, cachedValue.get());
+			}
+			else if (loadedValues != null && loadedValues.containsKey(key)) {
+				result.put(key, loadedValues.get(key));
+			}
+		}
+		return result;
+	}
+
+	private static int findMultiKeyParameterIndex(Method method) {
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (Collection.class.isAssignableFrom(parameterTypes[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Return the handler for reactive return types, lazily creating it
+	 * on first use (also after deserialization of this aspect).
+	 * @return the handler, or {@code null} if Reactor is not present
+	 */
+	@Nullable
+	private ReactiveCachingHandler getReactiveCachingHandler() {
+		if (!reactorPresent) {
+			return null;
+		}
+		ReactiveCachingHandler handler = this.reactiveCachingHandler;
+		if (handler == null) {
+			handler = new ReactiveCachingHandler();
+			this.reactiveCachingHandler = handler;
+		}
+		return handler;
+	}
+
 	@Nullable
 	private Object wrapCacheValue(Method method, @Nullable Object cacheValue) {
 		if (method.getReturnType() == Optional.class &&
@@ -507,16 +646,20 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	/**
 	 * Find a cached item only for {@link CacheableOperation} that passes the condition.
 	 * @param contexts the cacheable operations
+	 * @param invoker the invoker of the current operation, if a cached item
+	 * which is due for refresh may be refreshed through it
 	 * @return a {@link Cache.ValueWrapper} holding the cached item,
 	 * or {@code null} if none is found
 	 */
 	@Nullable
-	private Cache.ValueWrapper findCachedItem(Collection<CacheOperationContext> contexts) {
+	private Cache.ValueWrapper findCachedItem(
+			Collection<CacheOperationContext> contexts, @Nullable CacheOperationInvoker invoker) {
+
 		Object result = CacheOperationExpressionEvaluator.NO_RESULT;
 		for (CacheOperationContext context : contexts) {
 			if (isConditionPassing(context, result)) {
 				Object key = generateKey(context, result);
-				Cache.ValueWrapper cached = findInCaches(context, key);
+				Cache.ValueWrapper cached = findInCaches(context, key, invoker);
 				if (cached != null) {
 					return cached;
 				}
@@ -549,10 +692,15 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	}
 
 	@Nullable
-	private Cache.ValueWrapper findInCaches(CacheOperationContext context, Object key) {
+	private Cache.ValueWrapper findInCaches(
+			CacheOperationContext context, Object key, @Nullable CacheOperationInvoker invoker) {
+
 		for (Cache cache : context.getCaches()) {
 			Cache.ValueWrapper wrapper = doGet(cache, key);
 			if (wrapper != null) {
+				if (invoker != null && wrapper instanceof Cache.RefreshableValueWrapper) {
+					refreshCachedItem((Cache.RefreshableValueWrapper) wrapper, invoker);
+				}
 				if (logger.isTraceEnabled()) {
 					logger.trace("Cache entry for key '" + key + "' found in cache '" + cache.getName() + "'");
 				}
@@ -562,6 +710,21 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return null;
 	}
 
+	/**
+	 * Trigger the refresh of a cached item which is due for refresh, through a
+	 * {@link CacheOperationInvoker#createRefreshInvoker() refresh invoker} derived
+	 * from the current invoker. Cached items are simply not refreshed if the
+	 * current invoker does not support re-invocation.
+	 * <p>Note that the refresh invoker is typically called on a different thread,
+	 * without any thread-bound context of the current caller.
+	 */
+	private void refreshCachedItem(Cache.RefreshableValueWrapper cacheHit, CacheOperationInvoker invoker) {
+		CacheOperationInvoker refreshInvoker = invoker.createRefreshInvoker();
+		if (refreshInvoker != null) {
+			cacheHit.refresh(() -> unwrapReturnValue(refreshInvoker.invoke()));
+		}
+	}
+
 	private boolean isConditionPassing(CacheOperationContext context, @Nullable Object result) {
 		boolean passing = context.isConditionPassing(result);
 		if (!passing && logger.isTraceEnabled()) {
@@ -590,6 +753,10 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final boolean sync;
 
+		private final boolean multiKey;
+
+		private final boolean refreshable;
+
 		public CacheOperationContexts(Collection<? extends CacheOperation> operations, Method method,
 				Object[] args, Object target, Class<?> targetClass) {
 
@@ -598,6 +765,8 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 				this.contexts.add(op.getClass(), getOperationContext(op, method, args, target, targetClass));
 			}
 			this.sync = determineSyncFlag(method);
+			this.multiKey = determineMultiKeyFlag(method);
+			this.refreshable = determineRefreshableFlag();
 		}
 
 		public Collection<CacheOperationContext> get(Class<? extends CacheOperation> operationClass) {
@@ -609,6 +778,20 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			return this.sync;
 		}
 
+		public boolean isMultiKey() {
+			return this.multiKey;
+		}
+
+		/**
+		 * Return whether a cache hit may be refreshed through the method invocation,
+		 * i.e. whether the invocation is not needed for any other purpose: a single
+		 * {@code @Cacheable} operation on a single cache, with no {@code unless}
+		 * condition and no other cache operations (puts or evictions) to be performed.
+		 */
+		public boolean isRefreshable() {
+			return this.refreshable;
+		}
+
 		private boolean determineSyncFlag(Method method) {
 			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
 			if (cacheOperationContexts == null) {  // no @Cacheable operation at all
@@ -644,6 +827,56 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			}
 			return false;
 		}
+
+		private boolean determineRefreshableFlag() {
+			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
+			if (cacheOperationContexts == null || cacheOperationContexts.size() > 1 || this.contexts.size() > 1) {
+				return false;
+			}
+			CacheOperationContext cacheOperationContext = cacheOperationContexts.get(0);
+			return (cacheOperationContext.getCaches().size() == 1 &&
+					!StringUtils.hasText(((CacheableOperation) cacheOperationContext.getOperation()).getUnless()));
+		}
+
+		private boolean determineMultiKeyFlag(Method method) {
+			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
+			if (cacheOperationContexts == null) {  // no @Cacheable operation at all
+				return false;
+			}
+			CacheOperationContext multiKeyContext = null;
+			for (CacheOperationContext cacheOperationContext : cacheOperationContexts) {
+				if (((CacheableOperation) cacheOperationContext.getOperation()).isMultiKey()) {
+					multiKeyContext = cacheOperationContext;
+					break;
+				}
+			}
+			if (multiKeyContext == null) {
+				return false;
+			}
+			if (this.contexts.size() > 1 || cacheOperationContexts.size() > 1) {
+				throw new IllegalStateException(
+						"@Cacheable(multiKey=true) cannot be combined with other cache operations on '" + method + "'");
+			}
+			CacheableOperation operation = (CacheableOperation) multiKeyContext.getOperation();
+			if (operation.isSync()) {
+				throw new IllegalStateException(
+						"@Cacheable(multiKey=true) cannot be combined with sync=true on '" + operation + "'");
+			}
+			if (multiKeyContext.getCaches().size() > 1) {
+				throw new IllegalStateException(
+						"@Cacheable(multiKey=true) only allows a single cache on '" + operation + "'");
+			}
+			if (StringUtils.hasText(operation.getKey()) || StringUtils.hasText(operation.getKeyGenerator()) ||
+					StringUtils.hasText(operation.getUnless())) {
+				throw new IllegalStateException("@Cacheable(multiKey=true) does not support key, " +
+						"keyGenerator and unless attributes on '" + operation + "'");
+			}
+			if (findMultiKeyParameterIndex(method) < 0 || !Map.class.isAssignableFrom(method.getReturnType())) {
+				throw new IllegalStateException("@Cacheable(multiKey=true) requires a Collection parameter " +
+						"and a Map return type on '" + method + "'");
+			}
+			return true;
+		}
 	}
 
 
@@ -667,6 +900,9 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final CacheResolver cacheResolver;
 
+		@Nullable
+		private volatile ResolvedCaches resolvedCaches;
+
 		public CacheOperationMetadata(CacheOperation operation, Method method, Class<?> targetClass,
 				KeyGenerator keyGenerator, CacheResolver cacheResolver) {
 
@@ -679,6 +915,66 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			this.keyGenerator = keyGenerator;
 			this.cacheResolver = cacheResolver;
 		}
+
+		/**
+		 * Return the {@link StableCacheManager} behind a plain {@link SimpleCacheResolver},
+		 * if any: the resolved caches then only depend on the operation's cache names
+		 * and remain valid for as long as the manager's cache generation is the same.
+		 */
+		@Nullable
+		private StableCacheManager getStableCacheManager() {
+			if (this.cacheResolver.getClass() == SimpleCacheResolver.class) {
+				CacheManager cacheManager = ((SimpleCacheResolver) this.cacheResolver).getCacheManager();
+				if (cacheManager instanceof StableCacheManager) {
+					return (StableCacheManager) cacheManager;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Return the caches resolved for a previous invocation, if still current.
+		 */
+		@Nullable
+		private ResolvedCaches getResolvedCaches(@Nullable StableCacheManager cacheManager) {
+			ResolvedCaches resolvedCaches = this.resolvedCaches;
+			return (resolvedCaches != null && resolvedCaches.isCurrent(cacheManager) ? resolvedCaches : null);
+		}
+	}
+
+
+	/**
+	 * Holder for the caches resolved for an operation, along with their names
+	 * and the cache generation of the {@link StableCacheManager} they came from.
+	 */
+	private static final class ResolvedCaches {
+
+		private final Collection<? extends Cache> caches;
+
+		private final Collection<String> cacheNames;
+
+		@Nullable
+		private final StableCacheManager cacheManager;
+
+		private final long cacheGeneration;
+
+		public ResolvedCaches(Collection<? extends Cache> caches,
+				@Nullable StableCacheManager cacheManager, long cacheGeneration) {
+
+			List<String> cacheNames = new ArrayList<>(caches.size());
+			for (Cache cache : caches) {
+				cacheNames.add(cache.getName());
+			}
+			this.caches = Collections.unmodifiableCollection(caches);
+			this.cacheNames = Collections.unmodifiableList(cacheNames);
+			this.cacheManager = cacheManager;
+			this.cacheGeneration = cacheGeneration;
+		}
+
+		public boolean isCurrent(@Nullable StableCacheManager cacheManager) {
+			return (cacheManager != null && cacheManager == this.cacheManager &&
+					cacheManager.getCacheGeneration() == this.cacheGeneration);
+		}
 	}
 
 
@@ -704,8 +1000,20 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			this.metadata = metadata;
 			this.args = extractArgs(metadata.method, args);
 			this.target = target;
-			this.caches = CacheAspectSupport.this.getCaches(this, metadata.cacheResolver);
-			this.cacheNames = createCacheNames(this.caches);
+			StableCacheManager cacheManager = metadata.getStableCacheManager();
+			ResolvedCaches resolvedCaches = metadata.getResolvedCaches(cacheManager);
+			if (resolvedCaches == null) {
+				// Determine the generation upfront, so that concurrent re-initialization
+				// leads to another resolution attempt on the next invocation
+				long cacheGeneration = (cacheManager != null ? cacheManager.getCacheGeneration() : 0);
+				resolvedCaches = new ResolvedCaches(CacheAspectSupport.this.getCaches(this, metadata.cacheResolver),
+						cacheManager, cacheGeneration);
+				if (cacheManager != null) {
+					metadata.resolvedCaches = resolvedCaches;
+				}
+			}
+			this.caches = resolvedCaches.caches;
+			this.cacheNames = resolvedCaches.cacheNames;
 		}
 
 		@Override
@@ -792,14 +1100,6 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		protected Collection<String> getCacheNames() {
 			return this.cacheNames;
 		}
-
-		private Collection<String> createCacheNames(Collection<? extends Cache> caches) {
-			Collection<String> names = new ArrayList<>();
-			for (Cache cache : caches) {
-				names.add(cache.getName());
-			}
-			return names;
-		}
 	}
 
 
@@ -824,6 +1124,158 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	}
 
 
+	/**
+	 * Inner class to avoid a hard dependency on the Reactive Streams API at runtime.
+	 * Caches the value emitted by a single-value publisher, or the (non-empty) list
+	 * of values emitted by a multi-value publisher, instead of the publisher itself.
+	 * Only applies to Reactive Streams {@link Publisher} return types such as
+	 * {@link Mono} and {@link Flux}; other asynchronous return types such as
+	 * {@link CompletableFuture} are cached as returned, unless declared with
+	 * {@code @Cacheable(sync = true)}.
+	 * <p>The underlying method is invoked at most once per method call, with
+	 * repeated subscriptions to the returned publisher (e.g. on retry) performing
+	 * their own cache lookup but otherwise resubscribing to the publisher returned
+	 * from that single invocation.
+	 */
+	private class ReactiveCachingHandler {
+
+		private final ReactiveAdapterRegistry registry = ReactiveAdapterRegistry.getSharedInstance();
+
+		private final Map<Class<?>, Optional<ReactiveAdapter>> adapterCache = new ConcurrentHashMap<>(16);
+
+		/**
+		 * Return the adapter for the return type of the given method,
+		 * or {@code null} if the return type is not a reactive type.
+		 */
+		@Nullable
+		public ReactiveAdapter getAdapter(Method method) {
+			return this.adapterCache.computeIfAbsent(method.getReturnType(),
+					returnType -> Optional.ofNullable(Publisher.class.isAssignableFrom(returnType) ?
+							this.registry.getAdapter(returnType) : null)).orElse(null);
+		}
+
+		/**
+		 * Execute a {@code @Cacheable(sync = true)} operation for a reactive
+		 * return type: concurrent subscribers may share a single invocation,
+		 * depending on the {@link Cache#retrieve(Object, Supplier)} implementation.
+		 * An empty result fails the retrieval, keeping the cache from storing it.
+		 */
+		public Object executeSynchronized(
+				CacheOperationInvoker invoker, ReactiveAdapter adapter, Cache cache, Object key) {
+
+			Mono<Object> returnValue = invokeOnce(invoker);
+			return adaptResult(() -> cache.retrieve(key, () -> toFuture(returnValue, adapter).thenApply(value -> {
+				if (value == null) {
+					throw new EmptyResultException();
+				}
+				return value;
+			})), adapter);
+		}
+
+		/**
+		 * Execute the given cache operations for a reactive return type, looking up
+		 * cached values in a non-blocking fashion and processing puts and late evictions
+		 * once the value has been emitted, for each subscription to the returned publisher.
+		 */
+		public Object execute(CacheOperationInvoker invoker, ReactiveAdapter adapter, CacheOperationContexts contexts) {
+			Mono<Object> returnValue = invokeOnce(invoker);
+			return adaptResult(() -> findCachedItem(contexts.get(CacheableOperation.class)).thenCompose(cacheHit -> {
+				List<CachePutRequest> cachePutRequests = new LinkedList<>();
+				if (cacheHit == null) {
+					collectPutRequests(contexts.get(CacheableOperation.class),
+							CacheOperationExpressionEvaluator.NO_RESULT, cachePutRequests);
+				}
+				CompletableFuture<Object> cacheValue = (cacheHit != null && !hasCachePut(contexts) ?
+						CompletableFuture.completedFuture(cacheHit.get()) : toFuture(returnValue, adapter));
+				return cacheValue.thenApply(value -> {
+					if (value != null) {
+						collectPutRequests(contexts.get(CachePutOperation.class), value, cachePutRequests);
+						for (CachePutRequest cachePutRequest : cachePutRequests) {
+							cachePutRequest.apply(value);
+						}
+					}
+					processCacheEvicts(contexts.get(CacheEvictOperation.class), false, value);
+					return value;
+				});
+			}), adapter);
+		}
+
+		private CompletableFuture<Cache.ValueWrapper> findCachedItem(Collection<CacheOperationContext> contexts) {
+			CompletableFuture<Cache.ValueWrapper> result = CompletableFuture.completedFuture(null);
+			for (CacheOperationContext context : contexts) {
+				if (isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
+					Object key = generateKey(context, CacheOperationExpressionEvaluator.NO_RESULT);
+					for (Cache cache : context.getCaches()) {
+						result = result.thenCompose(cacheHit ->
+								(cacheHit != null ? CompletableFuture.completedFuture(cacheHit) : doRetrieve(cache, key)));
+					}
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Invoke the underlying method on first subscription only, replaying its
+		 * return value (or failure) to any subsequent subscription.
+		 */
+		private Mono<Object> invokeOnce(CacheOperationInvoker invoker) {
+			return Mono.<Object>fromSupplier(() -> invokeOperation(invoker)).cache();
+		}
+
+		private CompletableFuture<Object> toFuture(Mono<Object> returnValue, ReactiveAdapter adapter) {
+			return returnValue.flatMap(value -> {
+				Publisher<?> publisher = adapter.toPublisher(value);
+				if (adapter.isMultiValue()) {
+					// An empty list is not cached, just like an empty single-value publisher
+					return Flux.<Object>from(publisher).collectList()
+							.filter(list -> !list.isEmpty()).<Object>map(list -> list);
+				}
+				return Mono.<Object>from(publisher);
+			}).toFuture();
+		}
+
+		private Object adaptResult(Supplier<CompletableFuture<?>> resultSupplier, ReactiveAdapter adapter) {
+			Mono<Object> mono = Mono.<Object>defer(() -> Mono.fromFuture(resultSupplier.get()))
+					.onErrorMap(this::isWrapped, this::unwrap)
+					.onErrorResume(EmptyResultException.class, ex -> Mono.empty());
+			if (adapter.isMultiValue()) {
+				return adapter.fromPublisher(mono.flatMapIterable(list -> (List<?>) list));
+			}
+			return adapter.fromPublisher(mono);
+		}
+
+		private boolean isWrapped(Throwable ex) {
+			return (ex instanceof CompletionException || ex instanceof CacheOperationInvoker.ThrowableWrapper);
+		}
+
+		private Throwable unwrap(Throwable ex) {
+			Throwable cause = ex;
+			while (isWrapped(cause)) {
+				Throwable nested = (cause instanceof CacheOperationInvoker.ThrowableWrapper ?
+						((CacheOperationInvoker.ThrowableWrapper) cause).getOriginal() : cause.getCause());
+				if (nested == null) {
+					break;
+				}
+				cause = nested;
+			}
+			return cause;
+		}
+	}
+
+
+	/**
+	 * Signals an empty reactive result within a {@link Cache#retrieve(Object, Supplier)}
+	 * call, which would otherwise store a {@code null} value (or reject it).
+	 */
+	@SuppressWarnings("serial")
+	private static class EmptyResultException extends RuntimeException {
+
+		EmptyResultException() {
+			super("Empty result", null, false, false);
+		}
+	}
+
+
 	private static final class CacheOperationCacheKey implements Comparable<CacheOperationCacheKey> {
 
 		private final CacheOperation cacheOperation;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,9 @@ import java.lang.reflect.Method;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.lang.Nullable;
 
 /**
@@ -34,6 +37,12 @@ import org.springframework.lang.Nullable;
  * CacheInterceptor simply calls the relevant superclass methods
  * in the correct order.
  *
+ * <p>Cached values which are due for refresh (see
+ * {@link org.springframework.cache.support.RefreshAheadCacheDecorator})
+ * get refreshed through a fresh invocation of the method on the proxy,
+ * passing through all interceptors in the chain again, but bypassing the
+ * cache lookup of this interceptor.
+ *
  * <p>CacheInterceptors are thread-safe.
  *
  * @author Costin Leau
@@ -43,19 +52,24 @@ import org.springframework.lang.Nullable;
 @SuppressWarnings("serial")
 public class CacheInterceptor extends CacheAspectSupport implements MethodInterceptor, Serializable {
 
+	private static final ThreadLocal<Method> currentRefreshMethod =
+			new NamedThreadLocal<>("Current cache refresh method");
+
+
 	@Override
 	@Nullable
 	public Object invoke(final MethodInvocation invocation) throws Throwable {
 		Method method = invocation.getMethod();
 
-		CacheOperationInvoker aopAllianceInvoker = () -> {
-			try {
-				return invocation.proceed();
-			}
-			catch (Throwable ex) {
-				throw new CacheOperationInvoker.ThrowableWrapper(ex);
-			}
-		};
+		Method refreshMethod = currentRefreshMethod.get();
+		if (refreshMethod != null && refreshMethod.equals(method)) {
+			// Refresh of a cached value: simply invoke the method, with the
+			// cache which triggered the refresh storing the returned value
+			currentRefreshMethod.remove();
+			return invocation.proceed();
+		}
+
+		CacheOperationInvoker aopAllianceInvoker = new MethodInvocationInvoker(invocation);
 
 		try {
 			return execute(aopAllianceInvoker, invocation.getThis(), method, invocation.getArguments());
@@ -65,4 +79,51 @@ public class CacheInterceptor extends CacheAspectSupport implements MethodInterc
 		}
 	}
 
+
+	/**
+	 * {@link CacheOperationInvoker} for an AOP Alliance {@link MethodInvocation},
+	 * re-invoking the method on the proxy for a refresh.
+	 */
+	private static class MethodInvocationInvoker implements CacheOperationInvoker {
+
+		private final MethodInvocation invocation;
+
+		public MethodInvocationInvoker(MethodInvocation invocation) {
+			this.invocation = invocation;
+		}
+
+		@Override
+		public Object invoke() {
+			try {
+				return this.invocation.proceed();
+			}
+			catch (Throwable ex) {
+				throw new ThrowableWrapper(ex);
+			}
+		}
+
+		@Override
+		@Nullable
+		public CacheOperationInvoker createRefreshInvoker() {
+			if (!(this.invocation instanceof ProxyMethodInvocation)) {
+				return null;
+			}
+			Object proxy = ((ProxyMethodInvocation) this.invocation).getProxy();
+			Method method = this.invocation.getMethod();
+			Object[] args = this.invocation.getArguments().clone();
+			return () -> {
+				currentRefreshMethod.set(method);
+				try {
+					return AopUtils.invokeJoinpointUsingReflection(proxy, method, args);
+				}
+				catch (Throwable ex) {
+					throw new ThrowableWrapper(ex);
+				}
+				finally {
+					currentRefreshMethod.remove();
+				}
+			};
+		}
+	}
+
 }
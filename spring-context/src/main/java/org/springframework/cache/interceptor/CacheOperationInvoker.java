@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.cache.interceptor;
 
+import org.springframework.lang.Nullable;
+
 /**
  * Abstract the invocation of a cache operation.
  *
@@ -38,6 +40,21 @@ public interface CacheOperationInvoker {
 	 */
 	Object invoke() throws ThrowableWrapper;
 
+	/**
+	 * Create an invoker for invoking the cache operation once more at a later
+	 * point, independent from the current invocation: e.g. for refreshing a
+	 * cached value in the background, on a different thread and therefore
+	 * without any thread-bound context of the current caller.
+	 * <p>The default implementation returns {@code null}, indicating that
+	 * re-invocation is not supported.
+	 * @return the new invoker, or {@code null} if not supported
+	 * @since 5.2.3
+	 */
+	@Nullable
+	default CacheOperationInvoker createRefreshInvoker() {
+		return null;
+	}
+
 
 	/**
 	 * Wrap any exception thrown while invoking {@link #invoke()}.
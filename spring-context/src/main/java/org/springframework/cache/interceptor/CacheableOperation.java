@@ -33,6 +33,8 @@ public class CacheableOperation extends CacheOperation {
 
 	private final boolean sync;
 
+	private final boolean multiKey;
+
 
 	/**
 	 * Create a new {@link CacheableOperation} instance from the given builder.
@@ -42,6 +44,7 @@ public class CacheableOperation extends CacheOperation {
 		super(b);
 		this.unless = b.unless;
 		this.sync = b.sync;
+		this.multiKey = b.multiKey;
 	}
 
 
@@ -54,6 +57,15 @@ public class CacheableOperation extends CacheOperation {
 		return this.sync;
 	}
 
+	/**
+	 * Return whether this operation caches the elements of a collection
+	 * of keys individually.
+	 * @since 5.2.3
+	 */
+	public boolean isMultiKey() {
+		return this.multiKey;
+	}
+
 
 	/**
 	 * A builder that can be used to create a {@link CacheableOperation}.
@@ -66,6 +78,8 @@ public class CacheableOperation extends CacheOperation {
 
 		private boolean sync;
 
+		private boolean multiKey;
+
 		public void setUnless(String unless) {
 			this.unless = unless;
 		}
@@ -74,6 +88,10 @@ public class CacheableOperation extends CacheOperation {
 			this.sync = sync;
 		}
 
+		public void setMultiKey(boolean multiKey) {
+			this.multiKey = multiKey;
+		}
+
 		@Override
 		protected StringBuilder getOperationDescription() {
 			StringBuilder sb = super.getOperationDescription();
@@ -83,6 +101,9 @@ public class CacheableOperation extends CacheOperation {
 			sb.append(" | sync='");
 			sb.append(this.sync);
 			sb.append("'");
+			if (this.multiKey) {
+				sb.append(" | multiKey='true'");
+			}
 			return sb;
 		}
 
@@ -32,17 +32,24 @@ import org.springframework.lang.Nullable;
  * Abstract base class implementing the common {@link CacheManager} methods.
  * Useful for 'static' environments where the backing caches do not change.
  *
+ * <p>As a {@link StableCacheManager}, this manager returns the same {@link Cache}
+ * instance for a given name until {@link #initializeCaches()} is called again.
+ * Subclasses which override {@link #getCache(String)} need to preserve that
+ * contract, or override {@link #getCacheGeneration()} accordingly.
+ *
  * @author Costin Leau
  * @author Juergen Hoeller
  * @author Stephane Nicoll
  * @since 3.1
  */
-public abstract class AbstractCacheManager implements CacheManager, InitializingBean {
+public abstract class AbstractCacheManager implements StableCacheManager, InitializingBean {
 
 	private final ConcurrentMap<String, Cache> cacheMap = new ConcurrentHashMap<>(16);
 
 	private volatile Set<String> cacheNames = Collections.emptySet();
 
+	private volatile long cacheGeneration;
+
 
 	// Early cache initialization on startup
 
@@ -71,6 +78,7 @@ public abstract class AbstractCacheManager implements CacheManager, Initializing
 				cacheNames.add(name);
 			}
 			this.cacheNames = Collections.unmodifiableSet(cacheNames);
+			this.cacheGeneration++;
 		}
 	}
 
@@ -109,6 +117,11 @@ public abstract class AbstractCacheManager implements CacheManager, Initializing
 		return cache;
 	}
 
+	@Override
+	public long getCacheGeneration() {
+		return this.cacheGeneration;
+	}
+
 	@Override
 	public Collection<String> getCacheNames() {
 		return this.cacheNames;
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.function.Consumer;
+
+/**
+ * Strategy for propagating {@link CacheInvalidation} notices between
+ * {@link NearCacheManager} instances, typically across JVMs.
+ *
+ * <p>Implementations may be backed by any messaging infrastructure, e.g. a
+ * {@code SubscribableChannel} from Spring's messaging abstraction with
+ * {@code CacheInvalidation} payloads or a publish-subscribe JMS topic.
+ * {@link SimpleCacheInvalidationChannel} is an in-JVM implementation.
+ *
+ * <p>Delivery is expected to reach all subscribers, including the publishing
+ * side which ignores its own notices. Lost notices lead to stale local
+ * entries until they expire from the local tier.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see NearCacheManager
+ * @see SimpleCacheInvalidationChannel
+ */
+public interface CacheInvalidationChannel {
+
+	/**
+	 * Publish the given invalidation notice to all subscribers.
+	 * @param invalidation the invalidation notice
+	 */
+	void publish(CacheInvalidation invalidation);
+
+	/**
+	 * Register a subscriber for invalidation notices.
+	 * @param subscriber the callback to invoke for each notice
+	 */
+	void subscribe(Consumer<CacheInvalidation> subscriber);
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.BoundedConcurrentMapCache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Two-tier {@link Cache} decorator, serving entries from a bounded local
+ * in-process tier and falling back to a (typically remote) target cache.
+ * Modifications go to the target cache and are propagated to other
+ * {@link NearCacheManager} instances through a {@link CacheInvalidationChannel},
+ * evicting the affected entries from their local tiers.
+ *
+ * <p>Usually obtained from a {@link NearCacheManager}.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see NearCacheManager
+ */
+public class NearCache implements Cache {
+
+	private final Cache targetCache;
+
+	private final BoundedConcurrentMapCache localCache;
+
+	private final CacheInvalidationChannel invalidationChannel;
+
+	private final String origin;
+
+	private final AtomicLong invalidationCount = new AtomicLong();
+
+
+	/**
+	 * Create a new NearCache for the given target Cache.
+	 * @param targetCache the target Cache to decorate
+	 * @param localCache the local tier to serve entries from
+	 * @param invalidationChannel the channel to publish invalidations to
+	 * @param origin the identifier to publish invalidations with
+	 */
+	public NearCache(Cache targetCache, BoundedConcurrentMapCache localCache,
+			CacheInvalidationChannel invalidationChannel, String origin) {
+
+		Assert.notNull(targetCache, "Target Cache must not be null");
+		Assert.notNull(localCache, "Local Cache must not be null");
+		Assert.notNull(invalidationChannel, "CacheInvalidationChannel must not be null");
+		Assert.notNull(origin, "Origin must not be null");
+		this.targetCache = targetCache;
+		this.localCache = localCache;
+		this.invalidationChannel = invalidationChannel;
+		this.origin = origin;
+	}
+
+
+	/**
+	 * Return the target Cache that this Cache delegates to.
+	 */
+	public Cache getTargetCache() {
+		return this.targetCache;
+	}
+
+	/**
+	 * Return the local tier of this Cache, e.g. for access to its statistics.
+	 */
+	public BoundedConcurrentMapCache getLocalCache() {
+		return this.localCache;
+	}
+
+	@Override
+	public String getName() {
+		return this.targetCache.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return this.targetCache.getNativeCache();
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper get(Object key) {
+		ValueWrapper localValue = this.localCache.get(key);
+		if (localValue != null) {
+			return localValue;
+		}
+		long invalidations = this.invalidationCount.get();
+		ValueWrapper targetValue = this.targetCache.get(key);
+		if (targetValue != null) {
+			putLocal(key, targetValue.get(), invalidations);
+		}
+		return targetValue;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, @Nullable Class<T> type) {
+		ValueWrapper wrapper = get(key);
+		Object value = (wrapper != null ? wrapper.get() : null);
+		if (value != null && type != null && !type.isInstance(value)) {
+			throw new IllegalStateException(
+					"Cached value is not of required type [" + type.getName() + "]: " + value);
+		}
+		return (T) value;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper localValue = this.localCache.get(key);
+		if (localValue != null) {
+			return (T) localValue.get();
+		}
+		long invalidations = this.invalidationCount.get();
+		T value = this.targetCache.get(key, valueLoader);
+		putLocal(key, value, invalidations);
+		return value;
+	}
+
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> localValues = this.localCache.getAll(keys);
+		if (localValues.size() == keys.size()) {
+			return localValues;
+		}
+		List<Object> missingKeys = new ArrayList<>(keys.size() - localValues.size());
+		for (Object key : keys) {
+			if (!localValues.containsKey(key)) {
+				missingKeys.add(key);
+			}
+		}
+		long invalidations = this.invalidationCount.get();
+		Map<Object, ValueWrapper> targetValues = this.targetCache.getAll(missingKeys);
+		targetValues.forEach((key, value) -> putLocal(key, value.get(), invalidations));
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(keys.size());
+		for (Object key : keys) {
+			ValueWrapper value = localValues.get(key);
+			if (value == null) {
+				value = targetValues.get(key);
+			}
+			if (value != null) {
+				result.put(key, value);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		this.invalidationCount.incrementAndGet();
+		this.targetCache.put(key, value);
+		this.localCache.put(key, value);
+		publish(key);
+	}
+
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		this.invalidationCount.incrementAndGet();
+		this.targetCache.putAll(entries);
+		this.localCache.putAll(entries);
+		entries.keySet().forEach(this::publish);
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		evictLocal(key);
+		ValueWrapper existingValue = this.targetCache.putIfAbsent(key, value);
+		publish(key);
+		return existingValue;
+	}
+
+	@Override
+	public void evict(Object key) {
+		evictLocal(key);
+		this.targetCache.evict(key);
+		publish(key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		evictLocal(key);
+		boolean evicted = this.targetCache.evictIfPresent(key);
+		publish(key);
+		return evicted;
+	}
+
+	@Override
+	public void evictAll(Collection<?> keys) {
+		this.invalidationCount.incrementAndGet();
+		this.localCache.evictAll(keys);
+		this.targetCache.evictAll(keys);
+		keys.forEach(this::publish);
+	}
+
+	@Override
+	public void clear() {
+		clearLocal();
+		this.targetCache.clear();
+		publish(null);
+	}
+
+	@Override
+	public boolean invalidate() {
+		clearLocal();
+		boolean invalidated = this.targetCache.invalidate();
+		publish(null);
+		return invalidated;
+	}
+
+
+	/**
+	 * Evict the given key from the local tier only, e.g. in response
+	 * to an invalidation notice from another cache manager.
+	 * @param key the key to evict
+	 */
+	public void evictLocal(Object key) {
+		this.invalidationCount.incrementAndGet();
+		this.localCache.evict(key);
+	}
+
+	/**
+	 * Clear the local tier only, e.g. in response to an
+	 * invalidation notice from another cache manager.
+	 */
+	public void clearLocal() {
+		this.invalidationCount.incrementAndGet();
+		this.localCache.clear();
+	}
+
+	private void putLocal(Object key, @Nullable Object value, long invalidations) {
+		this.localCache.put(key, value);
+		// An invalidation may have raced with our target cache read: drop potentially stale value
+		if (this.invalidationCount.get() != invalidations) {
+			this.localCache.evict(key);
+		}
+	}
+
+	private void publish(@Nullable Object key) {
+		this.invalidationChannel.publish(new CacheInvalidation(this.origin, getName(), key));
+	}
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.BoundedConcurrentMapCache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link CacheManager} decorator which exposes two-tier {@link NearCache}
+ * instances for the caches of a target CacheManager: typically a remote cache
+ * provider, fronted by a bounded local tier for serving hot keys in-process.
+ *
+ * <p>Coherence between several instances (e.g. in a cluster of application
+ * servers sharing the same remote cache) is achieved through a pluggable
+ * {@link CacheInvalidationChannel}: each modification through one instance
+ * evicts the affected entries from the local tiers of all other instances.
+ * Since invalidation notices are delivered asynchronously in a distributed
+ * setup, a {@link #setLocalTimeToLive local time-to-live} is recommended
+ * for bounding the staleness of local entries in case of lost notices.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see NearCache
+ * @see CacheInvalidationChannel
+ */
+public class NearCacheManager implements CacheManager {
+
+	private final CacheManager targetCacheManager;
+
+	private final CacheInvalidationChannel invalidationChannel;
+
+	private final String origin = UUID.randomUUID().toString();
+
+	private final ConcurrentMap<String, NearCache> cacheMap = new ConcurrentHashMap<>(16);
+
+	private int localMaximumSize = 1000;
+
+	@Nullable
+	private Duration localTimeToLive;
+
+
+	/**
+	 * Create a new NearCacheManager for the given target CacheManager,
+	 * subscribing to the given channel for invalidation notices.
+	 * @param targetCacheManager the target CacheManager to decorate
+	 * @param invalidationChannel the channel for exchanging invalidation notices
+	 */
+	public NearCacheManager(CacheManager targetCacheManager, CacheInvalidationChannel invalidationChannel) {
+		Assert.notNull(targetCacheManager, "Target CacheManager must not be null");
+		Assert.notNull(invalidationChannel, "CacheInvalidationChannel must not be null");
+		this.targetCacheManager = targetCacheManager;
+		this.invalidationChannel = invalidationChannel;
+		invalidationChannel.subscribe(this::onInvalidation);
+	}
+
+
+	/**
+	 * Specify the maximum number of entries in the local tier of each cache.
+	 * <p>Default is 1000. Only affects caches created after this call.
+	 */
+	public void setLocalMaximumSize(int localMaximumSize) {
+		Assert.isTrue(localMaximumSize > 0, "Local maximum size must be greater than 0");
+		this.localMaximumSize = localMaximumSize;
+	}
+
+	/**
+	 * Specify the time after which an entry expires from the local tier
+	 * of each cache once written, bounding the staleness of local entries.
+	 * <p>Default is none. Must be positive if specified.
+	 * Only affects caches created after this call.
+	 */
+	public void setLocalTimeToLive(@Nullable Duration localTimeToLive) {
+		Assert.isTrue(localTimeToLive == null || (!localTimeToLive.isNegative() && !localTimeToLive.isZero()),
+				"Time-to-live must be positive");
+		this.localTimeToLive = localTimeToLive;
+	}
+
+	/**
+	 * Return the target CacheManager that this CacheManager delegates to.
+	 */
+	public CacheManager getTargetCacheManager() {
+		return this.targetCacheManager;
+	}
+
+	/**
+	 * Return the identifier that this CacheManager publishes invalidations with.
+	 */
+	public String getOrigin() {
+		return this.origin;
+	}
+
+
+	@Override
+	@Nullable
+	public Cache getCache(String name) {
+		Cache targetCache = this.targetCacheManager.getCache(name);
+		if (targetCache == null) {
+			return null;
+		}
+		NearCache cache = this.cacheMap.get(name);
+		if (cache != null && cache.getTargetCache() == targetCache) {
+			return cache;
+		}
+		// Target cache (re-)created: decorate it with a fresh local tier
+		return this.cacheMap.compute(name, (key, existing) ->
+				(existing != null && existing.getTargetCache() == targetCache ? existing : createNearCache(targetCache)));
+	}
+
+	@Override
+	public Collection<String> getCacheNames() {
+		return this.targetCacheManager.getCacheNames();
+	}
+
+	/**
+	 * Create a NearCache for the given target Cache.
+	 * @param targetCache the target Cache to decorate
+	 * @return the NearCache instance
+	 */
+	protected NearCache createNearCache(Cache targetCache) {
+		BoundedConcurrentMapCache localCache = new BoundedConcurrentMapCache(
+				targetCache.getName(), this.localMaximumSize, this.localTimeToLive, true);
+		return new NearCache(targetCache, localCache, this.invalidationChannel, this.origin);
+	}
+
+	/**
+	 * Apply the given invalidation notice to the local tier of the affected cache,
+	 * unless it originates from this CacheManager itself.
+	 * @param invalidation the invalidation notice
+	 */
+	protected void onInvalidation(CacheInvalidation invalidation) {
+		if (this.origin.equals(invalidation.getOrigin())) {
+			return;
+		}
+		NearCache cache = this.cacheMap.get(invalidation.getCacheName());
+		if (cache != null) {
+			Object key = invalidation.getKey();
+			if (key != null) {
+				cache.evictLocal(key);
+			}
+			else {
+				cache.clearLocal();
+			}
+		}
+	}
+
+}
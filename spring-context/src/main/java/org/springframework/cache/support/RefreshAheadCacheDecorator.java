@@ -0,0 +1,374 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cache.Cache;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Cache decorator which refreshes entries ahead of their expiration:
+ * once an entry is older than the configured refresh interval, the next
+ * access returns the current (stale) value right away while triggering
+ * a recomputation on the given {@link TaskExecutor}. Only a single refresh
+ * is in progress per key at any given time; a failed refresh leaves the
+ * current value in place, to be refreshed again on a subsequent access.
+ *
+ * <p>Refreshes are triggered through {@link #get(Object)}: an entry due for
+ * refresh is returned as a {@link org.springframework.cache.Cache.RefreshableValueWrapper},
+ * leaving it up to the caller to provide a loader which may safely be invoked
+ * on another thread (as done for {@code @Cacheable} methods, re-invoking them
+ * through their proxy). {@link #get(Object, Callable)} and
+ * {@link #retrieve(Object, Supplier)} serve stale values as-is, without
+ * refreshing them: Their value loaders are bound to the current invocation.
+ * Note that refreshes are performed on the refresh executor, outside of any
+ * thread-bound context (e.g. security context or request scope) of the caller
+ * which happened to trigger the refresh.
+ * The refresh interval is typically shorter than the expiration
+ * configured on the target cache itself, keeping hot entries from
+ * expiring while letting rarely accessed entries expire as usual.
+ *
+ * <p>An eviction of a key (including {@link #evictAll} and {@link #clear()})
+ * supersedes any refresh in progress for that key: The refreshed value is
+ * discarded rather than bringing the evicted entry back.
+ *
+ * <p>Values are stored in the target cache along with their write time.
+ * As a consequence, the target cache needs to be exclusively accessed
+ * through this decorator; values written to it directly are returned
+ * as-is but never refreshed. The same applies to {@code null} values.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see RefreshAheadCacheManager
+ */
+public class RefreshAheadCacheDecorator implements Cache {
+
+	private static final Log logger = LogFactory.getLog(RefreshAheadCacheDecorator.class);
+
+	private final Cache targetCache;
+
+	private final long refreshAfterMillis;
+
+	private final TaskExecutor refreshExecutor;
+
+	// Keys with a refresh in progress, along with a flag indicating their eviction
+	private final Map<Object, AtomicBoolean> refreshesInProgress = new ConcurrentHashMap<>();
+
+	private final LongAdder refreshSuccessCount = new LongAdder();
+
+	private final LongAdder refreshFailureCount = new LongAdder();
+
+
+	/**
+	 * Create a new RefreshAheadCacheDecorator for the given target Cache.
+	 * @param targetCache the target Cache to decorate
+	 * @param refreshAfter the age after which an entry is due for refresh
+	 * @param refreshExecutor the executor to perform refreshes on
+	 */
+	public RefreshAheadCacheDecorator(Cache targetCache, Duration refreshAfter, TaskExecutor refreshExecutor) {
+		Assert.notNull(targetCache, "Target Cache must not be null");
+		Assert.notNull(refreshAfter, "Refresh interval must not be null");
+		Assert.isTrue(!refreshAfter.isNegative(), "Refresh interval must not be negative");
+		Assert.notNull(refreshExecutor, "TaskExecutor must not be null");
+		this.targetCache = targetCache;
+		this.refreshAfterMillis = refreshAfter.toMillis();
+		this.refreshExecutor = refreshExecutor;
+	}
+
+
+	/**
+	 * Return the target Cache that this Cache delegates to.
+	 */
+	public Cache getTargetCache() {
+		return this.targetCache;
+	}
+
+	/**
+	 * Return the number of refreshes that completed successfully.
+	 */
+	public long getRefreshSuccessCount() {
+		return this.refreshSuccessCount.sum();
+	}
+
+	/**
+	 * Return the number of refreshes that failed, either in the refresh
+	 * loader or through rejection by the refresh executor.
+	 */
+	public long getRefreshFailureCount() {
+		return this.refreshFailureCount.sum();
+	}
+
+	/**
+	 * Return the number of refreshes currently in progress.
+	 */
+	public int getRefreshInProgressCount() {
+		return this.refreshesInProgress.size();
+	}
+
+	@Override
+	public String getName() {
+		return this.targetCache.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return this.targetCache.getNativeCache();
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper get(Object key) {
+		return toValueWrapper(key, this.targetCache.get(key));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, @Nullable Class<T> type) {
+		ValueWrapper wrapper = get(key);
+		Object value = (wrapper != null ? wrapper.get() : null);
+		if (value != null && type != null && !type.isInstance(value)) {
+			throw new IllegalStateException(
+					"Cached value is not of required type [" + type.getName() + "]: " + value);
+		}
+		return (T) value;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper existingValue = this.targetCache.get(key);
+		if (existingValue != null) {
+			return (T) fromStoreValue(existingValue.get());
+		}
+		return (T) fromStoreValue(this.targetCache.get(key, () -> toStoreValue(valueLoader.call())));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		ValueWrapper existingValue = this.targetCache.get(key);
+		if (existingValue != null) {
+			return CompletableFuture.completedFuture((T) fromStoreValue(existingValue.get()));
+		}
+		return this.targetCache.retrieve(key, () -> valueLoader.get().thenApply(this::toStoreValue))
+				.thenApply(storeValue -> (T) fromStoreValue(storeValue));
+	}
+
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> storeValues = this.targetCache.getAll(keys);
+		Map<Object, ValueWrapper> result = new LinkedHashMap<>(storeValues.size());
+		storeValues.forEach((key, value) -> result.put(key, toValueWrapper(key, value)));
+		return result;
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		this.targetCache.put(key, toStoreValue(value));
+	}
+
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		Map<Object, Object> storeEntries = new LinkedHashMap<>(entries.size());
+		entries.forEach((key, value) -> storeEntries.put(key, toStoreValue(value)));
+		this.targetCache.putAll(storeEntries);
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		ValueWrapper existingValue = this.targetCache.putIfAbsent(key, toStoreValue(value));
+		return (existingValue != null ? new SimpleValueWrapper(fromStoreValue(existingValue.get())) : null);
+	}
+
+	@Override
+	public void evict(Object key) {
+		markEvicted(key);
+		this.targetCache.evict(key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		markEvicted(key);
+		return this.targetCache.evictIfPresent(key);
+	}
+
+	@Override
+	public void evictAll(Collection<?> keys) {
+		keys.forEach(this::markEvicted);
+		this.targetCache.evictAll(keys);
+	}
+
+	@Override
+	public void clear() {
+		this.refreshesInProgress.values().forEach(evicted -> evicted.set(true));
+		this.targetCache.clear();
+	}
+
+	@Override
+	public boolean invalidate() {
+		this.refreshesInProgress.values().forEach(evicted -> evicted.set(true));
+		return this.targetCache.invalidate();
+	}
+
+
+	/**
+	 * Trigger a refresh of the given key on the refresh executor,
+	 * unless a refresh for the same key is in progress already.
+	 * @param key the key to refresh
+	 * @param refreshLoader the callback for recomputing the value
+	 */
+	protected void refresh(Object key, Callable<?> refreshLoader) {
+		AtomicBoolean evicted = new AtomicBoolean();
+		if (this.refreshesInProgress.putIfAbsent(key, evicted) != null) {
+			return;
+		}
+		try {
+			this.refreshExecutor.execute(() -> {
+				try {
+					Object storeValue = toStoreValue(refreshLoader.call());
+					if (evicted.get()) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Discarding refreshed cache entry for key '" + key + "' in cache '" +
+									getName() + "' since it has been evicted in the meantime");
+						}
+						return;
+					}
+					this.targetCache.put(key, storeValue);
+					if (evicted.get()) {
+						// Evicted concurrently with our put: make sure the eviction wins
+						this.targetCache.evict(key);
+					}
+					this.refreshSuccessCount.increment();
+				}
+				catch (Throwable ex) {
+					this.refreshFailureCount.increment();
+					if (logger.isWarnEnabled()) {
+						logger.warn("Failed to refresh cache entry for key '" + key + "' in cache '" +
+								getName() + "'", ex);
+					}
+				}
+				finally {
+					this.refreshesInProgress.remove(key, evicted);
+				}
+			});
+		}
+		catch (RuntimeException ex) {
+			// Typically a TaskRejectedException: keep serving the current value
+			this.refreshesInProgress.remove(key, evicted);
+			this.refreshFailureCount.increment();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Refresh of cache entry for key '" + key + "' in cache '" +
+						getName() + "' rejected by executor", ex);
+			}
+		}
+	}
+
+	/**
+	 * Mark a refresh in progress for the given key as superseded by an eviction.
+	 */
+	private void markEvicted(Object key) {
+		AtomicBoolean evicted = this.refreshesInProgress.get(key);
+		if (evicted != null) {
+			evicted.set(true);
+		}
+	}
+
+	@Nullable
+	private Object toStoreValue(@Nullable Object value) {
+		return (value != null ? new TimestampedValue(value, System.currentTimeMillis()) : null);
+	}
+
+	private boolean isRefreshDue(@Nullable Object storeValue) {
+		return (storeValue instanceof TimestampedValue &&
+				System.currentTimeMillis() - ((TimestampedValue) storeValue).writeTime >= this.refreshAfterMillis);
+	}
+
+	@Nullable
+	private Object fromStoreValue(@Nullable Object storeValue) {
+		return (storeValue instanceof TimestampedValue ? ((TimestampedValue) storeValue).value : storeValue);
+	}
+
+	@Nullable
+	private ValueWrapper toValueWrapper(Object key, @Nullable ValueWrapper storeValue) {
+		if (storeValue == null) {
+			return null;
+		}
+		Object value = storeValue.get();
+		if (!(value instanceof TimestampedValue)) {
+			return storeValue;
+		}
+		return (isRefreshDue(value) ? new RefreshDueValueWrapper(key, ((TimestampedValue) value).value) :
+				new SimpleValueWrapper(((TimestampedValue) value).value));
+	}
+
+
+	/**
+	 * A cached value along with the time it has been written.
+	 */
+	@SuppressWarnings("serial")
+	private static final class TimestampedValue implements Serializable {
+
+		private final Object value;
+
+		private final long writeTime;
+
+		public TimestampedValue(Object value, long writeTime) {
+			this.value = value;
+			this.writeTime = writeTime;
+		}
+	}
+
+
+	/**
+	 * A value wrapper for an entry which is due for refresh,
+	 * triggering the refresh for the given key on demand.
+	 */
+	private class RefreshDueValueWrapper extends SimpleValueWrapper implements RefreshableValueWrapper {
+
+		private final Object key;
+
+		public RefreshDueValueWrapper(Object key, Object value) {
+			super(value);
+			this.key = key;
+		}
+
+		@Override
+		public void refresh(Callable<?> refreshLoader) {
+			RefreshAheadCacheDecorator.this.refresh(this.key, refreshLoader);
+		}
+	}
+
+}
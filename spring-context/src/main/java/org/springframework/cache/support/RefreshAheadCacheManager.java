@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link CacheManager} decorator which exposes {@link RefreshAheadCacheDecorator}
+ * instances for the caches of a target CacheManager, serving stale entries
+ * while recomputing them in the background on a shared {@link TaskExecutor}.
+ *
+ * <p>Applies to {@code @Cacheable} methods with a single cache and no
+ * {@code unless} condition, as well as to {@code @Cacheable(sync = true)}:
+ * in both cases, the method invocation serves as the refresh loader.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see RefreshAheadCacheDecorator
+ */
+public class RefreshAheadCacheManager implements CacheManager {
+
+	private final CacheManager targetCacheManager;
+
+	private final Duration refreshAfter;
+
+	private final TaskExecutor refreshExecutor;
+
+	private final ConcurrentMap<String, RefreshAheadCacheDecorator> decoratedCaches = new ConcurrentHashMap<>(16);
+
+
+	/**
+	 * Create a new RefreshAheadCacheManager for the given target CacheManager.
+	 * @param targetCacheManager the target CacheManager to decorate
+	 * @param refreshAfter the age after which an entry is due for refresh
+	 * @param refreshExecutor the executor to perform refreshes on
+	 * @see RefreshAheadCacheDecorator#RefreshAheadCacheDecorator(Cache, Duration, TaskExecutor)
+	 */
+	public RefreshAheadCacheManager(CacheManager targetCacheManager, Duration refreshAfter,
+			TaskExecutor refreshExecutor) {
+
+		Assert.notNull(targetCacheManager, "Target CacheManager must not be null");
+		Assert.notNull(refreshAfter, "Refresh interval must not be null");
+		Assert.notNull(refreshExecutor, "TaskExecutor must not be null");
+		this.targetCacheManager = targetCacheManager;
+		this.refreshAfter = refreshAfter;
+		this.refreshExecutor = refreshExecutor;
+	}
+
+
+	/**
+	 * Return the target CacheManager that this CacheManager delegates to.
+	 */
+	public CacheManager getTargetCacheManager() {
+		return this.targetCacheManager;
+	}
+
+	@Override
+	@Nullable
+	public Cache getCache(String name) {
+		Cache targetCache = this.targetCacheManager.getCache(name);
+		if (targetCache == null) {
+			return null;
+		}
+		RefreshAheadCacheDecorator cache = this.decoratedCaches.get(name);
+		if (cache == null || cache.getTargetCache() != targetCache) {
+			// Target cache (re-)created: refresh tracking needs to be shared per cache instance
+			cache = this.decoratedCaches.compute(name, (key, existing) ->
+					(existing != null && existing.getTargetCache() == targetCache ? existing :
+							new RefreshAheadCacheDecorator(targetCache, this.refreshAfter, this.refreshExecutor)));
+		}
+		return cache;
+	}
+
+	@Override
+	public Collection<String> getCacheNames() {
+		return this.targetCacheManager.getCacheNames();
+	}
+
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Cache decorator which coalesces concurrent cache misses for the same key:
+ * only a single caller invokes the value loader, while concurrent callers for
+ * the same key wait for its result instead of loading the value themselves.
+ * This protects expensive value loaders from stampedes on cold keys, for any
+ * target {@link Cache} implementation.
+ *
+ * <p>Applies to {@link #get(Object, Callable)} (as used for
+ * {@code @Cacheable(sync = true)}) as well as to the non-blocking
+ * {@link #retrieve(Object, Supplier)} variant for {@link CompletableFuture}
+ * values. In contrast to a {@code computeIfAbsent}-style implementation in
+ * the target cache, no lock is held on the cache structure while loading.
+ *
+ * <p>Blocking callers wait for a concurrent load for up to the configured
+ * {@link #SingleFlightCacheDecorator(Cache, Duration) timeout}, after which
+ * they invoke the value loader themselves. All other operations are passed
+ * through to the target cache as-is.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see SingleFlightCacheManager
+ */
+public class SingleFlightCacheDecorator implements Cache {
+
+	private final Cache targetCache;
+
+	@Nullable
+	private final Duration timeout;
+
+	private final ConcurrentMap<Object, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>(16);
+
+	private final AtomicInteger waitingCallerCount = new AtomicInteger();
+
+
+	/**
+	 * Create a new SingleFlightCacheDecorator for the given target Cache,
+	 * letting concurrent callers wait for an in-flight load indefinitely.
+	 * @param targetCache the target Cache to decorate
+	 */
+	public SingleFlightCacheDecorator(Cache targetCache) {
+		this(targetCache, null);
+	}
+
+	/**
+	 * Create a new SingleFlightCacheDecorator for the given target Cache.
+	 * @param targetCache the target Cache to decorate
+	 * @param timeout the maximum time to wait for an in-flight load for the same key,
+	 * or {@code null} for waiting indefinitely
+	 */
+	public SingleFlightCacheDecorator(Cache targetCache, @Nullable Duration timeout) {
+		Assert.notNull(targetCache, "Target Cache must not be null");
+		Assert.isTrue(timeout == null || !timeout.isNegative(), "Timeout must not be negative");
+		this.targetCache = targetCache;
+		this.timeout = timeout;
+	}
+
+
+	/**
+	 * Return the target Cache that this Cache should delegate to.
+	 */
+	public Cache getTargetCache() {
+		return this.targetCache;
+	}
+
+	/**
+	 * Return the number of loads currently in progress.
+	 */
+	public int getInFlightLoadCount() {
+		return this.inFlightLoads.size();
+	}
+
+	/**
+	 * Return the number of blocking callers currently waiting for an in-flight load.
+	 */
+	public int getWaitingCallerCount() {
+		return this.waitingCallerCount.get();
+	}
+
+	@Override
+	public String getName() {
+		return this.targetCache.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return this.targetCache.getNativeCache();
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper get(Object key) {
+		return this.targetCache.get(key);
+	}
+
+	@Override
+	@Nullable
+	public <T> T get(Object key, @Nullable Class<T> type) {
+		return this.targetCache.get(key, type);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper existingValue = this.targetCache.get(key);
+		if (existingValue != null) {
+			return (T) existingValue.get();
+		}
+
+		CompletableFuture<Object> load = new CompletableFuture<>();
+		CompletableFuture<Object> inFlightLoad = this.inFlightLoads.putIfAbsent(key, load);
+		if (inFlightLoad != null) {
+			this.waitingCallerCount.incrementAndGet();
+			try {
+				return (T) awaitLoad(key, inFlightLoad, valueLoader);
+			}
+			finally {
+				this.waitingCallerCount.decrementAndGet();
+			}
+		}
+
+		try {
+			// Re-check: a previous load may have completed in the meantime
+			existingValue = this.targetCache.get(key);
+			Object value = (existingValue != null ? existingValue.get() : loadValue(key, valueLoader));
+			load.complete(value);
+			return (T) value;
+		}
+		catch (Throwable ex) {
+			load.completeExceptionally(ex);
+			throw ex;
+		}
+		finally {
+			this.inFlightLoads.remove(key, load);
+		}
+	}
+
+	@Nullable
+	private Object awaitLoad(Object key, CompletableFuture<Object> inFlightLoad, Callable<?> valueLoader) {
+		try {
+			if (this.timeout != null) {
+				return inFlightLoad.get(this.timeout.toNanos(), TimeUnit.NANOSECONDS);
+			}
+			return inFlightLoad.get();
+		}
+		catch (TimeoutException ex) {
+			// Give up on the in-flight load and load the value ourselves
+			return loadValue(key, valueLoader);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof ValueRetrievalException) {
+				throw (ValueRetrievalException) cause;
+			}
+			throw new ValueRetrievalException(key, valueLoader, (cause != null ? cause : ex));
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new ValueRetrievalException(key, valueLoader, ex);
+		}
+	}
+
+	@Nullable
+	private Object loadValue(Object key, Callable<?> valueLoader) {
+		Object value;
+		try {
+			value = valueLoader.call();
+		}
+		catch (Throwable ex) {
+			throw new ValueRetrievalException(key, valueLoader, ex);
+		}
+		this.targetCache.put(key, value);
+		return value;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		ValueWrapper existingValue = this.targetCache.get(key);
+		if (existingValue != null) {
+			return CompletableFuture.completedFuture((T) existingValue.get());
+		}
+
+		CompletableFuture<Object> load = new CompletableFuture<>();
+		CompletableFuture<Object> inFlightLoad = this.inFlightLoads.putIfAbsent(key, load);
+		if (inFlightLoad == null) {
+			inFlightLoad = load;
+			CompletableFuture<T> loaded;
+			try {
+				loaded = valueLoader.get();
+				Assert.state(loaded != null, "Value loader returned null instead of a CompletableFuture");
+			}
+			catch (Throwable ex) {
+				this.inFlightLoads.remove(key, load);
+				load.completeExceptionally(ex);
+				throw ex;
+			}
+			loaded.whenComplete((value, ex) -> {
+				Throwable failure = ex;
+				try {
+					if (failure == null) {
+						this.targetCache.put(key, value);
+					}
+				}
+				catch (Throwable putEx) {
+					failure = putEx;
+				}
+				finally {
+					this.inFlightLoads.remove(key, load);
+				}
+				if (failure != null) {
+					load.completeExceptionally(failure);
+				}
+				else {
+					load.complete(value);
+				}
+			});
+		}
+		// Hand out a dependent future per caller, protecting the shared one
+		return inFlightLoad.thenApply(value -> (T) value);
+	}
+
+	@Override
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		return this.targetCache.getAll(keys);
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		this.targetCache.put(key, value);
+	}
+
+	@Override
+	public void putAll(Map<?, ?> entries) {
+		this.targetCache.putAll(entries);
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		return this.targetCache.putIfAbsent(key, value);
+	}
+
+	@Override
+	public void evict(Object key) {
+		this.targetCache.evict(key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		return this.targetCache.evictIfPresent(key);
+	}
+
+	@Override
+	public void evictAll(Collection<?> keys) {
+		this.targetCache.evictAll(keys);
+	}
+
+	@Override
+	public void clear() {
+		this.targetCache.clear();
+	}
+
+	@Override
+	public boolean invalidate() {
+		return this.targetCache.invalidate();
+	}
+
+}
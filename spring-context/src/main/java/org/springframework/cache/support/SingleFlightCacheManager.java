@@ -0,0 +1,105 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link CacheManager} decorator which exposes {@link SingleFlightCacheDecorator}
+ * instances for the caches of a target CacheManager, coalescing concurrent
+ * cache misses for the same key into a single value loader invocation.
+ *
+ * <p>Typically combined with {@code @Cacheable(sync = true)} which routes
+ * cache misses through {@link Cache#get(Object, java.util.concurrent.Callable)}
+ * or - for {@link java.util.concurrent.CompletableFuture} return types -
+ * through {@link Cache#retrieve}.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see SingleFlightCacheDecorator
+ */
+public class SingleFlightCacheManager implements CacheManager {
+
+	private final CacheManager targetCacheManager;
+
+	@Nullable
+	private final Duration timeout;
+
+	private final ConcurrentMap<String, SingleFlightCacheDecorator> decoratedCaches = new ConcurrentHashMap<>(16);
+
+
+	/**
+	 * Create a new SingleFlightCacheManager for the given target CacheManager,
+	 * letting concurrent callers wait for an in-flight load indefinitely.
+	 * @param targetCacheManager the target CacheManager to decorate
+	 */
+	public SingleFlightCacheManager(CacheManager targetCacheManager) {
+		this(targetCacheManager, null);
+	}
+
+	/**
+	 * Create a new SingleFlightCacheManager for the given target CacheManager.
+	 * @param targetCacheManager the target CacheManager to decorate
+	 * @param timeout the maximum time to wait for an in-flight load for the same key,
+	 * or {@code null} for waiting indefinitely
+	 * @see SingleFlightCacheDecorator#SingleFlightCacheDecorator(Cache, Duration)
+	 */
+	public SingleFlightCacheManager(CacheManager targetCacheManager, @Nullable Duration timeout) {
+		Assert.notNull(targetCacheManager, "Target CacheManager must not be null");
+		this.targetCacheManager = targetCacheManager;
+		this.timeout = timeout;
+	}
+
+
+	/**
+	 * Return the target CacheManager that this CacheManager delegates to.
+	 */
+	public CacheManager getTargetCacheManager() {
+		return this.targetCacheManager;
+	}
+
+	@Override
+	@Nullable
+	public Cache getCache(String name) {
+		Cache targetCache = this.targetCacheManager.getCache(name);
+		if (targetCache == null) {
+			return null;
+		}
+		SingleFlightCacheDecorator cache = this.decoratedCaches.get(name);
+		if (cache == null || cache.getTargetCache() != targetCache) {
+			// Target cache (re-)created: in-flight tracking needs to be shared per cache instance
+			cache = this.decoratedCaches.compute(name, (key, existing) ->
+					(existing != null && existing.getTargetCache() == targetCache ?
+							existing : new SingleFlightCacheDecorator(targetCache, this.timeout)));
+		}
+		return cache;
+	}
+
+	@Override
+	public Collection<String> getCacheNames() {
+		return this.targetCacheManager.getCacheNames();
+	}
+
+}
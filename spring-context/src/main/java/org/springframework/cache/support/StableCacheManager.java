@@ -0,0 +1,45 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Extension of the {@link CacheManager} interface for cache managers which
+ * consistently return the same {@link Cache} instance for a given name
+ * until their caches get re-initialized, e.g. on reconfiguration.
+ *
+ * <p>Such re-initialization is indicated through a change of the
+ * {@link #getCacheGeneration() cache generation}, allowing callers to hold
+ * on to resolved {@code Cache} references instead of looking them up for
+ * every use.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see org.springframework.cache.interceptor.CacheAspectSupport
+ */
+public interface StableCacheManager extends CacheManager {
+
+	/**
+	 * Return the current generation of this cache manager's caches.
+	 * <p>The returned value changes whenever {@code Cache} instances
+	 * returned before may have been replaced with new instances.
+	 */
+	long getCacheGeneration();
+
+}
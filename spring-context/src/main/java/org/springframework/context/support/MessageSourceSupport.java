@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,9 +17,9 @@
 package org.springframework.context.support;
 
 import java.text.MessageFormat;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -53,7 +53,7 @@ public abstract class MessageSourceSupport {
 	 * Used for passed-in default messages. MessageFormats for resolved
 	 * codes are cached on a specific basis in subclasses.
 	 */
-	private final Map<String, Map<Locale, MessageFormat>> messageFormatsPerMessage = new HashMap<>();
+	private final Map<String, Map<Locale, MessageFormat>> messageFormatsPerMessage = new ConcurrentHashMap<>();
 
 
 	/**
@@ -115,48 +115,44 @@ public abstract class MessageSourceSupport {
 		if (!isAlwaysUseMessageFormat() && ObjectUtils.isEmpty(args)) {
 			return msg;
 		}
-		MessageFormat messageFormat = null;
-		synchronized (this.messageFormatsPerMessage) {
-			Map<Locale, MessageFormat> messageFormatsPerLocale = this.messageFormatsPerMessage.get(msg);
-			if (messageFormatsPerLocale != null) {
-				messageFormat = messageFormatsPerLocale.get(locale);
+		Map<Locale, MessageFormat> messageFormatsPerLocale =
+				this.messageFormatsPerMessage.computeIfAbsent(msg, key -> new ConcurrentHashMap<>(4));
+		MessageFormat messageFormat = messageFormatsPerLocale.get(locale);
+		if (messageFormat == null) {
+			try {
+				messageFormat = createMessageFormat(msg, locale);
 			}
-			else {
-				messageFormatsPerLocale = new HashMap<>();
-				this.messageFormatsPerMessage.put(msg, messageFormatsPerLocale);
-			}
-			if (messageFormat == null) {
-				try {
-					messageFormat = createMessageFormat(msg, locale);
-				}
-				catch (IllegalArgumentException ex) {
-					// Invalid message format - probably not intended for formatting,
-					// rather using a message structure with no arguments involved...
-					if (isAlwaysUseMessageFormat()) {
-						throw ex;
-					}
-					// Silently proceed with raw message if format not enforced...
-					messageFormat = INVALID_MESSAGE_FORMAT;
+			catch (IllegalArgumentException ex) {
+				// Invalid message format - probably not intended for formatting,
+				// rather using a message structure with no arguments involved...
+				if (isAlwaysUseMessageFormat()) {
+					throw ex;
 				}
-				messageFormatsPerLocale.put(locale, messageFormat);
+				// Silently proceed with raw message if format not enforced...
+				messageFormat = INVALID_MESSAGE_FORMAT;
+			}
+			MessageFormat existing = messageFormatsPerLocale.putIfAbsent(locale, messageFormat);
+			if (existing != null) {
+				messageFormat = existing;
 			}
 		}
 		if (messageFormat == INVALID_MESSAGE_FORMAT) {
 			return msg;
 		}
-		synchronized (messageFormat) {
-			return messageFormat.format(resolveArguments(args, locale));
-		}
+		return format(messageFormat, resolveArguments(args, locale));
 	}
 
 	/**
 	 * Create a MessageFormat for the given message and Locale.
+	 * <p>The default implementation returns a MessageFormat which precompiles
+	 * simple patterns (with plain {@code {0}} placeholders but no format types),
+	 * allowing for lock-free rendering of such messages.
 	 * @param msg the message to create a MessageFormat for
 	 * @param locale the Locale to create a MessageFormat for
 	 * @return the MessageFormat instance
 	 */
 	protected MessageFormat createMessageFormat(String msg, Locale locale) {
-		return new MessageFormat(msg, locale);
+		return new PrecompiledMessageFormat(msg, locale);
 	}
 
 	/**
@@ -171,4 +167,27 @@ public abstract class MessageSourceSupport {
 		return (args != null ? args : new Object[0]);
 	}
 
+
+	/**
+	 * Format the given arguments through the given MessageFormat: lock-free
+	 * for a precompiled pattern, synchronizing on the MessageFormat otherwise
+	 * (since {@code java.text.MessageFormat} is not thread-safe).
+	 * @param messageFormat the MessageFormat to use
+	 * @param args the (resolved) arguments
+	 * @return the formatted message
+	 * @since 5.2.3
+	 * @see #createMessageFormat
+	 */
+	static String format(MessageFormat messageFormat, Object[] args) {
+		if (messageFormat instanceof PrecompiledMessageFormat) {
+			PrecompiledMessageFormat precompiledFormat = (PrecompiledMessageFormat) messageFormat;
+			if (precompiledFormat.isPrecompiled()) {
+				return precompiledFormat.render(args);
+			}
+		}
+		synchronized (messageFormat) {
+			return messageFormat.format(args);
+		}
+	}
+
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.text.DateFormat;
+import java.text.Format;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link MessageFormat} variant which precompiles simple patterns - i.e.
+ * patterns with plain {@code {0}} style placeholders but no format types -
+ * into literal segments, allowing for lock-free concurrent rendering through
+ * {@link #render(Object[])}. The standard {@code format} methods remain
+ * available as usual, subject to the common {@code MessageFormat} rules.
+ *
+ * <p>Rendering follows the {@code MessageFormat} semantics for placeholders
+ * without format type: numbers and dates are formatted with the locale's
+ * default number and short date-time format, respectively, and any other
+ * argument is rendered through {@code toString()}.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see MessageSourceSupport#createMessageFormat
+ */
+@SuppressWarnings("serial")
+class PrecompiledMessageFormat extends MessageFormat {
+
+	private static final char MARKER = '\uFFFF';
+
+
+	@Nullable
+	private transient volatile String[] literals;
+
+	@Nullable
+	private transient volatile int[] argumentIndexes;
+
+
+	public PrecompiledMessageFormat(String pattern, Locale locale) {
+		super(pattern, locale);  // precompiles through applyPattern
+	}
+
+
+	/**
+	 * Return whether this format is precompiled, i.e. can be rendered lock-free.
+	 */
+	public boolean isPrecompiled() {
+		return (this.literals != null);
+	}
+
+	/**
+	 * Render the given arguments into this format's precompiled pattern.
+	 * <p>Only to be called if {@link #isPrecompiled()} returns {@code true};
+	 * otherwise, a regular {@code format} call needs to be synchronized.
+	 * @param arguments the arguments to render
+	 * @return the rendered message
+	 */
+	public String render(Object[] arguments) {
+		String[] literals = this.literals;
+		int[] argumentIndexes = this.argumentIndexes;
+		if (literals == null || argumentIndexes == null) {
+			throw new IllegalStateException("Pattern not precompiled: " + toPattern());
+		}
+		StringBuilder sb = new StringBuilder(literals[0].length() + 16 * argumentIndexes.length);
+		sb.append(literals[0]);
+		for (int i = 0; i < argumentIndexes.length; i++) {
+			int argumentIndex = argumentIndexes[i];
+			if (argumentIndex < arguments.length) {
+				sb.append(renderArgument(arguments[argumentIndex]));
+			}
+			else {
+				sb.append('{').append(argumentIndex).append('}');
+			}
+			sb.append(literals[i + 1]);
+		}
+		return sb.toString();
+	}
+
+	private String renderArgument(@Nullable Object argument) {
+		if (argument == null) {
+			return "null";
+		}
+		if (argument instanceof String) {
+			return (String) argument;
+		}
+		if (argument instanceof Number) {
+			return NumberFormat.getInstance(getLocale()).format(argument);
+		}
+		if (argument instanceof Date) {
+			return DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, getLocale()).format(argument);
+		}
+		String result = argument.toString();
+		return (result != null ? result : "null");
+	}
+
+
+	@Override
+	public void applyPattern(String pattern) {
+		super.applyPattern(pattern);
+		precompile();
+	}
+
+	@Override
+	public void setLocale(Locale locale) {
+		super.setLocale(locale);
+		precompile();
+	}
+
+	@Override
+	public void setFormat(int formatElementIndex, Format newFormat) {
+		super.setFormat(formatElementIndex, newFormat);
+		precompile();
+	}
+
+	@Override
+	public void setFormats(Format[] newFormats) {
+		super.setFormats(newFormats);
+		precompile();
+	}
+
+	@Override
+	public void setFormatByArgumentIndex(int argumentIndex, Format newFormat) {
+		super.setFormatByArgumentIndex(argumentIndex, newFormat);
+		precompile();
+	}
+
+	@Override
+	public void setFormatsByArgumentIndex(Format[] newFormats) {
+		super.setFormatsByArgumentIndex(newFormats);
+		precompile();
+	}
+
+	/**
+	 * Split the pattern into literal segments by formatting it with marker
+	 * arguments, leaving the pattern's quoting rules to {@code MessageFormat}.
+	 */
+	private void precompile() {
+		this.literals = null;
+		this.argumentIndexes = null;
+		Format[] formats = getFormats();
+		for (Format format : formats) {
+			if (format != null) {
+				return;
+			}
+		}
+		Object[] markers = new Object[getFormatsByArgumentIndex().length];
+		for (int i = 0; i < markers.length; i++) {
+			markers[i] = MARKER + Integer.toString(i) + MARKER;
+		}
+		String formatted = format(markers);
+
+		List<String> literals = new ArrayList<>(formats.length + 1);
+		int[] argumentIndexes = new int[formats.length];
+		int segmentStart = 0;
+		int markerStart = formatted.indexOf(MARKER);
+		while (markerStart != -1) {
+			int markerEnd = formatted.indexOf(MARKER, markerStart + 1);
+			if (markerEnd == -1 || literals.size() == formats.length) {
+				return;
+			}
+			try {
+				argumentIndexes[literals.size()] = Integer.parseInt(formatted.substring(markerStart + 1, markerEnd));
+			}
+			catch (NumberFormatException ex) {
+				// Marker character within literal text -> not eligible for precompilation
+				return;
+			}
+			literals.add(formatted.substring(segmentStart, markerStart));
+			segmentStart = markerEnd + 1;
+			markerStart = formatted.indexOf(MARKER, segmentStart);
+		}
+		if (literals.size() != formats.length) {
+			return;
+		}
+		literals.add(formatted.substring(segmentStart));
+		this.argumentIndexes = argumentIndexes;
+		this.literals = literals.toArray(new String[0]);
+	}
+
+}
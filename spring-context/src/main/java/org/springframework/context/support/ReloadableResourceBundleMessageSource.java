@@ -21,10 +21,13 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReentrantLock;
@@ -558,6 +561,9 @@ public class ReloadableResourceBundleMessageSource extends AbstractResourceBased
 		@Nullable
 		private final Properties properties;
 
+		/** Read-only copy of the properties, for lookups without Hashtable locking. */
+		private final Map<String, String> propertyValues;
+
 		private final long fileTimestamp;
 
 		private volatile long refreshTimestamp = -2;
@@ -570,11 +576,18 @@ public class ReloadableResourceBundleMessageSource extends AbstractResourceBased
 
 		public PropertiesHolder() {
 			this.properties = null;
+			this.propertyValues = Collections.emptyMap();
 			this.fileTimestamp = -1;
 		}
 
 		public PropertiesHolder(Properties properties, long fileTimestamp) {
 			this.properties = properties;
+			Set<String> propertyNames = properties.stringPropertyNames();
+			Map<String, String> propertyValues = new HashMap<>((int) (propertyNames.size() / 0.75f) + 1);
+			for (String propertyName : propertyNames) {
+				propertyValues.put(propertyName, properties.getProperty(propertyName));
+			}
+			this.propertyValues = propertyValues;
 			this.fileTimestamp = fileTimestamp;
 		}
 
@@ -597,10 +610,7 @@ public class ReloadableResourceBundleMessageSource extends AbstractResourceBased
 
 		@Nullable
 		public String getProperty(String code) {
-			if (this.properties == null) {
-				return null;
-			}
-			return this.properties.getProperty(code);
+			return this.propertyValues.get(code);
 		}
 
 		@Nullable
@@ -615,7 +625,7 @@ public class ReloadableResourceBundleMessageSource extends AbstractResourceBased
 					return result;
 				}
 			}
-			String msg = this.properties.getProperty(code);
+			String msg = this.propertyValues.get(code);
 			if (msg != null) {
 				if (localeMap == null) {
 					localeMap = new ConcurrentHashMap<>();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -164,6 +164,9 @@ public class MBeanExporter extends MBeanRegistrationSupport implements MBeanExpo
 	/** Indicates whether Spring should expose the managed resource ClassLoader in the MBean. */
 	private boolean exposeManagedResourceClassLoader = true;
 
+	/** Indicates whether plain beans should be exposed as lightweight DynamicMBeans. */
+	private boolean useDynamicMBeans = false;
+
 	/** A set of bean names that should be excluded from autodetection. */
 	private Set<String> excludedBeans = new HashSet<>();
 
@@ -317,6 +320,23 @@ public class MBeanExporter extends MBeanRegistrationSupport implements MBeanExpo
 		this.exposeManagedResourceClassLoader = exposeManagedResourceClassLoader;
 	}
 
+	/**
+	 * Indicates whether plain beans should be exposed as lightweight
+	 * {@link SpringDynamicMBean SpringDynamicMBeans} instead of ModelMBeans.
+	 * <p>The default value is {@code false}. Switch this flag on for exporting
+	 * large numbers of beans with frequently polled attributes: a SpringDynamicMBean
+	 * resolves the attribute accessors once and invokes them through reflection,
+	 * without the descriptor processing of a ModelMBean.
+	 * <p>Note that beans implementing {@link NotificationPublisherAware} as
+	 * well as lazy-init beans are still exposed as ModelMBeans, since notification
+	 * support is built on {@link javax.management.modelmbean.ModelMBean}.
+	 * @since 5.2.3
+	 * @see #createDynamicMBean
+	 */
+	public void setUseDynamicMBeans(boolean useDynamicMBeans) {
+		this.useDynamicMBeans = useDynamicMBeans;
+	}
+
 	/**
 	 * Set the list of names for beans that should be excluded from autodetection.
 	 */
@@ -671,6 +691,13 @@ public class MBeanExporter extends MBeanRegistrationSupport implements MBeanExpo
 			}
 			doRegister(mbeanToExpose, objectName);
 		}
+		else if (this.useDynamicMBeans && !(bean instanceof NotificationPublisherAware)) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Located managed bean '" + beanKey + "': registering with JMX server as DynamicMBean [" +
+						objectName + "]");
+			}
+			doRegister(createDynamicMBean(bean, beanKey), objectName);
+		}
 		else {
 			if (logger.isDebugEnabled()) {
 				logger.debug("Located managed bean '" + beanKey + "': registering with JMX server as MBean [" +
@@ -840,6 +867,20 @@ public class MBeanExporter extends MBeanRegistrationSupport implements MBeanExpo
 		return (this.exposeManagedResourceClassLoader ? new SpringModelMBean() : new RequiredModelMBean());
 	}
 
+	/**
+	 * Create a lightweight {@code DynamicMBean} for the supplied managed resource,
+	 * with its management interface determined by the configured assembler
+	 * when the MBeanServer requests its MBeanInfo on registration.
+	 * <p>Only called if {@link #setUseDynamicMBeans "useDynamicMBeans"} is on.
+	 * @param managedResource the resource that is to be exported as an MBean
+	 * @param beanKey the key associated with the managed bean
+	 * @since 5.2.3
+	 * @see SpringDynamicMBean
+	 */
+	protected DynamicMBean createDynamicMBean(Object managedResource, String beanKey) {
+		return new SpringDynamicMBean(managedResource, this.assembler, beanKey);
+	}
+
 	/**
 	 * Gets the {@code ModelMBeanInfo} for the bean with the supplied key
 	 * and of the supplied type.
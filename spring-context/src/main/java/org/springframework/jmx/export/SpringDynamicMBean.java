@@ -0,0 +1,335 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jmx.export;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.Descriptor;
+import javax.management.DynamicMBean;
+import javax.management.InvalidAttributeValueException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.ReflectionException;
+import javax.management.RuntimeErrorException;
+import javax.management.modelmbean.ModelMBeanInfo;
+import javax.management.modelmbean.ModelMBeanInfoSupport;
+
+import org.springframework.jmx.export.assembler.MBeanInfoAssembler;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Lightweight {@link DynamicMBean} implementation for exposing a managed resource,
+ * as an alternative to a {@link javax.management.modelmbean.ModelMBean}.
+ *
+ * <p>The management interface is determined through an {@link MBeanInfoAssembler}
+ * when the {@link MBeanInfo} is first requested, which the MBeanServer does on
+ * registration of this MBean; the MBeanInfo is cached for the lifetime of this
+ * MBean. Attribute accessors and operation methods are resolved against the
+ * managed resource on first use, matching their names and types against the
+ * MBeanInfo, and invoked through reflection from then on, without the descriptor
+ * processing that a ModelMBean performs for every request. Attribute values are
+ * always read through to the managed resource, i.e. the "currencyTimeLimit"
+ * descriptor field is not supported.
+ *
+ * <p>Like {@link SpringModelMBean}, this MBean exposes the managed resource's
+ * {@link ClassLoader} as thread context ClassLoader during invocations.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see MBeanExporter#setUseDynamicMBeans
+ */
+public class SpringDynamicMBean implements DynamicMBean {
+
+	private static final String FIELD_GET_METHOD = "getMethod";
+
+	private static final String FIELD_SET_METHOD = "setMethod";
+
+
+	private final Object managedResource;
+
+	private final MBeanInfoAssembler assembler;
+
+	private final String beanKey;
+
+	@Nullable
+	private final ClassLoader managedResourceClassLoader;
+
+	@Nullable
+	private volatile MBeanInfo mbeanInfo;
+
+	private final Map<String, Method> attributeGetters = new ConcurrentHashMap<>(16);
+
+	private final Map<String, Method> attributeSetters = new ConcurrentHashMap<>(16);
+
+	private final Map<String, Method> operationMethods = new ConcurrentHashMap<>(16);
+
+
+	/**
+	 * Create a new SpringDynamicMBean for the given managed resource.
+	 * @param managedResource the resource to expose (might be an AOP proxy)
+	 * @param assembler the assembler to determine the management interface with
+	 * @param beanKey the key associated with the managed resource
+	 */
+	public SpringDynamicMBean(Object managedResource, MBeanInfoAssembler assembler, String beanKey) {
+		Assert.notNull(managedResource, "Managed resource must not be null");
+		Assert.notNull(assembler, "MBeanInfoAssembler must not be null");
+		Assert.notNull(beanKey, "Bean key must not be null");
+		this.managedResource = managedResource;
+		this.assembler = assembler;
+		this.beanKey = beanKey;
+		this.managedResourceClassLoader = managedResource.getClass().getClassLoader();
+	}
+
+
+	/**
+	 * Return the managed resource exposed by this MBean.
+	 */
+	public final Object getManagedResource() {
+		return this.managedResource;
+	}
+
+	/**
+	 * Return the MBeanInfo for the managed resource, assembling it on the first
+	 * call (typically from the MBeanServer when registering this MBean).
+	 * @throws MBeanExportException if the assembler failed to build the MBeanInfo
+	 */
+	@Override
+	public MBeanInfo getMBeanInfo() {
+		MBeanInfo mbeanInfo = this.mbeanInfo;
+		if (mbeanInfo == null) {
+			synchronized (this) {
+				mbeanInfo = this.mbeanInfo;
+				if (mbeanInfo == null) {
+					try {
+						ModelMBeanInfo info = this.assembler.getMBeanInfo(this.managedResource, this.beanKey);
+						mbeanInfo = (info instanceof MBeanInfo ? (MBeanInfo) info : new ModelMBeanInfoSupport(info));
+					}
+					catch (JMException ex) {
+						throw new MBeanExportException("Could not create MBeanInfo for managed resource [" +
+								this.managedResource + "] with key '" + this.beanKey + "'", ex);
+					}
+					this.mbeanInfo = mbeanInfo;
+				}
+			}
+		}
+		return mbeanInfo;
+	}
+
+	@Override
+	public Object getAttribute(String attribute)
+			throws AttributeNotFoundException, MBeanException, ReflectionException {
+
+		Method getter = this.attributeGetters.get(attribute);
+		if (getter == null) {
+			getter = resolveAccessor(attribute, FIELD_GET_METHOD);
+			this.attributeGetters.put(attribute, getter);
+		}
+		return invokeMethod(getter);
+	}
+
+	@Override
+	public void setAttribute(Attribute attribute)
+			throws AttributeNotFoundException, InvalidAttributeValueException, MBeanException, ReflectionException {
+
+		String name = attribute.getName();
+		Method setter = this.attributeSetters.get(name);
+		if (setter == null) {
+			setter = resolveAccessor(name, FIELD_SET_METHOD);
+			this.attributeSetters.put(name, setter);
+		}
+		Object value = attribute.getValue();
+		if (value != null && !ClassUtils.isAssignableValue(setter.getParameterTypes()[0], value)) {
+			throw new InvalidAttributeValueException("Value of type [" + value.getClass().getName() +
+					"] not assignable to attribute '" + name + "'");
+		}
+		invokeMethod(setter, value);
+	}
+
+	@Override
+	public AttributeList getAttributes(String[] attributes) {
+		AttributeList result = new AttributeList(attributes.length);
+		for (String attribute : attributes) {
+			try {
+				result.add(new Attribute(attribute, getAttribute(attribute)));
+			}
+			catch (JMException ex) {
+				// Skip the attribute, as specified by DynamicMBean#getAttributes
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public AttributeList setAttributes(AttributeList attributes) {
+		AttributeList result = new AttributeList(attributes.size());
+		for (Attribute attribute : attributes.asList()) {
+			try {
+				setAttribute(attribute);
+				result.add(attribute);
+			}
+			catch (JMException ex) {
+				// Skip the attribute, as specified by DynamicMBean#setAttributes
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Object invoke(String actionName, Object[] params, String[] signature)
+			throws MBeanException, ReflectionException {
+
+		String[] signatureToUse = (signature != null ? signature : new String[0]);
+		String operationKey = actionName + Arrays.toString(signatureToUse);
+		Method method = this.operationMethods.get(operationKey);
+		if (method == null) {
+			method = resolveOperation(actionName, signatureToUse);
+			this.operationMethods.put(operationKey, method);
+		}
+		return invokeMethod(method, (params != null ? params : new Object[0]));
+	}
+
+
+	private Method resolveAccessor(String attribute, String methodField)
+			throws AttributeNotFoundException, ReflectionException {
+
+		for (MBeanAttributeInfo attributeInfo : getMBeanInfo().getAttributes()) {
+			if (attributeInfo.getName().equals(attribute)) {
+				Descriptor descriptor = attributeInfo.getDescriptor();
+				Object methodName = (descriptor != null ? descriptor.getFieldValue(methodField) : null);
+				if (methodName == null) {
+					break;
+				}
+				// Getter returning the attribute type, or setter accepting it
+				Method method = (FIELD_GET_METHOD.equals(methodField) ?
+						findMethod(methodName.toString(), new String[0], attributeInfo.getType()) :
+						findMethod(methodName.toString(), new String[] {attributeInfo.getType()}, null));
+				if (method == null) {
+					throw new ReflectionException(new NoSuchMethodException(methodName.toString()),
+							"Accessor method for attribute '" + attribute + "' of type [" +
+							attributeInfo.getType() + "] not found on managed resource");
+				}
+				return method;
+			}
+		}
+		throw new AttributeNotFoundException("Attribute '" + attribute + "' not " +
+				(FIELD_GET_METHOD.equals(methodField) ? "readable" : "writable") + " on MBean for key '" +
+				this.beanKey + "'");
+	}
+
+	private Method resolveOperation(String actionName, String[] signature) throws ReflectionException {
+		for (MBeanOperationInfo operationInfo : getMBeanInfo().getOperations()) {
+			if (operationInfo.getName().equals(actionName) && matchesSignature(operationInfo, signature)) {
+				Method method = findMethod(actionName, signature, null);
+				if (method == null) {
+					throw new ReflectionException(new NoSuchMethodException(actionName + Arrays.toString(signature)),
+							"Operation '" + actionName + "' not found on managed resource");
+				}
+				return method;
+			}
+		}
+		throw new ReflectionException(new NoSuchMethodException(actionName + Arrays.toString(signature)),
+				"Operation '" + actionName + "' not exposed on MBean for key '" + this.beanKey + "'");
+	}
+
+	/**
+	 * Find the public method with the given name and parameter types on the managed
+	 * resource, comparing type names as exposed in the MBeanInfo.
+	 * @param methodName the name of the method
+	 * @param parameterTypes the names of the parameter types
+	 * @param returnType the name of the return type, or {@code null} to accept any
+	 * @return the method (made accessible), or {@code null} if not found
+	 */
+	@Nullable
+	private Method findMethod(String methodName, String[] parameterTypes, @Nullable String returnType) {
+		for (Method method : this.managedResource.getClass().getMethods()) {
+			if (method.getName().equals(methodName) && method.getParameterCount() == parameterTypes.length &&
+					(returnType == null || method.getReturnType().getName().equals(returnType))) {
+				Class<?>[] methodParameterTypes = method.getParameterTypes();
+				boolean matches = true;
+				for (int i = 0; i < parameterTypes.length; i++) {
+					if (!methodParameterTypes[i].getName().equals(parameterTypes[i])) {
+						matches = false;
+						break;
+					}
+				}
+				if (matches) {
+					ReflectionUtils.makeAccessible(method);
+					return method;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static boolean matchesSignature(MBeanOperationInfo operationInfo, String[] signature) {
+		MBeanParameterInfo[] parameters = operationInfo.getSignature();
+		if (parameters.length != signature.length) {
+			return false;
+		}
+		for (int i = 0; i < parameters.length; i++) {
+			if (!parameters[i].getType().equals(signature[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Invoke the given method on the managed resource, exposing the resource's
+	 * ClassLoader as thread context ClassLoader.
+	 */
+	@Nullable
+	private Object invokeMethod(Method method, Object... args) throws MBeanException, ReflectionException {
+		Thread currentThread = Thread.currentThread();
+		ClassLoader currentClassLoader = currentThread.getContextClassLoader();
+		try {
+			currentThread.setContextClassLoader(this.managedResourceClassLoader);
+			return method.invoke(this.managedResource, args);
+		}
+		catch (InvocationTargetException ex) {
+			Throwable targetEx = ex.getTargetException();
+			if (targetEx instanceof Error) {
+				throw new RuntimeErrorException((Error) targetEx,
+						"Error thrown by method [" + method + "] on managed resource");
+			}
+			throw new MBeanException((Exception) targetEx,
+					"Exception thrown by method [" + method + "] on managed resource");
+		}
+		catch (IllegalAccessException | IllegalArgumentException ex) {
+			throw new ReflectionException(ex,
+					"Could not invoke method [" + method + "] on managed resource");
+		}
+		finally {
+			currentThread.setContextClassLoader(currentClassLoader);
+		}
+	}
+
+}
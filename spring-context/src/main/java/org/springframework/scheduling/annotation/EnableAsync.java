@@ -66,6 +66,11 @@ import org.springframework.core.Ordered;
  * {@code void} return type cannot transmit any exception back to the caller. By default,
  * such uncaught exceptions are only logged.
  *
+ * <p>For blocking-IO-heavy async methods, consider declaring a
+ * {@link org.springframework.core.task.VirtualThreadTaskExecutor} as "taskExecutor"
+ * bean: it runs each invocation on a virtual thread where supported by the JVM,
+ * optionally limited through its "concurrencyLimit" property.
+ *
  * <p>To customize all this, implement {@link AsyncConfigurer} and provide:
  * <ul>
  * <li>your own {@link java.util.concurrent.Executor Executor} through the
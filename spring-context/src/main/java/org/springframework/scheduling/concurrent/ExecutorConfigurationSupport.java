@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -61,6 +61,9 @@ public abstract class ExecutorConfigurationSupport extends CustomizableThreadFac
 
 	private int awaitTerminationSeconds = 0;
 
+	@Nullable
+	private TaskExecutionMetrics taskExecutionMetrics;
+
 	@Nullable
 	private String beanName;
 
@@ -148,6 +151,30 @@ public abstract class ExecutorConfigurationSupport extends CustomizableThreadFac
 		this.awaitTerminationSeconds = awaitTerminationSeconds;
 	}
 
+	/**
+	 * Specify a {@link TaskExecutionMetrics} callback for recording queue wait times,
+	 * execution times and rejections of the tasks submitted to this executor.
+	 * <p>Default is none, with no instrumentation overhead at all. Set this to a
+	 * {@link SimpleTaskExecutionMetrics} instance for in-memory statistics, which
+	 * may in turn be exposed through JMX via Spring's
+	 * {@link org.springframework.jmx.export.MBeanExporter}.
+	 * <p>This setting needs to be specified before initialization of the executor.
+	 * @since 5.2.3
+	 * @see SimpleTaskExecutionMetrics
+	 */
+	public void setTaskExecutionMetrics(@Nullable TaskExecutionMetrics taskExecutionMetrics) {
+		this.taskExecutionMetrics = taskExecutionMetrics;
+	}
+
+	/**
+	 * Return the {@link TaskExecutionMetrics} callback for this executor, if any.
+	 * @since 5.2.3
+	 */
+	@Nullable
+	public TaskExecutionMetrics getTaskExecutionMetrics() {
+		return this.taskExecutionMetrics;
+	}
+
 	@Override
 	public void setBeanName(String name) {
 		this.beanName = name;
@@ -173,7 +200,12 @@ public abstract class ExecutorConfigurationSupport extends CustomizableThreadFac
 		if (!this.threadNamePrefixSet && this.beanName != null) {
 			setThreadNamePrefix(this.beanName + "-");
 		}
-		this.executor = initializeExecutor(this.threadFactory, this.rejectedExecutionHandler);
+		RejectedExecutionHandler rejectedExecutionHandler = this.rejectedExecutionHandler;
+		if (this.taskExecutionMetrics != null) {
+			rejectedExecutionHandler =
+					new MetricsRecordingRejectedExecutionHandler(rejectedExecutionHandler, this.taskExecutionMetrics);
+		}
+		this.executor = initializeExecutor(this.threadFactory, rejectedExecutionHandler);
 	}
 
 	/**
@@ -258,4 +290,27 @@ public abstract class ExecutorConfigurationSupport extends CustomizableThreadFac
 		}
 	}
 
+
+	/**
+	 * RejectedExecutionHandler decorator which records each rejection
+	 * before delegating to the actual handler.
+	 */
+	private static class MetricsRecordingRejectedExecutionHandler implements RejectedExecutionHandler {
+
+		private final RejectedExecutionHandler delegate;
+
+		private final TaskExecutionMetrics metrics;
+
+		public MetricsRecordingRejectedExecutionHandler(RejectedExecutionHandler delegate, TaskExecutionMetrics metrics) {
+			this.delegate = delegate;
+			this.metrics = metrics;
+		}
+
+		@Override
+		public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+			this.metrics.recordRejection();
+			this.delegate.rejectedExecution(task, executor);
+		}
+	}
+
 }
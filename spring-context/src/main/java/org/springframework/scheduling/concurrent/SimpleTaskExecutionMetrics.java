@@ -0,0 +1,278 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default {@link TaskExecutionMetrics} implementation, keeping lock-free counters
+ * as well as histograms of queue wait times and execution times in memory.
+ *
+ * <p>Histograms use exponential buckets: bucket {@code i} counts values of up to
+ * 2<sup>i</sup> microseconds (and more than the upper bound of bucket {@code i - 1}),
+ * with the last bucket counting all values beyond that. Percentiles are derived
+ * from those buckets and are therefore approximations, reporting the upper bound
+ * of the bucket that the requested percentile falls into.
+ *
+ * <p>All statistics are exposed as bean properties, so an instance can be
+ * registered with Spring's {@link org.springframework.jmx.export.MBeanExporter}
+ * for monitoring through JMX, or polled by any other metrics system.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see ExecutorConfigurationSupport#setTaskExecutionMetrics
+ */
+public class SimpleTaskExecutionMetrics implements TaskExecutionMetrics {
+
+	/** The number of histogram buckets, the last one collecting all overflow values. */
+	public static final int HISTOGRAM_BUCKETS = 32;
+
+
+	private final Histogram queueWait = new Histogram();
+
+	private final Histogram execution = new Histogram();
+
+	private final LongAdder failureCount = new LongAdder();
+
+	private final LongAdder rejectionCount = new LongAdder();
+
+
+	@Override
+	public void recordQueueWait(long nanos) {
+		this.queueWait.record(nanos);
+	}
+
+	@Override
+	public void recordExecution(long nanos, boolean successful) {
+		this.execution.record(nanos);
+		if (!successful) {
+			this.failureCount.increment();
+		}
+	}
+
+	@Override
+	public void recordRejection() {
+		this.rejectionCount.increment();
+	}
+
+
+	/**
+	 * Return the number of tasks that started executing.
+	 */
+	public long getStartedTaskCount() {
+		return this.queueWait.getCount();
+	}
+
+	/**
+	 * Return the number of tasks that completed, successfully or not.
+	 */
+	public long getCompletedTaskCount() {
+		return this.execution.getCount();
+	}
+
+	/**
+	 * Return the number of tasks that completed with an exception.
+	 * <p>Note that tasks submitted as a {@link java.util.concurrent.Future}
+	 * handle their exceptions themselves and will therefore not be counted here.
+	 */
+	public long getFailedTaskCount() {
+		return this.failureCount.sum();
+	}
+
+	/**
+	 * Return the number of tasks that got rejected by the executor.
+	 */
+	public long getRejectedTaskCount() {
+		return this.rejectionCount.sum();
+	}
+
+	/**
+	 * Return the average queue wait time in milliseconds.
+	 */
+	public double getAverageQueueWaitMillis() {
+		return this.queueWait.getAverageMillis();
+	}
+
+	/**
+	 * Return the maximum queue wait time in milliseconds.
+	 */
+	public double getMaxQueueWaitMillis() {
+		return this.queueWait.getMaxMillis();
+	}
+
+	/**
+	 * Return the (approximate) 99th percentile of queue wait times in milliseconds.
+	 */
+	public double getQueueWait99thPercentileMillis() {
+		return this.queueWait.getPercentileMillis(0.99);
+	}
+
+	/**
+	 * Return the bucket counts of the queue wait time histogram.
+	 * @see #getHistogramBucketBoundsMicros()
+	 */
+	public long[] getQueueWaitHistogram() {
+		return this.queueWait.getBucketCounts();
+	}
+
+	/**
+	 * Return the average execution time in milliseconds.
+	 */
+	public double getAverageExecutionMillis() {
+		return this.execution.getAverageMillis();
+	}
+
+	/**
+	 * Return the maximum execution time in milliseconds.
+	 */
+	public double getMaxExecutionMillis() {
+		return this.execution.getMaxMillis();
+	}
+
+	/**
+	 * Return the (approximate) 99th percentile of execution times in milliseconds.
+	 */
+	public double getExecution99thPercentileMillis() {
+		return this.execution.getPercentileMillis(0.99);
+	}
+
+	/**
+	 * Return the bucket counts of the execution time histogram.
+	 * @see #getHistogramBucketBoundsMicros()
+	 */
+	public long[] getExecutionHistogram() {
+		return this.execution.getBucketCounts();
+	}
+
+	/**
+	 * Return the upper bounds of the histogram buckets in microseconds,
+	 * with the last bucket being unbounded ({@code Long.MAX_VALUE}).
+	 */
+	public long[] getHistogramBucketBoundsMicros() {
+		long[] bounds = new long[HISTOGRAM_BUCKETS];
+		for (int i = 0; i < HISTOGRAM_BUCKETS - 1; i++) {
+			bounds[i] = 1L << i;
+		}
+		bounds[HISTOGRAM_BUCKETS - 1] = Long.MAX_VALUE;
+		return bounds;
+	}
+
+	/**
+	 * Reset all statistics.
+	 * <p>Concurrent recordings may or may not be reflected after the reset.
+	 */
+	public void reset() {
+		this.queueWait.reset();
+		this.execution.reset();
+		this.failureCount.reset();
+		this.rejectionCount.reset();
+	}
+
+
+	@Override
+	public String toString() {
+		return "started=" + getStartedTaskCount() + ", completed=" + getCompletedTaskCount() +
+				", failed=" + getFailedTaskCount() + ", rejected=" + getRejectedTaskCount() +
+				", averageQueueWaitMillis=" + getAverageQueueWaitMillis() +
+				", averageExecutionMillis=" + getAverageExecutionMillis();
+	}
+
+
+	/**
+	 * Lock-free histogram with exponential microsecond buckets.
+	 */
+	private static class Histogram {
+
+		private final AtomicLongArray buckets = new AtomicLongArray(HISTOGRAM_BUCKETS);
+
+		private final LongAdder count = new LongAdder();
+
+		private final LongAdder totalNanos = new LongAdder();
+
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+		public void record(long nanos) {
+			if (nanos < 0) {
+				nanos = 0;
+			}
+			long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+			int index = (micros <= 1 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(micros - 1), HISTOGRAM_BUCKETS - 1));
+			this.buckets.incrementAndGet(index);
+			this.count.increment();
+			this.totalNanos.add(nanos);
+			this.maxNanos.accumulate(nanos);
+		}
+
+		public long getCount() {
+			return this.count.sum();
+		}
+
+		public double getAverageMillis() {
+			long count = this.count.sum();
+			return (count > 0 ? toMillis(this.totalNanos.sum()) / count : 0);
+		}
+
+		public double getMaxMillis() {
+			return toMillis(this.maxNanos.get());
+		}
+
+		public double getPercentileMillis(double percentile) {
+			long[] counts = getBucketCounts();
+			long total = 0;
+			for (long bucketCount : counts) {
+				total += bucketCount;
+			}
+			if (total == 0) {
+				return 0;
+			}
+			long threshold = (long) Math.ceil(percentile * total);
+			long cumulative = 0;
+			for (int i = 0; i < counts.length - 1; i++) {
+				cumulative += counts[i];
+				if (cumulative >= threshold) {
+					return Math.min((1L << i) / 1000.0, getMaxMillis());
+				}
+			}
+			return getMaxMillis();
+		}
+
+		public long[] getBucketCounts() {
+			long[] counts = new long[HISTOGRAM_BUCKETS];
+			for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+				counts[i] = this.buckets.get(i);
+			}
+			return counts;
+		}
+
+		public void reset() {
+			for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+				this.buckets.set(i, 0);
+			}
+			this.count.reset();
+			this.totalNanos.reset();
+			this.maxNanos.reset();
+		}
+
+		private static double toMillis(long nanos) {
+			return nanos / 1000000.0;
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+/**
+ * Callback interface for recording task execution metrics of an
+ * {@link ExecutorConfigurationSupport} subclass, allowing to tell
+ * queueing latency apart from actual execution time.
+ *
+ * <p>Implementations are invoked on submitting and worker threads for every
+ * single task, so they need to be thread-safe and should be as cheap as
+ * possible, e.g. just updating counters which a metrics registry can poll.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see ExecutorConfigurationSupport#setTaskExecutionMetrics
+ * @see SimpleTaskExecutionMetrics
+ */
+public interface TaskExecutionMetrics {
+
+	/**
+	 * Record the time that a task has been waiting before it started executing:
+	 * from submission for immediate tasks, or from its due time for scheduled tasks.
+	 * @param nanos the wait time in nanoseconds
+	 */
+	void recordQueueWait(long nanos);
+
+	/**
+	 * Record the execution time of a task.
+	 * @param nanos the execution time in nanoseconds
+	 * @param successful whether the task completed without throwing an exception
+	 */
+	void recordExecution(long nanos, boolean successful);
+
+	/**
+	 * Record a task that has been rejected by the executor.
+	 */
+	void recordRejection();
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -46,7 +46,9 @@ import org.springframework.util.concurrent.ListenableFutureTask;
  * properties) and exposing it as a Spring {@link org.springframework.core.task.TaskExecutor}.
  * This class is also well suited for management and monitoring (e.g. through JMX),
  * providing several useful attributes: "corePoolSize", "maxPoolSize", "keepAliveSeconds"
- * (all supporting updates at runtime); "poolSize", "activeCount" (for introspection only).
+ * (all supporting updates at runtime); "poolSize", "activeCount", "queueSize" (for
+ * introspection only). For queue wait and execution time statistics, specify a
+ * {@link #setTaskExecutionMetrics TaskExecutionMetrics} callback.
  *
  * <p>The default configuration is a core pool size of 1, with unlimited max pool size
  * and unlimited queue capacity. This is roughly equivalent to
@@ -225,13 +227,17 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport
 		BlockingQueue<Runnable> queue = createQueue(this.queueCapacity);
 
 		ThreadPoolExecutor executor;
-		if (this.taskDecorator != null) {
+		TaskExecutionMetrics metrics = getTaskExecutionMetrics();
+		if (this.taskDecorator != null || metrics != null) {
 			executor = new ThreadPoolExecutor(
 					this.corePoolSize, this.maxPoolSize, this.keepAliveSeconds, TimeUnit.SECONDS,
 					queue, threadFactory, rejectedExecutionHandler) {
 				@Override
 				public void execute(Runnable command) {
-					Runnable decorated = taskDecorator.decorate(command);
+					Runnable decorated = (taskDecorator != null ? taskDecorator.decorate(command) : command);
+					if (metrics != null) {
+						decorated = new MetricsRecordingRunnable(decorated, metrics);
+					}
 					if (decorated != command) {
 						decoratedTaskMap.put(decorated, command);
 					}
@@ -306,6 +312,19 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport
 		return this.threadPoolExecutor.getActiveCount();
 	}
 
+	/**
+	 * Return the number of tasks currently waiting in the queue.
+	 * @since 5.2.3
+	 * @see java.util.concurrent.ThreadPoolExecutor#getQueue()
+	 */
+	public int getQueueSize() {
+		if (this.threadPoolExecutor == null) {
+			// Not initialized yet: assume no queued tasks.
+			return 0;
+		}
+		return this.threadPoolExecutor.getQueue().size();
+	}
+
 
 	@Override
 	public void execute(Runnable task) {
@@ -381,4 +400,42 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport
 		}
 	}
 
+
+	/**
+	 * Runnable wrapper which records the time between submission and execution
+	 * as well as the execution time of the target Runnable.
+	 */
+	private static class MetricsRecordingRunnable implements Runnable {
+
+		private final Runnable target;
+
+		private final TaskExecutionMetrics metrics;
+
+		private final long submissionTime = System.nanoTime();
+
+		public MetricsRecordingRunnable(Runnable target, TaskExecutionMetrics metrics) {
+			this.target = target;
+			this.metrics = metrics;
+		}
+
+		@Override
+		public void run() {
+			long startTime = System.nanoTime();
+			this.metrics.recordQueueWait(startTime - this.submissionTime);
+			boolean successful = false;
+			try {
+				this.target.run();
+				successful = true;
+			}
+			finally {
+				this.metrics.recordExecution(System.nanoTime() - startTime, successful);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return this.target.toString();
+		}
+	}
+
 }
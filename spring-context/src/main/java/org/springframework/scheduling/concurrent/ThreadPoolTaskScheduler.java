@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ package org.springframework.scheduling.concurrent;
 import java.util.Date;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -131,7 +133,9 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 
 	/**
 	 * Create a new {@link ScheduledExecutorService} instance.
-	 * <p>The default implementation creates a {@link ScheduledThreadPoolExecutor}.
+	 * <p>The default implementation creates a {@link ScheduledThreadPoolExecutor},
+	 * recording task execution metrics if a {@link #setTaskExecutionMetrics
+	 * TaskExecutionMetrics} callback has been specified.
 	 * Can be overridden in subclasses to provide custom {@link ScheduledExecutorService} instances.
 	 * @param poolSize the specified pool size
 	 * @param threadFactory the ThreadFactory to use
@@ -143,6 +147,11 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 	protected ScheduledExecutorService createExecutor(
 			int poolSize, ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
 
+		TaskExecutionMetrics metrics = getTaskExecutionMetrics();
+		if (metrics != null) {
+			return new MetricsRecordingScheduledThreadPoolExecutor(
+					poolSize, threadFactory, rejectedExecutionHandler, metrics);
+		}
 		return new ScheduledThreadPoolExecutor(poolSize, threadFactory, rejectedExecutionHandler);
 	}
 
@@ -209,6 +218,22 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 		return getScheduledThreadPoolExecutor().getActiveCount();
 	}
 
+	/**
+	 * Return the number of tasks currently waiting in the queue,
+	 * including scheduled tasks which are not due yet.
+	 * <p>Requires an underlying {@link ScheduledThreadPoolExecutor}.
+	 * @since 5.2.3
+	 * @see #getScheduledThreadPoolExecutor()
+	 * @see java.util.concurrent.ScheduledThreadPoolExecutor#getQueue()
+	 */
+	public int getQueueSize() {
+		if (this.scheduledExecutor == null) {
+			// Not initialized yet: assume no queued tasks.
+			return 0;
+		}
+		return getScheduledThreadPoolExecutor().getQueue().size();
+	}
+
 
 	// SchedulingTaskExecutor implementation
 
@@ -246,7 +271,7 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 			Callable<T> taskToUse = task;
 			ErrorHandler errorHandler = this.errorHandler;
 			if (errorHandler != null) {
-				taskToUse = new DelegatingErrorHandlingCallable<>(task, errorHandler);
+				taskToUse = new DelegatingErrorHandlingCallable<>(task, metricsRecordingErrorHandler(errorHandler));
 			}
 			return executor.submit(taskToUse);
 		}
@@ -310,7 +335,8 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 			if (errorHandler == null) {
 				errorHandler = TaskUtils.getDefaultErrorHandler(true);
 			}
-			return new ReschedulingRunnable(task, trigger, executor, errorHandler).schedule();
+			return new ReschedulingRunnable(
+					task, trigger, executor, metricsRecordingErrorHandler(errorHandler)).schedule();
 		}
 		catch (RejectedExecutionException ex) {
 			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
@@ -377,7 +403,24 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 
 
 	private Runnable errorHandlingTask(Runnable task, boolean isRepeatingTask) {
-		return TaskUtils.decorateTaskWithErrorHandler(task, this.errorHandler, isRepeatingTask);
+		ErrorHandler errorHandler = this.errorHandler;
+		if (errorHandler == null) {
+			errorHandler = TaskUtils.getDefaultErrorHandler(isRepeatingTask);
+		}
+		return TaskUtils.decorateTaskWithErrorHandler(task, metricsRecordingErrorHandler(errorHandler), isRepeatingTask);
+	}
+
+	/**
+	 * Let the given ErrorHandler report handled errors as failed executions
+	 * to the task execution metrics, if any. Such errors never reach the
+	 * {@code afterExecute} callback of the underlying executor otherwise.
+	 */
+	private ErrorHandler metricsRecordingErrorHandler(ErrorHandler errorHandler) {
+		ScheduledExecutorService executor = this.scheduledExecutor;
+		if (executor instanceof MetricsRecordingScheduledThreadPoolExecutor) {
+			return ((MetricsRecordingScheduledThreadPoolExecutor) executor).failureRecordingErrorHandler(errorHandler);
+		}
+		return errorHandler;
 	}
 
 
@@ -405,4 +448,77 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 		}
 	}
 
+
+	/**
+	 * ScheduledThreadPoolExecutor which records the delay between the due time
+	 * and the actual start of each task as well as its execution time.
+	 */
+	private static class MetricsRecordingScheduledThreadPoolExecutor extends ScheduledThreadPoolExecutor {
+
+		private final TaskExecutionMetrics metrics;
+
+		private final ThreadLocal<TaskExecution> currentExecution = ThreadLocal.withInitial(TaskExecution::new);
+
+		public MetricsRecordingScheduledThreadPoolExecutor(int poolSize, ThreadFactory threadFactory,
+				RejectedExecutionHandler rejectedExecutionHandler, TaskExecutionMetrics metrics) {
+
+			super(poolSize, threadFactory, rejectedExecutionHandler);
+			this.metrics = metrics;
+		}
+
+		@Override
+		protected void beforeExecute(Thread thread, Runnable task) {
+			if (task instanceof Delayed) {
+				// A negative delay indicates how long the task has been overdue
+				long overdue = -((Delayed) task).getDelay(TimeUnit.NANOSECONDS);
+				this.metrics.recordQueueWait(Math.max(overdue, 0));
+			}
+			TaskExecution execution = this.currentExecution.get();
+			execution.failed = false;
+			execution.startTime = System.nanoTime();
+		}
+
+		@Override
+		protected void afterExecute(Runnable task, @Nullable Throwable ex) {
+			TaskExecution execution = this.currentExecution.get();
+			boolean failed = (ex != null || execution.failed || isCompletedExceptionally(task));
+			this.metrics.recordExecution(System.nanoTime() - execution.startTime, !failed);
+		}
+
+		public ErrorHandler failureRecordingErrorHandler(ErrorHandler errorHandler) {
+			return ex -> {
+				this.currentExecution.get().failed = true;
+				errorHandler.handleError(ex);
+			};
+		}
+
+		private static boolean isCompletedExceptionally(Runnable task) {
+			// Exceptions thrown by a task are held by its ScheduledFutureTask
+			// rather than being passed into afterExecute.
+			if (task instanceof Future && ((Future<?>) task).isDone() && !((Future<?>) task).isCancelled()) {
+				try {
+					((Future<?>) task).get();
+				}
+				catch (ExecutionException ex) {
+					return true;
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return false;
+		}
+	}
+
+
+	/**
+	 * Mutable per-thread state for the currently executing task.
+	 */
+	private static class TaskExecution {
+
+		long startTime;
+
+		boolean failed;
+	}
+
 }
@@ -0,0 +1,422 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.support;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Representation of a
+ * <a href="https://www.manpagez.com/man/5/crontab/">Crontab pattern</a>
+ * based on {@code java.time}, supporting the same syntax as
+ * {@link CronSequenceGenerator}: six single space-separated fields representing
+ * second, minute, hour, day, month and weekday.
+ *
+ * <p>In contrast to {@link CronSequenceGenerator}, all fields are precomputed
+ * into {@code long} bit masks at parse time, and {@link #next(ZonedDateTime)}
+ * searches for the next match on primitive field values only, without going
+ * through a {@link java.util.Calendar} or any intermediate objects. Instances
+ * are immutable and therefore safe to share across any number of triggers.
+ *
+ * <p>Matches are calculated on the local date-time of the given time zone.
+ * Local times that do not exist because of a daylight saving gap are skipped,
+ * just like with {@link CronSequenceGenerator}. Local times that occur twice
+ * because of a daylight saving overlap are matched once, preferring the
+ * offset of the given starting point where possible.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see #parse(String)
+ * @see CronTrigger
+ */
+public final class CronExpression {
+
+	/**
+	 * Maximum number of years to search for a match before giving up:
+	 * covers the full cycle of a specific weekday falling on February 29th.
+	 */
+	private static final int MAX_YEARS = 28;
+
+	private static final String[] DAY_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+	private static final String[] MONTH_NAMES =
+			{"FOO", "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+
+	private static final int[] DAY_OF_WEEK_OFFSETS = {0, 3, 2, 5, 0, 3, 5, 1, 4, 6, 2, 4};
+
+
+	private final String expression;
+
+	private final long seconds;
+
+	private final long minutes;
+
+	private final long hours;
+
+	// 1-31
+	private final long daysOfMonth;
+
+	// 1-12, as in java.time.Month
+	private final long months;
+
+	// 0-6, starting with Sunday
+	private final long daysOfWeek;
+
+
+	private CronExpression(String expression, String[] fields) {
+		this.expression = expression;
+		this.seconds = parseNumberHits(fields[0], 0, 60);
+		this.minutes = parseNumberHits(fields[1], 0, 60);
+		this.hours = parseNumberHits(fields[2], 0, 24);
+		// Days of month start with 1, so parse with one more slot and remove it from the front
+		this.daysOfMonth = parseDays(fields[3], 32) & ~1L;
+		this.months = parseNumberHits(replaceOrdinals(fields[4], MONTH_NAMES), 1, 13);
+		long daysOfWeek = parseDays(replaceOrdinals(fields[5], DAY_NAMES), 8);
+		if ((daysOfWeek & (1L << 7)) != 0) {
+			// Sunday can be represented as 0 or 7
+			daysOfWeek = (daysOfWeek | 1L) & ~(1L << 7);
+		}
+		this.daysOfWeek = daysOfWeek;
+	}
+
+
+	/**
+	 * Parse the given cron expression into a {@link CronExpression}.
+	 * @param expression a space-separated list of time fields
+	 * @return the parsed expression
+	 * @throws IllegalArgumentException if the expression cannot be parsed
+	 */
+	public static CronExpression parse(String expression) {
+		Assert.hasLength(expression, "Expression must not be empty");
+		String[] fields = StringUtils.tokenizeToStringArray(expression, " ");
+		if (fields.length != 6) {
+			throw new IllegalArgumentException(String.format(
+					"Cron expression must consist of 6 fields (found %d in \"%s\")", fields.length, expression));
+		}
+		return new CronExpression(expression, fields);
+	}
+
+	/**
+	 * Determine whether the specified expression represents a valid cron pattern.
+	 * @param expression the expression to evaluate
+	 * @return {@code true} if the given expression is a valid cron expression
+	 */
+	public static boolean isValidExpression(@Nullable String expression) {
+		if (!StringUtils.hasLength(expression)) {
+			return false;
+		}
+		try {
+			parse(expression);
+			return true;
+		}
+		catch (IllegalArgumentException ex) {
+			return false;
+		}
+	}
+
+
+	/**
+	 * Return the cron pattern that this expression has been parsed from.
+	 */
+	public String getExpression() {
+		return this.expression;
+	}
+
+	/**
+	 * Calculate the next date-time matching this expression, strictly after
+	 * the given date-time. The return value will have a whole number of seconds
+	 * and will be expressed in the time zone of the given date-time.
+	 * @param dateTime the seed value
+	 * @return the next matching date-time
+	 * @throws IllegalArgumentException if no match can be found within
+	 * a reasonable time frame (e.g. for February 30th)
+	 */
+	public ZonedDateTime next(ZonedDateTime dateTime) {
+		ZonedDateTime start = dateTime.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+		ZoneRules rules = start.getZone().getRules();
+		LocalDateTime candidate = start.toLocalDateTime();
+		int maxYear = candidate.getYear() + MAX_YEARS;
+
+		while (true) {
+			LocalDateTime match = nextLocal(candidate.getYear(), candidate.getMonthValue(), candidate.getDayOfMonth(),
+					candidate.getHour(), candidate.getMinute(), candidate.getSecond(), maxYear);
+			if (match == null) {
+				throw new IllegalArgumentException("Invalid cron expression \"" + this.expression +
+						"\" led to runaway search for next trigger");
+			}
+			ZoneOffsetTransition transition = rules.getTransition(match);
+			if (transition == null) {
+				return ZonedDateTime.of(match, start.getZone());
+			}
+			if (transition.isGap()) {
+				// Local time does not exist in this time zone: skip to the end of the gap
+				candidate = transition.getDateTimeAfter();
+				continue;
+			}
+			ZonedDateTime result = ZonedDateTime.ofLocal(match, start.getZone(), start.getOffset());
+			if (result.isBefore(start)) {
+				result = result.withLaterOffsetAtOverlap();
+			}
+			if (!result.isBefore(start)) {
+				return result;
+			}
+			candidate = match.plusSeconds(1);
+		}
+	}
+
+	/**
+	 * Find the next local date-time matching all fields, starting from
+	 * (and including) the given field values.
+	 * @return the matching local date-time, or {@code null} if none
+	 * found up until the given maximum year
+	 */
+	@Nullable
+	private LocalDateTime nextLocal(int year, int month, int day, int hour, int minute, int second, int maxYear) {
+		while (true) {
+			// Roll over any field that has been moved past its maximum
+			if (second > 59) {
+				second = 0;
+				minute++;
+			}
+			if (minute > 59) {
+				minute = 0;
+				hour++;
+			}
+			if (hour > 23) {
+				hour = 0;
+				day++;
+			}
+			if (day > lengthOfMonth(year, month)) {
+				day = 1;
+				month++;
+			}
+			if (month > 12) {
+				month = 1;
+				year++;
+			}
+			if (year > maxYear) {
+				return null;
+			}
+
+			int next = nextSetBit(this.months, month);
+			if (next != month) {
+				month = (next != -1 ? next : 13);
+				day = 1;
+				hour = minute = second = 0;
+				continue;
+			}
+			next = nextDay(year, month, day);
+			if (next != day) {
+				day = (next != -1 ? next : 32);
+				hour = minute = second = 0;
+				continue;
+			}
+			next = nextSetBit(this.hours, hour);
+			if (next != hour) {
+				hour = (next != -1 ? next : 24);
+				minute = second = 0;
+				continue;
+			}
+			next = nextSetBit(this.minutes, minute);
+			if (next != minute) {
+				minute = (next != -1 ? next : 60);
+				second = 0;
+				continue;
+			}
+			next = nextSetBit(this.seconds, second);
+			if (next != second) {
+				second = (next != -1 ? next : 60);
+				continue;
+			}
+			return LocalDateTime.of(year, month, day, hour, minute, second);
+		}
+	}
+
+	/**
+	 * Find the next day in the given month, starting from (and including) the
+	 * given day, that matches both the day-of-month and the day-of-week field.
+	 * @return the matching day, or -1 if none left in the given month
+	 */
+	private int nextDay(int year, int month, int day) {
+		int length = lengthOfMonth(year, month);
+		int dayOfWeek = dayOfWeek(year, month, day);
+		for (int current = day; current <= length; current++) {
+			if ((this.daysOfMonth & (1L << current)) != 0 && (this.daysOfWeek & (1L << dayOfWeek)) != 0) {
+				return current;
+			}
+			dayOfWeek = (dayOfWeek == 6 ? 0 : dayOfWeek + 1);
+		}
+		return -1;
+	}
+
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof CronExpression)) {
+			return false;
+		}
+		CronExpression otherCron = (CronExpression) other;
+		return (this.months == otherCron.months && this.daysOfMonth == otherCron.daysOfMonth &&
+				this.daysOfWeek == otherCron.daysOfWeek && this.hours == otherCron.hours &&
+				this.minutes == otherCron.minutes && this.seconds == otherCron.seconds);
+	}
+
+	@Override
+	public int hashCode() {
+		return (17 * Long.hashCode(this.months) + 29 * Long.hashCode(this.daysOfMonth) +
+				37 * Long.hashCode(this.daysOfWeek) + 41 * Long.hashCode(this.hours) +
+				53 * Long.hashCode(this.minutes) + 61 * Long.hashCode(this.seconds));
+	}
+
+	@Override
+	public String toString() {
+		return this.expression;
+	}
+
+
+	// Bit mask and calendar arithmetic
+
+	private static int nextSetBit(long bits, int fromIndex) {
+		long remaining = bits & (-1L << fromIndex);
+		return (remaining != 0 ? Long.numberOfTrailingZeros(remaining) : -1);
+	}
+
+	private static int lengthOfMonth(int year, int month) {
+		switch (month) {
+			case 2:
+				return (Year.isLeap(year) ? 29 : 28);
+			case 4:
+			case 6:
+			case 9:
+			case 11:
+				return 30;
+			default:
+				return 31;
+		}
+	}
+
+	/**
+	 * Calculate the day of week for the given date, with 0 representing Sunday.
+	 */
+	private static int dayOfWeek(int year, int month, int day) {
+		if (month < 3) {
+			year--;
+		}
+		return (year + year / 4 - year / 100 + year / 400 + DAY_OF_WEEK_OFFSETS[month - 1] + day) % 7;
+	}
+
+
+	// Parsing logic invoked by the constructor
+
+	/**
+	 * Replace the given names (case insensitive) with their index in the array.
+	 */
+	private static String replaceOrdinals(String value, String[] names) {
+		value = value.toUpperCase();
+		for (int i = 0; i < names.length; i++) {
+			value = StringUtils.replace(value, names[i], Integer.toString(i));
+		}
+		return value;
+	}
+
+	private long parseDays(String field, int max) {
+		if (field.contains("?")) {
+			field = "*";
+		}
+		return parseNumberHits(field, 0, max);
+	}
+
+	private long parseNumberHits(String value, int min, int max) {
+		long bits = 0;
+		String[] fields = StringUtils.delimitedListToStringArray(value, ",");
+		for (String field : fields) {
+			if (!field.contains("/")) {
+				// Not an incrementer so it must be a range (possibly empty)
+				int[] range = getRange(field, min, max);
+				for (int i = range[0]; i <= range[1]; i++) {
+					bits |= (1L << i);
+				}
+			}
+			else {
+				String[] split = StringUtils.delimitedListToStringArray(field, "/");
+				if (split.length > 2) {
+					throw new IllegalArgumentException("Incrementer has more than two fields: '" +
+							field + "' in expression \"" + this.expression + "\"");
+				}
+				int[] range = getRange(split[0], min, max);
+				if (!split[0].contains("-")) {
+					range[1] = max - 1;
+				}
+				int delta = Integer.parseInt(split[1]);
+				if (delta <= 0) {
+					throw new IllegalArgumentException("Incrementer delta must be 1 or higher: '" +
+							field + "' in expression \"" + this.expression + "\"");
+				}
+				for (int i = range[0]; i <= range[1]; i += delta) {
+					bits |= (1L << i);
+				}
+			}
+		}
+		return bits;
+	}
+
+	private int[] getRange(String field, int min, int max) {
+		int[] result = new int[2];
+		if (field.contains("*")) {
+			result[0] = min;
+			result[1] = max - 1;
+			return result;
+		}
+		if (!field.contains("-")) {
+			result[0] = result[1] = Integer.parseInt(field);
+		}
+		else {
+			String[] split = StringUtils.delimitedListToStringArray(field, "-");
+			if (split.length > 2) {
+				throw new IllegalArgumentException("Range has more than two fields: '" +
+						field + "' in expression \"" + this.expression + "\"");
+			}
+			result[0] = Integer.parseInt(split[0]);
+			result[1] = Integer.parseInt(split[1]);
+		}
+		if (result[0] >= max || result[1] >= max) {
+			throw new IllegalArgumentException("Range exceeds maximum (" + max + "): '" +
+					field + "' in expression \"" + this.expression + "\"");
+		}
+		if (result[0] < min || result[1] < min) {
+			throw new IllegalArgumentException("Range less than minimum (" + min + "): '" +
+					field + "' in expression \"" + this.expression + "\"");
+		}
+		if (result[0] > result[1]) {
+			throw new IllegalArgumentException("Invalid inverted range: '" + field +
+					"' in expression \"" + this.expression + "\"");
+		}
+		return result;
+	}
+
+}
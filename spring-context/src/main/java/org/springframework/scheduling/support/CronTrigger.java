@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,24 +16,29 @@
 
 package org.springframework.scheduling.support;
 
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.Date;
 import java.util.TimeZone;
 
 import org.springframework.lang.Nullable;
 import org.springframework.scheduling.Trigger;
 import org.springframework.scheduling.TriggerContext;
+import org.springframework.util.Assert;
 
 /**
  * {@link Trigger} implementation for cron expressions.
- * Wraps a {@link CronSequenceGenerator}.
+ * Wraps a {@link CronExpression}.
  *
  * @author Juergen Hoeller
  * @since 3.0
- * @see CronSequenceGenerator
+ * @see CronExpression
  */
 public class CronTrigger implements Trigger {
 
-	private final CronSequenceGenerator sequenceGenerator;
+	private final CronExpression expression;
+
+	private final ZoneId zoneId;
 
 
 	/**
@@ -42,7 +47,7 @@ public class CronTrigger implements Trigger {
 	 * expression conventions
 	 */
 	public CronTrigger(String expression) {
-		this.sequenceGenerator = new CronSequenceGenerator(expression);
+		this(expression, ZoneId.systemDefault());
 	}
 
 	/**
@@ -52,7 +57,21 @@ public class CronTrigger implements Trigger {
 	 * @param timeZone a time zone in which the trigger times will be generated
 	 */
 	public CronTrigger(String expression, TimeZone timeZone) {
-		this.sequenceGenerator = new CronSequenceGenerator(expression, timeZone);
+		this(expression, timeZone.toZoneId());
+	}
+
+	/**
+	 * Build a {@link CronTrigger} from the pattern provided in the given time zone.
+	 * @param expression a space-separated list of time fields, following cron
+	 * expression conventions
+	 * @param zoneId a time zone in which the trigger times will be generated
+	 * @since 5.2.3
+	 * @see CronExpression#parse(String)
+	 */
+	public CronTrigger(String expression, ZoneId zoneId) {
+		Assert.notNull(zoneId, "ZoneId must not be null");
+		this.expression = CronExpression.parse(expression);
+		this.zoneId = zoneId;
 	}
 
 
@@ -60,7 +79,7 @@ public class CronTrigger implements Trigger {
 	 * Return the cron pattern that this trigger has been built with.
 	 */
 	public String getExpression() {
-		return this.sequenceGenerator.getExpression();
+		return this.expression.getExpression();
 	}
 
 
@@ -85,24 +104,25 @@ public class CronTrigger implements Trigger {
 		else {
 			date = new Date();
 		}
-		return this.sequenceGenerator.next(date);
+		ZonedDateTime dateTime = ZonedDateTime.ofInstant(date.toInstant(), this.zoneId);
+		return Date.from(this.expression.next(dateTime).toInstant());
 	}
 
 
 	@Override
 	public boolean equals(@Nullable Object other) {
 		return (this == other || (other instanceof CronTrigger &&
-				this.sequenceGenerator.equals(((CronTrigger) other).sequenceGenerator)));
+				this.expression.equals(((CronTrigger) other).expression)));
 	}
 
 	@Override
 	public int hashCode() {
-		return this.sequenceGenerator.hashCode();
+		return this.expression.hashCode();
 	}
 
 	@Override
 	public String toString() {
-		return this.sequenceGenerator.toString();
+		return getClass().getSimpleName() + ": " + this.expression;
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,7 +17,9 @@
 package org.springframework.validation.beanvalidation;
 
 import java.lang.reflect.Method;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
@@ -25,6 +27,8 @@ import javax.validation.Validation;
 import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
 import javax.validation.executable.ExecutableValidator;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.MethodDescriptor;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
@@ -32,7 +36,9 @@ import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.SmartFactoryBean;
 import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.MethodClassKey;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.lang.Nullable;
 import org.springframework.util.ClassUtils;
 import org.springframework.validation.annotation.Validated;
 
@@ -52,6 +58,10 @@ import org.springframework.validation.annotation.Validated;
  *
  * <p>As of Spring 5.0, this functionality requires a Bean Validation 1.1 provider.
  *
+ * <p>As of Spring 5.2.3, the constraint metadata for each method is determined once
+ * per target class, skipping the validation of parameters and/or return value
+ * for methods which do not declare any constraints (or cascades) for them.
+ *
  * @author Juergen Hoeller
  * @since 3.1
  * @see MethodValidationPostProcessor
@@ -61,6 +71,8 @@ public class MethodValidationInterceptor implements MethodInterceptor {
 
 	private final Validator validator;
 
+	private final Map<MethodClassKey, ConstraintMetadata> constraintMetadataCache = new ConcurrentHashMap<>(256);
+
 
 	/**
 	 * Create a new MethodValidationInterceptor using a default JSR-303 validator underneath.
@@ -94,6 +106,12 @@ public class MethodValidationInterceptor implements MethodInterceptor {
 			return invocation.proceed();
 		}
 
+		Object target = invocation.getThis();
+		ConstraintMetadata metadata = getConstraintMetadata(invocation.getMethod(), target);
+		if (!metadata.hasConstrainedParameters() && !metadata.hasConstrainedReturnValue()) {
+			return invocation.proceed();
+		}
+
 		Class<?>[] groups = determineValidationGroups(invocation);
 
 		// Standard Bean Validation 1.1 API
@@ -101,32 +119,93 @@ public class MethodValidationInterceptor implements MethodInterceptor {
 		Method methodToValidate = invocation.getMethod();
 		Set<ConstraintViolation<Object>> result;
 
-		try {
-			result = execVal.validateParameters(
-					invocation.getThis(), methodToValidate, invocation.getArguments(), groups);
-		}
-		catch (IllegalArgumentException ex) {
-			// Probably a generic type mismatch between interface and impl as reported in SPR-12237 / HV-1011
-			// Let's try to find the bridged method on the implementation class...
-			methodToValidate = BridgeMethodResolver.findBridgedMethod(
-					ClassUtils.getMostSpecificMethod(invocation.getMethod(), invocation.getThis().getClass()));
-			result = execVal.validateParameters(
-					invocation.getThis(), methodToValidate, invocation.getArguments(), groups);
-		}
-		if (!result.isEmpty()) {
-			throw new ConstraintViolationException(result);
+		if (metadata.hasConstrainedParameters()) {
+			try {
+				result = execVal.validateParameters(
+						target, methodToValidate, invocation.getArguments(), groups);
+			}
+			catch (IllegalArgumentException ex) {
+				// Probably a generic type mismatch between interface and impl as reported in SPR-12237 / HV-1011
+				// Let's try to find the bridged method on the implementation class...
+				methodToValidate = findBridgedMethod(invocation.getMethod(), target);
+				result = execVal.validateParameters(
+						target, methodToValidate, invocation.getArguments(), groups);
+			}
+			if (!result.isEmpty()) {
+				throw new ConstraintViolationException(result);
+			}
 		}
 
 		Object returnValue = invocation.proceed();
 
-		result = execVal.validateReturnValue(invocation.getThis(), methodToValidate, returnValue, groups);
-		if (!result.isEmpty()) {
-			throw new ConstraintViolationException(result);
+		if (metadata.hasConstrainedReturnValue()) {
+			try {
+				result = execVal.validateReturnValue(target, methodToValidate, returnValue, groups);
+			}
+			catch (IllegalArgumentException ex) {
+				if (methodToValidate != invocation.getMethod()) {
+					throw ex;
+				}
+				// Same generic type mismatch as above, without parameters validated before
+				methodToValidate = findBridgedMethod(invocation.getMethod(), target);
+				result = execVal.validateReturnValue(target, methodToValidate, returnValue, groups);
+			}
+			if (!result.isEmpty()) {
+				throw new ConstraintViolationException(result);
+			}
 		}
 
 		return returnValue;
 	}
 
+	private Method findBridgedMethod(Method method, Object target) {
+		return BridgeMethodResolver.findBridgedMethod(ClassUtils.getMostSpecificMethod(method, target.getClass()));
+	}
+
+	/**
+	 * Obtain the constraint metadata for the given method on the given target,
+	 * determining it on first access and caching it per target class.
+	 */
+	private ConstraintMetadata getConstraintMetadata(Method method, Object target) {
+		MethodClassKey cacheKey = new MethodClassKey(method, target.getClass());
+		ConstraintMetadata metadata = this.constraintMetadataCache.get(cacheKey);
+		if (metadata == null) {
+			metadata = determineConstraintMetadata(method, target);
+			this.constraintMetadataCache.put(cacheKey, metadata);
+		}
+		return metadata;
+	}
+
+	private ConstraintMetadata determineConstraintMetadata(Method method, Object target) {
+		try {
+			BeanDescriptor beanDescriptor = this.validator.getConstraintsForClass(target.getClass());
+			if (beanDescriptor == null) {
+				return ConstraintMetadata.UNKNOWN;
+			}
+			MethodDescriptor methodDescriptor =
+					beanDescriptor.getConstraintsForMethod(method.getName(), method.getParameterTypes());
+			Method bridgedMethod = findBridgedMethod(method, target);
+			MethodDescriptor bridgedDescriptor = (!bridgedMethod.equals(method) ?
+					beanDescriptor.getConstraintsForMethod(bridgedMethod.getName(), bridgedMethod.getParameterTypes()) :
+					null);
+			return new ConstraintMetadata(
+					hasConstrainedParameters(methodDescriptor) || hasConstrainedParameters(bridgedDescriptor),
+					hasConstrainedReturnValue(methodDescriptor) || hasConstrainedReturnValue(bridgedDescriptor));
+		}
+		catch (RuntimeException ex) {
+			// Constraint metadata not accessible -> validate every invocation
+			return ConstraintMetadata.UNKNOWN;
+		}
+	}
+
+	private static boolean hasConstrainedParameters(@Nullable MethodDescriptor descriptor) {
+		return (descriptor != null && descriptor.hasConstrainedParameters());
+	}
+
+	private static boolean hasConstrainedReturnValue(@Nullable MethodDescriptor descriptor) {
+		return (descriptor != null && descriptor.hasConstrainedReturnValue());
+	}
+
 	private boolean isFactoryBeanMetadataMethod(Method method) {
 		Class<?> clazz = method.getDeclaringClass();
 
@@ -163,4 +242,30 @@ public class MethodValidationInterceptor implements MethodInterceptor {
 		return (validatedAnn != null ? validatedAnn.value() : new Class<?>[0]);
 	}
 
+
+	/**
+	 * Holder for the constraint metadata of a specific method on a target class.
+	 */
+	private static final class ConstraintMetadata {
+
+		static final ConstraintMetadata UNKNOWN = new ConstraintMetadata(true, true);
+
+		private final boolean constrainedParameters;
+
+		private final boolean constrainedReturnValue;
+
+		ConstraintMetadata(boolean constrainedParameters, boolean constrainedReturnValue) {
+			this.constrainedParameters = constrainedParameters;
+			this.constrainedReturnValue = constrainedReturnValue;
+		}
+
+		public boolean hasConstrainedParameters() {
+			return this.constrainedParameters;
+		}
+
+		public boolean hasConstrainedReturnValue() {
+			return this.constrainedReturnValue;
+		}
+	}
+
 }
@@ -17,10 +17,8 @@
 package org.springframework.validation.beanvalidation;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -39,6 +37,7 @@ import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.Errors;
 import org.springframework.validation.FieldError;
@@ -76,6 +75,10 @@ public class SpringValidatorAdapter implements SmartValidator, javax.validation.
 	@Nullable
 	private javax.validation.Validator targetValidator;
 
+	/** Cache of exposed constraint attributes per ConstraintDescriptor. */
+	private final Map<ConstraintDescriptor<?>, Object[]> constraintAttributesCache =
+			new ConcurrentReferenceHashMap<>(64);
+
 
 	/**
 	 * Create a new SpringValidatorAdapter for the given JSR-303 Validator.
@@ -263,8 +266,22 @@ public class SpringValidatorAdapter implements SmartValidator, javax.validation.
 	 * @see org.springframework.validation.DefaultBindingErrorProcessor#getArgumentsForBindError
 	 */
 	protected Object[] getArgumentsForConstraint(String objectName, String field, ConstraintDescriptor<?> descriptor) {
-		List<Object> arguments = new ArrayList<>();
-		arguments.add(getResolvableField(objectName, field));
+		Object[] attributes = this.constraintAttributesCache.get(descriptor);
+		if (attributes == null) {
+			attributes = determineConstraintAttributes(descriptor);
+			this.constraintAttributesCache.put(descriptor, attributes);
+		}
+		Object[] arguments = new Object[attributes.length + 1];
+		arguments[0] = getResolvableField(objectName, field);
+		System.arraycopy(attributes, 0, arguments, 1, attributes.length);
+		return arguments;
+	}
+
+	/**
+	 * Determine the actual attributes of the given constraint descriptor,
+	 * in alphabetical order of their attribute names.
+	 */
+	private Object[] determineConstraintAttributes(ConstraintDescriptor<?> descriptor) {
 		// Using a TreeMap for alphabetical ordering of attribute names
 		Map<String, Object> attributesToExpose = new TreeMap<>();
 		descriptor.getAttributes().forEach((attributeName, attributeValue) -> {
@@ -275,8 +292,7 @@ public class SpringValidatorAdapter implements SmartValidator, javax.validation.
 				attributesToExpose.put(attributeName, attributeValue);
 			}
 		});
-		arguments.addAll(attributesToExpose.values());
-		return arguments.toArray();
+		return attributesToExpose.values().toArray();
 	}
 
 	/**
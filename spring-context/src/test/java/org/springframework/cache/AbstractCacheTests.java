@@ -16,7 +16,10 @@
 
 package org.springframework.cache;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
@@ -111,6 +114,30 @@ public abstract class AbstractCacheTests<T extends Cache> {
 		assertThat((Object) cache.get("enescu")).isNull();
 	}
 
+	@Test
+	public void testCacheBulkOperations() {
+		T cache = getCache();
+
+		String key1 = createRandomKey();
+		String key2 = createRandomKey();
+		String key3 = createRandomKey();
+		Map<String, Object> entries = new LinkedHashMap<>();
+		entries.put(key1, "value1");
+		entries.put(key2, "value2");
+		cache.putAll(entries);
+		assertThat(cache.get(key1).get()).isEqualTo("value1");
+		assertThat(cache.get(key2).get()).isEqualTo("value2");
+
+		Map<Object, Cache.ValueWrapper> values = cache.getAll(Arrays.asList(key1, key2, key3));
+		assertThat(values).containsOnlyKeys(key1, key2);
+		assertThat(values.get(key1).get()).isEqualTo("value1");
+		assertThat(values.get(key2).get()).isEqualTo("value2");
+
+		cache.evictAll(Arrays.asList(key1, key3));
+		assertThat(cache.get(key1)).isNull();
+		assertThat(cache.getAll(Arrays.asList(key1, key2, key3))).containsOnlyKeys(key2);
+	}
+
 	@Test
 	public void testCacheGetCallable() {
 		doTestCacheGetCallable("test");
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.AbstractValueAdaptingCacheTests;
+import org.springframework.core.serializer.support.SerializationDelegate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link BoundedConcurrentMapCache}.
+ *
+ * @author agent
+ */
+public class BoundedConcurrentMapCacheTests extends AbstractValueAdaptingCacheTests<BoundedConcurrentMapCache> {
+
+	private BoundedConcurrentMapCache cache;
+
+	private BoundedConcurrentMapCache cacheNoNull;
+
+
+	@BeforeEach
+	public void setUp() {
+		this.cache = new BoundedConcurrentMapCache(CACHE_NAME, 100);
+		this.cacheNoNull = new BoundedConcurrentMapCache(CACHE_NAME_NO_NULL, 100, null, false);
+	}
+
+	@Override
+	protected BoundedConcurrentMapCache getCache() {
+		return getCache(true);
+	}
+
+	@Override
+	protected BoundedConcurrentMapCache getCache(boolean allowNull) {
+		return (allowNull ? this.cache : this.cacheNoNull);
+	}
+
+	@Override
+	protected Object getNativeCache() {
+		return this.cache;
+	}
+
+
+	@Test
+	public void evictsBeyondMaximumSize() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, 10);
+		for (int i = 0; i < 25; i++) {
+			cache.put(i, "value" + i);
+		}
+		assertThat(cache.getSize()).isEqualTo(10);
+		assertThat(cache.getEvictionCount()).isEqualTo(15);
+		// Least recently written entries are gone
+		assertThat(cache.get(0)).isNull();
+		assertThat(cache.get(24).get()).isEqualTo("value24");
+	}
+
+	@Test
+	public void frequentlyUsedEntriesSurviveScan() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, 10);
+		for (int i = 0; i < 5; i++) {
+			cache.put("hot" + i, i);
+			cache.get("hot" + i);
+		}
+		for (int i = 0; i < 100; i++) {
+			cache.put("scan" + i, i);
+		}
+		for (int i = 0; i < 5; i++) {
+			assertThat(cache.get("hot" + i).get()).isEqualTo(i);
+		}
+	}
+
+	@Test
+	public void replacedEntryDoesNotCountTwice() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, 2);
+		cache.put("key1", "value1");
+		cache.put("key1", "value2");
+		cache.put("key2", "value3");
+		assertThat(cache.getSize()).isEqualTo(2);
+		assertThat(cache.getEvictionCount()).isEqualTo(0);
+		assertThat(cache.get("key1").get()).isEqualTo("value2");
+	}
+
+	@Test
+	public void entriesExpireAfterTimeToLive() throws InterruptedException {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(
+				CACHE_NAME, 100, Duration.ofMillis(50), true);
+		cache.put("default", "value");
+		cache.put("custom", "value", Duration.ofMinutes(1));
+		cache.put("eternal", "value", null);
+		assertThat(cache.get("default")).isNotNull();
+
+		Thread.sleep(100);
+		assertThat(cache.get("default")).isNull();
+		assertThat(cache.get("custom")).isNotNull();
+		assertThat(cache.get("eternal")).isNotNull();
+		assertThat(cache.getExpirationCount()).isEqualTo(1);
+		assertThat(cache.getSize()).isEqualTo(2);
+
+		assertThat(cache.putIfAbsent("default", "other")).isNull();
+		assertThat(cache.get("default").get()).isEqualTo("other");
+	}
+
+	@Test
+	public void nonPositiveTimeToLiveRejected() {
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				new BoundedConcurrentMapCache(CACHE_NAME, 100, Duration.ZERO, true));
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				new BoundedConcurrentMapCache(CACHE_NAME, 100, Duration.ofSeconds(-1), true));
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				this.cache.put("key", "value", Duration.ZERO));
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				this.cache.put("key", "value", Duration.ofSeconds(-1)));
+		assertThat(this.cache.get("key")).isNull();
+		assertThat(this.cache.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void statistics() {
+		this.cache.put("key", "value");
+		this.cache.get("key");
+		this.cache.get("key", String.class);
+		this.cache.get("other");
+		assertThat(this.cache.getHitCount()).isEqualTo(2);
+		assertThat(this.cache.getMissCount()).isEqualTo(1);
+		assertThat(this.cache.getHitRatio()).isEqualTo(2.0 / 3);
+
+		this.cache.resetStatistics();
+		assertThat(this.cache.getHitCount()).isEqualTo(0);
+		assertThat(this.cache.getMissCount()).isEqualTo(0);
+		assertThat(this.cache.getHitRatio()).isEqualTo(1.0);
+	}
+
+	@Test
+	public void storeByValue() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache(CACHE_NAME, 10, null, true,
+				new SerializationDelegate(getClass().getClassLoader()));
+		assertThat(cache.isStoreByValue()).isTrue();
+
+		List<String> content = new ArrayList<>();
+		content.add("one");
+		cache.put("key", content);
+		content.add("two");
+		List<?> entry = (List<?>) cache.get("key").get();
+		assertThat(entry).containsExactly("one");
+		assertThat(cache.get("key").get()).isNotSameAs(entry);
+	}
+
+}
@@ -16,12 +16,15 @@
 
 package org.springframework.cache.concurrent;
 
+import java.time.Duration;
+
 import org.junit.jupiter.api.Test;
 
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 /**
  * @author Juergen Hoeller
@@ -140,4 +143,39 @@ public class ConcurrentMapCacheManagerTests {
 		assertThat(cache1x.get("key")).isNull();
 	}
 
+	@Test
+	public void testChangeMaximumSizeAndTimeToLive() {
+		ConcurrentMapCacheManager cm = new ConcurrentMapCacheManager("c1", "c2");
+		Cache cache1 = cm.getCache("c1");
+		assertThat(cache1).isInstanceOf(ConcurrentMapCache.class);
+
+		cm.setMaximumSize(10);
+		Cache cache1x = cm.getCache("c1");
+		assertThat(cache1x).isInstanceOf(BoundedConcurrentMapCache.class);
+		assertThat(((BoundedConcurrentMapCache) cache1x).getMaximumSize()).isEqualTo(10);
+		assertThat(((BoundedConcurrentMapCache) cache1x).getTimeToLive()).isNull();
+
+		cm.setTimeToLive(Duration.ofMinutes(1));
+		Cache cache1y = cm.getCache("c1");
+		assertThat(cache1y).isNotSameAs(cache1x);
+		assertThat(((BoundedConcurrentMapCache) cache1y).getTimeToLive()).isEqualTo(Duration.ofMinutes(1));
+
+		cm.setMaximumSize(0);
+		Cache cache1z = cm.getCache("c1");
+		assertThat(cache1z).isInstanceOf(BoundedConcurrentMapCache.class);
+		assertThat(((BoundedConcurrentMapCache) cache1z).getMaximumSize()).isEqualTo(Integer.MAX_VALUE);
+
+		cm.setTimeToLive(null);
+		assertThat(cm.getCache("c1")).isInstanceOf(ConcurrentMapCache.class);
+	}
+
+	@Test
+	public void testNonPositiveTimeToLiveRejected() {
+		ConcurrentMapCacheManager cm = new ConcurrentMapCacheManager("c1");
+		assertThatIllegalArgumentException().isThrownBy(() -> cm.setTimeToLive(Duration.ZERO));
+		assertThatIllegalArgumentException().isThrownBy(() -> cm.setTimeToLive(Duration.ofSeconds(-1)));
+		assertThat(cm.getTimeToLive()).isNull();
+		assertThat(cm.getCache("c1")).isInstanceOf(ConcurrentMapCache.class);
+	}
+
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests for {@link Cacheable#multiKey()} handling in {@link CacheAspectSupport}.
+ *
+ * @author agent
+ */
+public class CacheMultiKeyTests {
+
+	private ConfigurableApplicationContext context;
+
+	private Cache cache;
+
+	private SimpleService simpleService;
+
+
+	@BeforeEach
+	public void setUp() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.cache = this.context.getBean(CacheManager.class).getCache("testCache");
+		this.simpleService = this.context.getBean(SimpleService.class);
+	}
+
+	@AfterEach
+	public void closeContext() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+
+	@Test
+	public void missingKeysOnly() {
+		this.cache.put(2L, "cached2");
+
+		Map<Long, String> result = this.simpleService.findAll(Arrays.asList(1L, 2L, 3L));
+		assertThat(result).containsExactly(entry(1L, "value1"), entry(2L, "cached2"), entry(3L, "value3"));
+		assertThat(this.simpleService.getInvocations()).containsExactly(Arrays.asList(1L, 3L));
+		assertThat(this.cache.get(1L).get()).isEqualTo("value1");
+		assertThat(this.cache.get(3L).get()).isEqualTo("value3");
+
+		result = this.simpleService.findAll(Arrays.asList(3L, 1L));
+		assertThat(result).containsExactly(entry(3L, "value3"), entry(1L, "value1"));
+		assertThat(this.simpleService.getInvocations()).hasSize(1);
+	}
+
+	@Test
+	public void keysWithoutValueAreNotCached() {
+		Map<Long, String> result = this.simpleService.findAll(Arrays.asList(1L, -1L));
+		assertThat(result).containsOnlyKeys(1L);
+		assertThat(this.cache.get(-1L)).isNull();
+
+		this.simpleService.findAll(Arrays.asList(1L, -1L));
+		assertThat(this.simpleService.getInvocations()).containsExactly(Arrays.asList(1L, -1L), Arrays.asList(-1L));
+	}
+
+	@Test
+	public void conditionNotPassing() {
+		this.cache.put(1L, "cached1");
+		Map<Long, String> result = this.simpleService.findAllIfRequested(Arrays.asList(1L, 2L), false);
+		assertThat(result).containsExactly(entry(1L, "value1"), entry(2L, "value2"));
+		assertThat(this.cache.get(2L)).isNull();
+	}
+
+	@Test
+	public void multiKeyWithKeyAttribute() {
+		assertThatIllegalStateException().isThrownBy(() ->
+				this.simpleService.multiKeyWithKey(Arrays.asList(1L, 2L)))
+			.withMessageContaining("@Cacheable(multiKey=true) does not support key");
+	}
+
+	@Test
+	public void multiKeyWithAnotherOperation() {
+		assertThatIllegalStateException().isThrownBy(() ->
+				this.simpleService.multiKeyWithAnotherOperation(Arrays.asList(1L, 2L)))
+			.withMessageContaining("@Cacheable(multiKey=true) cannot be combined with other cache operations");
+	}
+
+	@Test
+	public void multiKeyWithoutMapReturnType() {
+		assertThatIllegalStateException().isThrownBy(() ->
+				this.simpleService.multiKeyWithoutMap(Arrays.asList(1L, 2L)))
+			.withMessageContaining("requires a Collection parameter and a Map return type");
+	}
+
+
+	static class SimpleService {
+
+		private final List<Collection<Long>> invocations = new ArrayList<>();
+
+		public List<Collection<Long>> getInvocations() {
+			return this.invocations;
+		}
+
+		@Cacheable(cacheNames = "testCache", multiKey = true)
+		public Map<Long, String> findAll(Collection<Long> ids) {
+			this.invocations.add(new ArrayList<>(ids));
+			Map<Long, String> result = new LinkedHashMap<>();
+			for (Long id : ids) {
+				if (id > 0) {
+					result.put(id, "value" + id);
+				}
+			}
+			return result;
+		}
+
+		@Cacheable(cacheNames = "testCache", multiKey = true, condition = "#cache")
+		public Map<Long, String> findAllIfRequested(Collection<Long> ids, boolean cache) {
+			return findAll(ids);
+		}
+
+		@Cacheable(cacheNames = "testCache", multiKey = true, key = "#ids")
+		public Map<Long, String> multiKeyWithKey(Collection<Long> ids) {
+			return findAll(ids);
+		}
+
+		@Cacheable(cacheNames = "testCache", multiKey = true)
+		@CacheEvict(cacheNames = "anotherTestCache")
+		public Map<Long, String> multiKeyWithAnotherOperation(Collection<Long> ids) {
+			return findAll(ids);
+		}
+
+		@Cacheable(cacheNames = "testCache", multiKey = true)
+		public Object multiKeyWithoutMap(Collection<Long> ids) {
+			return findAll(ids);
+		}
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+
+		@Bean
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager("testCache", "anotherTestCache");
+		}
+
+		@Bean
+		public SimpleService simpleService() {
+			return new SimpleService();
+		}
+	}
+
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SingleFlightCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.SerializationTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for caching of reactive return types in {@link CacheAspectSupport}.
+ *
+ * @author agent
+ */
+public class CacheReactiveTests {
+
+	private ConfigurableApplicationContext context;
+
+	private Cache cache;
+
+	private ReactiveService service;
+
+
+	@BeforeEach
+	public void setUp() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.cache = this.context.getBean(CacheManager.class).getCache("testCache");
+		this.service = this.context.getBean(ReactiveService.class);
+	}
+
+	@AfterEach
+	public void closeContext() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+
+	@Test
+	public void cacheMonoValue() {
+		Mono<Long> mono = this.service.findMono("key");
+		assertThat(this.service.getInvocationCount()).isEqualTo(0);
+		assertThat(mono.block()).isEqualTo(0L);
+		assertThat(this.cache.get("key").get()).isEqualTo(0L);
+
+		assertThat(this.service.findMono("key").block()).isEqualTo(0L);
+		assertThat(this.service.getInvocationCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void cacheFluxValues() {
+		assertThat(this.service.findFlux("key").collectList().block()).containsExactly(0L, 1L);
+		assertThat(this.cache.get("key").get()).isEqualTo(Arrays.asList(0L, 1L));
+
+		assertThat(this.service.findFlux("key").collectList().block()).containsExactly(0L, 1L);
+		assertThat(this.service.getInvocationCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void cacheCompletableFutureAsReturned() {
+		CompletableFuture<Long> future = this.service.findFuture("key");
+		assertThat(future.join()).isEqualTo(0L);
+		assertThat(this.cache.get("key").get()).isSameAs(future);
+
+		assertThat(this.service.findFuture("key")).isSameAs(future);
+		assertThat(this.service.getInvocationCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void cacheMonoValueSynchronized() {
+		assertThat(this.service.findMonoSync("key").block()).isEqualTo(0L);
+		assertThat(this.cache.get("key").get()).isEqualTo(0L);
+
+		assertThat(this.service.findMonoSync("key").block()).isEqualTo(0L);
+		assertThat(this.service.getInvocationCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void cacheFluxValuesSynchronized() {
+		assertThat(this.service.findFluxSync("key").collectList().block()).containsExactly(0L, 1L);
+		assertThat(this.service.findFluxSync("key").collectList().block()).containsExactly(0L, 1L);
+		assertThat(this.service.getInvocationCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void emptyMonoNotCached() {
+		assertThat(this.service.findEmpty("key").block()).isNull();
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	@Test
+	public void emptyFluxNotCached() {
+		assertThat(this.service.findEmptyFlux("key").collectList().block()).isEmpty();
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	@Test
+	public void emptyMonoSynchronizedNotCached() {
+		assertThat(this.service.findEmptySync("key").block()).isNull();
+		assertThat(this.cache.get("key")).isNull();
+
+		assertThat(this.service.findEmptySync("key").block()).isNull();
+		assertThat(this.service.getInvocationCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void emptyFluxSynchronizedNotCached() {
+		assertThat(this.service.findEmptyFluxSync("key").collectList().block()).isEmpty();
+		assertThat(this.cache.get("key")).isNull();
+
+		assertThat(this.service.findEmptyFluxSync("key").collectList().block()).isEmpty();
+		assertThat(this.service.getInvocationCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void emptyResultSynchronizedWithoutNullValues() {
+		ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("testCache");
+		cacheManager.setAllowNullValues(false);
+		ReactiveService service = createProxy(cacheManager);
+		assertThat(service.findEmptySync("key").block()).isNull();
+		assertThat(service.findEmptyFluxSync("key").collectList().block()).isEmpty();
+		assertThat(cacheManager.getCache("testCache").get("key")).isNull();
+
+		SingleFlightCacheManager singleFlightCacheManager = new SingleFlightCacheManager(cacheManager);
+		service = createProxy(singleFlightCacheManager);
+		assertThat(service.findEmptySync("key").block()).isNull();
+		assertThat(service.findEmptyFluxSync("key").collectList().block()).isEmpty();
+		assertThat(singleFlightCacheManager.getCache("testCache").get("key")).isNull();
+	}
+
+	@Test
+	public void failedMonoNotCached() {
+		assertThatIllegalStateException().isThrownBy(() -> this.service.findFailing("key").block())
+				.withMessage("Expected failure");
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	@Test
+	public void retriedMonoInvokesMethodOnce() {
+		assertThat(this.service.findFailingOnce("key").retry(1).block()).isEqualTo(0L);
+		assertThat(this.service.getInvocationCount()).isEqualTo(1);
+		assertThat(this.cache.get("key").get()).isEqualTo(0L);
+	}
+
+	@Test
+	public void retriedMonoSynchronizedInvokesMethodOnce() {
+		assertThat(this.service.findFailingOnceSync("key").retry(1).block()).isEqualTo(0L);
+		assertThat(this.service.getInvocationCount()).isEqualTo(1);
+		assertThat(this.cache.get("key").get()).isEqualTo(0L);
+	}
+
+	@Test
+	public void resubscribedMonoLooksUpCacheAgain() {
+		Mono<Long> mono = this.service.findMono("key");
+		assertThat(mono.block()).isEqualTo(0L);
+		this.cache.put("key", 5L);
+		assertThat(mono.block()).isEqualTo(5L);
+		assertThat(this.service.getInvocationCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void cacheMonoValueAfterDeserialization() throws Exception {
+		CacheInterceptor interceptor = (CacheInterceptor)
+				SerializationTestUtils.serializeAndDeserialize(new CacheInterceptor());
+		ReactiveService service = createProxy(interceptor, this.context.getBean(CacheManager.class));
+
+		assertThat(service.findMono("key").block()).isEqualTo(0L);
+		assertThat(service.findMono("key").block()).isEqualTo(0L);
+		assertThat(service.getInvocationCount()).isEqualTo(1);
+		assertThat(this.cache.get("key").get()).isEqualTo(0L);
+	}
+
+	@Test
+	public void putAndEvictOnEmittedValue() {
+		assertThat(this.service.update("key").block()).isEqualTo(0L);
+		assertThat(this.cache.get("key").get()).isEqualTo(0L);
+
+		assertThat(this.service.remove("key").block()).isEqualTo(1L);
+		assertThat(this.cache.get("key")).isNull();
+	}
+
+	private ReactiveService createProxy(CacheManager cacheManager) {
+		return createProxy(new CacheInterceptor(), cacheManager);
+	}
+
+	private ReactiveService createProxy(CacheInterceptor interceptor, CacheManager cacheManager) {
+		interceptor.setCacheOperationSources(new AnnotationCacheOperationSource());
+		interceptor.setCacheManager(cacheManager);
+		interceptor.afterPropertiesSet();
+		interceptor.afterSingletonsInstantiated();
+		ProxyFactory proxyFactory = new ProxyFactory(new ReactiveService());
+		proxyFactory.addAdvice(interceptor);
+		return (ReactiveService) proxyFactory.getProxy();
+	}
+
+
+	static class ReactiveService {
+
+		private final AtomicLong counter = new AtomicLong();
+
+		private final AtomicLong invocations = new AtomicLong();
+
+		public long getInvocationCount() {
+			return this.invocations.get();
+		}
+
+		@Cacheable("testCache")
+		public Mono<Long> findMono(String key) {
+			this.invocations.incrementAndGet();
+			return Mono.fromSupplier(this.counter::getAndIncrement);
+		}
+
+		@Cacheable("testCache")
+		public Flux<Long> findFlux(String key) {
+			this.invocations.incrementAndGet();
+			return Flux.just(this.counter.getAndIncrement(), this.counter.getAndIncrement());
+		}
+
+		@Cacheable("testCache")
+		public CompletableFuture<Long> findFuture(String key) {
+			this.invocations.incrementAndGet();
+			return CompletableFuture.completedFuture(this.counter.getAndIncrement());
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public Mono<Long> findMonoSync(String key) {
+			this.invocations.incrementAndGet();
+			return Mono.fromSupplier(this.counter::getAndIncrement);
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public Flux<Long> findFluxSync(String key) {
+			this.invocations.incrementAndGet();
+			return Flux.just(this.counter.getAndIncrement(), this.counter.getAndIncrement());
+		}
+
+		@Cacheable("testCache")
+		public Mono<Long> findEmpty(String key) {
+			return Mono.empty();
+		}
+
+		@Cacheable("testCache")
+		public Flux<Long> findEmptyFlux(String key) {
+			return Flux.empty();
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public Mono<Long> findEmptySync(String key) {
+			this.invocations.incrementAndGet();
+			return Mono.empty();
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public Flux<Long> findEmptyFluxSync(String key) {
+			this.invocations.incrementAndGet();
+			return Flux.empty();
+		}
+
+		@Cacheable("testCache")
+		public Mono<Long> findFailing(String key) {
+			return Mono.error(new IllegalStateException("Expected failure"));
+		}
+
+		@Cacheable("testCache")
+		public Mono<Long> findFailingOnce(String key) {
+			return failingOnce();
+		}
+
+		@Cacheable(cacheNames = "testCache", sync = true)
+		public Mono<Long> findFailingOnceSync(String key) {
+			return failingOnce();
+		}
+
+		private Mono<Long> failingOnce() {
+			this.invocations.incrementAndGet();
+			AtomicLong subscriptions = new AtomicLong();
+			return Mono.fromSupplier(() -> {
+				if (subscriptions.getAndIncrement() == 0) {
+					throw new IllegalStateException("Expected failure");
+				}
+				return this.counter.getAndIncrement();
+			});
+		}
+
+		@CachePut("testCache")
+		public Mono<Long> update(String key) {
+			return Mono.fromSupplier(this.counter::getAndIncrement);
+		}
+
+		@CacheEvict("testCache")
+		public Mono<Long> remove(String key) {
+			return Mono.fromSupplier(this.counter::getAndIncrement);
+		}
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+
+		@Bean
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager("testCache");
+		}
+
+		@Bean
+		public ReactiveService reactiveService() {
+			return new ReactiveService();
+		}
+	}
+
+}
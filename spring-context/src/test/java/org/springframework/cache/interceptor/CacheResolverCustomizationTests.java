@@ -19,6 +19,7 @@ package org.springframework.cache.interceptor;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -32,6 +33,7 @@ import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -57,6 +59,8 @@ public class CacheResolverCustomizationTests {
 
 	private CacheManager anotherCacheManager;
 
+	private CountingCacheManager recreatingCacheManager;
+
 	private SimpleService simpleService;
 
 
@@ -65,6 +69,7 @@ public class CacheResolverCustomizationTests {
 		ApplicationContext context = new AnnotationConfigApplicationContext(Config.class);
 		this.cacheManager = context.getBean("cacheManager", CacheManager.class);
 		this.anotherCacheManager = context.getBean("anotherCacheManager", CacheManager.class);
+		this.recreatingCacheManager = context.getBean("recreatingCacheManager", CountingCacheManager.class);
 		this.simpleService = context.getBean(SimpleService.class);
 	}
 
@@ -102,6 +107,41 @@ public class CacheResolverCustomizationTests {
 		assertCacheHit(key, value, cache);
 	}
 
+	@Test
+	public void recreatedCacheResolvedAnew() {
+		Cache cache = this.recreatingCacheManager.getCache("default");
+
+		Object key = new Object();
+		Object value = this.simpleService.getWithRecreatingCacheManager(key);
+		assertCacheHit(key, value, cache);
+		assertThat(this.simpleService.getWithRecreatingCacheManager(key)).isEqualTo(value);
+
+		this.recreatingCacheManager.setAllowNullValues(false);  // recreates the caches
+		Cache recreatedCache = this.recreatingCacheManager.getCache("default");
+		assertThat(recreatedCache).isNotSameAs(cache);
+		assertCacheMiss(key, recreatedCache);
+
+		Object value2 = this.simpleService.getWithRecreatingCacheManager(key);
+		assertThat(value2).isNotEqualTo(value);
+		assertCacheHit(key, value2, recreatedCache);
+	}
+
+	@Test
+	public void cachesResolvedOncePerCacheGeneration() {
+		Object key = new Object();
+		this.simpleService.getWithRecreatingCacheManager(key);
+		int lookupCount = this.recreatingCacheManager.lookupCount.get();
+		for (int i = 0; i < 10; i++) {
+			this.simpleService.getWithRecreatingCacheManager(key);
+		}
+		assertThat(this.recreatingCacheManager.lookupCount.get()).isEqualTo(lookupCount);
+
+		this.recreatingCacheManager.setAllowNullValues(false);  // recreates the caches
+		this.simpleService.getWithRecreatingCacheManager(key);
+		this.simpleService.getWithRecreatingCacheManager(key);
+		assertThat(this.recreatingCacheManager.lookupCount.get()).isEqualTo(lookupCount + 1);
+	}
+
 	@Test
 	public void runtimeResolution() {
 		Cache defaultCache = this.cacheManager.getCache("default");
@@ -162,6 +202,11 @@ public class CacheResolverCustomizationTests {
 			return CacheTestUtils.createSimpleCacheManager("default", "primary", "secondary");
 		}
 
+		@Bean
+		public CountingCacheManager recreatingCacheManager() {
+			return new CountingCacheManager("default");
+		}
+
 		@Bean
 		public CacheResolver primaryCacheResolver() {
 			return new NamedCacheResolver(cacheManager(), "primary");
@@ -217,6 +262,11 @@ public class CacheResolverCustomizationTests {
 			return this.counter.getAndIncrement();
 		}
 
+		@Cacheable(cacheManager = "recreatingCacheManager")
+		public Object getWithRecreatingCacheManager(Object key) {
+			return this.counter.getAndIncrement();
+		}
+
 		@Cacheable(cacheResolver = "runtimeCacheResolver", key = "#p0")
 		public Object getWithRuntimeCacheResolution(Object key, String cacheName) {
 			return this.counter.getAndIncrement();
@@ -259,6 +309,23 @@ public class CacheResolverCustomizationTests {
 	}
 
 
+	private static class CountingCacheManager extends ConcurrentMapCacheManager {
+
+		private final AtomicInteger lookupCount = new AtomicInteger();
+
+		private CountingCacheManager(String... cacheNames) {
+			super(cacheNames);
+		}
+
+		@Override
+		@Nullable
+		public Cache getCache(String name) {
+			this.lookupCount.incrementAndGet();
+			return super.getCache(name);
+		}
+	}
+
+
 	private static class NullCacheResolver extends AbstractCacheResolver {
 
 		private NullCacheResolver(CacheManager cacheManager) {
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link NearCacheManager} and {@link NearCache}.
+ *
+ * @author agent
+ */
+public class NearCacheManagerTests {
+
+	private final ConcurrentMapCacheManager remoteCacheManager = new ConcurrentMapCacheManager("testCache");
+
+	private final List<CacheInvalidation> invalidations = new ArrayList<>();
+
+	private NearCacheManager cacheManager1;
+
+	private NearCacheManager cacheManager2;
+
+
+	@BeforeEach
+	public void setUp() {
+		SimpleCacheInvalidationChannel channel = new SimpleCacheInvalidationChannel();
+		channel.subscribe(this.invalidations::add);
+		this.cacheManager1 = new NearCacheManager(this.remoteCacheManager, channel);
+		this.cacheManager2 = new NearCacheManager(this.remoteCacheManager, channel);
+	}
+
+
+	@Test
+	public void decoratesTargetCaches() {
+		Cache cache = this.cacheManager1.getCache("testCache");
+		assertThat(cache).isInstanceOf(NearCache.class);
+		assertThat(((NearCache) cache).getTargetCache()).isSameAs(this.remoteCacheManager.getCache("testCache"));
+		assertThat(this.cacheManager1.getCache("testCache")).isSameAs(cache);
+		assertThat(this.cacheManager1.getCache("unknown")).isNull();
+		assertThat(this.cacheManager1.getCacheNames()).containsExactly("testCache");
+	}
+
+	@Test
+	public void servesHitsFromLocalTier() {
+		NearCache cache = (NearCache) this.cacheManager1.getCache("testCache");
+		this.remoteCacheManager.getCache("testCache").put("key", "value");
+
+		assertThat(cache.get("key").get()).isEqualTo("value");
+		assertThat(cache.getLocalCache().getMissCount()).isEqualTo(1);
+		assertThat(cache.get("key", String.class)).isEqualTo("value");
+		assertThat(cache.get("key", () -> "other")).isEqualTo("value");
+		assertThat(cache.getLocalCache().getHitCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void putInvalidatesOtherLocalTiers() {
+		Cache cache1 = this.cacheManager1.getCache("testCache");
+		NearCache cache2 = (NearCache) this.cacheManager2.getCache("testCache");
+		cache1.put("key", "value1");
+		assertThat(cache2.get("key").get()).isEqualTo("value1");
+
+		cache1.put("key", "value2");
+		assertThat(cache2.getLocalCache().get("key")).isNull();
+		assertThat(cache2.get("key").get()).isEqualTo("value2");
+		assertThat(cache1.get("key").get()).isEqualTo("value2");
+		assertThat(this.invalidations).hasSize(2);
+		assertThat(this.invalidations.get(0).getOrigin()).isEqualTo(this.cacheManager1.getOrigin());
+		assertThat(this.invalidations.get(0).getKey()).isEqualTo("key");
+	}
+
+	@Test
+	public void evictAndClearInvalidateOtherLocalTiers() {
+		Cache cache1 = this.cacheManager1.getCache("testCache");
+		Cache cache2 = this.cacheManager2.getCache("testCache");
+		cache1.put("key1", "value1");
+		cache1.put("key2", "value2");
+		assertThat(cache2.get("key1").get()).isEqualTo("value1");
+		assertThat(cache2.get("key2").get()).isEqualTo("value2");
+
+		cache1.evict("key1");
+		assertThat(cache2.get("key1")).isNull();
+		assertThat(cache2.get("key2").get()).isEqualTo("value2");
+
+		cache1.clear();
+		assertThat(cache2.get("key2")).isNull();
+		assertThat(this.invalidations.get(this.invalidations.size() - 1).isClear()).isTrue();
+	}
+
+	@Test
+	public void valueLoaderPopulatesBothTiers() {
+		NearCache cache1 = (NearCache) this.cacheManager1.getCache("testCache");
+		assertThat(cache1.get("key", () -> "loaded")).isEqualTo("loaded");
+		assertThat(cache1.getLocalCache().get("key").get()).isEqualTo("loaded");
+		assertThat(this.remoteCacheManager.getCache("testCache").get("key").get()).isEqualTo("loaded");
+	}
+
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cache.AbstractCacheTests;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.CacheInterceptor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link RefreshAheadCacheDecorator} and {@link RefreshAheadCacheManager}.
+ *
+ * @author agent
+ */
+public class RefreshAheadCacheDecoratorTests extends AbstractCacheTests<RefreshAheadCacheDecorator> {
+
+	private final List<Runnable> refreshTasks = new ArrayList<>();
+
+	private final TaskExecutor refreshExecutor = this.refreshTasks::add;
+
+	private ConcurrentMap<Object, Object> nativeCache;
+
+	private RefreshAheadCacheDecorator cache;
+
+
+	@BeforeEach
+	public void setUp() {
+		this.nativeCache = new ConcurrentHashMap<>();
+		this.cache = new RefreshAheadCacheDecorator(
+				new ConcurrentMapCache(CACHE_NAME, this.nativeCache, true), Duration.ZERO, this.refreshExecutor);
+	}
+
+	@Override
+	protected RefreshAheadCacheDecorator getCache() {
+		return this.cache;
+	}
+
+	@Override
+	protected Object getNativeCache() {
+		return this.nativeCache;
+	}
+
+
+	@Test
+	public void staleValueServedWhileRefreshing() {
+		this.cache.put("key", "value1");
+
+		Cache.RefreshableValueWrapper wrapper = getRefreshableValue("key");
+		assertThat(wrapper.get()).isEqualTo("value1");
+		wrapper.refresh(() -> "value2");
+		wrapper = getRefreshableValue("key");
+		assertThat(wrapper.get()).isEqualTo("value1");
+		wrapper.refresh(() -> "value3");
+		assertThat(this.refreshTasks).hasSize(1);
+		assertThat(this.cache.getRefreshInProgressCount()).isEqualTo(1);
+
+		runRefreshTasks();
+		assertThat(this.cache.get("key").get()).isEqualTo("value2");
+		assertThat(this.cache.getRefreshSuccessCount()).isEqualTo(1);
+		assertThat(this.cache.getRefreshInProgressCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void staleValueServedWithoutRefreshForValueLoader() {
+		this.cache.put("key", "value1");
+
+		assertThat(this.cache.get("key", () -> "value2")).isEqualTo("value1");
+		assertThat(this.cache.retrieve("key", () -> CompletableFuture.completedFuture("value3")).join())
+				.isEqualTo("value1");
+		assertThat(this.refreshTasks).isEmpty();
+		assertThat(this.cache.getRefreshInProgressCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void freshValueNotRefreshed() {
+		RefreshAheadCacheDecorator cache = new RefreshAheadCacheDecorator(
+				new ConcurrentMapCache(CACHE_NAME), Duration.ofHours(1), this.refreshExecutor);
+		cache.put("key", "value1");
+
+		assertThat(cache.get("key", () -> "value2")).isEqualTo("value1");
+		assertThat(cache.get("key")).isNotInstanceOf(Cache.RefreshableValueWrapper.class);
+		assertThat(cache.get("key").get()).isEqualTo("value1");
+		assertThat(this.refreshTasks).isEmpty();
+	}
+
+	@Test
+	public void missLoadsValueWithoutRefresh() {
+		assertThat(this.cache.get("key", () -> "value1")).isEqualTo("value1");
+		assertThat(this.cache.get("other")).isNull();
+		assertThat(this.refreshTasks).isEmpty();
+		assertThat(this.cache.get("key").get()).isEqualTo("value1");
+	}
+
+	@Test
+	public void failedRefreshKeepsCurrentValue() {
+		this.cache.put("key", "value1");
+
+		Cache.RefreshableValueWrapper wrapper = getRefreshableValue("key");
+		assertThat(wrapper.get()).isEqualTo("value1");
+		wrapper.refresh(() -> {
+			throw new IllegalStateException("Expected failure");
+		});
+		runRefreshTasks();
+		assertThat(this.cache.get("key").get()).isEqualTo("value1");
+		assertThat(this.cache.getRefreshFailureCount()).isEqualTo(1);
+
+		wrapper = getRefreshableValue("key");
+		assertThat(wrapper.get()).isEqualTo("value1");
+		wrapper.refresh(() -> "value2");
+		runRefreshTasks();
+		assertThat(this.cache.get("key").get()).isEqualTo("value2");
+		assertThat(this.cache.getRefreshSuccessCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void rejectedRefreshKeepsCurrentValue() {
+		RefreshAheadCacheDecorator cache = new RefreshAheadCacheDecorator(
+				new ConcurrentMapCache(CACHE_NAME), Duration.ZERO, task -> {
+					throw new TaskRejectedException("Expected rejection");
+				});
+		cache.put("key", "value1");
+
+		Cache.ValueWrapper wrapper = cache.get("key");
+		assertThat(wrapper).isInstanceOf(Cache.RefreshableValueWrapper.class);
+		((Cache.RefreshableValueWrapper) wrapper).refresh(() -> "value2");
+		assertThat(cache.get("key").get()).isEqualTo("value1");
+		assertThat(cache.getRefreshFailureCount()).isEqualTo(1);
+		assertThat(cache.getRefreshInProgressCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void retrieveLoadsValueOnMiss() {
+		assertThat(this.cache.retrieve("key", () -> CompletableFuture.completedFuture("value1")).join())
+				.isEqualTo("value1");
+		assertThat(this.cache.get("key").get()).isEqualTo("value1");
+		assertThat(this.refreshTasks).isEmpty();
+	}
+
+	@Test
+	public void evictDuringRefreshDiscardsRefreshedValue() {
+		this.cache.put("key", "value1");
+		getRefreshableValue("key").refresh(() -> "value2");
+		this.cache.evict("key");
+
+		runRefreshTasks();
+		assertThat(this.cache.get("key")).isNull();
+		assertThat(this.cache.getRefreshInProgressCount()).isEqualTo(0);
+		assertThat(this.cache.getRefreshSuccessCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void evictWhileLoadingRefreshDiscardsRefreshedValue() {
+		this.cache.put("key", "value1");
+		getRefreshableValue("key").refresh(() -> {
+			this.cache.evictIfPresent("key");
+			return "value2";
+		});
+
+		runRefreshTasks();
+		assertThat(this.cache.get("key")).isNull();
+		assertThat(this.cache.getRefreshInProgressCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void clearDuringRefreshDiscardsRefreshedValues() {
+		this.cache.put("key1", "value1");
+		this.cache.put("key2", "value2");
+		getRefreshableValue("key1").refresh(() -> "value3");
+		getRefreshableValue("key2").refresh(() -> "value4");
+		this.cache.clear();
+
+		runRefreshTasks();
+		assertThat(this.cache.get("key1")).isNull();
+		assertThat(this.cache.get("key2")).isNull();
+		assertThat(this.cache.getRefreshInProgressCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void evictOfOtherKeyDuringRefreshKeepsRefreshedValue() {
+		this.cache.put("key", "value1");
+		this.cache.put("other", "value2");
+		getRefreshableValue("key").refresh(() -> "value3");
+		this.cache.evict("other");
+
+		runRefreshTasks();
+		assertThat(this.cache.get("key").get()).isEqualTo("value3");
+		assertThat(this.cache.get("other")).isNull();
+		assertThat(this.cache.getRefreshSuccessCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void cacheableMethodRefreshedAhead() {
+		RefreshAheadCacheManager cacheManager = new RefreshAheadCacheManager(
+				new ConcurrentMapCacheManager(CACHE_NAME), Duration.ZERO, this.refreshExecutor);
+		SimpleService service = createProxy(cacheManager, new AtomicInteger());
+
+		assertThat(service.get("key")).isEqualTo("key0");
+		assertThat(service.get("key")).isEqualTo("key0");
+		assertThat(service.getSync("key")).isEqualTo("key0");
+		assertThat(this.refreshTasks).hasSize(1);
+
+		runRefreshTasks();
+		assertThat(service.get("key")).isEqualTo("key1");
+		Cache cache = cacheManager.getCache(CACHE_NAME);
+		assertThat(cache).isInstanceOf(RefreshAheadCacheDecorator.class);
+		assertThat(((RefreshAheadCacheDecorator) cache).getRefreshSuccessCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void cacheableMethodNotRefreshedWhileFresh() {
+		RefreshAheadCacheManager cacheManager = new RefreshAheadCacheManager(
+				new ConcurrentMapCacheManager(CACHE_NAME), Duration.ofHours(1), this.refreshExecutor);
+		SimpleService service = createProxy(cacheManager, new AtomicInteger());
+
+		assertThat(service.get("key")).isEqualTo("key0");
+		assertThat(service.get("key")).isEqualTo("key0");
+		assertThat(this.refreshTasks).isEmpty();
+	}
+
+	@Test
+	public void cacheableMethodRefreshedThroughProxy() {
+		RefreshAheadCacheManager cacheManager = new RefreshAheadCacheManager(
+				new ConcurrentMapCacheManager(CACHE_NAME), Duration.ZERO, this.refreshExecutor);
+		AtomicInteger proxyInvocations = new AtomicInteger();
+		SimpleService service = createProxy(cacheManager, proxyInvocations);
+
+		assertThat(service.get("key")).isEqualTo("key0");
+		assertThat(service.get("key")).isEqualTo("key0");
+		assertThat(proxyInvocations.get()).isEqualTo(2);
+
+		runRefreshTasks();
+		assertThat(proxyInvocations.get()).isEqualTo(3);
+		assertThat(cacheManager.getCache(CACHE_NAME).get("key").get()).isEqualTo("key1");
+
+		// Subsequent invocations on the same thread go through the cache again
+		assertThat(service.get("key")).isEqualTo("key1");
+		assertThat(service.get("other")).isEqualTo("other2");
+		assertThat(service.get("other")).isEqualTo("other2");
+	}
+
+	@Test
+	public void synchronizedCacheableMethodRefreshedThroughProxy() {
+		RefreshAheadCacheManager cacheManager = new RefreshAheadCacheManager(
+				new ConcurrentMapCacheManager(CACHE_NAME), Duration.ZERO, this.refreshExecutor);
+		AtomicInteger proxyInvocations = new AtomicInteger();
+		SimpleService service = createProxy(cacheManager, proxyInvocations);
+
+		assertThat(service.getSync("key")).isEqualTo("key0");
+		assertThat(this.refreshTasks).isEmpty();
+		assertThat(service.getSync("key")).isEqualTo("key0");
+		assertThat(this.refreshTasks).hasSize(1);
+		assertThat(proxyInvocations.get()).isEqualTo(2);
+
+		runRefreshTasks();
+		assertThat(proxyInvocations.get()).isEqualTo(3);
+		assertThat(cacheManager.getCache(CACHE_NAME).get("key").get()).isEqualTo("key1");
+		assertThat(service.getSync("key")).isEqualTo("key1");
+	}
+
+	private SimpleService createProxy(RefreshAheadCacheManager cacheManager, AtomicInteger proxyInvocations) {
+		CacheInterceptor interceptor = new CacheInterceptor();
+		interceptor.setCacheOperationSources(new AnnotationCacheOperationSource());
+		interceptor.setCacheManager(cacheManager);
+		interceptor.afterPropertiesSet();
+		interceptor.afterSingletonsInstantiated();
+		ProxyFactory proxyFactory = new ProxyFactory(new SimpleService());
+		proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+			proxyInvocations.incrementAndGet();
+			return invocation.proceed();
+		});
+		proxyFactory.addAdvice(interceptor);
+		return (SimpleService) proxyFactory.getProxy();
+	}
+
+	private Cache.RefreshableValueWrapper getRefreshableValue(Object key) {
+		Cache.ValueWrapper wrapper = this.cache.get(key);
+		assertThat(wrapper).isInstanceOf(Cache.RefreshableValueWrapper.class);
+		return (Cache.RefreshableValueWrapper) wrapper;
+	}
+
+	private void runRefreshTasks() {
+		List<Runnable> tasks = new ArrayList<>(this.refreshTasks);
+		this.refreshTasks.clear();
+		tasks.forEach(Runnable::run);
+	}
+
+
+	public static class SimpleService {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Cacheable(CACHE_NAME)
+		public String get(String key) {
+			return key + this.counter.getAndIncrement();
+		}
+
+		@Cacheable(cacheNames = CACHE_NAME, key = "#p0", sync = true)
+		public String getSync(String key) {
+			return key + this.counter.getAndIncrement();
+		}
+	}
+
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.AbstractCacheTests;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link SingleFlightCacheDecorator} and {@link SingleFlightCacheManager}.
+ *
+ * @author agent
+ */
+public class SingleFlightCacheDecoratorTests extends AbstractCacheTests<SingleFlightCacheDecorator> {
+
+	private ConcurrentMap<Object, Object> nativeCache;
+
+	private SingleFlightCacheDecorator cache;
+
+	private ExecutorService executor;
+
+
+	@BeforeEach
+	public void setUp() {
+		this.nativeCache = new ConcurrentHashMap<>();
+		this.cache = new SingleFlightCacheDecorator(new ConcurrentMapCache(CACHE_NAME, this.nativeCache, true));
+		this.executor = Executors.newFixedThreadPool(8);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		this.executor.shutdownNow();
+	}
+
+	@Override
+	protected SingleFlightCacheDecorator getCache() {
+		return this.cache;
+	}
+
+	@Override
+	protected Object getNativeCache() {
+		return this.nativeCache;
+	}
+
+
+	@Test
+	public void concurrentMissesShareSingleLoad() throws Exception {
+		AtomicInteger invocations = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		List<Future<String>> results = new ArrayList<>();
+		results.add(this.executor.submit(() -> this.cache.get("key", () -> {
+			invocations.incrementAndGet();
+			loading.countDown();
+			release.await();
+			return "value";
+		})));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+		for (int i = 0; i < 5; i++) {
+			results.add(this.executor.submit(() -> this.cache.get("key", () -> {
+				invocations.incrementAndGet();
+				return "other";
+			})));
+		}
+		awaitWaitingCallers(5);
+		release.countDown();
+
+		for (Future<String> result : results) {
+			assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+		}
+		assertThat(invocations.get()).isEqualTo(1);
+		assertThat(this.cache.getInFlightLoadCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void concurrentMissesShareFailure() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<Object> leader = this.executor.submit(() -> this.cache.get("key", () -> {
+			loading.countDown();
+			release.await();
+			throw new IllegalStateException("expected");
+		}));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+		Future<Object> follower = this.executor.submit(() -> this.cache.get("key", () -> "other"));
+		awaitWaitingCallers(1);
+		release.countDown();
+
+		for (Future<?> result : new Future<?>[] {leader, follower}) {
+			assertThatExceptionOfType(Exception.class).isThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+					.withCauseInstanceOf(Cache.ValueRetrievalException.class)
+					.satisfies(ex -> assertThat(ex.getCause().getCause()).isInstanceOf(IllegalStateException.class));
+		}
+		assertThat(this.cache.get("key")).isNull();
+		assertThat(this.cache.getInFlightLoadCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void followerLoadsItselfAfterTimeout() throws Exception {
+		SingleFlightCacheDecorator cache = new SingleFlightCacheDecorator(
+				new ConcurrentMapCache(CACHE_NAME), Duration.ofMillis(10));
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<String> leader = this.executor.submit(() -> cache.get("key", () -> {
+			loading.countDown();
+			release.await();
+			return "slow";
+		}));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(cache.get("key", () -> "fast")).isEqualTo("fast");
+		release.countDown();
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+	}
+
+	@Test
+	public void retrieveSharesSingleFuture() throws Exception {
+		AtomicInteger invocations = new AtomicInteger();
+		CompletableFuture<String> pending = new CompletableFuture<>();
+
+		CompletableFuture<String> first = this.cache.retrieve("key", () -> {
+			invocations.incrementAndGet();
+			return pending;
+		});
+		CompletableFuture<String> second = this.cache.retrieve("key", () -> {
+			invocations.incrementAndGet();
+			return CompletableFuture.completedFuture("other");
+		});
+		assertThat(first.isDone()).isFalse();
+		assertThat(second.isDone()).isFalse();
+
+		pending.complete("value");
+		assertThat(first.get()).isEqualTo("value");
+		assertThat(second.get()).isEqualTo("value");
+		assertThat(invocations.get()).isEqualTo(1);
+		assertThat(this.cache.get("key").get()).isEqualTo("value");
+		assertThat(this.cache.retrieve("key", CompletableFuture::new).get()).isEqualTo("value");
+		assertThat(this.cache.getInFlightLoadCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void retrieveFailureIsNotCached() {
+		CompletableFuture<String> pending = new CompletableFuture<>();
+		CompletableFuture<String> result = this.cache.retrieve("key", () -> pending);
+		pending.completeExceptionally(new IllegalStateException("expected"));
+
+		assertThat(result).isCompletedExceptionally();
+		assertThat(this.cache.get("key")).isNull();
+		assertThat(this.cache.getInFlightLoadCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void retrieveWithNullFutureDoesNotBlockSubsequentRetrievals() throws Exception {
+		assertThatIllegalStateException().isThrownBy(() -> this.cache.retrieve("key", () -> null));
+		assertThat(this.cache.getInFlightLoadCount()).isEqualTo(0);
+
+		CompletableFuture<String> result = this.cache.retrieve("key", () -> CompletableFuture.completedFuture("value"));
+		assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+		assertThat(this.cache.get("key").get()).isEqualTo("value");
+	}
+
+	@Test
+	public void cacheManagerDecoratesTargetCaches() {
+		ConcurrentMapCacheManager targetCacheManager = new ConcurrentMapCacheManager("testCache");
+		SingleFlightCacheManager cacheManager = new SingleFlightCacheManager(targetCacheManager);
+
+		Cache cache = cacheManager.getCache("testCache");
+		assertThat(cache).isInstanceOf(SingleFlightCacheDecorator.class);
+		assertThat(((SingleFlightCacheDecorator) cache).getTargetCache())
+				.isSameAs(targetCacheManager.getCache("testCache"));
+		assertThat(cacheManager.getCache("testCache")).isSameAs(cache);
+		assertThat(cacheManager.getCacheNames()).containsExactly("testCache");
+	}
+
+
+	private void awaitWaitingCallers(int count) {
+		Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> this.cache.getWaitingCallerCount() == count);
+	}
+
+}
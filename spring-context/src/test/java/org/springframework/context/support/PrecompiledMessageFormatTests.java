@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PrecompiledMessageFormat}, comparing its lock-free
+ * rendering against regular {@link MessageFormat} output.
+ *
+ * @author agent
+ */
+public class PrecompiledMessageFormatTests {
+
+	@Test
+	public void simplePlaceholders() {
+		assertRenderedAsMessageFormat("Hello {0}, you are {1}!", "Juergen", "welcome");
+		assertRenderedAsMessageFormat("{1}{0}", "a", "b");
+		assertRenderedAsMessageFormat("{0} and {0} again", "x");
+		assertRenderedAsMessageFormat("No placeholders");
+	}
+
+	@Test
+	public void quotedText() {
+		assertRenderedAsMessageFormat("It''s {0}", "fine");
+		assertRenderedAsMessageFormat("'{0}' is literal, {0} is not", "arg");
+		assertRenderedAsMessageFormat("'{'{0}'}'", "braced");
+	}
+
+	@Test
+	public void argumentTypes() {
+		assertRenderedAsMessageFormat("{0} / {1} / {2} / {3}", 1234567.891, new Date(0), null, Locale.GERMANY);
+	}
+
+	@Test
+	public void missingArguments() {
+		assertRenderedAsMessageFormat("{0} and {1}", "only");
+		assertRenderedAsMessageFormat("{0} and {1}");
+	}
+
+	@Test
+	public void markerCharacterInPatternNotPrecompiled() {
+		PrecompiledMessageFormat format = new PrecompiledMessageFormat("\uFFFF{0}", Locale.US);
+		assertThat(format.isPrecompiled()).isFalse();
+		assertThat(format.format(new Object[] {"arg"})).isEqualTo("\uFFFFarg");
+	}
+
+	@Test
+	public void formatTypeNotPrecompiled() {
+		PrecompiledMessageFormat format = new PrecompiledMessageFormat("{0,number,#.#}", Locale.US);
+		assertThat(format.isPrecompiled()).isFalse();
+		assertThat(format.format(new Object[] {1.25})).isEqualTo("1.2");
+	}
+
+	@Test
+	public void customFormatDisablesPrecompilation() {
+		PrecompiledMessageFormat format = new PrecompiledMessageFormat("{0}", Locale.US);
+		assertThat(format.isPrecompiled()).isTrue();
+		format.setFormatByArgumentIndex(0, NumberFormat.getPercentInstance(Locale.US));
+		assertThat(format.isPrecompiled()).isFalse();
+		format.applyPattern("{0}!");
+		assertThat(format.isPrecompiled()).isTrue();
+		assertThat(format.render(new Object[] {"done"})).isEqualTo("done!");
+	}
+
+	@Test
+	public void messageSourceUsesPrecompiledFormat() {
+		StaticMessageSource messageSource = new StaticMessageSource();
+		messageSource.addMessage("code", Locale.US, "Value: {0}, quoted: '{1}'");
+		assertThat(messageSource.getMessage("code", new Object[] {1000, "x"}, Locale.US))
+				.isEqualTo("Value: 1,000, quoted: {1}");
+		assertThat(messageSource.getMessage("other", new Object[] {1000}, "Default: {0}", Locale.US))
+				.isEqualTo("Default: 1,000");
+	}
+
+
+	private void assertRenderedAsMessageFormat(String pattern, Object... args) {
+		for (Locale locale : new Locale[] {Locale.US, Locale.GERMANY}) {
+			PrecompiledMessageFormat format = new PrecompiledMessageFormat(pattern, locale);
+			assertThat(format.isPrecompiled()).isTrue();
+			assertThat(format.render(args)).isEqualTo(new MessageFormat(pattern, locale).format(args));
+		}
+	}
+
+}
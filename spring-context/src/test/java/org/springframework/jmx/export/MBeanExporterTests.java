@@ -25,8 +25,10 @@ import java.util.List;
 import java.util.Map;
 
 import javax.management.Attribute;
+import javax.management.AttributeNotFoundException;
 import javax.management.InstanceNotFoundException;
 import javax.management.JMException;
+import javax.management.MBeanException;
 import javax.management.MBeanServer;
 import javax.management.MalformedObjectNameException;
 import javax.management.Notification;
@@ -255,6 +257,54 @@ public class MBeanExporterTests extends AbstractMBeanServerTests {
 		assertThat(nameValue).isEqualTo("Rob Harrop");
 	}
 
+	@Test
+	public void testExportWithDynamicMBeans() throws Exception {
+		JmxTestBean bean = new JmxTestBean();
+		bean.setName("Rob Harrop");
+		Map<String, Object> beans = new HashMap<>();
+		beans.put(OBJECT_NAME, bean);
+
+		MBeanExporter exporter = new MBeanExporter();
+		exporter.setServer(server);
+		exporter.setBeans(beans);
+		exporter.setUseDynamicMBeans(true);
+		start(exporter);
+
+		ObjectName objectName = ObjectNameManager.getInstance(OBJECT_NAME);
+		assertThat(server.getObjectInstance(objectName).getClassName()).isEqualTo(JmxTestBean.class.getName());
+		assertThat(server.getAttribute(objectName, "Name")).isEqualTo("Rob Harrop");
+		server.setAttribute(objectName, new Attribute("Age", 42));
+		assertThat(bean.getAge()).isEqualTo(42);
+		assertThat(server.getAttributes(objectName, new String[] {"Age", "Unknown"}).asList())
+				.extracting(Attribute::getValue).containsExactly(42);
+		assertThat(server.invoke(objectName, "add", new Object[] {1, 2}, new String[] {"int", "int"})).isEqualTo(3);
+		assertThatExceptionOfType(MBeanException.class).isThrownBy(() ->
+				server.setAttribute(objectName, new Attribute("Name", "Juergen IO")));
+		assertThatExceptionOfType(AttributeNotFoundException.class).isThrownBy(() ->
+				server.getAttribute(objectName, "Unknown"));
+	}
+
+	@Test
+	public void testExportWithDynamicMBeansAndOverloadedMethods() throws Exception {
+		OverloadedMethodsBean bean = new OverloadedMethodsBean();
+		Map<String, Object> beans = new HashMap<>();
+		beans.put(OBJECT_NAME, bean);
+
+		MBeanExporter exporter = new MBeanExporter();
+		exporter.setServer(server);
+		exporter.setBeans(beans);
+		exporter.setUseDynamicMBeans(true);
+		start(exporter);
+
+		ObjectName objectName = ObjectNameManager.getInstance(OBJECT_NAME);
+		server.setAttribute(objectName, new Attribute("Count", 5));
+		assertThat(bean.getCount()).isEqualTo(5);
+		assertThat(server.getAttribute(objectName, "Count")).isEqualTo(5);
+		assertThat(server.invoke(objectName, "add", new Object[] {1, 2}, new String[] {"int", "int"})).isEqualTo(3);
+		assertThat(server.invoke(objectName, "add", new Object[] {"1", "2"},
+				new String[] {String.class.getName(), String.class.getName()})).isEqualTo("12");
+	}
+
 	@Test
 	public void testSelfNaming() throws Exception {
 		ObjectName objectName = ObjectNameManager.getInstance(OBJECT_NAME);
@@ -763,6 +813,32 @@ public class MBeanExporterTests extends AbstractMBeanServerTests {
 	}
 
 
+	public static class OverloadedMethodsBean {
+
+		private int count;
+
+		public int getCount() {
+			return this.count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public void setCount(String count) {
+			this.count = Integer.parseInt(count);
+		}
+
+		public int add(int x, int y) {
+			return x + y;
+		}
+
+		public String add(String x, String y) {
+			return x + y;
+		}
+	}
+
+
 	public static final class StubNotificationListener implements NotificationListener {
 
 		private List<Notification> notifications = new ArrayList<>();
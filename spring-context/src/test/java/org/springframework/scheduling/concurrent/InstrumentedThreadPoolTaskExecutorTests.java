@@ -0,0 +1,88 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * @author agent
+ * @since 5.2.3
+ */
+public class InstrumentedThreadPoolTaskExecutorTests extends AbstractSchedulingTaskExecutorTests {
+
+	private final SimpleTaskExecutionMetrics metrics = new SimpleTaskExecutionMetrics();
+
+
+	@Override
+	protected AsyncListenableTaskExecutor buildExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setTaskExecutionMetrics(this.metrics);
+		executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+		executor.setMaxPoolSize(1);
+		executor.afterPropertiesSet();
+		return executor;
+	}
+
+
+	@Test
+	public void recordQueueWaitExecutionAndRejection() throws Exception {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		SimpleTaskExecutionMetrics metrics = new SimpleTaskExecutionMetrics();
+		executor.setTaskExecutionMetrics(metrics);
+		executor.setMaxPoolSize(1);
+		executor.setQueueCapacity(1);
+		executor.afterPropertiesSet();
+		try {
+			CountDownLatch latch = new CountDownLatch(1);
+			executor.execute(() -> {
+				try {
+					latch.await();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			executor.execute(() -> {
+				throw new IllegalStateException("failure");
+			});
+			assertThat(executor.getQueueSize()).isEqualTo(1);
+			assertThatExceptionOfType(TaskRejectedException.class).isThrownBy(() -> executor.execute(() -> {}));
+			latch.countDown();
+
+			Awaitility.await().atMost(1, TimeUnit.SECONDS).until(() -> metrics.getCompletedTaskCount() == 2);
+			assertThat(metrics.getStartedTaskCount()).isEqualTo(2);
+			assertThat(metrics.getFailedTaskCount()).isEqualTo(1);
+			assertThat(metrics.getRejectedTaskCount()).isEqualTo(1);
+			assertThat(metrics.getMaxQueueWaitMillis()).isGreaterThanOrEqualTo(metrics.getAverageQueueWaitMillis());
+			assertThat(metrics.getQueueWaitHistogram()).hasSize(SimpleTaskExecutionMetrics.HISTOGRAM_BUCKETS);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author agent
+ * @since 5.2.3
+ */
+public class InstrumentedThreadPoolTaskSchedulerTests {
+
+	private final SimpleTaskExecutionMetrics metrics = new SimpleTaskExecutionMetrics();
+
+	private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+
+	@BeforeEach
+	public void setup() {
+		this.scheduler.setTaskExecutionMetrics(this.metrics);
+		this.scheduler.setPoolSize(2);
+		this.scheduler.afterPropertiesSet();
+	}
+
+	@AfterEach
+	public void shutdown() {
+		this.scheduler.shutdown();
+	}
+
+
+	@Test
+	public void recordSuccessfulExecution() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		this.scheduler.execute(latch::countDown);
+		assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+
+		Awaitility.await().atMost(1, TimeUnit.SECONDS).until(() -> this.metrics.getCompletedTaskCount() == 1);
+		assertThat(this.metrics.getStartedTaskCount()).isEqualTo(1);
+		assertThat(this.metrics.getFailedTaskCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void recordFailedExecution() {
+		this.scheduler.execute(() -> {
+			throw new IllegalStateException("failure");
+		});
+
+		Awaitility.await().atMost(1, TimeUnit.SECONDS).until(() -> this.metrics.getCompletedTaskCount() == 1);
+		assertThat(this.metrics.getFailedTaskCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void recordFailedCallable() {
+		Future<Object> future = this.scheduler.submit(() -> {
+			throw new IllegalStateException("failure");
+		});
+
+		Awaitility.await().atMost(1, TimeUnit.SECONDS).until(future::isDone);
+		Awaitility.await().atMost(1, TimeUnit.SECONDS).until(() -> this.metrics.getCompletedTaskCount() == 1);
+		assertThat(this.metrics.getFailedTaskCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void recordFailedExecutionWithCustomErrorHandler() {
+		AtomicInteger handledErrors = new AtomicInteger();
+		this.scheduler.setErrorHandler(ex -> handledErrors.incrementAndGet());
+		this.scheduler.execute(() -> {
+			throw new IllegalStateException("failure");
+		});
+
+		Awaitility.await().atMost(1, TimeUnit.SECONDS).until(() -> this.metrics.getCompletedTaskCount() == 1);
+		assertThat(handledErrors.get()).isEqualTo(1);
+		assertThat(this.metrics.getFailedTaskCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void recordFailedRepeatingExecutions() {
+		AtomicInteger runs = new AtomicInteger();
+		ScheduledFuture<?> future = this.scheduler.scheduleWithFixedDelay(() -> {
+			if (runs.incrementAndGet() % 2 == 0) {
+				throw new IllegalStateException("failure");
+			}
+		}, 1);
+
+		Awaitility.await().atMost(1, TimeUnit.SECONDS).until(() -> this.metrics.getCompletedTaskCount() >= 4);
+		future.cancel(false);
+		assertThat(this.metrics.getFailedTaskCount()).isGreaterThanOrEqualTo(2);
+		assertThat(this.metrics.getFailedTaskCount()).isLessThan(this.metrics.getCompletedTaskCount());
+	}
+
+}
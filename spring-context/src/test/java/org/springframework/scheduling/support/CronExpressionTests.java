@@ -0,0 +1,157 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.support;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.tests.EnabledForTestGroups;
+import org.springframework.util.StopWatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.springframework.tests.TestGroup.PERFORMANCE;
+
+/**
+ * Unit tests for {@link CronExpression}.
+ *
+ * @author agent
+ */
+class CronExpressionTests {
+
+	private static final ZoneId CET = ZoneId.of("CET");
+
+
+	@Test
+	void matchAll() {
+		CronExpression expression = CronExpression.parse("* * * * * *");
+		ZonedDateTime start = ZonedDateTime.of(2019, 12, 31, 23, 59, 59, 500, CET);
+		assertThat(expression.next(start)).isEqualTo(ZonedDateTime.of(2020, 1, 1, 0, 0, 0, 0, CET));
+	}
+
+	@Test
+	void resetLowerFieldsOnRollover() {
+		CronExpression expression = CronExpression.parse("*/15 * 1-4 * * *");
+		ZonedDateTime start = ZonedDateTime.of(2012, 7, 1, 9, 53, 50, 0, CET);
+		assertThat(expression.next(start)).isEqualTo(ZonedDateTime.of(2012, 7, 2, 1, 0, 0, 0, CET));
+	}
+
+	@Test
+	void weekDaySequence() {
+		CronExpression expression = CronExpression.parse("0 0 7 ? * MON-FRI");
+		// This is a Saturday
+		ZonedDateTime start = ZonedDateTime.of(2009, 9, 26, 10, 0, 0, 0, CET);
+		ZonedDateTime next = expression.next(start);
+		assertThat(next).isEqualTo(ZonedDateTime.of(2009, 9, 28, 7, 0, 0, 0, CET));
+		assertThat(expression.next(next)).isEqualTo(ZonedDateTime.of(2009, 9, 29, 7, 0, 0, 0, CET));
+	}
+
+	@Test
+	void dayOfMonthAndDayOfWeek() {
+		CronExpression expression = CronExpression.parse("0 0 0 13 * FRI");
+		ZonedDateTime start = ZonedDateTime.of(2019, 12, 1, 0, 0, 0, 0, CET);
+		assertThat(expression.next(start)).isEqualTo(ZonedDateTime.of(2019, 12, 13, 0, 0, 0, 0, CET));
+		assertThat(expression.next(expression.next(start))).isEqualTo(ZonedDateTime.of(2020, 3, 13, 0, 0, 0, 0, CET));
+	}
+
+	@Test
+	void leapYearSpecificDate() {
+		CronExpression expression = CronExpression.parse("0 0 0 29 2 *");
+		ZonedDateTime start = ZonedDateTime.of(2097, 3, 1, 0, 0, 0, 0, CET);
+		assertThat(expression.next(start)).isEqualTo(ZonedDateTime.of(2104, 2, 29, 0, 0, 0, 0, CET));
+	}
+
+	@Test
+	void nonExistentSpecificDate() {
+		CronExpression expression = CronExpression.parse("0 0 0 31 6 *");
+		assertThatIllegalArgumentException().isThrownBy(() -> expression.next(ZonedDateTime.now(CET)));
+	}
+
+	@Test
+	void daylightSavingGapIsSkipped() {
+		CronExpression expression = CronExpression.parse("0 10 2 * * *");
+		ZonedDateTime start = ZonedDateTime.of(2013, 3, 31, 1, 30, 0, 0, CET);
+		assertThat(expression.next(start)).isEqualTo(ZonedDateTime.of(2013, 4, 1, 2, 10, 0, 0, CET));
+	}
+
+	@Test
+	void daylightSavingOverlapKeepsOffset() {
+		CronExpression expression = CronExpression.parse("57/2 * * * * *");
+		ZonedDateTime start = ZonedDateTime.ofLocal(
+				LocalDateTime.of(2019, 10, 27, 2, 21, 39), CET, ZoneOffset.ofHours(2));
+		assertThat(expression.next(start)).isEqualTo(ZonedDateTime.ofLocal(
+				LocalDateTime.of(2019, 10, 27, 2, 21, 57), CET, ZoneOffset.ofHours(2)));
+
+		start = start.withLaterOffsetAtOverlap();
+		assertThat(expression.next(start)).isEqualTo(ZonedDateTime.ofLocal(
+				LocalDateTime.of(2019, 10, 27, 2, 21, 57), CET, ZoneOffset.ofHours(1)));
+	}
+
+	@Test
+	void equalsAndHashCode() {
+		CronExpression expression1 = CronExpression.parse("* * * * 1-12 0");
+		CronExpression expression2 = CronExpression.parse("* * * * JAN,FEB,MAR,APR,MAY,JUN,JUL,AUG,SEP,OCT,NOV,DEC 7");
+		assertThat(expression2).isEqualTo(expression1);
+		assertThat(expression2.hashCode()).isEqualTo(expression1.hashCode());
+		assertThat(CronExpression.parse("* * * 2 * ?")).isEqualTo(CronExpression.parse("* * * 2 * *"));
+	}
+
+	@Test
+	void invalidExpressions() {
+		assertThat(CronExpression.isValidExpression(null)).isFalse();
+		assertThat(CronExpression.isValidExpression("")).isFalse();
+		assertThat(CronExpression.isValidExpression("* * * * *")).isFalse();
+		assertThat(CronExpression.isValidExpression("*/0 * * * * *")).isFalse();
+		assertThat(CronExpression.isValidExpression("* 6-5 * * * *")).isFalse();
+		assertThat(CronExpression.isValidExpression("0 0 0 25 13 ?")).isFalse();
+		assertThat(CronExpression.isValidExpression("0 0 0 32 12 ?")).isFalse();
+		assertThat(CronExpression.isValidExpression("0 */2 1-4 * * *")).isTrue();
+	}
+
+	@Test
+	@EnabledForTestGroups(PERFORMANCE)
+	void nextPerformance() {
+		String pattern = "0 */5 9-17 * * MON-FRI";
+		TimeZone timeZone = TimeZone.getTimeZone(CET);
+		StopWatch watch = new StopWatch("cron next() performance");
+
+		watch.start("1,000,000 times with CronSequenceGenerator");
+		CronSequenceGenerator generator = new CronSequenceGenerator(pattern, timeZone);
+		Date date = new Date();
+		for (int i = 0; i < 1000000; i++) {
+			date = generator.next(date);
+		}
+		watch.stop();
+
+		watch.start("1,000,000 times with CronExpression");
+		CronExpression expression = CronExpression.parse(pattern);
+		ZonedDateTime dateTime = ZonedDateTime.now(CET);
+		for (int i = 0; i < 1000000; i++) {
+			dateTime = expression.next(dateTime);
+		}
+		watch.stop();
+
+		assertThat(watch.getTaskInfo()[1].getTimeMillis()).isLessThan(watch.getTaskInfo()[0].getTimeMillis());
+	}
+
+}
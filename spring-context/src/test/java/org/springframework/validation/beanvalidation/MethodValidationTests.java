@@ -18,11 +18,14 @@ package org.springframework.validation.beanvalidation;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.validation.Validation;
 import javax.validation.ValidationException;
 import javax.validation.Validator;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.NotNull;
+import javax.validation.executable.ExecutableValidator;
 import javax.validation.groups.Default;
 
 import org.junit.jupiter.api.Test;
@@ -89,6 +92,34 @@ public class MethodValidationTests {
 				proxy.myGenericMethod(null));
 	}
 
+	@Test
+	public void testMethodValidationSkippedForUnconstrainedMethods() {
+		AtomicInteger validationCount = new AtomicInteger();
+		SpringValidatorAdapter validator = new SpringValidatorAdapter(
+				Validation.buildDefaultValidatorFactory().getValidator()) {
+			@Override
+			public ExecutableValidator forExecutables() {
+				validationCount.incrementAndGet();
+				return super.forExecutables();
+			}
+		};
+		ProxyFactory proxyFactory = new ProxyFactory(new MyPartiallyValidBean());
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAdvice(new MethodValidationInterceptor(validator));
+		MyPartiallyValidBean proxy = (MyPartiallyValidBean) proxyFactory.getProxy();
+
+		assertThat(proxy.myUnconstrainedMethod(null)).isNull();
+		assertThat(proxy.myUnconstrainedMethod(null)).isNull();
+		assertThat(validationCount.get()).isEqualTo(0);
+
+		assertThat(proxy.myConstrainedMethod("value")).isEqualTo("value");
+		assertThatExceptionOfType(ValidationException.class).isThrownBy(() ->
+				proxy.myConstrainedMethod(null));
+		assertThatExceptionOfType(ValidationException.class).isThrownBy(() ->
+				proxy.myConstrainedReturnValue(null));
+		assertThat(validationCount.get()).isEqualTo(3);
+	}
+
 	@Test
 	@SuppressWarnings("resource")
 	public void testLazyValidatorForMethodValidation() {
@@ -156,6 +187,22 @@ public class MethodValidationTests {
 	}
 
 
+	public static class MyPartiallyValidBean {
+
+		public String myUnconstrainedMethod(String value) {
+			return value;
+		}
+
+		public String myConstrainedMethod(@NotNull String value) {
+			return value;
+		}
+
+		public @NotNull String myConstrainedReturnValue(String value) {
+			return value;
+		}
+	}
+
+
 	public interface MyValidInterface<T> {
 
 		@NotNull Object myValidMethod(@NotNull(groups = MyGroup.class) String arg1, @Max(10) int arg2);
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.task;
+
+import java.lang.reflect.Method;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link SimpleAsyncTaskExecutor} variant that fires up a new virtual thread
+ * for each task when running on a JVM with virtual thread support (JDK 21+),
+ * gracefully falling back to regular platform threads otherwise.
+ *
+ * <p>Virtual threads are cheap enough to be created per task, so this executor
+ * is a good fit for blocking-IO-heavy tasks which would otherwise run into the
+ * pool size limits of a thread pool. Like its superclass, it supports the
+ * "concurrencyLimit" bean property for throttling concurrent task executions,
+ * e.g. in order to protect a downstream resource with limited capacity.
+ *
+ * <p>As an {@link AsyncListenableTaskExecutor}, this executor can be used
+ * wherever a {@code SimpleAsyncTaskExecutor} is accepted: as the "taskExecutor"
+ * bean for {@code @EnableAsync} processing, as the task executor for Spring
+ * MVC's async request processing, or as the task executor of a
+ * {@code DefaultMessageListenerContainer}.
+ *
+ * <p>Note that virtual threads are always daemon threads and do not
+ * support thread groups or thread priorities; the corresponding settings
+ * only apply when falling back to platform threads.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see #isVirtualThreadsSupported()
+ * @see #setConcurrencyLimit
+ * @see org.springframework.scheduling.annotation.EnableAsync
+ * @see org.springframework.web.context.request.async.WebAsyncManager#setTaskExecutor
+ * @see org.springframework.jms.listener.DefaultMessageListenerContainer#setTaskExecutor
+ */
+@SuppressWarnings("serial")
+public class VirtualThreadTaskExecutor extends SimpleAsyncTaskExecutor {
+
+	@Nullable
+	private static final Method ofVirtualMethod;
+
+	@Nullable
+	private static final Method nameMethod;
+
+	@Nullable
+	private static final Method unstartedMethod;
+
+	static {
+		Method ofVirtual = null;
+		Method name = null;
+		Method unstarted = null;
+		try {
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			Class<?> builderClass = ClassUtils.forName(
+					"java.lang.Thread$Builder", VirtualThreadTaskExecutor.class.getClassLoader());
+			name = builderClass.getMethod("name", String.class);
+			unstarted = builderClass.getMethod("unstarted", Runnable.class);
+		}
+		catch (Throwable ex) {
+			// No virtual thread support on this JVM: fall back to platform threads.
+			ofVirtual = null;
+		}
+		ofVirtualMethod = (ofVirtual != null && isBuilderAvailable(ofVirtual) ? ofVirtual : null);
+		nameMethod = name;
+		unstartedMethod = unstarted;
+	}
+
+
+	/**
+	 * Create a new VirtualThreadTaskExecutor with default thread name prefix.
+	 */
+	public VirtualThreadTaskExecutor() {
+		super();
+	}
+
+	/**
+	 * Create a new VirtualThreadTaskExecutor with the given thread name prefix.
+	 * @param threadNamePrefix the prefix to use for the names of newly created threads
+	 */
+	public VirtualThreadTaskExecutor(String threadNamePrefix) {
+		super(threadNamePrefix);
+	}
+
+
+	/**
+	 * Create a new virtual thread for the given {@link Runnable} if supported
+	 * on the current JVM, or a regular platform thread otherwise.
+	 * @see #isVirtualThreadsSupported()
+	 */
+	@Override
+	public Thread createThread(Runnable runnable) {
+		if (ofVirtualMethod == null || nameMethod == null || unstartedMethod == null) {
+			return super.createThread(runnable);
+		}
+		Object builder = ReflectionUtils.invokeMethod(ofVirtualMethod, null);
+		builder = ReflectionUtils.invokeMethod(nameMethod, builder, nextThreadName());
+		Thread thread = (Thread) ReflectionUtils.invokeMethod(unstartedMethod, builder, runnable);
+		if (thread == null) {
+			throw new IllegalStateException("Virtual thread builder returned null for " + runnable);
+		}
+		return thread;
+	}
+
+
+	/**
+	 * Check whether the given builder factory method actually returns a builder:
+	 * On JDK 19 and 20, {@code Thread.ofVirtual()} exists but throws an
+	 * {@link UnsupportedOperationException} unless preview features are enabled.
+	 * @param ofVirtual the static factory method for a virtual thread builder
+	 * @return {@code true} if the builder can be obtained, {@code false} otherwise
+	 */
+	static boolean isBuilderAvailable(Method ofVirtual) {
+		try {
+			return (ofVirtual.invoke(null) != null);
+		}
+		catch (Throwable ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Determine whether the current JVM supports virtual threads,
+	 * i.e. whether this executor runs its tasks on virtual threads.
+	 * @return {@code true} if virtual threads are available
+	 */
+	public static boolean isVirtualThreadsSupported() {
+		return (ofVirtualMethod != null);
+	}
+
+}
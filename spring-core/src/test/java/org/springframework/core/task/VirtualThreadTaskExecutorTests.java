@@ -0,0 +1,81 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.task;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.ConcurrencyThrottleSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * @author agent
+ */
+class VirtualThreadTaskExecutorTests {
+
+	@Test
+	void threadNameGetsSetCorrectly() throws Exception {
+		VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("virtual#");
+		String threadName = executor.submit(() -> Thread.currentThread().getName()).get(10, TimeUnit.SECONDS);
+		assertThat(threadName).startsWith("virtual#");
+	}
+
+	@Test
+	void virtualThreadsWhereSupported() throws Exception {
+		VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor();
+		Thread thread = executor.createThread(() -> {});
+		// Virtual threads are always daemon threads; the fallback respects the "daemon" flag
+		assertThat(thread.isDaemon()).isEqualTo(VirtualThreadTaskExecutor.isVirtualThreadsSupported());
+	}
+
+	@Test
+	void builderNotAvailableWithoutPreviewFeatures() throws Exception {
+		// Thread.ofVirtual() on JDK 19 and 20 without --enable-preview
+		assertThat(VirtualThreadTaskExecutor.isBuilderAvailable(
+				VirtualThreadTaskExecutorTests.class.getDeclaredMethod("ofVirtualWithoutPreview"))).isFalse();
+		assertThat(VirtualThreadTaskExecutor.isBuilderAvailable(
+				VirtualThreadTaskExecutorTests.class.getDeclaredMethod("ofVirtualWithPreview"))).isTrue();
+	}
+
+	@Test
+	void listenableFutureCompletes() throws Exception {
+		VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor();
+		executor.setConcurrencyLimit(2);
+		assertThat(executor.submitListenable(() -> "result").get(10, TimeUnit.SECONDS)).isEqualTo("result");
+	}
+
+	@Test
+	void cannotExecuteWhenConcurrencyIsSwitchedOff() {
+		VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor();
+		executor.setConcurrencyLimit(ConcurrencyThrottleSupport.NO_CONCURRENCY);
+		assertThat(executor.isThrottleActive()).isTrue();
+		assertThatIllegalStateException().isThrownBy(() -> executor.execute(() -> {}));
+	}
+
+
+	static Object ofVirtualWithoutPreview() {
+		throw new UnsupportedOperationException("Preview Features not enabled");
+	}
+
+	static Object ofVirtualWithPreview() {
+		return new Object();
+	}
+
+}
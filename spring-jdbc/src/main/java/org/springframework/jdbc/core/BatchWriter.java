@@ -0,0 +1,559 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Writer for incremental batch updates: accepts the arguments for one row
+ * at a time and executes them as JDBC batches against a single SQL statement,
+ * flushing whenever the configured number of rows or the configured
+ * (estimated) number of bytes has been reached. This allows for inserting
+ * an arbitrary number of rows with bounded memory, in contrast to
+ * {@link JdbcTemplate#batchUpdate(String, List)} which requires all
+ * arguments to be collected upfront.
+ *
+ * <p>Optionally, INSERT statements with a single {@code VALUES} clause can be
+ * rewritten into multi-row {@code VALUES} statements, sending several rows per
+ * statement execution. This is only applied for databases known to support
+ * that syntax, e.g. MySQL, PostgreSQL, H2, HSQLDB, Derby, DB2 and SQL Server.
+ *
+ * <p>Rows are executed through the given {@link JdbcOperations} instance,
+ * participating in a current transaction if any. Update counts are aggregated
+ * across all flushes. A final {@link #flush()} (or {@link #close()}) is
+ * required for executing the remaining rows.
+ *
+ * <p>Note that this class is not thread-safe: It is meant to be used by a
+ * single thread, typically within a try-with-resources block.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see org.springframework.jdbc.core.namedparam.NamedParameterBatchWriter
+ * @see org.springframework.jdbc.object.BatchSqlUpdate
+ */
+public class BatchWriter implements AutoCloseable {
+
+	/**
+	 * Default number of rows to accumulate before flushing.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/** Maximum number of rows per multi-row VALUES statement. */
+	private static final int MAX_ROWS_PER_STATEMENT = 100;
+
+	/** Maximum number of parameters per multi-row VALUES statement. */
+	private static final int MAX_PARAMETERS_PER_STATEMENT = 2000;
+
+	/** Estimated size of non-String and non-binary argument values. */
+	private static final int DEFAULT_VALUE_SIZE = 8;
+
+	private static final Set<String> multiRowValuesDatabases = new HashSet<>(Arrays.asList(
+			"Apache Derby", "DB2", "H2", "HSQL Database Engine", "MariaDB",
+			"Microsoft SQL Server", "MySQL", "PostgreSQL"));
+
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private final JdbcOperations jdbcOperations;
+
+	private final String sql;
+
+	@Nullable
+	private int[] argTypes;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private long batchByteLimit = -1;
+
+	private boolean multiRowValues = false;
+
+	// Number of arguments per row for multi-row VALUES, or -1 if not applicable
+	private int multiRowArgCount = -1;
+
+	private final List<Object[]> pendingRows = new ArrayList<>();
+
+	private long pendingBytes;
+
+	private long rowsWritten;
+
+	private long rowsAffected;
+
+	@Nullable
+	private String[] valuesClause;
+
+	@Nullable
+	private String multiRowSql;
+
+	private int multiRowCount;
+
+	private boolean multiRowValuesResolved;
+
+	private boolean closed;
+
+
+	/**
+	 * Create a new BatchWriter for the given SQL statement.
+	 * @param jdbcOperations the JdbcOperations instance to execute the batches with
+	 * @param sql the SQL statement to execute, with '?' placeholders for the
+	 * arguments of each row
+	 */
+	public BatchWriter(JdbcOperations jdbcOperations, String sql) {
+		Assert.notNull(jdbcOperations, "JdbcOperations must not be null");
+		Assert.hasText(sql, "SQL must not be empty");
+		this.jdbcOperations = jdbcOperations;
+		this.sql = sql;
+	}
+
+
+	/**
+	 * Return the JdbcOperations instance that this writer executes against.
+	 */
+	public final JdbcOperations getJdbcOperations() {
+		return this.jdbcOperations;
+	}
+
+	/**
+	 * Return the SQL statement executed for each row.
+	 */
+	public final String getSql() {
+		return this.sql;
+	}
+
+	/**
+	 * Specify the SQL types of the arguments of each row,
+	 * using the constants from {@code java.sql.Types}.
+	 * <p>Arguments may also be specified as {@link SqlParameterValue}
+	 * instances, carrying their own type information.
+	 */
+	public void setArgTypes(@Nullable int[] argTypes) {
+		this.argTypes = argTypes;
+	}
+
+	/**
+	 * Set the number of rows after which to flush automatically.
+	 * <p>Default is 1000.
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the number of rows after which to flush automatically.
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Set the estimated number of bytes (summed across the String and binary
+	 * values of all pending rows) after which to flush automatically,
+	 * bounding the memory held for rows with large values.
+	 * <p>Default is -1, indicating no byte limit.
+	 */
+	public void setBatchByteLimit(long batchByteLimit) {
+		this.batchByteLimit = batchByteLimit;
+	}
+
+	/**
+	 * Return the estimated number of bytes after which to flush automatically.
+	 */
+	public long getBatchByteLimit() {
+		return this.batchByteLimit;
+	}
+
+	/**
+	 * Set whether to rewrite an INSERT statement with a single {@code VALUES}
+	 * clause into multi-row {@code VALUES} statements, provided that the target
+	 * database supports this syntax.
+	 * <p>Default is "false". Switch this to "true" for a significant reduction
+	 * of statement executions with drivers that send each batch entry to the
+	 * database individually.
+	 * <p>For a statement suitable for such rewriting, each row needs to provide
+	 * exactly one argument per '?' placeholder, since the arguments of several
+	 * rows get combined into a single statement: {@link #add} rejects any row
+	 * with a different number of arguments.
+	 */
+	public void setMultiRowValues(boolean multiRowValues) {
+		this.multiRowValues = multiRowValues;
+		String[] clause = (multiRowValues ? splitValuesClause(this.sql) : null);
+		this.multiRowArgCount = (clause != null ? countPlaceholders(clause[1]) : -1);
+	}
+
+	/**
+	 * Return whether to rewrite an INSERT statement into multi-row
+	 * {@code VALUES} statements where possible.
+	 */
+	public boolean isMultiRowValues() {
+		return this.multiRowValues;
+	}
+
+
+	/**
+	 * Add the given arguments for one row, flushing automatically
+	 * once the batch size or the batch byte limit has been reached.
+	 * @param args the arguments for the '?' placeholders of the statement
+	 * @throws InvalidDataAccessApiUsageException if the number of arguments does
+	 * not match the number of placeholders in {@link #setMultiRowValues multi-row} mode
+	 * @throws DataAccessException in case of a failed automatic flush
+	 * @see #flush()
+	 */
+	public void add(Object... args) throws DataAccessException {
+		Assert.state(!this.closed, "BatchWriter has been closed already");
+		if (this.multiRowArgCount >= 0 && args.length != this.multiRowArgCount) {
+			throw new InvalidDataAccessApiUsageException("Row with " + args.length + " arguments does not match " +
+					this.multiRowArgCount + " placeholders in SQL statement [" + this.sql + "]: " +
+					"multi-row VALUES mode requires exactly one argument per placeholder for each row");
+		}
+		this.pendingRows.add(args.clone());
+		if (this.batchByteLimit >= 0) {
+			this.pendingBytes += estimateSize(args);
+		}
+		if (this.pendingRows.size() >= this.batchSize ||
+				(this.batchByteLimit >= 0 && this.pendingBytes >= this.batchByteLimit)) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Triggering auto-flush for " + this.pendingRows.size() + " rows");
+			}
+			flush();
+		}
+	}
+
+	/**
+	 * Execute all pending rows. The pending rows will be discarded in any case,
+	 * even in case of a failure.
+	 * @throws DataAccessException if the batch execution failed
+	 */
+	public void flush() throws DataAccessException {
+		if (this.pendingRows.isEmpty()) {
+			return;
+		}
+		try {
+			if (isMultiRowValuesApplicable()) {
+				executeMultiRowValues(this.pendingRows);
+			}
+			else {
+				executeBatch(this.pendingRows);
+			}
+			this.rowsWritten += this.pendingRows.size();
+		}
+		finally {
+			for (Object[] args : this.pendingRows) {
+				StatementCreatorUtils.cleanupParameters(args);
+			}
+			this.pendingRows.clear();
+			this.pendingBytes = 0;
+		}
+	}
+
+	/**
+	 * Flush all pending rows and close this writer for further rows.
+	 * @throws DataAccessException if the final flush failed
+	 */
+	@Override
+	public void close() throws DataAccessException {
+		if (!this.closed) {
+			this.closed = true;
+			flush();
+		}
+	}
+
+	/**
+	 * Return the number of rows that have been added but not flushed yet.
+	 */
+	public int getPendingRowCount() {
+		return this.pendingRows.size();
+	}
+
+	/**
+	 * Return the number of rows that have been successfully written so far.
+	 */
+	public long getRowsWritten() {
+		return this.rowsWritten;
+	}
+
+	/**
+	 * Return the aggregated update counts reported by the JDBC driver so far,
+	 * not including any statements reported as {@code SUCCESS_NO_INFO}.
+	 */
+	public long getRowsAffected() {
+		return this.rowsAffected;
+	}
+
+
+	/**
+	 * Execute the given rows as a regular JDBC batch.
+	 */
+	private void executeBatch(final List<Object[]> rows) {
+		int[] updateCounts = this.jdbcOperations.batchUpdate(this.sql, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				setRowValues(ps, 0, rows.get(i));
+			}
+			@Override
+			public int getBatchSize() {
+				return rows.size();
+			}
+		});
+		addUpdateCounts(updateCounts);
+	}
+
+	/**
+	 * Execute the given rows through multi-row VALUES statements: as a JDBC
+	 * batch of statements with the maximum number of rows each, followed by
+	 * a single statement for the remaining rows.
+	 */
+	private void executeMultiRowValues(final List<Object[]> rows) {
+		final int rowsPerStatement = this.multiRowCount;
+		final int paramsPerRow = this.multiRowArgCount;
+		final int statementCount = rows.size() / rowsPerStatement;
+		if (statementCount > 0) {
+			Assert.state(this.multiRowSql != null, "No multi-row SQL");
+			int[] updateCounts = this.jdbcOperations.batchUpdate(this.multiRowSql, new BatchPreparedStatementSetter() {
+				@Override
+				public void setValues(PreparedStatement ps, int i) throws SQLException {
+					for (int j = 0; j < rowsPerStatement; j++) {
+						setRowValues(ps, j * paramsPerRow, rows.get(i * rowsPerStatement + j));
+					}
+				}
+				@Override
+				public int getBatchSize() {
+					return statementCount;
+				}
+			});
+			addUpdateCounts(updateCounts);
+		}
+		final int offset = statementCount * rowsPerStatement;
+		final int remainingRows = rows.size() - offset;
+		if (remainingRows > 0) {
+			int updateCount = this.jdbcOperations.update(buildMultiRowSql(remainingRows), ps -> {
+				for (int j = 0; j < remainingRows; j++) {
+					setRowValues(ps, j * paramsPerRow, rows.get(offset + j));
+				}
+			});
+			addUpdateCounts(updateCount);
+		}
+	}
+
+	/**
+	 * Set the given row arguments on the given statement.
+	 * @param ps the PreparedStatement to set the arguments on
+	 * @param offset the number of parameters preceding the row's parameters
+	 * @param args the row arguments
+	 */
+	private void setRowValues(PreparedStatement ps, int offset, Object[] args) throws SQLException {
+		for (int i = 0; i < args.length; i++) {
+			Object arg = args[i];
+			if (arg instanceof SqlParameterValue) {
+				SqlParameterValue paramValue = (SqlParameterValue) arg;
+				StatementCreatorUtils.setParameterValue(ps, offset + i + 1, paramValue, paramValue.getValue());
+			}
+			else {
+				int argType = (this.argTypes != null && i < this.argTypes.length ?
+						this.argTypes[i] : SqlTypeValue.TYPE_UNKNOWN);
+				StatementCreatorUtils.setParameterValue(ps, offset + i + 1, argType, arg);
+			}
+		}
+	}
+
+	private void addUpdateCounts(int... updateCounts) {
+		for (int updateCount : updateCounts) {
+			if (updateCount > 0) {
+				this.rowsAffected += updateCount;
+			}
+		}
+	}
+
+	/**
+	 * Determine whether multi-row VALUES statements may be used, checking the
+	 * SQL statement as well as the target database on first invocation.
+	 */
+	private boolean isMultiRowValuesApplicable() {
+		if (!this.multiRowValues) {
+			return false;
+		}
+		if (!this.multiRowValuesResolved) {
+			String[] clause = (this.multiRowArgCount >= 0 ? splitValuesClause(this.sql) : null);
+			if (clause == null) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Statement not suitable for multi-row VALUES: " + this.sql);
+				}
+			}
+			else {
+				String productName = this.jdbcOperations.execute((ConnectionCallback<String>) con ->
+						con.getMetaData().getDatabaseProductName());
+				if (productName != null && multiRowValuesDatabases.contains(JdbcUtils.commonDatabaseName(productName))) {
+					this.valuesClause = clause;
+					this.multiRowCount = Math.max(Math.min(MAX_ROWS_PER_STATEMENT,
+							MAX_PARAMETERS_PER_STATEMENT / this.multiRowArgCount), 1);
+					this.multiRowSql = buildMultiRowSql(this.multiRowCount);
+				}
+				else if (logger.isDebugEnabled()) {
+					logger.debug("Multi-row VALUES not supported for database [" + productName + "]");
+				}
+			}
+			this.multiRowValuesResolved = true;
+		}
+		return (this.valuesClause != null);
+	}
+
+	/**
+	 * Build a multi-row VALUES statement for the given number of rows.
+	 */
+	private String buildMultiRowSql(int rowCount) {
+		Assert.state(this.valuesClause != null, "No VALUES clause");
+		String prefix = this.valuesClause[0];
+		String group = this.valuesClause[1];
+		String suffix = this.valuesClause[2];
+		StringBuilder sb = new StringBuilder(prefix.length() + (group.length() + 2) * rowCount + suffix.length());
+		sb.append(prefix);
+		for (int i = 0; i < rowCount; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(group);
+		}
+		sb.append(suffix);
+		return sb.toString();
+	}
+
+
+	/**
+	 * Split the given SQL statement into the part before its VALUES group,
+	 * the parenthesized VALUES group itself and the part after it.
+	 * @param sql the SQL statement
+	 * @return the three parts, or {@code null} if the statement does not have
+	 * a single VALUES group containing all of its '?' placeholders
+	 */
+	@Nullable
+	static String[] splitValuesClause(String sql) {
+		int groupStart = -1;
+		int groupEnd = -1;
+		int depth = 0;
+		int placeholders = 0;
+		int placeholdersInGroup = 0;
+		int i = 0;
+		while (i < sql.length()) {
+			char c = sql.charAt(i);
+			if (c == '\'' || c == '"') {
+				int closingIndex = sql.indexOf(c, i + 1);
+				if (closingIndex == -1) {
+					return null;
+				}
+				i = closingIndex + 1;
+				continue;
+			}
+			if (c == '?') {
+				placeholders++;
+				if (groupStart >= 0 && groupEnd < 0) {
+					placeholdersInGroup++;
+				}
+			}
+			else if (groupStart < 0) {
+				if (sql.regionMatches(true, i, "values", 0, 6) &&
+						(i == 0 || !Character.isJavaIdentifierPart(sql.charAt(i - 1)))) {
+					int j = i + 6;
+					while (j < sql.length() && Character.isWhitespace(sql.charAt(j))) {
+						j++;
+					}
+					if (j < sql.length() && sql.charAt(j) == '(') {
+						groupStart = j;
+						depth = 1;
+						i = j + 1;
+						continue;
+					}
+				}
+			}
+			else if (groupEnd < 0) {
+				if (c == '(') {
+					depth++;
+				}
+				else if (c == ')' && --depth == 0) {
+					groupEnd = i + 1;
+				}
+			}
+			i++;
+		}
+		if (groupEnd < 0 || placeholders == 0 || placeholders != placeholdersInGroup) {
+			return null;
+		}
+		String suffix = sql.substring(groupEnd);
+		if (suffix.trim().startsWith(",")) {
+			// Already a multi-row VALUES statement
+			return null;
+		}
+		return new String[] {sql.substring(0, groupStart), sql.substring(groupStart, groupEnd), suffix};
+	}
+
+	/**
+	 * Count the '?' placeholders in the given SQL fragment, skipping quoted text.
+	 */
+	private static int countPlaceholders(String sql) {
+		int count = 0;
+		int i = 0;
+		while (i < sql.length()) {
+			char c = sql.charAt(i);
+			if (c == '\'' || c == '"') {
+				int closingIndex = sql.indexOf(c, i + 1);
+				if (closingIndex == -1) {
+					break;
+				}
+				i = closingIndex;
+			}
+			else if (c == '?') {
+				count++;
+			}
+			i++;
+		}
+		return count;
+	}
+
+	/**
+	 * Estimate the size of the given row arguments in bytes.
+	 */
+	private static long estimateSize(Object[] args) {
+		long size = 0;
+		for (Object arg : args) {
+			Object value = (arg instanceof SqlParameterValue ? ((SqlParameterValue) arg).getValue() : arg);
+			if (value instanceof CharSequence) {
+				size += ((CharSequence) value).length();
+			}
+			else if (value instanceof byte[]) {
+				size += ((byte[]) value).length;
+			}
+			else {
+				size += DEFAULT_VALUE_SIZE;
+			}
+		}
+		return size;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,18 @@
 
 package org.springframework.jdbc.core;
 
+import java.lang.ref.WeakReference;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * {@link RowMapper} implementation that creates a {@code java.util.Map}
@@ -34,12 +38,18 @@ import org.springframework.util.LinkedCaseInsensitiveMap;
  * in the column Map can be customized through overriding
  * {@link #createColumnMap} and {@link #getColumnKey}, respectively.
  *
- * <p><b>Note:</b> By default, ColumnMapRowMapper will try to build a linked Map
- * with case-insensitive keys, to preserve column order as well as allow any
- * casing to be used for column names. This requires Commons Collections on the
- * classpath (which will be autodetected). Else, the fallback is a standard linked
- * HashMap, which will still preserve column order but requires the application
- * to specify the column names in the same casing as exposed by the driver.
+ * <p><b>Note:</b> By default, ColumnMapRowMapper builds a linked Map with
+ * case-insensitive keys, to preserve column order as well as allow any casing
+ * to be used for column names. Unless {@link #createColumnMap} is overridden,
+ * the column keys are determined once per {@code ResultSet} and shared across
+ * all rows, with each row Map holding just an array of column values on top
+ * of the shared keys (switching to a regular {@link LinkedCaseInsensitiveMap}
+ * of its own when keys get added or removed later on). As a consequence,
+ * such row Maps are instances of an internal {@code Map} implementation rather
+ * than of {@code LinkedCaseInsensitiveMap} itself, to be taken into account
+ * for type checks against the returned Maps as well as for their serialized form.
+ * For equally named columns, the first column's value is exposed even if it is
+ * {@code null}, as with {@link LinkedCaseInsensitiveMap#putIfAbsent}.
  *
  * @author Juergen Hoeller
  * @since 1.2
@@ -48,8 +58,26 @@ import org.springframework.util.LinkedCaseInsensitiveMap;
  */
 public class ColumnMapRowMapper implements RowMapper<Map<String, Object>> {
 
+	/** Whether {@link #createColumnMap} has not been overridden. */
+	private final boolean compactColumnMaps = (ReflectionUtils.findMethod(
+			getClass(), "createColumnMap", int.class).getDeclaringClass() == ColumnMapRowMapper.class);
+
+	/** The column map schema for the current ResultSet. */
+	@Nullable
+	private volatile ResolvedSchema resolvedSchema;
+
+
 	@Override
 	public Map<String, Object> mapRow(ResultSet rs, int rowNum) throws SQLException {
+		if (this.compactColumnMaps) {
+			CompactColumnMap.Schema schema = getSchema(rs);
+			Object[] values = new Object[schema.size()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = getColumnValue(rs, schema.getColumnIndex(i));
+			}
+			return new CompactColumnMap(schema, values);
+		}
+
 		ResultSetMetaData rsmd = rs.getMetaData();
 		int columnCount = rsmd.getColumnCount();
 		Map<String, Object> mapOfColumnValues = createColumnMap(columnCount);
@@ -60,9 +88,30 @@ public class ColumnMapRowMapper implements RowMapper<Map<String, Object>> {
 		return mapOfColumnValues;
 	}
 
+	/**
+	 * Obtain the column map schema for the given ResultSet,
+	 * building it from the ResultSet meta-data on first access.
+	 */
+	private CompactColumnMap.Schema getSchema(ResultSet rs) throws SQLException {
+		ResolvedSchema resolved = this.resolvedSchema;
+		if (resolved == null || resolved.resultSet.get() != rs) {
+			ResultSetMetaData rsmd = rs.getMetaData();
+			int columnCount = rsmd.getColumnCount();
+			List<String> columnKeys = new ArrayList<>(columnCount);
+			for (int i = 1; i <= columnCount; i++) {
+				columnKeys.add(getColumnKey(JdbcUtils.lookupColumnName(rsmd, i)));
+			}
+			resolved = new ResolvedSchema(rs, new CompactColumnMap.Schema(columnKeys));
+			this.resolvedSchema = resolved;
+		}
+		return resolved.schema;
+	}
+
 	/**
 	 * Create a Map instance to be used as column map.
 	 * <p>By default, a linked case-insensitive Map will be created.
+	 * Note that overriding this method switches this mapper from shared
+	 * per-ResultSet column keys to a separate Map instance per row.
 	 * @param columnCount the column count, to be used as initial
 	 * capacity for the Map
 	 * @return the new Map instance
@@ -97,4 +146,20 @@ public class ColumnMapRowMapper implements RowMapper<Map<String, Object>> {
 		return JdbcUtils.getResultSetValue(rs, index);
 	}
 
+
+	/**
+	 * The column map schema resolved for a specific ResultSet.
+	 */
+	private static final class ResolvedSchema {
+
+		final WeakReference<ResultSet> resultSet;
+
+		final CompactColumnMap.Schema schema;
+
+		public ResolvedSchema(ResultSet resultSet, CompactColumnMap.Schema schema) {
+			this.resultSet = new WeakReference<>(resultSet);
+			this.schema = schema;
+		}
+	}
+
 }
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+/**
+ * Array-backed column {@link Map} for a single row, sharing its ordered,
+ * case-insensitive set of column keys with all other rows of the same
+ * result set through a common {@link Schema}.
+ *
+ * <p>Behaves like a {@link LinkedCaseInsensitiveMap}: Values for existing
+ * columns may be replaced in place, whereas adding or removing keys turns
+ * the map into a regular {@code LinkedCaseInsensitiveMap} of its own.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see ColumnMapRowMapper
+ */
+@SuppressWarnings("serial")
+final class CompactColumnMap extends AbstractMap<String, Object> implements Serializable {
+
+	private final Schema schema;
+
+	private final Object[] values;
+
+	@Nullable
+	private LinkedCaseInsensitiveMap<Object> inflatedMap;
+
+
+	/**
+	 * Create a new CompactColumnMap for the given schema and values.
+	 * @param schema the shared column schema
+	 * @param values the column values, in the order of the schema's keys
+	 */
+	CompactColumnMap(Schema schema, Object[] values) {
+		this.schema = schema;
+		this.values = values;
+	}
+
+
+	@Override
+	public int size() {
+		return (this.inflatedMap != null ? this.inflatedMap.size() : this.values.length);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return (this.inflatedMap != null ? this.inflatedMap.containsKey(key) : this.schema.indexOf(key) >= 0);
+	}
+
+	@Override
+	@Nullable
+	public Object get(Object key) {
+		if (this.inflatedMap != null) {
+			return this.inflatedMap.get(key);
+		}
+		int index = this.schema.indexOf(key);
+		return (index >= 0 ? this.values[index] : null);
+	}
+
+	@Override
+	@Nullable
+	public Object put(String key, @Nullable Object value) {
+		if (this.inflatedMap == null) {
+			int index = this.schema.indexOf(key);
+			if (index >= 0) {
+				Object oldValue = this.values[index];
+				this.values[index] = value;
+				return oldValue;
+			}
+		}
+		return inflate().put(key, value);
+	}
+
+	@Override
+	@Nullable
+	public Object remove(Object key) {
+		if (this.inflatedMap == null && this.schema.indexOf(key) < 0) {
+			return null;
+		}
+		return inflate().remove(key);
+	}
+
+	@Override
+	public void clear() {
+		this.inflatedMap = new LinkedCaseInsensitiveMap<>(this.schema.getLocale());
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new EntrySet();
+	}
+
+	private LinkedCaseInsensitiveMap<Object> inflate() {
+		LinkedCaseInsensitiveMap<Object> map = this.inflatedMap;
+		if (map == null) {
+			String[] keys = this.schema.keys;
+			map = new LinkedCaseInsensitiveMap<>(keys.length + 1, this.schema.getLocale());
+			for (int i = 0; i < keys.length; i++) {
+				map.put(keys[i], this.values[i]);
+			}
+			this.inflatedMap = map;
+		}
+		return map;
+	}
+
+
+	/**
+	 * Column keys and their column indexes for all rows of a result set.
+	 */
+	@SuppressWarnings("serial")
+	static final class Schema implements Serializable {
+
+		private final String[] keys;
+
+		private final int[] columnIndexes;
+
+		private final LinkedCaseInsensitiveMap<Integer> keyIndexes;
+
+		/**
+		 * Create a new Schema for the given column keys.
+		 * @param columnKeys the column key for each column of the result set,
+		 * with only the first occurrence of equally named columns to be exposed
+		 */
+		Schema(List<String> columnKeys) {
+			this.keyIndexes = new LinkedCaseInsensitiveMap<>(columnKeys.size());
+			int[] columnIndexes = new int[columnKeys.size()];
+			int count = 0;
+			for (int i = 0; i < columnKeys.size(); i++) {
+				String key = columnKeys.get(i);
+				if (!this.keyIndexes.containsKey(key)) {
+					this.keyIndexes.put(key, count);
+					columnIndexes[count] = i + 1;
+					count++;
+				}
+			}
+			this.keys = this.keyIndexes.keySet().toArray(new String[count]);
+			this.columnIndexes =
+					(count < columnIndexes.length ? Arrays.copyOf(columnIndexes, count) : columnIndexes);
+		}
+
+		/**
+		 * Return the number of distinct column keys.
+		 */
+		int size() {
+			return this.keys.length;
+		}
+
+		/**
+		 * Return the 1-based result set column index for the given key position.
+		 */
+		int getColumnIndex(int position) {
+			return this.columnIndexes[position];
+		}
+
+		int indexOf(@Nullable Object key) {
+			Integer index = this.keyIndexes.get(key);
+			return (index != null ? index : -1);
+		}
+
+		Locale getLocale() {
+			return this.keyIndexes.getLocale();
+		}
+	}
+
+
+	private class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+		@Override
+		public int size() {
+			return CompactColumnMap.this.size();
+		}
+
+		@Override
+		public Iterator<Entry<String, Object>> iterator() {
+			if (inflatedMap != null) {
+				return inflatedMap.entrySet().iterator();
+			}
+			return new EntryIterator();
+		}
+	}
+
+
+	private class EntryIterator implements Iterator<Entry<String, Object>> {
+
+		private int position;
+
+		@Nullable
+		private String lastKey;
+
+		@Override
+		public boolean hasNext() {
+			return (this.position < values.length);
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			String key = schema.keys[this.position++];
+			this.lastKey = key;
+			return new ColumnEntry(key);
+		}
+
+		@Override
+		public void remove() {
+			if (this.lastKey == null) {
+				throw new IllegalStateException("No current entry");
+			}
+			CompactColumnMap.this.remove(this.lastKey);
+			this.lastKey = null;
+		}
+	}
+
+
+	private class ColumnEntry implements Entry<String, Object> {
+
+		private final String key;
+
+		public ColumnEntry(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public String getKey() {
+			return this.key;
+		}
+
+		@Override
+		@Nullable
+		public Object getValue() {
+			return get(this.key);
+		}
+
+		@Override
+		@Nullable
+		public Object setValue(@Nullable Object value) {
+			return put(this.key, value);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof Entry)) {
+				return false;
+			}
+			Entry<?, ?> otherEntry = (Entry<?, ?>) other;
+			return (this.key.equals(otherEntry.getKey()) &&
+					Objects.equals(getValue(), otherEntry.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			Object value = getValue();
+			return this.key.hashCode() ^ (value != null ? value.hashCode() : 0);
+		}
+
+		@Override
+		public String toString() {
+			return this.key + "=" + getValue();
+		}
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Base class for the {@link RowMapper} classes generated by
+ * {@link GeneratedRowMapperFactory}, each of them specialized for a specific
+ * mapped class and a specific result set shape. Not intended to be extended
+ * or used directly in application code.
+ *
+ * <p>Generated subclasses read simple column values through direct typed
+ * {@link ResultSet} accessor calls and delegate to the helper methods
+ * defined here for all other types.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @param <T> the result type
+ * @see GeneratedRowMapperFactory
+ */
+public abstract class GeneratedRowMapper<T> implements RowMapper<T> {
+
+	private static final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+
+
+	/**
+	 * Retrieve a JDBC column value from the given {@link ResultSet},
+	 * converting it to the required type if necessary.
+	 * @param rs the ResultSet holding the data
+	 * @param index the column index
+	 * @param requiredType the required value type (never a primitive type)
+	 * @return the value object (possibly {@code null})
+	 * @throws SQLException if thrown by the JDBC API
+	 * @see JdbcUtils#getResultSetValue(ResultSet, int, Class)
+	 */
+	@Nullable
+	protected final Object getColumnValue(ResultSet rs, int index, Class<?> requiredType) throws SQLException {
+		Object value = JdbcUtils.getResultSetValue(rs, index, requiredType);
+		if (value != null && !ClassUtils.isAssignableValue(requiredType, value)) {
+			value = conversionService.convert(value, requiredType);
+		}
+		return value;
+	}
+
+	/**
+	 * Retrieve a JDBC column value from the given {@link ResultSet}
+	 * as a primitive {@code char}, taking the first character of the
+	 * column's String value.
+	 * @param rs the ResultSet holding the data
+	 * @param index the column index
+	 * @return the character value, or {@code '\0'} for {@code null}
+	 * or an empty String
+	 * @throws SQLException if thrown by the JDBC API
+	 */
+	protected final char getCharColumnValue(ResultSet rs, int index) throws SQLException {
+		String value = rs.getString(index);
+		return (value != null && !value.isEmpty() ? value.charAt(0) : '\0');
+	}
+
+}
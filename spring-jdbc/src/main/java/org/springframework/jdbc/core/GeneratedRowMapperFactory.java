@@ -0,0 +1,743 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.beans.ConstructorProperties;
+import java.beans.PropertyDescriptor;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.StringUtils;
+
+/**
+ * Factory for {@link RowMapper} instances which convert a row into a new
+ * instance of a mapped target class, through a mapper class generated at
+ * runtime for the specific combination of target class and result set shape.
+ *
+ * <p>Column names are matched to constructor parameters and bean properties
+ * the same way as in {@link BeanPropertyRowMapper}, i.e. either directly or by
+ * transforming a name separating the parts with underscores to the same name
+ * using "camel" case. In contrast to {@code BeanPropertyRowMapper}, the
+ * matching happens once per result set shape only: The generated mapper reads
+ * the columns by index and invokes the constructor and the setter methods of
+ * the target class directly, without any reflection or bean wrapper per row.
+ * Generated mappers are cached per target class and result set shape, up to a
+ * limit of {@value #CACHE_LIMIT} mappers per factory: Once the limit is reached,
+ * the factory starts over with an empty cache and a fresh class loader, letting
+ * previously generated classes be garbage-collected along with their class
+ * loader once no longer in use.
+ *
+ * <p>The target class may either expose a no-arg constructor and setter
+ * methods, or be an immutable class with a unique constructor (or a Kotlin
+ * primary constructor) whose parameter names are available through the
+ * {@link ConstructorProperties} annotation or the class file. Columns that
+ * do not match a constructor parameter are mapped to setter methods where
+ * available; constructor parameters without a matching column receive
+ * {@code null} or their primitive default value.
+ *
+ * <p>String, primitive, {@link BigDecimal}, {@code byte[]} and {@code java.sql}
+ * date/time values are read through the corresponding typed {@link ResultSet}
+ * accessors, with 'null' values leading to the primitive default value for
+ * primitive targets. All other values are retrieved through
+ * {@link JdbcUtils#getResultSetValue(ResultSet, int, Class)} and converted
+ * through the shared {@code DefaultConversionService} where necessary.
+ *
+ * <p>Code generation requires the target class, its constructor and the types
+ * of all mapped constructor parameters and properties to be public, including
+ * any enclosing classes of nested types. For bean
+ * classes that do not meet this requirement, a {@link BeanPropertyRowMapper}
+ * will be used instead.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see #rowMapperFor(Class)
+ * @see #resultSetExtractorFor(Class)
+ * @see GeneratedRowMapper
+ * @see BeanPropertyRowMapper
+ */
+public final class GeneratedRowMapperFactory implements Opcodes {
+
+	/**
+	 * The maximum number of generated mappers to cache per factory: 256.
+	 */
+	public static final int CACHE_LIMIT = 256;
+
+	private static final Log logger = LogFactory.getLog(GeneratedRowMapperFactory.class);
+
+	private static final String ROW_MAPPER_BASE_CLASS = Type.getInternalName(GeneratedRowMapper.class);
+
+	private static final String RESULT_SET_CLASS = Type.getInternalName(ResultSet.class);
+
+	// A factory is created for each class loader, managing a child class loader of that
+	// class loader as well as the row mapper classes generated within that child
+	private static final Map<ClassLoader, GeneratedRowMapperFactory> factories = new ConcurrentReferenceHashMap<>();
+
+	private static final Map<Class<?>, String> resultSetAccessors = new HashMap<>(32);
+
+	private static final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+	static {
+		resultSetAccessors.put(String.class, "getString");
+		resultSetAccessors.put(boolean.class, "getBoolean");
+		resultSetAccessors.put(byte.class, "getByte");
+		resultSetAccessors.put(short.class, "getShort");
+		resultSetAccessors.put(int.class, "getInt");
+		resultSetAccessors.put(long.class, "getLong");
+		resultSetAccessors.put(float.class, "getFloat");
+		resultSetAccessors.put(double.class, "getDouble");
+		resultSetAccessors.put(BigDecimal.class, "getBigDecimal");
+		resultSetAccessors.put(byte[].class, "getBytes");
+		resultSetAccessors.put(java.sql.Date.class, "getDate");
+		resultSetAccessors.put(java.sql.Time.class, "getTime");
+		resultSetAccessors.put(java.sql.Timestamp.class, "getTimestamp");
+	}
+
+
+	@Nullable
+	private final ClassLoader parentClassLoader;
+
+	// Counter suffix for generated classes within this factory instance
+	private final AtomicInteger suffixId = new AtomicInteger(1);
+
+	// Replaced with a fresh cache (and class loader) once the cache limit is reached
+	private volatile MapperCache mapperCache;
+
+
+	private GeneratedRowMapperFactory(@Nullable ClassLoader classLoader) {
+		this.parentClassLoader = classLoader;
+		this.mapperCache = new MapperCache(classLoader);
+	}
+
+
+	/**
+	 * Return a {@link RowMapper} for the given target class, generating a
+	 * specialized mapper for every result set shape that it encounters.
+	 * <p>The returned mapper remembers the specialized mapper for the current
+	 * result set, so it is meant to be used by one query at a time: It is cheap
+	 * to create per query, with the generated mappers behind it being cached by
+	 * this factory. For a stateless variant which may be shared across concurrently
+	 * executing queries, use {@link #getResultSetExtractor(Class)} instead.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @return the corresponding RowMapper
+	 * @see #getRowMapper(Class, ResultSetMetaData)
+	 */
+	public <T> RowMapper<T> getRowMapper(Class<T> mappedClass) {
+		return new ResultSetShapeRowMapper<>(this, mappedClass);
+	}
+
+	/**
+	 * Return a {@link ResultSetExtractor} for the given target class, resolving
+	 * the specialized mapper once per result set and mapping all of its rows
+	 * into a List.
+	 * <p>The returned extractor keeps no state across result sets and may be
+	 * shared across concurrently executing queries.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @return the corresponding ResultSetExtractor
+	 * @see #getRowMapper(Class, ResultSetMetaData)
+	 * @see RowMapperResultSetExtractor
+	 */
+	public <T> ResultSetExtractor<List<T>> getResultSetExtractor(Class<T> mappedClass) {
+		return rs -> new RowMapperResultSetExtractor<>(getRowMapper(mappedClass, rs.getMetaData())).extractData(rs);
+	}
+
+	/**
+	 * Return a {@link RowMapper} for the given target class and the result set
+	 * shape described by the given meta-data, generating and caching it on
+	 * first access.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @param rsmd the meta-data of the result set to map
+	 * @return the corresponding RowMapper (typically a generated mapper,
+	 * or a {@link BeanPropertyRowMapper} if code generation is not possible
+	 * for the given target class)
+	 * @throws SQLException if thrown by the JDBC meta-data access
+	 * @throws InvalidDataAccessApiUsageException if the given class cannot
+	 * be mapped at all
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> RowMapper<T> getRowMapper(Class<T> mappedClass, ResultSetMetaData rsmd) throws SQLException {
+		int columnCount = rsmd.getColumnCount();
+		String[] columns = new String[columnCount];
+		for (int index = 1; index <= columnCount; index++) {
+			columns[index - 1] = JdbcUtils.lookupColumnName(rsmd, index);
+		}
+		MapperKey key = new MapperKey(mappedClass, columns);
+		MapperCache mapperCache = this.mapperCache;
+		RowMapper<?> rowMapper = mapperCache.rowMappers.get(key);
+		if (rowMapper == null) {
+			if (mapperCache.rowMappers.size() >= CACHE_LIMIT) {
+				mapperCache = resetMapperCache(mapperCache);
+			}
+			ChildClassLoader classLoader = mapperCache.classLoader;
+			rowMapper = mapperCache.rowMappers.computeIfAbsent(key,
+					k -> createRowMapper(mappedClass, columns, classLoader));
+		}
+		return (RowMapper<T>) rowMapper;
+	}
+
+	/**
+	 * Replace the given (full) mapper cache with a fresh one,
+	 * unless it has been replaced by another thread already.
+	 */
+	private MapperCache resetMapperCache(MapperCache fullCache) {
+		synchronized (this) {
+			if (this.mapperCache == fullCache) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Generated RowMapper cache limit of " + CACHE_LIMIT +
+							" reached - starting over with a fresh class loader");
+				}
+				this.mapperCache = new MapperCache(this.parentClassLoader);
+			}
+			return this.mapperCache;
+		}
+	}
+
+	/**
+	 * Create a RowMapper for the given target class and columns.
+	 */
+	private <T> RowMapper<T> createRowMapper(Class<T> mappedClass, String[] columns, ChildClassLoader classLoader) {
+		Constructor<T> ctor = determineConstructor(mappedClass);
+		Class<?>[] paramTypes = ctor.getParameterTypes();
+		Map<String, Integer> mappedParameters = new HashMap<>();
+		if (paramTypes.length > 0) {
+			String[] paramNames = determineParameterNames(ctor);
+			for (int i = 0; i < paramNames.length; i++) {
+				mappedParameters.put(lowerCaseName(paramNames[i]), i);
+				mappedParameters.put(underscoreName(paramNames[i]), i);
+			}
+		}
+		Map<String, PropertyDescriptor> mappedFields = new HashMap<>();
+		for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(mappedClass)) {
+			if (pd.getWriteMethod() != null) {
+				mappedFields.put(lowerCaseName(pd.getName()), pd);
+				mappedFields.put(underscoreName(pd.getName()), pd);
+			}
+		}
+
+		int[] parameterColumns = new int[paramTypes.length];
+		List<PropertyBinding> propertyBindings = new ArrayList<>(columns.length);
+		boolean generatable = (isAccessible(mappedClass) && Modifier.isPublic(ctor.getModifiers()) &&
+				ClassUtils.isVisible(mappedClass, this.parentClassLoader) &&
+				ClassUtils.isVisible(GeneratedRowMapper.class, this.parentClassLoader));
+		for (Class<?> paramType : paramTypes) {
+			generatable &= isAccessible(paramType);
+		}
+
+		for (int index = 1; index <= columns.length; index++) {
+			String column = columns[index - 1];
+			String field = lowerCaseName(StringUtils.delete(column, " "));
+			Integer paramIndex = mappedParameters.get(field);
+			if (paramIndex != null) {
+				parameterColumns[paramIndex] = index;
+				if (logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to constructor parameter " + paramIndex +
+							" of type '" + ClassUtils.getQualifiedName(paramTypes[paramIndex]) + "'");
+				}
+				continue;
+			}
+			PropertyDescriptor pd = mappedFields.get(field);
+			if (pd != null) {
+				Method writeMethod = pd.getWriteMethod();
+				propertyBindings.add(new PropertyBinding(index, writeMethod));
+				generatable &= isAccessible(writeMethod.getParameterTypes()[0]);
+				if (logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
+							"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
+				}
+			}
+			else if (logger.isDebugEnabled()) {
+				logger.debug("No property found for column '" + column + "' mapped to field '" + field + "'");
+			}
+		}
+
+		if (!generatable) {
+			if (paramTypes.length > 0) {
+				throw new InvalidDataAccessApiUsageException("Cannot generate RowMapper for class [" +
+						mappedClass.getName() + "]: class, constructor and constructor parameter types " +
+						"need to be public and visible from the class loader of the generated mapper");
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Cannot generate RowMapper for class [" + mappedClass.getName() +
+						"] - falling back to BeanPropertyRowMapper");
+			}
+			return new BeanPropertyRowMapper<>(mappedClass);
+		}
+
+		Class<?> rowMapperClass =
+				generateRowMapperClass(mappedClass, ctor, parameterColumns, propertyBindings, classLoader);
+		try {
+			@SuppressWarnings("unchecked")
+			RowMapper<T> rowMapper = (RowMapper<T>) rowMapperClass.getConstructor().newInstance();
+			return rowMapper;
+		}
+		catch (Throwable ex) {
+			throw new IllegalStateException("Failed to instantiate generated RowMapper for " + mappedClass, ex);
+		}
+	}
+
+	/**
+	 * Determine the constructor to use for the given target class:
+	 * a Kotlin primary constructor, a public no-arg constructor,
+	 * a unique public constructor, or a non-public no-arg constructor.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Constructor<T> determineConstructor(Class<T> mappedClass) {
+		if (mappedClass.isInterface() || Modifier.isAbstract(mappedClass.getModifiers())) {
+			throw new InvalidDataAccessApiUsageException(
+					"Cannot map to interface or abstract class [" + mappedClass.getName() + "]");
+		}
+		Constructor<T> ctor = BeanUtils.findPrimaryConstructor(mappedClass);
+		if (ctor != null) {
+			return ctor;
+		}
+		Constructor<?>[] ctors = mappedClass.getConstructors();
+		for (Constructor<?> candidate : ctors) {
+			if (candidate.getParameterCount() == 0) {
+				return (Constructor<T>) candidate;
+			}
+		}
+		if (ctors.length == 1) {
+			return (Constructor<T>) ctors[0];
+		}
+		try {
+			return mappedClass.getDeclaredConstructor();
+		}
+		catch (NoSuchMethodException ex) {
+			throw new InvalidDataAccessApiUsageException("No default constructor or unique public constructor " +
+					"found on mapped class [" + mappedClass.getName() + "]");
+		}
+	}
+
+	/**
+	 * Determine the parameter names of the given constructor.
+	 */
+	private static String[] determineParameterNames(Constructor<?> ctor) {
+		ConstructorProperties cp = ctor.getAnnotation(ConstructorProperties.class);
+		String[] paramNames = (cp != null ? cp.value() : parameterNameDiscoverer.getParameterNames(ctor));
+		if (paramNames == null || paramNames.length != ctor.getParameterCount()) {
+			throw new InvalidDataAccessApiUsageException("Cannot determine parameter names for constructor " +
+					ctor + " - compile with '-parameters' or declare @ConstructorProperties");
+		}
+		return paramNames;
+	}
+
+	/**
+	 * Determine whether the given type may be referenced by a generated class:
+	 * public, and for a nested type, declared within public enclosing classes.
+	 */
+	private static boolean isAccessible(Class<?> type) {
+		Class<?> typeToCheck = type;
+		while (typeToCheck.isArray()) {
+			typeToCheck = typeToCheck.getComponentType();
+		}
+		if (typeToCheck.isPrimitive()) {
+			return true;
+		}
+		while (typeToCheck != null) {
+			if (!Modifier.isPublic(typeToCheck.getModifiers())) {
+				return false;
+			}
+			typeToCheck = typeToCheck.getEnclosingClass();
+		}
+		return true;
+	}
+
+	/**
+	 * Generate a {@link GeneratedRowMapper} subclass for the given bindings and define it.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @param ctor the constructor to invoke
+	 * @param parameterColumns the column index for each constructor parameter
+	 * (or 0 if not bound to a column)
+	 * @param propertyBindings the column-to-setter bindings, in column order
+	 * @param classLoader the class loader to define the generated class in
+	 * @return the generated class
+	 */
+	private Class<?> generateRowMapperClass(Class<?> mappedClass, Constructor<?> ctor,
+			int[] parameterColumns, List<PropertyBinding> propertyBindings, ChildClassLoader classLoader) {
+
+		String mappedName = mappedClass.getName();
+		String className = (mappedName.startsWith("java.") ? "org.springframework.jdbc.core." +
+				mappedClass.getSimpleName() : mappedName) + "$$RowMapper$$" + this.suffixId.getAndIncrement();
+		String internalName = StringUtils.replace(className, ".", "/");
+		String mappedType = Type.getInternalName(mappedClass);
+
+		ClassWriter cw = new RowMapperClassWriter(classLoader);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalName, null, ROW_MAPPER_BASE_CLASS, null);
+
+		// Create default constructor
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, ROW_MAPPER_BASE_CLASS, "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(1, 1);
+		mv.visitEnd();
+
+		// Create mapRow(ResultSet, int) method
+		mv = cw.visitMethod(ACC_PUBLIC, "mapRow", "(L" + RESULT_SET_CLASS + ";I)Ljava/lang/Object;", null,
+				new String[] {"java/sql/SQLException"});
+		mv.visitCode();
+		mv.visitTypeInsn(NEW, mappedType);
+		mv.visitInsn(DUP);
+		Class<?>[] paramTypes = ctor.getParameterTypes();
+		for (int i = 0; i < paramTypes.length; i++) {
+			if (parameterColumns[i] > 0) {
+				generateColumnValue(mv, parameterColumns[i], paramTypes[i]);
+			}
+			else {
+				generateDefaultValue(mv, paramTypes[i]);
+			}
+		}
+		mv.visitMethodInsn(INVOKESPECIAL, mappedType, "<init>", Type.getConstructorDescriptor(ctor), false);
+		mv.visitVarInsn(ASTORE, 3);
+		for (PropertyBinding binding : propertyBindings) {
+			Method writeMethod = binding.writeMethod;
+			mv.visitVarInsn(ALOAD, 3);
+			generateColumnValue(mv, binding.columnIndex, writeMethod.getParameterTypes()[0]);
+			mv.visitMethodInsn(INVOKEVIRTUAL, mappedType, writeMethod.getName(),
+					Type.getMethodDescriptor(writeMethod), false);
+			Class<?> returnType = writeMethod.getReturnType();
+			if (returnType == long.class || returnType == double.class) {
+				mv.visitInsn(POP2);
+			}
+			else if (returnType != void.class) {
+				mv.visitInsn(POP);
+			}
+		}
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+		cw.visitEnd();
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Generated RowMapper class [" + className + "] for " + mappedClass);
+		}
+		return classLoader.defineClass(className, cw.toByteArray());
+	}
+
+	/**
+	 * Generate code which pushes the value of the given column onto the stack.
+	 */
+	private static void generateColumnValue(MethodVisitor mv, int columnIndex, Class<?> requiredType) {
+		String accessor = resultSetAccessors.get(requiredType);
+		if (accessor != null) {
+			mv.visitVarInsn(ALOAD, 1);
+			generateIntValue(mv, columnIndex);
+			mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET_CLASS, accessor,
+					"(I)" + Type.getDescriptor(requiredType), true);
+		}
+		else if (requiredType == char.class) {
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			generateIntValue(mv, columnIndex);
+			mv.visitMethodInsn(INVOKEVIRTUAL, ROW_MAPPER_BASE_CLASS, "getCharColumnValue",
+					"(L" + RESULT_SET_CLASS + ";I)C", false);
+		}
+		else {
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			generateIntValue(mv, columnIndex);
+			mv.visitLdcInsn(Type.getType(requiredType));
+			mv.visitMethodInsn(INVOKEVIRTUAL, ROW_MAPPER_BASE_CLASS, "getColumnValue",
+					"(L" + RESULT_SET_CLASS + ";ILjava/lang/Class;)Ljava/lang/Object;", false);
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(requiredType));
+		}
+	}
+
+	/**
+	 * Generate code which pushes the default value for the given type onto the stack.
+	 */
+	private static void generateDefaultValue(MethodVisitor mv, Class<?> type) {
+		if (type == long.class) {
+			mv.visitInsn(LCONST_0);
+		}
+		else if (type == float.class) {
+			mv.visitInsn(FCONST_0);
+		}
+		else if (type == double.class) {
+			mv.visitInsn(DCONST_0);
+		}
+		else if (type.isPrimitive()) {
+			mv.visitInsn(ICONST_0);
+		}
+		else {
+			mv.visitInsn(ACONST_NULL);
+		}
+	}
+
+	/**
+	 * Generate code which pushes the given int value onto the stack.
+	 */
+	private static void generateIntValue(MethodVisitor mv, int value) {
+		if (value <= 5) {
+			mv.visitInsn(ICONST_0 + value);
+		}
+		else if (value <= Byte.MAX_VALUE) {
+			mv.visitIntInsn(BIPUSH, value);
+		}
+		else if (value <= Short.MAX_VALUE) {
+			mv.visitIntInsn(SIPUSH, value);
+		}
+		else {
+			mv.visitLdcInsn(value);
+		}
+	}
+
+	private static String underscoreName(String name) {
+		if (!StringUtils.hasLength(name)) {
+			return "";
+		}
+		StringBuilder result = new StringBuilder();
+		result.append(lowerCaseName(name.substring(0, 1)));
+		for (int i = 1; i < name.length(); i++) {
+			String s = name.substring(i, i + 1);
+			String slc = lowerCaseName(s);
+			if (!s.equals(slc)) {
+				result.append("_").append(slc);
+			}
+			else {
+				result.append(s);
+			}
+		}
+		return result.toString();
+	}
+
+	private static String lowerCaseName(String name) {
+		return name.toLowerCase(Locale.US);
+	}
+
+
+	/**
+	 * Factory method for factory instances. The returned factory will attach
+	 * a class loader as the child of the given class loader, with that child
+	 * used to load the generated row mapper classes.
+	 * @param classLoader the ClassLoader to use as the basis for generation
+	 * @return a corresponding GeneratedRowMapperFactory instance
+	 */
+	public static GeneratedRowMapperFactory getFactory(@Nullable ClassLoader classLoader) {
+		ClassLoader clToUse = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		synchronized (factories) {
+			GeneratedRowMapperFactory factory = factories.get(clToUse);
+			if (factory == null) {
+				factory = new GeneratedRowMapperFactory(clToUse);
+				factories.put(clToUse, factory);
+			}
+			return factory;
+		}
+	}
+
+	/**
+	 * Return a {@link RowMapper} for the given target class, using the factory
+	 * for the class loader of the target class.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @return the corresponding RowMapper
+	 * @see #getFactory(ClassLoader)
+	 * @see #getRowMapper(Class)
+	 */
+	public static <T> RowMapper<T> rowMapperFor(Class<T> mappedClass) {
+		return getFactory(mappedClass.getClassLoader()).getRowMapper(mappedClass);
+	}
+
+	/**
+	 * Return a {@link ResultSetExtractor} for the given target class, using the
+	 * factory for the class loader of the target class.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @return the corresponding ResultSetExtractor
+	 * @see #getFactory(ClassLoader)
+	 * @see #getResultSetExtractor(Class)
+	 */
+	public static <T> ResultSetExtractor<List<T>> resultSetExtractorFor(Class<T> mappedClass) {
+		return getFactory(mappedClass.getClassLoader()).getResultSetExtractor(mappedClass);
+	}
+
+
+	/**
+	 * RowMapper which resolves the specialized mapper for every result set
+	 * it encounters, reusing it for all subsequent rows of the same result set.
+	 * Only remembers a single result set, i.e. meant for one query at a time.
+	 */
+	private static final class ResultSetShapeRowMapper<T> implements RowMapper<T> {
+
+		private final GeneratedRowMapperFactory factory;
+
+		private final Class<T> mappedClass;
+
+		@Nullable
+		private volatile ResolvedRowMapper<T> resolvedRowMapper;
+
+		public ResultSetShapeRowMapper(GeneratedRowMapperFactory factory, Class<T> mappedClass) {
+			this.factory = factory;
+			this.mappedClass = mappedClass;
+		}
+
+		@Override
+		public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+			ResolvedRowMapper<T> resolved = this.resolvedRowMapper;
+			if (resolved == null || resolved.resultSet.get() != rs) {
+				resolved = new ResolvedRowMapper<>(rs, this.factory.getRowMapper(this.mappedClass, rs.getMetaData()));
+				this.resolvedRowMapper = resolved;
+			}
+			return resolved.rowMapper.mapRow(rs, rowNum);
+		}
+	}
+
+
+	/**
+	 * The RowMapper resolved for a specific ResultSet.
+	 */
+	private static final class ResolvedRowMapper<T> {
+
+		final WeakReference<ResultSet> resultSet;
+
+		final RowMapper<T> rowMapper;
+
+		public ResolvedRowMapper(ResultSet resultSet, RowMapper<T> rowMapper) {
+			this.resultSet = new WeakReference<>(resultSet);
+			this.rowMapper = rowMapper;
+		}
+	}
+
+
+	/**
+	 * Binding of a result set column to a setter method.
+	 */
+	private static final class PropertyBinding {
+
+		final int columnIndex;
+
+		final Method writeMethod;
+
+		public PropertyBinding(int columnIndex, Method writeMethod) {
+			this.columnIndex = columnIndex;
+			this.writeMethod = writeMethod;
+		}
+	}
+
+
+	/**
+	 * Cache key for a target class and the column names of a result set.
+	 */
+	private static final class MapperKey {
+
+		private final Class<?> mappedClass;
+
+		private final String[] columns;
+
+		public MapperKey(Class<?> mappedClass, String[] columns) {
+			this.mappedClass = mappedClass;
+			this.columns = columns;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof MapperKey)) {
+				return false;
+			}
+			MapperKey otherKey = (MapperKey) other;
+			return (this.mappedClass == otherKey.mappedClass && Arrays.equals(this.columns, otherKey.columns));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.mappedClass.hashCode() * 31 + Arrays.hashCode(this.columns);
+		}
+	}
+
+
+	/**
+	 * The generated mappers of a factory, along with the class loader
+	 * that their classes have been defined in.
+	 */
+	private static final class MapperCache {
+
+		final ChildClassLoader classLoader;
+
+		final Map<MapperKey, RowMapper<?>> rowMappers = new ConcurrentHashMap<>(64);
+
+		public MapperCache(@Nullable ClassLoader parentClassLoader) {
+			this.classLoader = new ChildClassLoader(parentClassLoader);
+		}
+	}
+
+
+	/**
+	 * A ChildClassLoader will load the generated row mapper classes.
+	 */
+	private static class ChildClassLoader extends URLClassLoader {
+
+		private static final URL[] NO_URLS = new URL[0];
+
+		public ChildClassLoader(@Nullable ClassLoader classLoader) {
+			super(NO_URLS, classLoader);
+		}
+
+		public synchronized Class<?> defineClass(String name, byte[] bytes) {
+			return super.defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+
+	private static class RowMapperClassWriter extends ClassWriter {
+
+		private final ClassLoader classLoader;
+
+		public RowMapperClassWriter(ClassLoader classLoader) {
+			super(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		protected ClassLoader getClassLoader() {
+			return this.classLoader;
+		}
+	}
+
+}
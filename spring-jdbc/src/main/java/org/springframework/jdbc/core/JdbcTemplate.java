@@ -34,6 +34,10 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.sql.DataSource;
 
@@ -366,6 +370,22 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	@Override
 	@Nullable
 	public <T> T execute(StatementCallback<T> action) throws DataAccessException {
+		return execute(action, true);
+	}
+
+	/**
+	 * Execute the given JDBC Statement callback, leaving the Statement and its
+	 * Connection open on successful completion if {@code closeResources} is off.
+	 * <p>Used for lazily processed results: In that case, the returned result
+	 * is responsible for closing the Statement and releasing the Connection.
+	 * @param action the callback to execute
+	 * @param closeResources whether to close the Statement and release the
+	 * Connection after the callback (always done in case of an exception)
+	 * @return the result object returned by the callback
+	 * @see #queryForStream(String, RowMapper)
+	 */
+	@Nullable
+	private <T> T execute(StatementCallback<T> action, boolean closeResources) throws DataAccessException {
 		Assert.notNull(action, "Callback object must not be null");
 
 		Connection con = DataSourceUtils.getConnection(obtainDataSource());
@@ -387,9 +407,20 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			con = null;
 			throw translateException("StatementCallback", sql, ex);
 		}
+		catch (RuntimeException | Error ex) {
+			if (!closeResources) {
+				// Not closed in the finally block: close the Statement (and thereby
+				// any ResultSet that it returned already) and release the Connection
+				JdbcUtils.closeStatement(stmt);
+				DataSourceUtils.releaseConnection(con, getDataSource());
+			}
+			throw ex;
+		}
 		finally {
-			JdbcUtils.closeStatement(stmt);
-			DataSourceUtils.releaseConnection(con, getDataSource());
+			if (closeResources) {
+				JdbcUtils.closeStatement(stmt);
+				DataSourceUtils.releaseConnection(con, getDataSource());
+			}
 		}
 	}
 
@@ -462,6 +493,37 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return result(query(sql, new RowMapperResultSetExtractor<>(rowMapper)));
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper) throws DataAccessException {
+		Assert.notNull(sql, "SQL must not be null");
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing SQL query [" + sql + "]");
+		}
+
+		/**
+		 * Callback to execute the query, keeping the Statement open for the Stream.
+		 */
+		class StreamStatementCallback implements StatementCallback<Stream<T>>, SqlProvider {
+			@Override
+			public Stream<T> doInStatement(Statement stmt) throws SQLException {
+				ResultSet rs = stmt.executeQuery(sql);
+				Connection con = stmt.getConnection();
+				return new ResultSetSpliterator<>(rs, rowMapper, sql).stream().onClose(() -> {
+					JdbcUtils.closeResultSet(rs);
+					JdbcUtils.closeStatement(stmt);
+					DataSourceUtils.releaseConnection(con, getDataSource());
+				});
+			}
+			@Override
+			public String getSql() {
+				return sql;
+			}
+		}
+
+		return result(execute(new StreamStatementCallback(), false));
+	}
+
 	@Override
 	public Map<String, Object> queryForMap(String sql) throws DataAccessException {
 		return result(queryForObject(sql, getColumnMapRowMapper()));
@@ -602,6 +664,25 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action)
 			throws DataAccessException {
 
+		return execute(psc, action, true);
+	}
+
+	/**
+	 * Execute the given JDBC PreparedStatement callback, leaving the PreparedStatement
+	 * and its Connection open on successful completion if {@code closeResources} is off.
+	 * <p>Used for lazily processed results: In that case, the returned result
+	 * is responsible for closing the PreparedStatement and releasing the Connection.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param action the callback to execute
+	 * @param closeResources whether to close the PreparedStatement and release the
+	 * Connection after the callback (always done in case of an exception)
+	 * @return the result object returned by the callback
+	 * @see #queryForStream(PreparedStatementCreator, PreparedStatementSetter, RowMapper)
+	 */
+	@Nullable
+	private <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action, boolean closeResources)
+			throws DataAccessException {
+
 		Assert.notNull(psc, "PreparedStatementCreator must not be null");
 		Assert.notNull(action, "Callback object must not be null");
 		if (logger.isDebugEnabled()) {
@@ -632,12 +713,26 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			con = null;
 			throw translateException("PreparedStatementCallback", sql, ex);
 		}
+		catch (RuntimeException | Error ex) {
+			if (!closeResources) {
+				// Not closed in the finally block: close the PreparedStatement (and thereby
+				// any ResultSet that it returned already) and release the Connection
+				if (psc instanceof ParameterDisposer) {
+					((ParameterDisposer) psc).cleanupParameters();
+				}
+				JdbcUtils.closeStatement(ps);
+				DataSourceUtils.releaseConnection(con, getDataSource());
+			}
+			throw ex;
+		}
 		finally {
-			if (psc instanceof ParameterDisposer) {
-				((ParameterDisposer) psc).cleanupParameters();
+			if (closeResources) {
+				if (psc instanceof ParameterDisposer) {
+					((ParameterDisposer) psc).cleanupParameters();
+				}
+				JdbcUtils.closeStatement(ps);
+				DataSourceUtils.releaseConnection(con, getDataSource());
 			}
-			JdbcUtils.closeStatement(ps);
-			DataSourceUtils.releaseConnection(con, getDataSource());
 		}
 	}
 
@@ -768,6 +863,70 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return result(query(sql, args, new RowMapperResultSetExtractor<>(rowMapper)));
 	}
 
+	/**
+	 * Query using a prepared statement, allowing for a PreparedStatementCreator
+	 * and a PreparedStatementSetter, mapping each row to a result object via a
+	 * RowMapper, and turning it into an iterable and closeable Stream.
+	 * Most other {@code queryForStream} methods use this method.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param pss a callback that knows how to set values on the prepared statement.
+	 * If this is {@code null}, the SQL will be assumed to contain no bind parameters.
+	 * @param rowMapper a callback that will map one object per row
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if there is any problem
+	 * @since 5.2.3
+	 */
+	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, @Nullable PreparedStatementSetter pss,
+			RowMapper<T> rowMapper) throws DataAccessException {
+
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		logger.debug("Executing prepared SQL query");
+
+		return result(execute(psc, ps -> {
+			ResultSet rs;
+			try {
+				if (pss != null) {
+					pss.setValues(ps);
+				}
+				rs = ps.executeQuery();
+			}
+			finally {
+				if (pss instanceof ParameterDisposer) {
+					((ParameterDisposer) pss).cleanupParameters();
+				}
+			}
+			Connection con = ps.getConnection();
+			return new ResultSetSpliterator<>(rs, rowMapper, getSql(psc)).stream().onClose(() -> {
+				JdbcUtils.closeResultSet(rs);
+				if (psc instanceof ParameterDisposer) {
+					((ParameterDisposer) psc).cleanupParameters();
+				}
+				JdbcUtils.closeStatement(ps);
+				DataSourceUtils.releaseConnection(con, getDataSource());
+			});
+		}, false));
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, RowMapper<T> rowMapper) throws DataAccessException {
+		return queryForStream(psc, null, rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, @Nullable PreparedStatementSetter pss, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return queryForStream(new SimplePreparedStatementCreator(sql), pss, rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, @Nullable Object... args)
+			throws DataAccessException {
+
+		return queryForStream(new SimplePreparedStatementCreator(sql), newArgPreparedStatementSetter(args), rowMapper);
+	}
+
 	@Override
 	@Nullable
 	public <T> T queryForObject(String sql, Object[] args, int[] argTypes, RowMapper<T> rowMapper)
@@ -1610,4 +1769,61 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		}
 	}
 
+
+	/**
+	 * Spliterator for queryForStream adaptation of a ResultSet to a Stream,
+	 * mapping one row per advance step via the given RowMapper.
+	 */
+	private class ResultSetSpliterator<T> implements Spliterator<T> {
+
+		private final ResultSet rs;
+
+		private final RowMapper<T> rowMapper;
+
+		@Nullable
+		private final String sql;
+
+		private int rowNum = 0;
+
+		public ResultSetSpliterator(ResultSet rs, RowMapper<T> rowMapper, @Nullable String sql) {
+			this.rs = rs;
+			this.rowMapper = rowMapper;
+			this.sql = sql;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			try {
+				if (this.rs.next()) {
+					action.accept(this.rowMapper.mapRow(this.rs, this.rowNum++));
+					return true;
+				}
+				return false;
+			}
+			catch (SQLException ex) {
+				throw translateException("ResultSetSpliterator", this.sql, ex);
+			}
+		}
+
+		@Override
+		@Nullable
+		public Spliterator<T> trySplit() {
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED;
+		}
+
+		public Stream<T> stream() {
+			return StreamSupport.stream(this, false);
+		}
+	}
+
 }
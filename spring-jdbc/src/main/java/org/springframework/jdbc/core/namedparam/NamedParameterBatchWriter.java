@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.namedparam;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.BatchWriter;
+import org.springframework.jdbc.core.JdbcOperations;
+
+/**
+ * {@link BatchWriter} variant for SQL statements with named parameters,
+ * accepting the arguments for each row as a {@link Map} or as a
+ * {@link SqlParameterSource}.
+ *
+ * <p>Note that collection values are not expanded into multiple
+ * placeholders here, in contrast to regular NamedParameterJdbcTemplate
+ * operations: Each named parameter is bound to a single placeholder.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see NamedParameterJdbcTemplate#batchUpdate(String, SqlParameterSource[])
+ */
+public class NamedParameterBatchWriter extends BatchWriter {
+
+	private final ParsedSql parsedSql;
+
+
+	/**
+	 * Create a new NamedParameterBatchWriter for the given SQL statement.
+	 * @param namedParameterJdbcOperations the NamedParameterJdbcOperations
+	 * instance to execute the batches with
+	 * @param sql the SQL statement to execute, with named parameters
+	 */
+	public NamedParameterBatchWriter(NamedParameterJdbcOperations namedParameterJdbcOperations, String sql) {
+		this(namedParameterJdbcOperations.getJdbcOperations(), sql);
+	}
+
+	/**
+	 * Create a new NamedParameterBatchWriter for the given SQL statement.
+	 * @param jdbcOperations the JdbcOperations instance to execute the batches with
+	 * @param sql the SQL statement to execute, with named parameters
+	 */
+	public NamedParameterBatchWriter(JdbcOperations jdbcOperations, String sql) {
+		this(jdbcOperations, NamedParameterUtils.parseSqlStatement(sql));
+	}
+
+	private NamedParameterBatchWriter(JdbcOperations jdbcOperations, ParsedSql parsedSql) {
+		super(jdbcOperations, NamedParameterUtils.substituteNamedParameters(parsedSql, null));
+		this.parsedSql = parsedSql;
+	}
+
+
+	/**
+	 * Add the given arguments for one row, flushing automatically
+	 * once the batch size or the batch byte limit has been reached.
+	 * @param paramMap map of parameters to bind to the statement
+	 * @throws DataAccessException in case of a failed automatic flush
+	 */
+	public void add(Map<String, ?> paramMap) throws DataAccessException {
+		add(new MapSqlParameterSource(paramMap));
+	}
+
+	/**
+	 * Add the given arguments for one row, flushing automatically
+	 * once the batch size or the batch byte limit has been reached.
+	 * @param paramSource container of arguments to bind to the statement
+	 * @throws DataAccessException in case of a failed automatic flush
+	 */
+	public void add(SqlParameterSource paramSource) throws DataAccessException {
+		List<String> paramNames = this.parsedSql.getParameterNames();
+		Object[] args = new Object[paramNames.size()];
+		for (int i = 0; i < args.length; i++) {
+			String paramName = paramNames.get(i);
+			try {
+				args[i] = SqlParameterSourceUtils.getTypedValue(paramSource, paramName);
+			}
+			catch (IllegalArgumentException ex) {
+				throw new InvalidDataAccessApiUsageException(
+						"No value supplied for the SQL parameter '" + paramName + "': " + ex.getMessage());
+			}
+		}
+		add(args);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,10 +18,14 @@ package org.springframework.jdbc.core.namedparam;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -77,15 +81,14 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 
 	private volatile int cacheLimit = DEFAULT_CACHE_LIMIT;
 
+	private volatile boolean inClauseParameterPadding = false;
+
 	/** Cache of original SQL String to ParsedSql representation. */
-	@SuppressWarnings("serial")
-	private final Map<String, ParsedSql> parsedSqlCache =
-			new LinkedHashMap<String, ParsedSql>(DEFAULT_CACHE_LIMIT, 0.75f, true) {
-				@Override
-				protected boolean removeEldestEntry(Map.Entry<String, ParsedSql> eldest) {
-					return size() > getCacheLimit();
-				}
-			};
+	private final ConcurrentMap<String, CachedParsedSql> parsedSqlCache =
+			new ConcurrentHashMap<>(DEFAULT_CACHE_LIMIT);
+
+	/** Cached SQL Strings in insertion order, for second-chance eviction. */
+	private final Queue<String> parsedSqlQueue = new ConcurrentLinkedQueue<>();
 
 
 	/**
@@ -145,6 +148,28 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return this.cacheLimit;
 	}
 
+	/**
+	 * Specify whether to pad collection values for {@code IN} lists, as in
+	 * {@code WHERE id IN (:ids)}, to a limited set of bucket sizes by repeating
+	 * their last element, reducing the number of distinct SQL statements.
+	 * <p>Default is "false". Switch this to "true" for better hit rates of
+	 * statement caches in the JDBC driver and the database, in particular
+	 * for queries with {@code IN} lists of frequently changing size.
+	 * @since 5.2.3
+	 * @see NamedParameterUtils#padInClauseParameters
+	 */
+	public void setInClauseParameterPadding(boolean inClauseParameterPadding) {
+		this.inClauseParameterPadding = inClauseParameterPadding;
+	}
+
+	/**
+	 * Return whether to pad collection values for {@code IN} lists.
+	 * @since 5.2.3
+	 */
+	public boolean isInClauseParameterPadding() {
+		return this.inClauseParameterPadding;
+	}
+
 
 	@Override
 	@Nullable
@@ -228,6 +253,20 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return query(sql, EmptySqlParameterSource.INSTANCE, rowMapper);
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return getJdbcOperations().queryForStream(getPreparedStatementCreator(sql, paramSource), rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return queryForStream(sql, new MapSqlParameterSource(paramMap), rowMapper);
+	}
+
 	@Override
 	@Nullable
 	public <T> T queryForObject(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper)
@@ -361,14 +400,16 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		}
 
 		ParsedSql parsedSql = getParsedSql(sql);
-		PreparedStatementCreatorFactory pscf = getPreparedStatementCreatorFactory(parsedSql, batchArgs[0]);
+		PreparedStatementCreatorFactory pscf =
+				getPreparedStatementCreatorFactory(parsedSql, padInClauseParameters(parsedSql, batchArgs[0]));
 
 		return getJdbcOperations().batchUpdate(
 				pscf.getSql(),
 				new BatchPreparedStatementSetter() {
 					@Override
 					public void setValues(PreparedStatement ps, int i) throws SQLException {
-						Object[] values = NamedParameterUtils.buildValueArray(parsedSql, batchArgs[i], null);
+						Object[] values = NamedParameterUtils.buildValueArray(
+								parsedSql, padInClauseParameters(parsedSql, batchArgs[i]), null);
 						pscf.newPreparedStatementSetter(values).setValues(ps);
 					}
 					@Override
@@ -411,34 +452,76 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 			@Nullable Consumer<PreparedStatementCreatorFactory> customizer) {
 
 		ParsedSql parsedSql = getParsedSql(sql);
-		PreparedStatementCreatorFactory pscf = getPreparedStatementCreatorFactory(parsedSql, paramSource);
+		SqlParameterSource paramSourceToUse = padInClauseParameters(parsedSql, paramSource);
+		PreparedStatementCreatorFactory pscf = getPreparedStatementCreatorFactory(parsedSql, paramSourceToUse);
 		if (customizer != null) {
 			customizer.accept(pscf);
 		}
-		Object[] params = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
+		Object[] params = NamedParameterUtils.buildValueArray(parsedSql, paramSourceToUse, null);
 		return pscf.newPreparedStatementCreator(params);
 	}
 
 	/**
 	 * Obtain a parsed representation of the given SQL statement.
-	 * <p>The default implementation uses an LRU cache with an upper limit of 256 entries.
+	 * <p>The default implementation uses a concurrent cache with an upper limit
+	 * of 256 entries, evicting entries which have not been used recently.
+	 * Cache hits do not involve any locking.
 	 * @param sql the original SQL statement
 	 * @return a representation of the parsed SQL statement
 	 */
 	protected ParsedSql getParsedSql(String sql) {
-		if (getCacheLimit() <= 0) {
+		int cacheLimit = getCacheLimit();
+		if (cacheLimit <= 0) {
 			return NamedParameterUtils.parseSqlStatement(sql);
 		}
-		synchronized (this.parsedSqlCache) {
-			ParsedSql parsedSql = this.parsedSqlCache.get(sql);
-			if (parsedSql == null) {
-				parsedSql = NamedParameterUtils.parseSqlStatement(sql);
-				this.parsedSqlCache.put(sql, parsedSql);
+		CachedParsedSql cached = this.parsedSqlCache.get(sql);
+		if (cached != null) {
+			cached.markUsed();
+			return cached.parsedSql;
+		}
+		ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement(sql);
+		cached = this.parsedSqlCache.putIfAbsent(sql, new CachedParsedSql(parsedSql));
+		if (cached != null) {
+			return cached.parsedSql;
+		}
+		this.parsedSqlQueue.add(sql);
+		evictParsedSql(cacheLimit);
+		return parsedSql;
+	}
+
+	/**
+	 * Evict cached entries beyond the given cache limit, giving recently
+	 * used entries a second chance at the tail of the queue.
+	 */
+	private void evictParsedSql(int cacheLimit) {
+		int attempts = 2 * this.parsedSqlCache.size();
+		while (this.parsedSqlCache.size() > cacheLimit && attempts-- > 0) {
+			String sql = this.parsedSqlQueue.poll();
+			if (sql == null) {
+				return;
+			}
+			CachedParsedSql cached = this.parsedSqlCache.get(sql);
+			if (cached != null) {
+				if (cached.used) {
+					cached.used = false;
+					this.parsedSqlQueue.add(sql);
+				}
+				else {
+					this.parsedSqlCache.remove(sql, cached);
+				}
 			}
-			return parsedSql;
 		}
 	}
 
+	/**
+	 * Apply {@code IN} list padding to the given parameter source, if enabled.
+	 * @see #setInClauseParameterPadding
+	 */
+	private SqlParameterSource padInClauseParameters(ParsedSql parsedSql, SqlParameterSource paramSource) {
+		return (isInClauseParameterPadding() ?
+				NamedParameterUtils.padInClauseParameters(parsedSql, paramSource) : paramSource);
+	}
+
 	/**
 	 * Build a {@link PreparedStatementCreatorFactory} based on the given SQL and named parameters.
 	 * @param parsedSql parsed representation of the given SQL statement
@@ -456,4 +539,26 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return new PreparedStatementCreatorFactory(sqlToUse, declaredParameters);
 	}
 
+
+	/**
+	 * Cache entry for a ParsedSql, tracking recent use for eviction purposes.
+	 */
+	private static class CachedParsedSql {
+
+		final ParsedSql parsedSql;
+
+		volatile boolean used;
+
+		CachedParsedSql(ParsedSql parsedSql) {
+			this.parsedSql = parsedSql;
+		}
+
+		void markUsed() {
+			// Avoid redundant writes to a shared field on every cache hit
+			if (!this.used) {
+				this.used = true;
+			}
+		}
+	}
+
 }
@@ -17,6 +17,10 @@
 package org.springframework.jdbc.core.namedparam;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -181,6 +185,9 @@ public abstract class NamedParameterUtils {
 		parsedSql.setNamedParameterCount(namedParameterCount);
 		parsedSql.setUnnamedParameterCount(unnamedParameterCount);
 		parsedSql.setTotalParameterCount(totalParameterCount);
+		if (namedParameterCount > 0) {
+			parsedSql.setInClauseParameterNames(determineInClauseParameterNames(parsedSql));
+		}
 		return parsedSql;
 	}
 
@@ -200,6 +207,67 @@ public abstract class NamedParameterUtils {
 		return namedParameterCount;
 	}
 
+	/**
+	 * Determine the names of the parameters which form a complete {@code IN} list,
+	 * as in {@code WHERE id IN (:ids)}, at every occurrence in the given statement.
+	 */
+	private static Set<String> determineInClauseParameterNames(ParsedSql parsedSql) {
+		String sql = parsedSql.getOriginalSql();
+		List<String> paramNames = parsedSql.getParameterNames();
+		Set<String> inClauseParameterNames = null;
+		Set<String> otherParameterNames = null;
+		for (int i = 0; i < paramNames.size(); i++) {
+			String paramName = paramNames.get(i);
+			int[] indexes = parsedSql.getParameterIndexes(i);
+			if (isInClauseParameter(sql, indexes[0], indexes[1])) {
+				if (inClauseParameterNames == null) {
+					inClauseParameterNames = new HashSet<>();
+				}
+				inClauseParameterNames.add(paramName);
+			}
+			else {
+				if (otherParameterNames == null) {
+					otherParameterNames = new HashSet<>();
+				}
+				otherParameterNames.add(paramName);
+			}
+		}
+		if (inClauseParameterNames == null) {
+			return Collections.emptySet();
+		}
+		if (otherParameterNames != null) {
+			inClauseParameterNames.removeAll(otherParameterNames);
+		}
+		return inClauseParameterNames;
+	}
+
+	/**
+	 * Check whether the parameter at the given position is the only element
+	 * within the parentheses of an {@code IN} predicate.
+	 */
+	private static boolean isInClauseParameter(String sql, int startIndex, int endIndex) {
+		int i = startIndex - 1;
+		while (i >= 0 && Character.isWhitespace(sql.charAt(i))) {
+			i--;
+		}
+		if (i < 0 || sql.charAt(i) != '(') {
+			return false;
+		}
+		i--;
+		while (i >= 0 && Character.isWhitespace(sql.charAt(i))) {
+			i--;
+		}
+		if (i < 1 || !sql.regionMatches(true, i - 1, "in", 0, 2) ||
+				(i > 1 && Character.isJavaIdentifierPart(sql.charAt(i - 2)))) {
+			return false;
+		}
+		int j = endIndex;
+		while (j < sql.length() && Character.isWhitespace(sql.charAt(j))) {
+			j++;
+		}
+		return (j < sql.length() && sql.charAt(j) == ')');
+	}
+
 	/**
 	 * Skip over comments and quoted names present in an SQL statement.
 	 * @param statement character array containing SQL statement
@@ -259,17 +327,135 @@ public abstract class NamedParameterUtils {
 	 * be used for a select list. Select lists should be limited to 100 or fewer elements.
 	 * A larger number of elements is not guaranteed to be supported by the database and
 	 * is strictly vendor-dependent.
+	 * <p>As of 5.2.3, the resulting SQL statement is cached in the given {@code ParsedSql}
+	 * per number of placeholders, avoiding repeated construction for the same statement.
 	 * @param parsedSql the parsed representation of the SQL statement
 	 * @param paramSource the source for named parameters
 	 * @return the SQL statement with substituted parameters
 	 * @see #parseSqlStatement
+	 * @see #padInClauseParameters
 	 */
 	public static String substituteNamedParameters(ParsedSql parsedSql, @Nullable SqlParameterSource paramSource) {
-		String originalSql = parsedSql.getOriginalSql();
 		List<String> paramNames = parsedSql.getParameterNames();
 		if (paramNames.isEmpty()) {
-			return originalSql;
+			return parsedSql.getOriginalSql();
+		}
+		int[] expansion = null;
+		if (paramSource != null) {
+			for (int i = 0; i < paramNames.size(); i++) {
+				String paramName = paramNames.get(i);
+				if (paramSource.hasValue(paramName)) {
+					Object value = paramSource.getValue(paramName);
+					if (value instanceof SqlParameterValue) {
+						value = ((SqlParameterValue) value).getValue();
+					}
+					if (value instanceof Iterable) {
+						if (expansion == null) {
+							expansion = new int[paramNames.size() * 2];
+							Arrays.fill(expansion, -1);
+						}
+						if (!determineExpansion((Iterable<?>) value, expansion, i * 2)) {
+							// Expression lists of varying length: not worth caching
+							return buildSubstitutedSql(parsedSql, paramSource);
+						}
+					}
+				}
+			}
+		}
+
+		if (expansion == null) {
+			String sqlToUse = parsedSql.getSubstitutedSql();
+			if (sqlToUse == null) {
+				sqlToUse = buildExpandedSql(parsedSql, null);
+				parsedSql.setSubstitutedSql(sqlToUse);
+			}
+			return sqlToUse;
+		}
+		ExpansionKey key = new ExpansionKey(expansion);
+		String sqlToUse = parsedSql.getExpandedSql(key);
+		if (sqlToUse == null) {
+			sqlToUse = buildExpandedSql(parsedSql, expansion);
+			parsedSql.addExpandedSql(key, sqlToUse);
+		}
+		return sqlToUse;
+	}
+
+	/**
+	 * Determine the number of elements in the given collection value and
+	 * the length of its expression lists, if any.
+	 * @return {@code false} if the expression lists vary in length
+	 */
+	private static boolean determineExpansion(Iterable<?> value, int[] expansion, int offset) {
+		int count = 0;
+		int length = 0;
+		for (Object entryItem : value) {
+			int itemLength = (entryItem instanceof Object[] ? ((Object[]) entryItem).length : 0);
+			if (count == 0) {
+				length = itemLength;
+			}
+			else if (itemLength != length) {
+				return false;
+			}
+			count++;
+		}
+		expansion[offset] = count;
+		expansion[offset + 1] = length;
+		return true;
+	}
+
+	/**
+	 * Build the SQL statement for the given placeholder expansion.
+	 * @param parsedSql the parsed representation of the SQL statement
+	 * @param expansion pairs of element count and expression list length per
+	 * parameter, with a negative count for a single placeholder (may be {@code null}
+	 * for a single placeholder per parameter)
+	 */
+	private static String buildExpandedSql(ParsedSql parsedSql, @Nullable int[] expansion) {
+		String originalSql = parsedSql.getOriginalSql();
+		List<String> paramNames = parsedSql.getParameterNames();
+		StringBuilder actualSql = new StringBuilder(originalSql.length());
+		int lastIndex = 0;
+		for (int i = 0; i < paramNames.size(); i++) {
+			int[] indexes = parsedSql.getParameterIndexes(i);
+			actualSql.append(originalSql, lastIndex, indexes[0]);
+			int count = (expansion != null ? expansion[i * 2] : -1);
+			if (count < 0) {
+				actualSql.append('?');
+			}
+			else {
+				int length = expansion[i * 2 + 1];
+				for (int k = 0; k < count; k++) {
+					if (k > 0) {
+						actualSql.append(", ");
+					}
+					if (length > 0) {
+						actualSql.append('(');
+						for (int m = 0; m < length; m++) {
+							if (m > 0) {
+								actualSql.append(", ");
+							}
+							actualSql.append('?');
+						}
+						actualSql.append(')');
+					}
+					else {
+						actualSql.append('?');
+					}
+				}
+			}
+			lastIndex = indexes[1];
 		}
+		actualSql.append(originalSql, lastIndex, originalSql.length());
+		return actualSql.toString();
+	}
+
+	/**
+	 * Build the SQL statement for the given parameter values,
+	 * supporting expression lists of varying length.
+	 */
+	private static String buildSubstitutedSql(ParsedSql parsedSql, SqlParameterSource paramSource) {
+		String originalSql = parsedSql.getOriginalSql();
+		List<String> paramNames = parsedSql.getParameterNames();
 		StringBuilder actualSql = new StringBuilder(originalSql.length());
 		int lastIndex = 0;
 		for (int i = 0; i < paramNames.size(); i++) {
@@ -278,7 +464,7 @@ public abstract class NamedParameterUtils {
 			int startIndex = indexes[0];
 			int endIndex = indexes[1];
 			actualSql.append(originalSql, lastIndex, startIndex);
-			if (paramSource != null && paramSource.hasValue(paramName)) {
+			if (paramSource.hasValue(paramName)) {
 				Object value = paramSource.getValue(paramName);
 				if (value instanceof SqlParameterValue) {
 					value = ((SqlParameterValue) value).getValue();
@@ -357,6 +543,76 @@ public abstract class NamedParameterUtils {
 		return paramArray;
 	}
 
+	/**
+	 * Pad the collection values of parameters which form a complete {@code IN} list,
+	 * as in {@code WHERE id IN (:ids)}, to the next bucket size by repeating their
+	 * last element: to the next power of two up to 512 elements, and to the next
+	 * multiple of 100 beyond. This limits the number of distinct SQL statements,
+	 * improving the hit rate of prepared statement caches in driver and database.
+	 * <p>Repeated elements do not affect the outcome of an {@code IN} predicate.
+	 * Parameters which also occur outside of {@code IN} lists are never padded.
+	 * @param parsedSql the parsed representation of the SQL statement
+	 * @param paramSource the source for named parameters
+	 * @return the given parameter source, or a parameter source exposing padded
+	 * collection values on top of it
+	 * @since 5.2.3
+	 */
+	public static SqlParameterSource padInClauseParameters(ParsedSql parsedSql, SqlParameterSource paramSource) {
+		Set<String> inClauseParameterNames = parsedSql.getInClauseParameterNames();
+		if (inClauseParameterNames.isEmpty()) {
+			return paramSource;
+		}
+		Map<String, Object> paddedValues = null;
+		for (String paramName : inClauseParameterNames) {
+			if (paramSource.hasValue(paramName)) {
+				Object value = paramSource.getValue(paramName);
+				Object paddedValue = padCollectionValue(value);
+				if (paddedValue != value) {
+					if (paddedValues == null) {
+						paddedValues = new HashMap<>();
+					}
+					paddedValues.put(paramName, paddedValue);
+				}
+			}
+		}
+		return (paddedValues != null ? new PaddedSqlParameterSource(paramSource, paddedValues) : paramSource);
+	}
+
+	@Nullable
+	private static Object padCollectionValue(@Nullable Object value) {
+		Object valueToPad = (value instanceof SqlParameterValue ? ((SqlParameterValue) value).getValue() : value);
+		if (!(valueToPad instanceof Collection)) {
+			return value;
+		}
+		Collection<?> collection = (Collection<?>) valueToPad;
+		int size = collection.size();
+		int paddedSize = getPaddedSize(size);
+		if (paddedSize == size) {
+			return value;
+		}
+		List<Object> paddedList = new ArrayList<>(paddedSize);
+		paddedList.addAll(collection);
+		Object lastElement = paddedList.get(size - 1);
+		while (paddedList.size() < paddedSize) {
+			paddedList.add(lastElement);
+		}
+		return (value instanceof SqlParameterValue ?
+				new SqlParameterValue((SqlParameterValue) value, paddedList) : paddedList);
+	}
+
+	/**
+	 * Determine the bucket size for the given number of {@code IN} list elements.
+	 */
+	static int getPaddedSize(int size) {
+		if (size <= 2) {
+			return size;
+		}
+		if (size <= 512) {
+			return Integer.highestOneBit(size - 1) << 1;
+		}
+		return (size + 99) / 100 * 100;
+	}
+
 	/**
 	 * Find a matching parameter in the given list of declared parameters.
 	 * @param declaredParams the declared SqlParameter objects
@@ -479,6 +735,79 @@ public abstract class NamedParameterUtils {
 	}
 
 
+	/**
+	 * Key for the cached SQL statement variants of a {@link ParsedSql},
+	 * holding element count and expression list length per parameter.
+	 */
+	static final class ExpansionKey {
+
+		private final int[] expansion;
+
+		private final int hashCode;
+
+		ExpansionKey(int[] expansion) {
+			this.expansion = expansion;
+			this.hashCode = Arrays.hashCode(expansion);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return (this == other || (other instanceof ExpansionKey &&
+					Arrays.equals(this.expansion, ((ExpansionKey) other).expansion)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+
+	/**
+	 * SqlParameterSource decorator exposing padded {@code IN} list values.
+	 */
+	private static class PaddedSqlParameterSource implements SqlParameterSource {
+
+		private final SqlParameterSource targetSource;
+
+		private final Map<String, Object> paddedValues;
+
+		public PaddedSqlParameterSource(SqlParameterSource targetSource, Map<String, Object> paddedValues) {
+			this.targetSource = targetSource;
+			this.paddedValues = paddedValues;
+		}
+
+		@Override
+		public boolean hasValue(String paramName) {
+			return this.targetSource.hasValue(paramName);
+		}
+
+		@Override
+		@Nullable
+		public Object getValue(String paramName) throws IllegalArgumentException {
+			Object paddedValue = this.paddedValues.get(paramName);
+			return (paddedValue != null ? paddedValue : this.targetSource.getValue(paramName));
+		}
+
+		@Override
+		public int getSqlType(String paramName) {
+			return this.targetSource.getSqlType(paramName);
+		}
+
+		@Override
+		@Nullable
+		public String getTypeName(String paramName) {
+			return this.targetSource.getTypeName(paramName);
+		}
+
+		@Override
+		@Nullable
+		public String[] getParameterNames() {
+			return this.targetSource.getParameterNames();
+		}
+	}
+
+
 	private static class ParameterHolder {
 
 		private final String parameterName;
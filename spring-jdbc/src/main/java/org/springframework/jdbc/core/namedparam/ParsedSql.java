@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,7 +17,13 @@
 package org.springframework.jdbc.core.namedparam;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.lang.Nullable;
 
 /**
  * Holds information about a parsed SQL statement.
@@ -28,6 +34,10 @@ import java.util.List;
  */
 public class ParsedSql {
 
+	/** Maximum number of substituted SQL Strings to cache for collection values. */
+	private static final int EXPANDED_SQL_CACHE_LIMIT = 64;
+
+
 	private String originalSql;
 
 	private List<String> parameterNames = new ArrayList<>();
@@ -40,6 +50,13 @@ public class ParsedSql {
 
 	private int totalParameterCount;
 
+	private Set<String> inClauseParameterNames = Collections.emptySet();
+
+	@Nullable
+	private volatile String substitutedSql;
+
+	private final Map<NamedParameterUtils.ExpansionKey, String> expandedSqlCache = new ConcurrentHashMap<>();
+
 
 	/**
 	 * Create a new instance of the {@link ParsedSql} class.
@@ -133,6 +150,63 @@ public class ParsedSql {
 		return this.totalParameterCount;
 	}
 
+	/**
+	 * Set the names of the parameters which form a complete {@code IN} list
+	 * wherever they occur in the SQL statement.
+	 * @since 5.2.3
+	 */
+	void setInClauseParameterNames(Set<String> inClauseParameterNames) {
+		this.inClauseParameterNames = inClauseParameterNames;
+	}
+
+	/**
+	 * Return the names of the parameters which form a complete {@code IN} list
+	 * wherever they occur in the SQL statement.
+	 * @since 5.2.3
+	 */
+	Set<String> getInClauseParameterNames() {
+		return this.inClauseParameterNames;
+	}
+
+	/**
+	 * Cache the SQL statement with a single placeholder per parameter.
+	 * @since 5.2.3
+	 */
+	void setSubstitutedSql(String substitutedSql) {
+		this.substitutedSql = substitutedSql;
+	}
+
+	/**
+	 * Return the cached SQL statement with a single placeholder per parameter,
+	 * or {@code null} if not built yet.
+	 * @since 5.2.3
+	 */
+	@Nullable
+	String getSubstitutedSql() {
+		return this.substitutedSql;
+	}
+
+	/**
+	 * Cache the SQL statement with placeholders expanded for the given collection sizes,
+	 * unless the limit for such variants of this statement has been reached already.
+	 * @since 5.2.3
+	 */
+	void addExpandedSql(NamedParameterUtils.ExpansionKey key, String expandedSql) {
+		if (this.expandedSqlCache.size() < EXPANDED_SQL_CACHE_LIMIT) {
+			this.expandedSqlCache.put(key, expandedSql);
+		}
+	}
+
+	/**
+	 * Return the cached SQL statement with placeholders expanded for the given
+	 * collection sizes, or {@code null} if not built yet.
+	 * @since 5.2.3
+	 */
+	@Nullable
+	String getExpandedSql(NamedParameterUtils.ExpansionKey key) {
+		return this.expandedSqlCache.get(key);
+	}
+
 
 	/**
 	 * Exposes the original SQL String.
@@ -0,0 +1,485 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.reactive;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterDisposer;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * Reactive facade for {@link JdbcTemplate}, exposing JDBC operations as
+ * {@link Mono} and {@link Flux} results. The blocking JDBC calls are performed
+ * on a dedicated {@link Scheduler}, keeping them off the calling thread, e.g.
+ * a WebFlux event loop thread.
+ *
+ * <p>Query results are streamed from the {@link ResultSet} cursor, fetching
+ * and mapping rows as requested by the subscriber. Together with a positive
+ * {@link JdbcTemplate#setFetchSize fetch size}, this allows for processing
+ * large result sets with backpressure. The Connection and Statement are
+ * released on completion, error or cancellation of the subscription, with
+ * the release after a cancellation performed on the scheduler as well
+ * (rather than on the cancelling thread). Within a transaction, a query which
+ * is still open on transaction completion (e.g. right after a cancellation)
+ * gets released before the transaction commits or rolls back.
+ *
+ * <p>Participates in transactions managed by a
+ * {@link org.springframework.jdbc.datasource.ReactiveDataSourceTransactionManager}
+ * for the same DataSource, e.g. through a
+ * {@link org.springframework.transaction.reactive.TransactionalOperator}.
+ * Operations within the same transaction are serialized on its Connection,
+ * along with the transaction's commit or rollback, through the
+ * {@link ConnectionHolder#getConnectionLock() lock of its ConnectionHolder}
+ * (not pinning virtual threads while waiting for other operations to complete).
+ *
+ * <p>The scheduler should be bounded in line with the capacity of the underlying
+ * connection pool, e.g. through {@link Schedulers#newBoundedElastic}, and shared
+ * with the transaction manager. On a JDK with virtual threads, a scheduler backed
+ * by a virtual-thread-per-task executor is an alternative.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see JdbcTemplate
+ * @see org.springframework.jdbc.datasource.ReactiveDataSourceTransactionManager
+ */
+public class ReactiveJdbcTemplate {
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final Scheduler scheduler;
+
+
+	/**
+	 * Create a new ReactiveJdbcTemplate for the given DataSource,
+	 * performing blocking calls on Reactor's shared
+	 * {@link Schedulers#boundedElastic()} scheduler.
+	 * @param dataSource the JDBC DataSource to access
+	 */
+	public ReactiveJdbcTemplate(DataSource dataSource) {
+		this(new JdbcTemplate(dataSource));
+	}
+
+	/**
+	 * Create a new ReactiveJdbcTemplate for the given JdbcTemplate,
+	 * performing blocking calls on Reactor's shared
+	 * {@link Schedulers#boundedElastic()} scheduler.
+	 * @param jdbcTemplate the JdbcTemplate to delegate to
+	 */
+	public ReactiveJdbcTemplate(JdbcTemplate jdbcTemplate) {
+		this(jdbcTemplate, Schedulers.boundedElastic());
+	}
+
+	/**
+	 * Create a new ReactiveJdbcTemplate for the given JdbcTemplate.
+	 * @param jdbcTemplate the JdbcTemplate to delegate to
+	 * @param scheduler the scheduler to perform blocking JDBC calls on
+	 */
+	public ReactiveJdbcTemplate(JdbcTemplate jdbcTemplate, Scheduler scheduler) {
+		Assert.notNull(jdbcTemplate, "JdbcTemplate must not be null");
+		Assert.notNull(scheduler, "Scheduler must not be null");
+		Assert.notNull(jdbcTemplate.getDataSource(), "JdbcTemplate needs to be configured with a DataSource");
+		this.jdbcTemplate = jdbcTemplate;
+		this.scheduler = scheduler;
+	}
+
+
+	/**
+	 * Return the underlying JdbcTemplate.
+	 */
+	public JdbcTemplate getJdbcTemplate() {
+		return this.jdbcTemplate;
+	}
+
+	/**
+	 * Return the scheduler that blocking JDBC calls are performed on.
+	 */
+	public Scheduler getScheduler() {
+		return this.scheduler;
+	}
+
+
+	/**
+	 * Perform the given action against the underlying {@link JdbcOperations},
+	 * within the current transaction if any.
+	 * @param action the blocking action to perform
+	 * @return a Mono with the result of the action, completing empty
+	 * if the action returned {@code null}
+	 */
+	public <T> Mono<T> execute(Function<JdbcOperations, T> action) {
+		return currentConnectionHolder().flatMap(conHolder ->
+				Mono.fromCallable(() -> doInConnectionHolder(conHolder.orElse(null),
+						() -> action.apply(this.jdbcTemplate)))
+						.subscribeOn(this.scheduler));
+	}
+
+	/**
+	 * Issue a single SQL update operation (such as an insert, update or delete statement).
+	 * @param sql the SQL containing bind parameters
+	 * @param args arguments to bind to the query
+	 * @return a Mono with the number of rows affected
+	 * @see JdbcOperations#update(String, Object...)
+	 */
+	public Mono<Integer> update(String sql, @Nullable Object... args) {
+		return execute(jdbcOperations -> jdbcOperations.update(sql, args));
+	}
+
+	/**
+	 * Execute a batch using the supplied SQL statement with the batch of supplied arguments.
+	 * @param sql the SQL statement to execute
+	 * @param batchArgs the List of Object arrays containing the batch of arguments for the query
+	 * @return a Mono with an array containing the numbers of rows affected by each update in the batch
+	 * @see JdbcOperations#batchUpdate(String, List)
+	 */
+	public Mono<int[]> batchUpdate(String sql, List<Object[]> batchArgs) {
+		return execute(jdbcOperations -> jdbcOperations.batchUpdate(sql, batchArgs));
+	}
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list of
+	 * arguments to bind to the query, expecting a result object.
+	 * @param sql the SQL query to execute
+	 * @param requiredType the type that the result object is expected to match
+	 * @param args arguments to bind to the query
+	 * @return a Mono with the result object, completing empty in case of SQL NULL;
+	 * failing with {@link org.springframework.dao.IncorrectResultSizeDataAccessException}
+	 * if the query does not return exactly one row
+	 * @see JdbcOperations#queryForObject(String, Class, Object...)
+	 */
+	public <T> Mono<T> queryForObject(String sql, Class<T> requiredType, @Nullable Object... args) {
+		return execute(jdbcOperations -> jdbcOperations.queryForObject(sql, requiredType, args));
+	}
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list of
+	 * arguments to bind to the query, mapping a single result row to a
+	 * result object via a RowMapper.
+	 * @param sql the SQL query to execute
+	 * @param rowMapper a callback that will map one object per row
+	 * @param args arguments to bind to the query
+	 * @return a Mono with the result object; failing with
+	 * {@link org.springframework.dao.IncorrectResultSizeDataAccessException}
+	 * if the query does not return exactly one row
+	 * @see JdbcOperations#queryForObject(String, RowMapper, Object...)
+	 */
+	public <T> Mono<T> queryForObject(String sql, RowMapper<T> rowMapper, @Nullable Object... args) {
+		return execute(jdbcOperations -> jdbcOperations.queryForObject(sql, rowMapper, args));
+	}
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list of
+	 * arguments to bind to the query, streaming the result rows as objects
+	 * mapped via a RowMapper.
+	 * @param sql the SQL query to execute
+	 * @param rowMapper a callback that will map one object per row
+	 * @param args arguments to bind to the query
+	 * @return a Flux with the result objects, fetched from the cursor on demand
+	 */
+	public <T> Flux<T> query(String sql, RowMapper<T> rowMapper, @Nullable Object... args) {
+		return query(sql, new ArgumentPreparedStatementSetter(args), rowMapper);
+	}
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a
+	 * PreparedStatementSetter implementation that knows how to bind values to
+	 * the query, streaming the result rows as objects mapped via a RowMapper.
+	 * @param sql the SQL query to execute
+	 * @param pss a callback that knows how to set values on the prepared statement
+	 * (may be {@code null} if there are no parameters)
+	 * @param rowMapper a callback that will map one object per row
+	 * @return a Flux with the result objects, fetched from the cursor on demand
+	 */
+	public <T> Flux<T> query(String sql, @Nullable PreparedStatementSetter pss, RowMapper<T> rowMapper) {
+		return currentSynchronizationManager().flatMapMany(synchronizationManager ->
+				Flux.<T, ResultSetCursor<T>>generate(
+						() -> openCursor(synchronizationManager.orElse(null), sql, pss, rowMapper),
+						(cursor, sink) -> cursor.next(sink),
+						this::closeCursor)
+						.subscribeOn(this.scheduler));
+	}
+
+
+	/**
+	 * Determine the synchronization manager of the current reactive transaction, if any.
+	 */
+	private Mono<Optional<org.springframework.transaction.reactive.TransactionSynchronizationManager>>
+			currentSynchronizationManager() {
+
+		return org.springframework.transaction.reactive.TransactionSynchronizationManager.forCurrentTransaction()
+				.map(Optional::of)
+				.onErrorResume(NoTransactionException.class, ex -> Mono.just(Optional.empty()));
+	}
+
+	/**
+	 * Determine the ConnectionHolder of the current reactive transaction, if any.
+	 */
+	private Mono<Optional<ConnectionHolder>> currentConnectionHolder() {
+		return currentSynchronizationManager().map(synchronizationManager -> synchronizationManager.map(
+				manager -> (ConnectionHolder) manager.getResource(obtainDataSource())));
+	}
+
+	/**
+	 * Perform the given action with the given ConnectionHolder exposed to the
+	 * current thread, for {@link DataSourceUtils} to pick up its Connection.
+	 */
+	@Nullable
+	private <T> T doInConnectionHolder(@Nullable ConnectionHolder conHolder, Supplier<T> action) {
+		if (conHolder == null) {
+			return action.get();
+		}
+		DataSource dataSource = obtainDataSource();
+		Lock lock = conHolder.getConnectionLock();
+		lock.lock();
+		try {
+			TransactionSynchronizationManager.bindResource(dataSource, conHolder);
+			try {
+				return action.get();
+			}
+			finally {
+				TransactionSynchronizationManager.unbindResource(dataSource);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private <T> ResultSetCursor<T> openCursor(
+			@Nullable org.springframework.transaction.reactive.TransactionSynchronizationManager synchronizationManager,
+			String sql, @Nullable PreparedStatementSetter pss, RowMapper<T> rowMapper) {
+
+		ConnectionHolder conHolder = (synchronizationManager != null ?
+				(ConnectionHolder) synchronizationManager.getResource(obtainDataSource()) : null);
+		ResultSetCursor<T> cursor = new ResultSetCursor<>(conHolder, sql, pss, rowMapper);
+		doInConnectionHolder(conHolder, () -> {
+			cursor.open();
+			return null;
+		});
+		if (conHolder != null && synchronizationManager.isSynchronizationActive()) {
+			// Release the cursor before transaction completion if still open by then
+			synchronizationManager.registerSynchronization(cursor);
+		}
+		return cursor;
+	}
+
+	/**
+	 * Close the given cursor on the scheduler, unless released already:
+	 * Cancellation may come in on a non-blocking thread, e.g. an event loop.
+	 */
+	private void closeCursor(ResultSetCursor<?> cursor) {
+		if (cursor.isOpen()) {
+			try {
+				this.scheduler.schedule(cursor::close);
+			}
+			catch (RejectedExecutionException ex) {
+				// Scheduler shut down already: release resources right away
+				cursor.close();
+			}
+		}
+	}
+
+	private DataSource obtainDataSource() {
+		DataSource dataSource = this.jdbcTemplate.getDataSource();
+		Assert.state(dataSource != null, "No DataSource set");
+		return dataSource;
+	}
+
+
+	/**
+	 * Holder for the JDBC resources of a streaming query, emitting
+	 * one row per invocation of {@link #next}. Within a transaction, registered
+	 * as a synchronization for releasing the cursor before transaction completion.
+	 */
+	private class ResultSetCursor<T> implements TransactionSynchronization {
+
+		@Nullable
+		private final ConnectionHolder conHolder;
+
+		private final String sql;
+
+		@Nullable
+		private final PreparedStatementSetter pss;
+
+		private final RowMapper<T> rowMapper;
+
+		/** Guards the cursor against concurrent release on cancellation. */
+		private final Lock lock;
+
+		@Nullable
+		private Connection con;
+
+		@Nullable
+		private PreparedStatement ps;
+
+		@Nullable
+		private ResultSet rs;
+
+		private int rowNum = 0;
+
+		private volatile boolean released;
+
+		ResultSetCursor(@Nullable ConnectionHolder conHolder, String sql,
+				@Nullable PreparedStatementSetter pss, RowMapper<T> rowMapper) {
+
+			this.conHolder = conHolder;
+			this.sql = sql;
+			this.pss = pss;
+			this.rowMapper = rowMapper;
+			this.lock = (conHolder != null ? conHolder.getConnectionLock() : new ReentrantLock());
+		}
+
+		void open() {
+			JdbcTemplate template = jdbcTemplate;
+			DataSource dataSource = obtainDataSource();
+			this.con = DataSourceUtils.getConnection(dataSource);
+			try {
+				this.ps = this.con.prepareStatement(this.sql);
+				if (template.getFetchSize() != -1) {
+					this.ps.setFetchSize(template.getFetchSize());
+				}
+				if (template.getMaxRows() != -1) {
+					this.ps.setMaxRows(template.getMaxRows());
+				}
+				DataSourceUtils.applyTimeout(this.ps, dataSource, template.getQueryTimeout());
+				if (this.pss != null) {
+					this.pss.setValues(this.ps);
+				}
+				this.rs = this.ps.executeQuery();
+			}
+			catch (SQLException ex) {
+				release();
+				throw template.getExceptionTranslator().translate("StreamingQuery", this.sql, ex);
+			}
+			catch (RuntimeException | Error ex) {
+				release();
+				throw ex;
+			}
+		}
+
+		ResultSetCursor<T> next(SynchronousSink<T> sink) {
+			T row = null;
+			Throwable failure = null;
+			this.lock.lock();
+			try {
+				ResultSet rs = this.rs;
+				if (rs != null && rs.next()) {
+					row = this.rowMapper.mapRow(rs, this.rowNum++);
+					if (row == null) {
+						failure = new IllegalStateException("RowMapper returned null for row " + (this.rowNum - 1));
+					}
+				}
+			}
+			catch (SQLException ex) {
+				DataAccessException dae =
+						jdbcTemplate.getExceptionTranslator().translate("StreamingQuery", this.sql, ex);
+				failure = (dae != null ? dae : new UncategorizedSQLException("StreamingQuery", this.sql, ex));
+			}
+			catch (RuntimeException ex) {
+				failure = ex;
+			}
+			finally {
+				this.lock.unlock();
+			}
+
+			// Emit outside of the lock, not holding up other operations on the Connection
+			if (row != null) {
+				sink.next(row);
+			}
+			else {
+				close();
+				if (failure != null) {
+					sink.error(failure);
+				}
+				else {
+					sink.complete();
+				}
+			}
+			return this;
+		}
+
+		boolean isOpen() {
+			return !this.released;
+		}
+
+		@Override
+		public Mono<Void> beforeCompletion() {
+			// Typically left open by a cancellation which the transaction
+			// completion follows right away, e.g. for Flux.take(n)
+			return (isOpen() ? Mono.<Void>fromRunnable(this::close).subscribeOn(scheduler) : Mono.empty());
+		}
+
+		void close() {
+			this.lock.lock();
+			try {
+				if (!this.released) {
+					doInConnectionHolder(this.conHolder, () -> {
+						release();
+						return null;
+					});
+				}
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+
+		private void release() {
+			this.released = true;
+			JdbcUtils.closeResultSet(this.rs);
+			if (this.pss instanceof ParameterDisposer) {
+				((ParameterDisposer) this.pss).cleanupParameters();
+			}
+			JdbcUtils.closeStatement(this.ps);
+			DataSourceUtils.releaseConnection(this.con, obtainDataSource());
+			this.rs = null;
+			this.ps = null;
+			this.con = null;
+		}
+	}
+
+}
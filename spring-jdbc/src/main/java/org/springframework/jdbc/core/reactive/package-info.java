@@ -0,0 +1,10 @@
+/**
+ * Reactive facade for JdbcTemplate, performing blocking JDBC calls on
+ * a dedicated scheduler and streaming query results with backpressure.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.jdbc.core.reactive;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
@@ -42,6 +42,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.SqlTypeValue;
 import org.springframework.jdbc.core.StatementCreatorUtils;
 import org.springframework.jdbc.core.metadata.TableMetaDataContext;
+import org.springframework.jdbc.core.namedparam.NamedParameterBatchWriter;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.JdbcUtils;
@@ -582,6 +583,27 @@ public abstract class AbstractJdbcInsert {
 				});
 	}
 
+	/**
+	 * Delegate method that creates a writer for incremental batch inserts,
+	 * matching the values of each row with the insert columns.
+	 * @return the batch writer (to be flushed or closed once all rows have been added)
+	 */
+	protected NamedParameterBatchWriter doCreateBatchWriter() {
+		checkCompiled();
+		NamedParameterBatchWriter batchWriter = new NamedParameterBatchWriter(getJdbcTemplate(), getInsertString()) {
+			@Override
+			public void add(Map<String, ?> paramMap) {
+				add(matchInParameterValuesWithInsertColumns(paramMap).toArray());
+			}
+			@Override
+			public void add(SqlParameterSource paramSource) {
+				add(matchInParameterValuesWithInsertColumns(paramSource).toArray());
+			}
+		};
+		batchWriter.setArgTypes(getInsertTypes());
+		return batchWriter;
+	}
+
 	/**
 	 * Internal implementation for setting parameter values.
 	 * @param preparedStatement the PreparedStatement
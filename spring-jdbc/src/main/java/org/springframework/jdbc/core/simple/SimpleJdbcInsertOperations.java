@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.jdbc.core.simple;
 
 import java.util.Map;
 
+import org.springframework.jdbc.core.namedparam.NamedParameterBatchWriter;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.KeyHolder;
 
@@ -150,4 +151,21 @@ public interface SimpleJdbcInsertOperations {
 	 */
 	int[] executeBatch(SqlParameterSource... batch);
 
+	/**
+	 * Create a writer for incremental batch inserts, accepting the values
+	 * for one row at a time (as a Map or a SqlParameterSource) and inserting
+	 * them in batches of the writer's configured size.
+	 * <p>The returned writer needs to be flushed or closed once all rows
+	 * have been added.
+	 * <p>The default implementation throws an {@link UnsupportedOperationException},
+	 * for implementations which do not support incremental batch inserts.
+	 * @return the batch writer
+	 * @throws UnsupportedOperationException if not supported by this implementation
+	 * @since 5.2.3
+	 */
+	default NamedParameterBatchWriter createBatchWriter() {
+		throw new UnsupportedOperationException(
+				"Incremental batch inserts not supported by " + getClass().getName());
+	}
+
 }
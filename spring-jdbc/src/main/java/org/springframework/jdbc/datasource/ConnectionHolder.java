@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ package org.springframework.jdbc.datasource;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Savepoint;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.lang.Nullable;
 import org.springframework.transaction.support.ResourceHolderSupport;
@@ -60,6 +62,13 @@ public class ConnectionHolder extends ResourceHolderSupport {
 
 	private int savepointCounter = 0;
 
+	private int statementCacheSize = 0;
+
+	@Nullable
+	private PreparedStatementCache statementCache;
+
+	private final Lock connectionLock = new ReentrantLock();
+
 
 	/**
 	 * Create a new ConnectionHolder for the given ConnectionHandle.
@@ -126,6 +135,40 @@ public class ConnectionHolder extends ResourceHolderSupport {
 		return this.transactionActive;
 	}
 
+	/**
+	 * Specify the maximum number of JDBC PreparedStatements to cache for the
+	 * held Connection, reusing statements for the same SQL and statement settings
+	 * until this holder gets cleared (typically at transaction completion).
+	 * <p>Default is 0, indicating no statement caching. The exposed Connection
+	 * will be a proxy which returns cached statements, with {@code close()} calls
+	 * on those statements returning them to the cache.
+	 * @since 5.2.3
+	 * @see DataSourceTransactionManager#setStatementCacheSize
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	/**
+	 * Return the maximum number of JDBC PreparedStatements to cache
+	 * for the held Connection.
+	 * @since 5.2.3
+	 */
+	public int getStatementCacheSize() {
+		return this.statementCacheSize;
+	}
+
+	/**
+	 * Return the lock for serializing access to the held Connection across
+	 * threads: for example, between reactive operations within the same
+	 * transaction and the completion of that transaction.
+	 * @since 5.2.3
+	 * @see ReactiveDataSourceTransactionManager
+	 */
+	public Lock getConnectionLock() {
+		return this.connectionLock;
+	}
+
 
 	/**
 	 * Override the existing Connection handle with the given Connection.
@@ -134,9 +177,12 @@ public class ConnectionHolder extends ResourceHolderSupport {
 	 * argument) and setting a fresh Connection on resume.
 	 */
 	protected void setConnection(@Nullable Connection connection) {
-		if (this.currentConnection != null) {
+		Connection currentCon = this.currentConnection;
+		Connection conToRelease = (currentCon != null ? getTargetConnection(currentCon) : null);
+		closeStatementCache();
+		if (conToRelease != null) {
 			if (this.connectionHandle != null) {
-				this.connectionHandle.releaseConnection(this.currentConnection);
+				this.connectionHandle.releaseConnection(conToRelease);
 			}
 			this.currentConnection = null;
 		}
@@ -159,7 +205,15 @@ public class ConnectionHolder extends ResourceHolderSupport {
 	public Connection getConnection() {
 		Assert.notNull(this.connectionHandle, "Active Connection is required");
 		if (this.currentConnection == null) {
-			this.currentConnection = this.connectionHandle.getConnection();
+			Connection con = this.connectionHandle.getConnection();
+			if (this.statementCacheSize > 0) {
+				if (this.statementCache == null || this.statementCache.getTargetConnection() != con) {
+					closeStatementCache();
+					this.statementCache = new PreparedStatementCache(con, this.statementCacheSize);
+				}
+				con = this.statementCache.getConnectionProxy();
+			}
+			this.currentConnection = con;
 		}
 		return this.currentConnection;
 	}
@@ -199,7 +253,12 @@ public class ConnectionHolder extends ResourceHolderSupport {
 		super.released();
 		if (!isOpen() && this.currentConnection != null) {
 			if (this.connectionHandle != null) {
-				this.connectionHandle.releaseConnection(this.currentConnection);
+				Connection conToRelease = getTargetConnection(this.currentConnection);
+				if (!(this.connectionHandle instanceof SimpleConnectionHandle)) {
+					// Connection borrowing: cached statements must not outlive the lease.
+					closeStatementCache();
+				}
+				this.connectionHandle.releaseConnection(conToRelease);
 			}
 			this.currentConnection = null;
 		}
@@ -209,9 +268,29 @@ public class ConnectionHolder extends ResourceHolderSupport {
 	@Override
 	public void clear() {
 		super.clear();
+		closeStatementCache();
 		this.transactionActive = false;
 		this.savepointsSupported = null;
 		this.savepointCounter = 0;
 	}
 
+	/**
+	 * Close all cached statements for the held Connection, if any.
+	 */
+	private void closeStatementCache() {
+		if (this.statementCache != null) {
+			this.statementCache.close();
+			this.statementCache = null;
+		}
+	}
+
+	/**
+	 * Return the Connection to hand back to the ConnectionHandle:
+	 * the target Connection behind our statement-caching proxy, if any.
+	 */
+	private Connection getTargetConnection(Connection con) {
+		return (this.statementCache != null && con == this.statementCache.getConnectionProxy() ?
+				this.statementCache.getTargetConnection() : con);
+	}
+
 }
@@ -118,6 +118,8 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 
 	private boolean enforceReadOnly = false;
 
+	private int statementCacheSize = 0;
+
 
 	/**
 	 * Create a new DataSourceTransactionManager instance.
@@ -220,6 +222,34 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 		return this.enforceReadOnly;
 	}
 
+	/**
+	 * Specify the maximum number of JDBC PreparedStatements to cache per
+	 * transaction, reusing statements for the same SQL and statement settings
+	 * within a transaction instead of preparing them for every data access
+	 * operation. Cached statements get closed at transaction completion.
+	 * A suspended transaction keeps its cached statements, along with its
+	 * Connection, for reuse after resumption.
+	 * <p>Default is 0, indicating no statement caching. Consider a cache size
+	 * along the lines of the number of distinct statements executed per
+	 * transaction for chatty transactions which repeatedly execute the same SQL,
+	 * in particular with connection pools which do not cache statements themselves.
+	 * <p>Note that transactional Connections will be exposed as proxies then,
+	 * returning cached statements which go back to the cache on {@code close()}.
+	 * @since 5.2.3
+	 * @see ConnectionHolder#setStatementCacheSize
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	/**
+	 * Return the maximum number of JDBC PreparedStatements to cache per transaction.
+	 * @since 5.2.3
+	 */
+	public int getStatementCacheSize() {
+		return this.statementCacheSize;
+	}
+
 	@Override
 	public void afterPropertiesSet() {
 		if (getDataSource() == null) {
@@ -265,6 +295,7 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 					logger.debug("Acquired Connection [" + newCon + "] for JDBC transaction");
 				}
 				txObject.setConnectionHolder(new ConnectionHolder(newCon), true);
+				txObject.getConnectionHolder().setStatementCacheSize(getStatementCacheSize());
 			}
 
 			txObject.getConnectionHolder().setSynchronizedWithTransaction(true);
@@ -0,0 +1,434 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Cache of JDBC {@link PreparedStatement PreparedStatements} for a single target
+ * Connection, exposed through a Connection proxy which returns cached statements
+ * from its {@code prepareStatement} and {@code prepareCall} methods, keyed by the
+ * SQL String and the given statement settings. Closing such a statement returns
+ * it to the cache; the physical statements get closed along with the Connection
+ * proxy or on {@link #close()}.
+ *
+ * <p>A statement which is still in use when being requested again leads to
+ * a regular uncached statement. Parameters as well as any changed statement
+ * settings (fetch size and direction, max rows, max field size, query timeout,
+ * poolable flag) are reset before a statement is reused. Statements with
+ * settings which cannot be reset (cursor name, escape processing,
+ * close-on-completion) are closed instead of being returned to the cache.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see ConnectionHolder#setStatementCacheSize
+ * @see SingleConnectionDataSource#setStatementCacheSize
+ */
+final class PreparedStatementCache {
+
+	private static final Log logger = LogFactory.getLog(PreparedStatementCache.class);
+
+	/** Getters for the statement settings to restore before reuse, keyed by setter name. */
+	private static final Map<String, Method> restorableSettings = new HashMap<>(8);
+
+	/** Statement settings which cannot be restored, preventing reuse of the statement. */
+	private static final Set<String> nonRestorableSettings =
+			new HashSet<>(Arrays.asList("setCursorName", "setEscapeProcessing", "closeOnCompletion"));
+
+	static {
+		restorableSettings.put("setFetchSize", ClassUtils.getMethod(Statement.class, "getFetchSize"));
+		restorableSettings.put("setFetchDirection", ClassUtils.getMethod(Statement.class, "getFetchDirection"));
+		restorableSettings.put("setMaxRows", ClassUtils.getMethod(Statement.class, "getMaxRows"));
+		restorableSettings.put("setLargeMaxRows", ClassUtils.getMethod(Statement.class, "getLargeMaxRows"));
+		restorableSettings.put("setMaxFieldSize", ClassUtils.getMethod(Statement.class, "getMaxFieldSize"));
+		restorableSettings.put("setQueryTimeout", ClassUtils.getMethod(Statement.class, "getQueryTimeout"));
+		restorableSettings.put("setPoolable", ClassUtils.getMethod(Statement.class, "isPoolable"));
+	}
+
+
+	private final Connection target;
+
+	private final int cacheSize;
+
+	private final Map<StatementKey, CachedStatement> statements;
+
+	private final Connection connectionProxy;
+
+	private boolean closed;
+
+
+	/**
+	 * Create a new PreparedStatementCache for the given target Connection.
+	 * @param target the target Connection to prepare statements on
+	 * @param cacheSize the maximum number of statements to cache
+	 */
+	@SuppressWarnings("serial")
+	PreparedStatementCache(Connection target, int cacheSize) {
+		Assert.notNull(target, "Target Connection must not be null");
+		Assert.isTrue(cacheSize > 0, "Cache size must be greater than 0");
+		this.target = target;
+		this.cacheSize = cacheSize;
+		this.statements = new LinkedHashMap<StatementKey, CachedStatement>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<StatementKey, CachedStatement> eldest) {
+				if (size() > PreparedStatementCache.this.cacheSize) {
+					eldest.getValue().evict();
+					return true;
+				}
+				return false;
+			}
+		};
+		this.connectionProxy = (Connection) Proxy.newProxyInstance(
+				ConnectionProxy.class.getClassLoader(),
+				new Class<?>[] {ConnectionProxy.class},
+				new StatementCachingInvocationHandler());
+	}
+
+
+	/**
+	 * Return the target Connection that statements are prepared on.
+	 */
+	Connection getTargetConnection() {
+		return this.target;
+	}
+
+	/**
+	 * Return the Connection proxy which exposes cached statements.
+	 */
+	Connection getConnectionProxy() {
+		return this.connectionProxy;
+	}
+
+	/**
+	 * Close all cached statements, leaving the target Connection open.
+	 * Statements which are still in use get closed when being released.
+	 */
+	void close() {
+		synchronized (this.statements) {
+			if (!this.closed) {
+				this.closed = true;
+				for (CachedStatement cached : this.statements.values()) {
+					cached.evict();
+				}
+				this.statements.clear();
+			}
+		}
+	}
+
+	/**
+	 * Obtain a statement for the given {@code prepareStatement} or
+	 * {@code prepareCall} invocation, either from the cache or newly prepared.
+	 */
+	private Object obtainStatement(Method method, Object[] args) throws Throwable {
+		StatementKey key = new StatementKey(method.getName(), args);
+		synchronized (this.statements) {
+			CachedStatement cached = this.statements.get(key);
+			if (cached != null && cached.acquire()) {
+				return cached.proxy;
+			}
+			Object statement = invokeOnTarget(method, this.target, args);
+			if (cached != null || this.closed) {
+				// Same statement in use already, or cache closed: regular statement.
+				return statement;
+			}
+			cached = new CachedStatement(key, (PreparedStatement) statement, method.getReturnType());
+			this.statements.put(key, cached);
+			return cached.proxy;
+		}
+	}
+
+	/**
+	 * Return the given statement to the cache, or close it if it cannot be reused.
+	 */
+	private void release(CachedStatement cached) {
+		boolean reusable = cached.reset();
+		synchronized (this.statements) {
+			if (reusable && !cached.evicted && !this.closed) {
+				cached.inUse = false;
+				return;
+			}
+			if (!cached.evicted) {
+				this.statements.remove(cached.key);
+			}
+			cached.inUse = false;
+		}
+		cached.closePhysically();
+	}
+
+	@Nullable
+	private static Object invokeOnTarget(Method method, Object target, @Nullable Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException ex) {
+			throw ex.getTargetException();
+		}
+	}
+
+
+	/**
+	 * Cache key for a statement: the preparing method and its arguments,
+	 * i.e. the SQL String and any given statement settings.
+	 */
+	private static final class StatementKey {
+
+		private final String methodName;
+
+		private final Object[] args;
+
+		private final int hashCode;
+
+		StatementKey(String methodName, Object[] args) {
+			this.methodName = methodName;
+			this.args = args;
+			this.hashCode = methodName.hashCode() * 29 + Arrays.deepHashCode(args);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof StatementKey)) {
+				return false;
+			}
+			StatementKey otherKey = (StatementKey) other;
+			return (this.methodName.equals(otherKey.methodName) && Arrays.deepEquals(this.args, otherKey.args));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public String toString() {
+			return this.methodName + Arrays.deepToString(this.args);
+		}
+	}
+
+
+	/**
+	 * Invocation handler for the Connection proxy, exposing cached statements.
+	 */
+	private class StatementCachingInvocationHandler implements InvocationHandler {
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on ConnectionProxy interface coming in...
+
+			switch (method.getName()) {
+				case "equals":
+					// Only consider equal when proxies are identical.
+					return (proxy == args[0]);
+				case "hashCode":
+					// Use hashCode of Connection proxy.
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Statement-caching proxy for target Connection [" + target + "]";
+				case "unwrap":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return proxy;
+					}
+					break;
+				case "isWrapperFor":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return true;
+					}
+					break;
+				case "getTargetConnection":
+					// Handle getTargetConnection method: return underlying Connection.
+					return target;
+				case "prepareStatement":
+				case "prepareCall":
+					return obtainStatement(method, args);
+				case "close":
+					// Close cached statements before the Connection itself.
+					PreparedStatementCache.this.close();
+					break;
+			}
+
+			// Invoke method on target Connection.
+			return invokeOnTarget(method, target, args);
+		}
+	}
+
+
+	/**
+	 * A cached statement along with its proxy for the current user.
+	 */
+	private class CachedStatement implements InvocationHandler {
+
+		final StatementKey key;
+
+		final PreparedStatement statement;
+
+		final Object proxy;
+
+		/** Whether the statement is currently in use (modified under the statements Map lock). */
+		volatile boolean inUse = true;
+
+		/** Whether the statement has been removed from the cache (modified under the statements Map lock). */
+		volatile boolean evicted;
+
+		private boolean batched;
+
+		/** Original values of changed statement settings, keyed by setter method. */
+		private final Map<Method, Object> originalSettings = new LinkedHashMap<>(4);
+
+		private boolean restorable = true;
+
+		CachedStatement(StatementKey key, PreparedStatement statement, Class<?> statementType) {
+			this.key = key;
+			this.statement = statement;
+			this.proxy = Proxy.newProxyInstance(
+					PreparedStatementCache.class.getClassLoader(), new Class<?>[] {statementType}, this);
+		}
+
+		boolean acquire() {
+			if (this.inUse) {
+				return false;
+			}
+			this.inUse = true;
+			return true;
+		}
+
+		void evict() {
+			this.evicted = true;
+			if (!this.inUse) {
+				closePhysically();
+			}
+		}
+
+		/**
+		 * Reset the statement's state for reuse.
+		 * @return {@code true} if the statement may be reused
+		 */
+		boolean reset() {
+			if (!this.restorable) {
+				return false;
+			}
+			try {
+				this.statement.clearParameters();
+				if (this.batched) {
+					this.statement.clearBatch();
+					this.batched = false;
+				}
+				this.statement.clearWarnings();
+				for (Map.Entry<Method, Object> entry : this.originalSettings.entrySet()) {
+					invokeOnTarget(entry.getKey(), this.statement, new Object[] {entry.getValue()});
+				}
+				this.originalSettings.clear();
+				return true;
+			}
+			catch (Throwable ex) {
+				// We don't trust the JDBC driver: It might throw RuntimeException or Error.
+				logger.debug("Could not reset cached JDBC PreparedStatement for reuse", ex);
+				return false;
+			}
+		}
+
+		void closePhysically() {
+			try {
+				this.statement.close();
+			}
+			catch (SQLException ex) {
+				logger.debug("Could not close cached JDBC PreparedStatement", ex);
+			}
+			catch (Throwable ex) {
+				// We don't trust the JDBC driver: It might throw RuntimeException or Error.
+				logger.debug("Unexpected exception on closing cached JDBC PreparedStatement", ex);
+			}
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on PreparedStatement or CallableStatement interface coming in...
+
+			switch (method.getName()) {
+				case "equals":
+					return (proxy == args[0]);
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "close":
+					if (this.inUse) {
+						release(this);
+					}
+					return null;
+				case "isClosed":
+					return (!this.inUse || this.statement.isClosed());
+			}
+
+			if (!this.inUse) {
+				throw new SQLException("PreparedStatement has been closed (returned to the statement cache)");
+			}
+
+			switch (method.getName()) {
+				case "getConnection":
+					return connectionProxy;
+				case "unwrap":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return proxy;
+					}
+					break;
+				case "isWrapperFor":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return true;
+					}
+					break;
+				case "addBatch":
+					this.batched = true;
+					break;
+			}
+
+			Method getter = restorableSettings.get(method.getName());
+			if (getter != null) {
+				if (!this.originalSettings.containsKey(method)) {
+					this.originalSettings.put(method, invokeOnTarget(getter, this.statement, null));
+				}
+			}
+			else if (nonRestorableSettings.contains(method.getName())) {
+				this.restorable = false;
+			}
+
+			return invokeOnTarget(method, this.statement, args);
+		}
+	}
+
+}
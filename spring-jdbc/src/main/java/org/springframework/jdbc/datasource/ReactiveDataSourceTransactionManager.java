@@ -0,0 +1,450 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.locks.Lock;
+
+import javax.sql.DataSource;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.NestedTransactionNotSupportedException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * {@link org.springframework.transaction.ReactiveTransactionManager}
+ * implementation for a single JDBC {@link javax.sql.DataSource}, performing
+ * the blocking JDBC calls for transaction begin, commit and rollback on a
+ * dedicated {@link Scheduler}. Binds a {@link ConnectionHolder} for the
+ * specified DataSource to the reactive transaction context, allowing for
+ * use with {@link org.springframework.transaction.reactive.TransactionalOperator}.
+ *
+ * <p>Application code is expected to access the transactional Connection through
+ * {@link org.springframework.jdbc.core.reactive.ReactiveJdbcTemplate}, which
+ * exposes the context-bound ConnectionHolder to the thread that it executes
+ * its JDBC operations on. Plain {@link org.springframework.jdbc.core.JdbcTemplate}
+ * calls outside of such a template do not participate in reactive transactions.
+ *
+ * <p>Commit, rollback and the release of the Connection are performed under the
+ * {@link ConnectionHolder#getConnectionLock() lock of its ConnectionHolder},
+ * waiting for any operation of a {@code ReactiveJdbcTemplate} on the same
+ * Connection to complete first.
+ *
+ * <p>Supports custom isolation levels, read-only transactions and timeouts,
+ * analogous to {@link DataSourceTransactionManager}. Nested transactions
+ * are not supported.
+ *
+ * <p>The scheduler should be bounded in line with the capacity of the underlying
+ * connection pool, e.g. through {@link Schedulers#newBoundedElastic}. On a JDK
+ * with virtual threads, a scheduler backed by a virtual-thread-per-task executor
+ * is an alternative. The same scheduler is typically shared with the
+ * {@code ReactiveJdbcTemplate} instances operating on the DataSource.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see DataSourceTransactionManager
+ * @see org.springframework.jdbc.core.reactive.ReactiveJdbcTemplate
+ * @see org.springframework.transaction.reactive.TransactionalOperator
+ */
+@SuppressWarnings("serial")
+public class ReactiveDataSourceTransactionManager extends AbstractReactiveTransactionManager
+		implements InitializingBean {
+
+	@Nullable
+	private DataSource dataSource;
+
+	private Scheduler scheduler = Schedulers.boundedElastic();
+
+	private boolean enforceReadOnly = false;
+
+
+	/**
+	 * Create a new ReactiveDataSourceTransactionManager instance.
+	 * A DataSource has to be set to be able to use it.
+	 * @see #setDataSource
+	 */
+	public ReactiveDataSourceTransactionManager() {
+	}
+
+	/**
+	 * Create a new ReactiveDataSourceTransactionManager instance.
+	 * @param dataSource the JDBC DataSource to manage transactions for
+	 */
+	public ReactiveDataSourceTransactionManager(DataSource dataSource) {
+		this();
+		setDataSource(dataSource);
+		afterPropertiesSet();
+	}
+
+	/**
+	 * Create a new ReactiveDataSourceTransactionManager instance.
+	 * @param dataSource the JDBC DataSource to manage transactions for
+	 * @param scheduler the scheduler to perform blocking JDBC calls on
+	 */
+	public ReactiveDataSourceTransactionManager(DataSource dataSource, Scheduler scheduler) {
+		this();
+		setDataSource(dataSource);
+		setScheduler(scheduler);
+		afterPropertiesSet();
+	}
+
+
+	/**
+	 * Set the JDBC DataSource that this instance should manage transactions for.
+	 * <p>This will typically be a locally defined DataSource, for example an
+	 * Apache Commons DBCP connection pool.
+	 */
+	public void setDataSource(@Nullable DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	/**
+	 * Return the JDBC DataSource that this instance manages transactions for.
+	 */
+	@Nullable
+	public DataSource getDataSource() {
+		return this.dataSource;
+	}
+
+	/**
+	 * Obtain the DataSource for actual use.
+	 * @return the DataSource (never {@code null})
+	 * @throws IllegalStateException in case of no DataSource set
+	 */
+	protected DataSource obtainDataSource() {
+		DataSource dataSource = getDataSource();
+		Assert.state(dataSource != null, "No DataSource set");
+		return dataSource;
+	}
+
+	/**
+	 * Set the scheduler to perform blocking JDBC calls on.
+	 * <p>Default is Reactor's shared {@link Schedulers#boundedElastic()} scheduler.
+	 */
+	public void setScheduler(Scheduler scheduler) {
+		Assert.notNull(scheduler, "Scheduler must not be null");
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Return the scheduler to perform blocking JDBC calls on.
+	 */
+	public Scheduler getScheduler() {
+		return this.scheduler;
+	}
+
+	/**
+	 * Specify whether to enforce the read-only nature of a transaction
+	 * through an explicit statement on the transactional connection:
+	 * "SET TRANSACTION READ ONLY" as understood by Oracle, MySQL and Postgres.
+	 * @see DataSourceTransactionManager#setEnforceReadOnly
+	 */
+	public void setEnforceReadOnly(boolean enforceReadOnly) {
+		this.enforceReadOnly = enforceReadOnly;
+	}
+
+	/**
+	 * Return whether to enforce the read-only nature of a transaction
+	 * through an explicit statement on the transactional connection.
+	 */
+	public boolean isEnforceReadOnly() {
+		return this.enforceReadOnly;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (getDataSource() == null) {
+			throw new IllegalArgumentException("Property 'dataSource' is required");
+		}
+	}
+
+
+	@Override
+	protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+		ReactiveDataSourceTransactionObject txObject = new ReactiveDataSourceTransactionObject();
+		ConnectionHolder conHolder = (ConnectionHolder) synchronizationManager.getResource(obtainDataSource());
+		txObject.setConnectionHolder(conHolder, false);
+		return txObject;
+	}
+
+	@Override
+	protected boolean isExistingTransaction(Object transaction) {
+		ReactiveDataSourceTransactionObject txObject = (ReactiveDataSourceTransactionObject) transaction;
+		return (txObject.hasConnectionHolder() && txObject.getConnectionHolder().isTransactionActive());
+	}
+
+	@Override
+	protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager,
+			Object transaction, TransactionDefinition definition) throws TransactionException {
+
+		ReactiveDataSourceTransactionObject txObject = (ReactiveDataSourceTransactionObject) transaction;
+		if (isExistingTransaction(txObject)) {
+			throw new NestedTransactionNotSupportedException(
+					"ReactiveDataSourceTransactionManager does not support nested transactions");
+		}
+
+		return Mono.<Void>fromRunnable(() -> doBeginOnConnection(txObject, definition))
+				.subscribeOn(this.scheduler)
+				.then(Mono.fromRunnable(() -> {
+					// Bind the connection holder to the transaction context.
+					if (txObject.isNewConnectionHolder()) {
+						synchronizationManager.bindResource(obtainDataSource(), txObject.getConnectionHolder());
+					}
+				}));
+	}
+
+	private void doBeginOnConnection(ReactiveDataSourceTransactionObject txObject, TransactionDefinition definition) {
+		Connection con = null;
+
+		try {
+			if (!txObject.hasConnectionHolder() ||
+					txObject.getConnectionHolder().isSynchronizedWithTransaction()) {
+				Connection newCon = obtainDataSource().getConnection();
+				if (logger.isDebugEnabled()) {
+					logger.debug("Acquired Connection [" + newCon + "] for JDBC transaction");
+				}
+				txObject.setConnectionHolder(new ConnectionHolder(newCon), true);
+			}
+
+			txObject.getConnectionHolder().setSynchronizedWithTransaction(true);
+			con = txObject.getConnectionHolder().getConnection();
+
+			Integer previousIsolationLevel = DataSourceUtils.prepareConnectionForTransaction(con, definition);
+			txObject.setPreviousIsolationLevel(previousIsolationLevel);
+			txObject.setReadOnly(definition.isReadOnly());
+
+			// Switch to manual commit if necessary.
+			if (con.getAutoCommit()) {
+				txObject.setMustRestoreAutoCommit(true);
+				if (logger.isDebugEnabled()) {
+					logger.debug("Switching JDBC Connection [" + con + "] to manual commit");
+				}
+				con.setAutoCommit(false);
+			}
+
+			prepareTransactionalConnection(con, definition);
+			txObject.getConnectionHolder().setTransactionActive(true);
+
+			if (definition.getTimeout() != TransactionDefinition.TIMEOUT_DEFAULT) {
+				txObject.getConnectionHolder().setTimeoutInSeconds(definition.getTimeout());
+			}
+		}
+
+		catch (Throwable ex) {
+			if (txObject.isNewConnectionHolder()) {
+				DataSourceUtils.releaseConnection(con, obtainDataSource());
+				txObject.setConnectionHolder(null, false);
+			}
+			throw new CannotCreateTransactionException("Could not open JDBC Connection for transaction", ex);
+		}
+	}
+
+	@Override
+	protected Mono<Object> doSuspend(TransactionSynchronizationManager synchronizationManager,
+			Object transaction) throws TransactionException {
+
+		return Mono.defer(() -> {
+			ReactiveDataSourceTransactionObject txObject = (ReactiveDataSourceTransactionObject) transaction;
+			txObject.setConnectionHolder(null);
+			return Mono.justOrEmpty(synchronizationManager.unbindResource(obtainDataSource()));
+		});
+	}
+
+	@Override
+	protected Mono<Void> doResume(TransactionSynchronizationManager synchronizationManager,
+			@Nullable Object transaction, Object suspendedResources) throws TransactionException {
+
+		return Mono.fromRunnable(() -> synchronizationManager.bindResource(obtainDataSource(), suspendedResources));
+	}
+
+	@Override
+	protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+			GenericReactiveTransaction status) throws TransactionException {
+
+		ReactiveDataSourceTransactionObject txObject = (ReactiveDataSourceTransactionObject) status.getTransaction();
+		return Mono.<Void>fromRunnable(() -> doWithConnectionLock(txObject, () -> {
+			Connection con = txObject.getConnectionHolder().getConnection();
+			if (status.isDebug()) {
+				logger.debug("Committing JDBC transaction on Connection [" + con + "]");
+			}
+			try {
+				con.commit();
+			}
+			catch (SQLException ex) {
+				throw new TransactionSystemException("Could not commit JDBC transaction", ex);
+			}
+		})).subscribeOn(this.scheduler);
+	}
+
+	@Override
+	protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager,
+			GenericReactiveTransaction status) throws TransactionException {
+
+		ReactiveDataSourceTransactionObject txObject = (ReactiveDataSourceTransactionObject) status.getTransaction();
+		return Mono.<Void>fromRunnable(() -> doWithConnectionLock(txObject, () -> {
+			Connection con = txObject.getConnectionHolder().getConnection();
+			if (status.isDebug()) {
+				logger.debug("Rolling back JDBC transaction on Connection [" + con + "]");
+			}
+			try {
+				con.rollback();
+			}
+			catch (SQLException ex) {
+				throw new TransactionSystemException("Could not roll back JDBC transaction", ex);
+			}
+		})).subscribeOn(this.scheduler);
+	}
+
+	@Override
+	protected Mono<Void> doSetRollbackOnly(TransactionSynchronizationManager synchronizationManager,
+			GenericReactiveTransaction status) throws TransactionException {
+
+		return Mono.fromRunnable(() -> {
+			ReactiveDataSourceTransactionObject txObject = (ReactiveDataSourceTransactionObject) status.getTransaction();
+			if (status.isDebug()) {
+				logger.debug("Setting JDBC transaction [" + txObject.getConnectionHolder().getConnection() +
+						"] rollback-only");
+			}
+			txObject.setRollbackOnly();
+		});
+	}
+
+	@Override
+	protected Mono<Void> doCleanupAfterCompletion(TransactionSynchronizationManager synchronizationManager,
+			Object transaction) {
+
+		ReactiveDataSourceTransactionObject txObject = (ReactiveDataSourceTransactionObject) transaction;
+		return Mono.<Void>fromRunnable(() -> {
+			// Remove the connection holder from the transaction context, if exposed.
+			if (txObject.isNewConnectionHolder()) {
+				synchronizationManager.unbindResource(obtainDataSource());
+			}
+		}).then(Mono.<Void>fromRunnable(() -> doWithConnectionLock(txObject, () -> {
+			// Reset connection.
+			Connection con = txObject.getConnectionHolder().getConnection();
+			try {
+				if (txObject.isMustRestoreAutoCommit()) {
+					con.setAutoCommit(true);
+				}
+				DataSourceUtils.resetConnectionAfterTransaction(
+						con, txObject.getPreviousIsolationLevel(), txObject.isReadOnly());
+			}
+			catch (Throwable ex) {
+				logger.debug("Could not reset JDBC Connection after transaction", ex);
+			}
+
+			if (txObject.isNewConnectionHolder()) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Releasing JDBC Connection [" + con + "] after transaction");
+				}
+				DataSourceUtils.releaseConnection(con, this.dataSource);
+			}
+
+			txObject.getConnectionHolder().clear();
+		})).subscribeOn(this.scheduler));
+	}
+
+	/**
+	 * Perform the given action on the transactional Connection while holding
+	 * the lock of its ConnectionHolder, excluding concurrent operations of a
+	 * {@code ReactiveJdbcTemplate} (e.g. a cursor fetching or releasing rows).
+	 */
+	private void doWithConnectionLock(ReactiveDataSourceTransactionObject txObject, Runnable action) {
+		Lock lock = txObject.getConnectionHolder().getConnectionLock();
+		lock.lock();
+		try {
+			action.run();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+
+	/**
+	 * Prepare the transactional {@code Connection} right after transaction begin.
+	 * <p>The default implementation executes a "SET TRANSACTION READ ONLY" statement
+	 * if the {@link #setEnforceReadOnly "enforceReadOnly"} flag is set to {@code true}
+	 * and the transaction definition indicates a read-only transaction.
+	 * @param con the transactional JDBC Connection
+	 * @param definition the current transaction definition
+	 * @throws SQLException if thrown by JDBC API
+	 * @see DataSourceTransactionManager#prepareTransactionalConnection
+	 */
+	protected void prepareTransactionalConnection(Connection con, TransactionDefinition definition)
+			throws SQLException {
+
+		if (isEnforceReadOnly() && definition.isReadOnly()) {
+			try (Statement stmt = con.createStatement()) {
+				stmt.executeUpdate("SET TRANSACTION READ ONLY");
+			}
+		}
+	}
+
+
+	/**
+	 * DataSource transaction object, representing a ConnectionHolder.
+	 * Used as transaction object by ReactiveDataSourceTransactionManager.
+	 */
+	private static class ReactiveDataSourceTransactionObject extends JdbcTransactionObjectSupport {
+
+		private boolean newConnectionHolder;
+
+		private boolean mustRestoreAutoCommit;
+
+		public void setConnectionHolder(@Nullable ConnectionHolder connectionHolder, boolean newConnectionHolder) {
+			super.setConnectionHolder(connectionHolder);
+			this.newConnectionHolder = newConnectionHolder;
+		}
+
+		public boolean isNewConnectionHolder() {
+			return this.newConnectionHolder;
+		}
+
+		public void setMustRestoreAutoCommit(boolean mustRestoreAutoCommit) {
+			this.mustRestoreAutoCommit = mustRestoreAutoCommit;
+		}
+
+		public boolean isMustRestoreAutoCommit() {
+			return this.mustRestoreAutoCommit;
+		}
+
+		public void setRollbackOnly() {
+			getConnectionHolder().setRollbackOnly();
+		}
+
+		@Override
+		public boolean isRollbackOnly() {
+			return getConnectionHolder().isRollbackOnly();
+		}
+	}
+
+}
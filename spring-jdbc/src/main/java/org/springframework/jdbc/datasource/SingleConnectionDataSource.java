@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -61,6 +61,9 @@ public class SingleConnectionDataSource extends DriverManagerDataSource implemen
 	@Nullable
 	private Boolean autoCommit;
 
+	/** Maximum number of PreparedStatements to cache. */
+	private int statementCacheSize = 0;
+
 	/** Wrapped Connection. */
 	@Nullable
 	private Connection target;
@@ -69,6 +72,10 @@ public class SingleConnectionDataSource extends DriverManagerDataSource implemen
 	@Nullable
 	private Connection connection;
 
+	/** Cache of PreparedStatements for the target Connection. */
+	@Nullable
+	private PreparedStatementCache statementCache;
+
 	/** Synchronization monitor for the shared Connection. */
 	private final Object connectionMonitor = new Object();
 
@@ -119,7 +126,7 @@ public class SingleConnectionDataSource extends DriverManagerDataSource implemen
 		Assert.notNull(target, "Connection must not be null");
 		this.target = target;
 		this.suppressClose = suppressClose;
-		this.connection = (suppressClose ? getCloseSuppressingConnectionProxy(target) : target);
+		this.connection = exposeConnection(target);
 	}
 
 
@@ -155,6 +162,37 @@ public class SingleConnectionDataSource extends DriverManagerDataSource implemen
 		return this.autoCommit;
 	}
 
+	/**
+	 * Specify the maximum number of JDBC PreparedStatements to cache for the
+	 * shared Connection, reusing statements for the same SQL and statement settings
+	 * instead of preparing them for every data access operation.
+	 * <p>Default is 0, indicating no statement caching. The returned Connection
+	 * will be a proxy which returns cached statements, with {@code close()} calls
+	 * on those statements returning them to the cache. Cached statements get
+	 * closed along with the shared Connection.
+	 * @since 5.2.3
+	 * @see #destroy()
+	 * @see #resetConnection()
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		synchronized (this.connectionMonitor) {
+			this.statementCacheSize = statementCacheSize;
+			if (this.target != null) {
+				closeStatementCache();
+				this.connection = exposeConnection(this.target);
+			}
+		}
+	}
+
+	/**
+	 * Return the maximum number of JDBC PreparedStatements to cache
+	 * for the shared Connection.
+	 * @since 5.2.3
+	 */
+	public int getStatementCacheSize() {
+		return this.statementCacheSize;
+	}
+
 
 	@Override
 	public Connection getConnection() throws SQLException {
@@ -226,7 +264,7 @@ public class SingleConnectionDataSource extends DriverManagerDataSource implemen
 			if (logger.isDebugEnabled()) {
 				logger.debug("Established shared JDBC Connection: " + this.target);
 			}
-			this.connection = (isSuppressClose() ? getCloseSuppressingConnectionProxy(this.target) : this.target);
+			this.connection = exposeConnection(this.target);
 		}
 	}
 
@@ -255,10 +293,34 @@ public class SingleConnectionDataSource extends DriverManagerDataSource implemen
 		}
 	}
 
+	/**
+	 * Build the Connection to expose for the given target Connection,
+	 * applying statement caching and close suppression, if necessary.
+	 */
+	private Connection exposeConnection(Connection target) {
+		Connection con = target;
+		if (this.statementCacheSize > 0) {
+			this.statementCache = new PreparedStatementCache(target, this.statementCacheSize);
+			con = this.statementCache.getConnectionProxy();
+		}
+		return (isSuppressClose() ? getCloseSuppressingConnectionProxy(con) : con);
+	}
+
+	/**
+	 * Close all cached statements for the shared Connection, if any.
+	 */
+	private void closeStatementCache() {
+		if (this.statementCache != null) {
+			this.statementCache.close();
+			this.statementCache = null;
+		}
+	}
+
 	/**
 	 * Close the underlying shared Connection.
 	 */
 	private void closeConnection() {
+		closeStatementCache();
 		if (this.target != null) {
 			try {
 				this.target.close();
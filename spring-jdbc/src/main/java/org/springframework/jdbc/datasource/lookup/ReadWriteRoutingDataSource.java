@@ -0,0 +1,494 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * DataSource that routes read-only transactions to a weighted set of replica
+ * DataSources, and all other data access to a primary DataSource.
+ *
+ * <p>Replicas are selected at random according to their weights, considering
+ * only replicas which passed their most recent {@link ReplicaHealthCheck health
+ * check} and, if a {@link #setMaxReplicationLag maximum replication lag} has been
+ * specified, whose reported lag is within that limit. Health checks are performed
+ * on demand, at most once per {@link #setHealthCheckInterval health check interval}
+ * per replica. A replica that fails to provide a Connection is considered unavailable
+ * until its next health check. If no replica is available, read-only transactions
+ * fall back to the primary DataSource by default.
+ *
+ * <p>The read-only flag of the current transaction is exposed by Spring's transaction
+ * managers only once the transaction has begun, i.e. after the transactional Connection
+ * has been obtained. With {@link org.springframework.jdbc.datasource.DataSourceTransactionManager},
+ * this router therefore needs to be wrapped with a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * which fetches the actual Connection on first use:
+ *
+ * <pre class="code">
+ * ReadWriteRoutingDataSource router = new ReadWriteRoutingDataSource();
+ * router.setPrimaryDataSource(primary);
+ * router.addReplicaDataSource(replica1, 2);
+ * router.addReplicaDataSource(replica2, 1);
+ * router.afterPropertiesSet();
+ * DataSource dataSource = new LazyConnectionDataSourceProxy(router);
+ * PlatformTransactionManager tm = new DataSourceTransactionManager(dataSource);</pre>
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see TransactionSynchronizationManager#isCurrentTransactionReadOnly()
+ * @see org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy
+ * @see IsolationLevelDataSourceRouter
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements InitializingBean {
+
+	/** Default interval between health checks of a replica: 5 seconds. */
+	public static final Duration DEFAULT_HEALTH_CHECK_INTERVAL = Duration.ofSeconds(5);
+
+	/** Timeout in seconds for the Connection validation in the default health check. */
+	private static final int VALIDATION_TIMEOUT = 5;
+
+
+	@Nullable
+	private DataSource primaryDataSource;
+
+	private final List<Replica> replicas = new ArrayList<>();
+
+	private ReplicaHealthCheck replicaHealthCheck = ReadWriteRoutingDataSource::validateConnection;
+
+	private long healthCheckIntervalMillis = DEFAULT_HEALTH_CHECK_INTERVAL.toMillis();
+
+	private long maxReplicationLagMillis = -1;
+
+	private boolean fallbackToPrimary = true;
+
+	private volatile Replica[] replicaArray = new Replica[0];
+
+	private final AtomicLong primaryConnectionCount = new AtomicLong();
+
+	private final AtomicLong fallbackCount = new AtomicLong();
+
+
+	/**
+	 * Set the primary DataSource, to be used for all data access
+	 * except for read-only transactions.
+	 */
+	public void setPrimaryDataSource(DataSource primaryDataSource) {
+		this.primaryDataSource = primaryDataSource;
+	}
+
+	/**
+	 * Return the primary DataSource, if any.
+	 */
+	@Nullable
+	public DataSource getPrimaryDataSource() {
+		return this.primaryDataSource;
+	}
+
+	/**
+	 * Set the replica DataSources for read-only transactions, with equal weights.
+	 * Replaces any previously registered replicas.
+	 * @see #addReplicaDataSource(DataSource, int)
+	 */
+	public void setReplicaDataSources(List<DataSource> replicaDataSources) {
+		synchronized (this.replicas) {
+			this.replicas.clear();
+			this.replicaArray = new Replica[0];
+			for (DataSource replicaDataSource : replicaDataSources) {
+				addReplicaDataSource(replicaDataSource, 1);
+			}
+		}
+	}
+
+	/**
+	 * Add a replica DataSource for read-only transactions.
+	 * @param replicaDataSource the replica DataSource
+	 * @param weight the relative weight of the replica: e.g. a replica with weight 2
+	 * receives twice as many Connection requests as a replica with weight 1
+	 */
+	public void addReplicaDataSource(DataSource replicaDataSource, int weight) {
+		Assert.notNull(replicaDataSource, "Replica DataSource must not be null");
+		Assert.isTrue(weight > 0, "Weight must be greater than 0");
+		synchronized (this.replicas) {
+			this.replicas.add(new Replica(replicaDataSource, weight));
+			this.replicaArray = this.replicas.toArray(new Replica[0]);
+		}
+	}
+
+	/**
+	 * Specify the health check to apply to replica DataSources.
+	 * <p>The default check validates a Connection from the replica,
+	 * without determining the replication lag.
+	 * @see #setHealthCheckInterval
+	 * @see #setMaxReplicationLag
+	 */
+	public void setReplicaHealthCheck(ReplicaHealthCheck replicaHealthCheck) {
+		Assert.notNull(replicaHealthCheck, "ReplicaHealthCheck must not be null");
+		this.replicaHealthCheck = replicaHealthCheck;
+	}
+
+	/**
+	 * Specify the interval between health checks of a replica.
+	 * <p>Default is 5 seconds. Checks are performed on demand, as part of
+	 * a Connection request for a read-only transaction.
+	 */
+	public void setHealthCheckInterval(Duration healthCheckInterval) {
+		Assert.isTrue(!healthCheckInterval.isNegative(), "Health check interval must not be negative");
+		this.healthCheckIntervalMillis = healthCheckInterval.toMillis();
+	}
+
+	/**
+	 * Specify the maximum replication lag for a replica to be considered,
+	 * as reported by the {@link #setReplicaHealthCheck health check}.
+	 * <p>Default is none, considering every available replica.
+	 */
+	public void setMaxReplicationLag(@Nullable Duration maxReplicationLag) {
+		this.maxReplicationLagMillis = (maxReplicationLag != null ? maxReplicationLag.toMillis() : -1);
+	}
+
+	/**
+	 * Specify whether to fall back to the primary DataSource for read-only
+	 * transactions if no replica is available.
+	 * <p>Default is "true". Switch this to "false" to throw an SQLException
+	 * in such a case instead, keeping read load off the primary at all times.
+	 */
+	public void setFallbackToPrimary(boolean fallbackToPrimary) {
+		this.fallbackToPrimary = fallbackToPrimary;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (this.primaryDataSource == null) {
+			throw new IllegalArgumentException("Property 'primaryDataSource' is required");
+		}
+	}
+
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return doGetConnection(null, null);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return doGetConnection(username, password);
+	}
+
+	private Connection doGetConnection(@Nullable String username, @Nullable String password) throws SQLException {
+		if (isReadOnlyRoutingRequested()) {
+			Connection con = getReplicaConnection(username, password);
+			if (con != null) {
+				return con;
+			}
+			if (!this.fallbackToPrimary) {
+				throw new SQLException("No replica DataSource available for read-only transaction");
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("No replica DataSource available - falling back to primary DataSource");
+			}
+			this.fallbackCount.incrementAndGet();
+		}
+		DataSource primary = this.primaryDataSource;
+		Assert.state(primary != null, "No primary DataSource set");
+		this.primaryConnectionCount.incrementAndGet();
+		return (username != null ? primary.getConnection(username, password) : primary.getConnection());
+	}
+
+	/**
+	 * Determine whether the current Connection request should be routed to a replica.
+	 * <p>The default implementation checks whether the current transaction
+	 * has been marked as read-only.
+	 * @see TransactionSynchronizationManager#isCurrentTransactionReadOnly()
+	 */
+	protected boolean isReadOnlyRoutingRequested() {
+		return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	/**
+	 * Obtain a Connection from one of the usable replicas, trying further
+	 * replicas if a replica fails to provide a Connection.
+	 * @return the replica Connection, or {@code null} if no replica is available
+	 */
+	@Nullable
+	private Connection getReplicaConnection(@Nullable String username, @Nullable String password) {
+		Replica[] replicas = this.replicaArray;
+		for (int attempt = 0; attempt < replicas.length; attempt++) {
+			Replica replica = selectReplica(replicas);
+			if (replica == null) {
+				return null;
+			}
+			try {
+				Connection con = (username != null ?
+						replica.dataSource.getConnection(username, password) : replica.dataSource.getConnection());
+				replica.connectionCount.incrementAndGet();
+				return con;
+			}
+			catch (SQLException ex) {
+				logger.debug("Could not obtain Connection from replica DataSource - marking it as unavailable", ex);
+				replica.markUnavailable();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Select a replica at random according to the weights of the usable replicas,
+	 * performing health checks where due.
+	 */
+	@Nullable
+	private Replica selectReplica(Replica[] replicas) {
+		long now = System.currentTimeMillis();
+		int totalWeight = 0;
+		for (Replica replica : replicas) {
+			if (replica.isUsable(now)) {
+				totalWeight += replica.weight;
+			}
+		}
+		if (totalWeight == 0) {
+			return null;
+		}
+		int position = ThreadLocalRandom.current().nextInt(totalWeight);
+		Replica selected = null;
+		for (Replica replica : replicas) {
+			if (replica.usable) {
+				selected = replica;
+				position -= replica.weight;
+				if (position < 0) {
+					break;
+				}
+			}
+		}
+		return selected;
+	}
+
+
+	/**
+	 * Return the number of Connections obtained from the primary DataSource so far.
+	 */
+	public long getPrimaryConnectionCount() {
+		return this.primaryConnectionCount.get();
+	}
+
+	/**
+	 * Return the number of Connections obtained from replica DataSources so far.
+	 */
+	public long getReplicaConnectionCount() {
+		long count = 0;
+		for (Replica replica : this.replicaArray) {
+			count += replica.connectionCount.get();
+		}
+		return count;
+	}
+
+	/**
+	 * Return the number of read-only Connection requests which fell back
+	 * to the primary DataSource since no replica was available.
+	 */
+	public long getFallbackCount() {
+		return this.fallbackCount.get();
+	}
+
+	/**
+	 * Return a snapshot of the current status of each replica,
+	 * in registration order.
+	 */
+	public List<ReplicaStatus> getReplicaStatus() {
+		Replica[] replicas = this.replicaArray;
+		List<ReplicaStatus> result = new ArrayList<>(replicas.length);
+		for (Replica replica : replicas) {
+			result.add(new ReplicaStatus(replica));
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+
+	/**
+	 * The default health check: validating a Connection from the replica.
+	 */
+	private static Duration validateConnection(DataSource replica) throws SQLException {
+		try (Connection con = replica.getConnection()) {
+			if (!con.isValid(VALIDATION_TIMEOUT)) {
+				throw new SQLException("Replica Connection is not valid");
+			}
+		}
+		return Duration.ZERO;
+	}
+
+
+	/**
+	 * Status snapshot for a replica DataSource.
+	 */
+	public static final class ReplicaStatus {
+
+		private final DataSource dataSource;
+
+		private final int weight;
+
+		private final boolean available;
+
+		private final Duration replicationLag;
+
+		private final long connectionCount;
+
+		private final long failureCount;
+
+		ReplicaStatus(Replica replica) {
+			this.dataSource = replica.dataSource;
+			this.weight = replica.weight;
+			this.available = replica.usable;
+			this.replicationLag = Duration.ofMillis(replica.replicationLagMillis);
+			this.connectionCount = replica.connectionCount.get();
+			this.failureCount = replica.failureCount.get();
+		}
+
+		/**
+		 * Return the replica DataSource.
+		 */
+		public DataSource getDataSource() {
+			return this.dataSource;
+		}
+
+		/**
+		 * Return the relative weight of the replica.
+		 */
+		public int getWeight() {
+			return this.weight;
+		}
+
+		/**
+		 * Return whether the replica was considered for read-only transactions
+		 * as of its most recent check: healthy and within the maximum lag.
+		 */
+		public boolean isAvailable() {
+			return this.available;
+		}
+
+		/**
+		 * Return the replication lag reported by the most recent health check.
+		 */
+		public Duration getReplicationLag() {
+			return this.replicationLag;
+		}
+
+		/**
+		 * Return the number of Connections obtained from the replica so far.
+		 */
+		public long getConnectionCount() {
+			return this.connectionCount;
+		}
+
+		/**
+		 * Return the number of failed health checks and Connection requests so far.
+		 */
+		public long getFailureCount() {
+			return this.failureCount;
+		}
+
+		@Override
+		public String toString() {
+			return "ReplicaStatus: dataSource=" + this.dataSource + ", weight=" + this.weight +
+					", available=" + this.available + ", replicationLag=" + this.replicationLag +
+					", connectionCount=" + this.connectionCount + ", failureCount=" + this.failureCount;
+		}
+	}
+
+
+	/**
+	 * Internal holder for a replica DataSource and its current status.
+	 */
+	private class Replica {
+
+		final DataSource dataSource;
+
+		final int weight;
+
+		volatile boolean usable;
+
+		volatile long replicationLagMillis;
+
+		private volatile long lastCheckTime;
+
+		private final AtomicBoolean checkInProgress = new AtomicBoolean();
+
+		final AtomicLong connectionCount = new AtomicLong();
+
+		final AtomicLong failureCount = new AtomicLong();
+
+		Replica(DataSource dataSource, int weight) {
+			this.dataSource = dataSource;
+			this.weight = weight;
+		}
+
+		/**
+		 * Determine whether this replica may be used, performing a health check
+		 * if due. Concurrent requests keep using the previous status meanwhile.
+		 */
+		boolean isUsable(long now) {
+			boolean checkDue = (this.lastCheckTime == 0 || now - this.lastCheckTime >= healthCheckIntervalMillis);
+			if (checkDue && this.checkInProgress.compareAndSet(false, true)) {
+				try {
+					check(now);
+				}
+				finally {
+					this.checkInProgress.set(false);
+				}
+			}
+			return this.usable;
+		}
+
+		private void check(long now) {
+			try {
+				Duration lag = replicaHealthCheck.checkReplica(this.dataSource);
+				long lagMillis = (lag != null ? lag.toMillis() : 0);
+				this.replicationLagMillis = lagMillis;
+				this.usable = (maxReplicationLagMillis < 0 || lagMillis <= maxReplicationLagMillis);
+				if (!this.usable && logger.isDebugEnabled()) {
+					logger.debug("Replica DataSource [" + this.dataSource + "] exceeds maximum replication lag: " +
+							lagMillis + " ms");
+				}
+			}
+			catch (Throwable ex) {
+				logger.debug("Health check failed for replica DataSource [" + this.dataSource + "]", ex);
+				this.failureCount.incrementAndGet();
+				this.usable = false;
+			}
+			this.lastCheckTime = now;
+		}
+
+		void markUnavailable() {
+			this.failureCount.incrementAndGet();
+			this.usable = false;
+			this.lastCheckTime = System.currentTimeMillis();
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+/**
+ * Strategy interface for checking the health and the replication lag
+ * of a replica DataSource, as used by {@link ReadWriteRoutingDataSource}.
+ *
+ * <p>Implementations will typically obtain a Connection from the given
+ * DataSource and run a database-specific query for the replication lag,
+ * e.g. on PostgreSQL:
+ *
+ * <pre class="code">
+ * SELECT EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp()))</pre>
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see ReadWriteRoutingDataSource#setReplicaHealthCheck
+ * @see ReadWriteRoutingDataSource#setMaxReplicationLag
+ */
+@FunctionalInterface
+public interface ReplicaHealthCheck {
+
+	/**
+	 * Check the given replica DataSource.
+	 * @param replica the replica DataSource to check
+	 * @return the current replication lag of the replica
+	 * ({@link Duration#ZERO} if not determinable)
+	 * @throws Exception if the replica is not available
+	 */
+	Duration checkReplica(DataSource replica) throws Exception;
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.lang.reflect.Constructor;
 import java.sql.BatchUpdateException;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -35,6 +36,7 @@ import org.springframework.dao.TransientDataAccessResourceException;
 import org.springframework.jdbc.BadSqlGrammarException;
 import org.springframework.jdbc.InvalidResultSetAccessException;
 import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
  * Implementation of {@link SQLExceptionTranslator} that analyzes vendor-specific error codes.
@@ -73,6 +75,9 @@ public class SQLErrorCodeSQLExceptionTranslator extends AbstractFallbackSQLExcep
 	private static final int MESSAGE_SQL_THROWABLE_CONSTRUCTOR = 4;
 	private static final int MESSAGE_SQL_SQLEX_CONSTRUCTOR = 5;
 
+	private static final Map<Class<?>, Constructor<?>> customExceptionConstructorCache =
+			new ConcurrentReferenceHashMap<>(16);
+
 
 	/** Error codes used by this translator. */
 	@Nullable
@@ -230,45 +235,10 @@ public class SQLErrorCodeSQLExceptionTranslator extends AbstractFallbackSQLExcep
 					}
 				}
 				// Next, look for grouped error codes.
-				if (Arrays.binarySearch(this.sqlErrorCodes.getBadSqlGrammarCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new BadSqlGrammarException(task, (sql != null ? sql : ""), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getInvalidResultSetAccessCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new InvalidResultSetAccessException(task, (sql != null ? sql : ""), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getDuplicateKeyCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new DuplicateKeyException(buildMessage(task, sql, sqlEx), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getDataIntegrityViolationCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new DataIntegrityViolationException(buildMessage(task, sql, sqlEx), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getPermissionDeniedCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new PermissionDeniedDataAccessException(buildMessage(task, sql, sqlEx), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getDataAccessResourceFailureCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new DataAccessResourceFailureException(buildMessage(task, sql, sqlEx), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getTransientDataAccessResourceCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new TransientDataAccessResourceException(buildMessage(task, sql, sqlEx), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getCannotAcquireLockCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new CannotAcquireLockException(buildMessage(task, sql, sqlEx), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getDeadlockLoserCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new DeadlockLoserDataAccessException(buildMessage(task, sql, sqlEx), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getCannotSerializeTransactionCodes(), errorCode) >= 0) {
+				SQLErrorCodes.ErrorCodeGroup group = this.sqlErrorCodes.getErrorCodeGroup(errorCode);
+				if (group != null) {
 					logTranslation(task, sql, sqlEx, false);
-					return new CannotSerializeTransactionException(buildMessage(task, sql, sqlEx), sqlEx);
+					return createGroupException(group, task, sql, sqlEx);
 				}
 			}
 		}
@@ -288,6 +258,33 @@ public class SQLErrorCodeSQLExceptionTranslator extends AbstractFallbackSQLExcep
 		return null;
 	}
 
+	private DataAccessException createGroupException(
+			SQLErrorCodes.ErrorCodeGroup group, String task, @Nullable String sql, SQLException sqlEx) {
+
+		switch (group) {
+			case BAD_SQL_GRAMMAR:
+				return new BadSqlGrammarException(task, (sql != null ? sql : ""), sqlEx);
+			case INVALID_RESULT_SET_ACCESS:
+				return new InvalidResultSetAccessException(task, (sql != null ? sql : ""), sqlEx);
+			case DUPLICATE_KEY:
+				return new DuplicateKeyException(buildMessage(task, sql, sqlEx), sqlEx);
+			case DATA_INTEGRITY_VIOLATION:
+				return new DataIntegrityViolationException(buildMessage(task, sql, sqlEx), sqlEx);
+			case PERMISSION_DENIED:
+				return new PermissionDeniedDataAccessException(buildMessage(task, sql, sqlEx), sqlEx);
+			case DATA_ACCESS_RESOURCE_FAILURE:
+				return new DataAccessResourceFailureException(buildMessage(task, sql, sqlEx), sqlEx);
+			case TRANSIENT_DATA_ACCESS_RESOURCE:
+				return new TransientDataAccessResourceException(buildMessage(task, sql, sqlEx), sqlEx);
+			case CANNOT_ACQUIRE_LOCK:
+				return new CannotAcquireLockException(buildMessage(task, sql, sqlEx), sqlEx);
+			case DEADLOCK_LOSER:
+				return new DeadlockLoserDataAccessException(buildMessage(task, sql, sqlEx), sqlEx);
+			default:
+				return new CannotSerializeTransactionException(buildMessage(task, sql, sqlEx), sqlEx);
+		}
+	}
+
 	/**
 	 * Subclasses can override this method to attempt a custom mapping from
 	 * {@link SQLException} to {@link DataAccessException}.
@@ -321,73 +318,29 @@ public class SQLErrorCodeSQLExceptionTranslator extends AbstractFallbackSQLExcep
 	protected DataAccessException createCustomException(
 			String task, @Nullable String sql, SQLException sqlEx, Class<?> exceptionClass) {
 
-		// Find appropriate constructor for the given exception class
 		try {
-			int constructorType = 0;
-			Constructor<?>[] constructors = exceptionClass.getConstructors();
-			for (Constructor<?> constructor : constructors) {
-				Class<?>[] parameterTypes = constructor.getParameterTypes();
-				if (parameterTypes.length == 1 && String.class == parameterTypes[0] &&
-						constructorType < MESSAGE_ONLY_CONSTRUCTOR) {
-					constructorType = MESSAGE_ONLY_CONSTRUCTOR;
-				}
-				if (parameterTypes.length == 2 && String.class == parameterTypes[0] &&
-						Throwable.class == parameterTypes[1] &&
-						constructorType < MESSAGE_THROWABLE_CONSTRUCTOR) {
-					constructorType = MESSAGE_THROWABLE_CONSTRUCTOR;
-				}
-				if (parameterTypes.length == 2 && String.class == parameterTypes[0] &&
-						SQLException.class == parameterTypes[1] &&
-						constructorType < MESSAGE_SQLEX_CONSTRUCTOR) {
-					constructorType = MESSAGE_SQLEX_CONSTRUCTOR;
-				}
-				if (parameterTypes.length == 3 && String.class == parameterTypes[0] &&
-						String.class == parameterTypes[1] && Throwable.class == parameterTypes[2] &&
-						constructorType < MESSAGE_SQL_THROWABLE_CONSTRUCTOR) {
-					constructorType = MESSAGE_SQL_THROWABLE_CONSTRUCTOR;
-				}
-				if (parameterTypes.length == 3 && String.class == parameterTypes[0] &&
-						String.class == parameterTypes[1] && SQLException.class == parameterTypes[2] &&
-						constructorType < MESSAGE_SQL_SQLEX_CONSTRUCTOR) {
-					constructorType = MESSAGE_SQL_SQLEX_CONSTRUCTOR;
-				}
-			}
-
-			// invoke constructor
-			Constructor<?> exceptionConstructor;
-			switch (constructorType) {
-				case MESSAGE_SQL_SQLEX_CONSTRUCTOR:
-					Class<?>[] messageAndSqlAndSqlExArgsClass = new Class<?>[] {String.class, String.class, SQLException.class};
-					Object[] messageAndSqlAndSqlExArgs = new Object[] {task, sql, sqlEx};
-					exceptionConstructor = exceptionClass.getConstructor(messageAndSqlAndSqlExArgsClass);
-					return (DataAccessException) exceptionConstructor.newInstance(messageAndSqlAndSqlExArgs);
-				case MESSAGE_SQL_THROWABLE_CONSTRUCTOR:
-					Class<?>[] messageAndSqlAndThrowableArgsClass = new Class<?>[] {String.class, String.class, Throwable.class};
-					Object[] messageAndSqlAndThrowableArgs = new Object[] {task, sql, sqlEx};
-					exceptionConstructor = exceptionClass.getConstructor(messageAndSqlAndThrowableArgsClass);
-					return (DataAccessException) exceptionConstructor.newInstance(messageAndSqlAndThrowableArgs);
-				case MESSAGE_SQLEX_CONSTRUCTOR:
-					Class<?>[] messageAndSqlExArgsClass = new Class<?>[] {String.class, SQLException.class};
-					Object[] messageAndSqlExArgs = new Object[] {task + ": " + sqlEx.getMessage(), sqlEx};
-					exceptionConstructor = exceptionClass.getConstructor(messageAndSqlExArgsClass);
-					return (DataAccessException) exceptionConstructor.newInstance(messageAndSqlExArgs);
-				case MESSAGE_THROWABLE_CONSTRUCTOR:
-					Class<?>[] messageAndThrowableArgsClass = new Class<?>[] {String.class, Throwable.class};
-					Object[] messageAndThrowableArgs = new Object[] {task + ": " + sqlEx.getMessage(), sqlEx};
-					exceptionConstructor = exceptionClass.getConstructor(messageAndThrowableArgsClass);
-					return (DataAccessException)exceptionConstructor.newInstance(messageAndThrowableArgs);
-				case MESSAGE_ONLY_CONSTRUCTOR:
-					Class<?>[] messageOnlyArgsClass = new Class<?>[] {String.class};
-					Object[] messageOnlyArgs = new Object[] {task + ": " + sqlEx.getMessage()};
-					exceptionConstructor = exceptionClass.getConstructor(messageOnlyArgsClass);
-					return (DataAccessException) exceptionConstructor.newInstance(messageOnlyArgs);
-				default:
+			Constructor<?> exceptionConstructor = customExceptionConstructorCache.get(exceptionClass);
+			if (exceptionConstructor == null) {
+				exceptionConstructor = determineCustomExceptionConstructor(exceptionClass);
+				if (exceptionConstructor == null) {
 					if (logger.isWarnEnabled()) {
 						logger.warn("Unable to find appropriate constructor of custom exception class [" +
 								exceptionClass.getName() + "]");
 					}
 					return null;
 				}
+				customExceptionConstructorCache.put(exceptionClass, exceptionConstructor);
+			}
+
+			// invoke constructor
+			switch (exceptionConstructor.getParameterCount()) {
+				case 3:
+					return (DataAccessException) exceptionConstructor.newInstance(task, sql, sqlEx);
+				case 2:
+					return (DataAccessException) exceptionConstructor.newInstance(task + ": " + sqlEx.getMessage(), sqlEx);
+				default:
+					return (DataAccessException) exceptionConstructor.newInstance(task + ": " + sqlEx.getMessage());
+			}
 		}
 		catch (Throwable ex) {
 			if (logger.isWarnEnabled()) {
@@ -397,6 +350,43 @@ public class SQLErrorCodeSQLExceptionTranslator extends AbstractFallbackSQLExcep
 		}
 	}
 
+	/**
+	 * Find the most specific supported constructor of the given custom exception class.
+	 */
+	@Nullable
+	private static Constructor<?> determineCustomExceptionConstructor(Class<?> exceptionClass) {
+		int constructorType = 0;
+		Constructor<?> exceptionConstructor = null;
+		for (Constructor<?> constructor : exceptionClass.getConstructors()) {
+			Class<?>[] parameterTypes = constructor.getParameterTypes();
+			int currentType = 0;
+			if (parameterTypes.length == 1 && String.class == parameterTypes[0]) {
+				currentType = MESSAGE_ONLY_CONSTRUCTOR;
+			}
+			else if (parameterTypes.length == 2 && String.class == parameterTypes[0] &&
+					Throwable.class == parameterTypes[1]) {
+				currentType = MESSAGE_THROWABLE_CONSTRUCTOR;
+			}
+			else if (parameterTypes.length == 2 && String.class == parameterTypes[0] &&
+					SQLException.class == parameterTypes[1]) {
+				currentType = MESSAGE_SQLEX_CONSTRUCTOR;
+			}
+			else if (parameterTypes.length == 3 && String.class == parameterTypes[0] &&
+					String.class == parameterTypes[1] && Throwable.class == parameterTypes[2]) {
+				currentType = MESSAGE_SQL_THROWABLE_CONSTRUCTOR;
+			}
+			else if (parameterTypes.length == 3 && String.class == parameterTypes[0] &&
+					String.class == parameterTypes[1] && SQLException.class == parameterTypes[2]) {
+				currentType = MESSAGE_SQL_SQLEX_CONSTRUCTOR;
+			}
+			if (currentType > constructorType) {
+				constructorType = currentType;
+				exceptionConstructor = constructor;
+			}
+		}
+		return exceptionConstructor;
+	}
+
 	private void logTranslation(String task, @Nullable String sql, SQLException sqlEx, boolean custom) {
 		if (logger.isDebugEnabled()) {
 			String intro = custom ? "Custom translation of" : "Translating";
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,9 @@
 
 package org.springframework.jdbc.support;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.lang.Nullable;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
@@ -66,6 +69,10 @@ public class SQLErrorCodes {
 	@Nullable
 	private SQLExceptionTranslator customSqlExceptionTranslator;
 
+	/** Lookup table from error code to error code group, built on first use. */
+	@Nullable
+	private volatile Map<String, ErrorCodeGroup> errorCodeGroups;
+
 
 	/**
 	 * Set this property if the database name contains spaces,
@@ -108,6 +115,7 @@ public class SQLErrorCodes {
 
 	public void setBadSqlGrammarCodes(String... badSqlGrammarCodes) {
 		this.badSqlGrammarCodes = StringUtils.sortStringArray(badSqlGrammarCodes);
+		this.errorCodeGroups = null;
 	}
 
 	public String[] getBadSqlGrammarCodes() {
@@ -116,6 +124,7 @@ public class SQLErrorCodes {
 
 	public void setInvalidResultSetAccessCodes(String... invalidResultSetAccessCodes) {
 		this.invalidResultSetAccessCodes = StringUtils.sortStringArray(invalidResultSetAccessCodes);
+		this.errorCodeGroups = null;
 	}
 
 	public String[] getInvalidResultSetAccessCodes() {
@@ -128,10 +137,12 @@ public class SQLErrorCodes {
 
 	public void setDuplicateKeyCodes(String... duplicateKeyCodes) {
 		this.duplicateKeyCodes = duplicateKeyCodes;
+		this.errorCodeGroups = null;
 	}
 
 	public void setDataIntegrityViolationCodes(String... dataIntegrityViolationCodes) {
 		this.dataIntegrityViolationCodes = StringUtils.sortStringArray(dataIntegrityViolationCodes);
+		this.errorCodeGroups = null;
 	}
 
 	public String[] getDataIntegrityViolationCodes() {
@@ -140,6 +151,7 @@ public class SQLErrorCodes {
 
 	public void setPermissionDeniedCodes(String... permissionDeniedCodes) {
 		this.permissionDeniedCodes = StringUtils.sortStringArray(permissionDeniedCodes);
+		this.errorCodeGroups = null;
 	}
 
 	public String[] getPermissionDeniedCodes() {
@@ -148,6 +160,7 @@ public class SQLErrorCodes {
 
 	public void setDataAccessResourceFailureCodes(String... dataAccessResourceFailureCodes) {
 		this.dataAccessResourceFailureCodes = StringUtils.sortStringArray(dataAccessResourceFailureCodes);
+		this.errorCodeGroups = null;
 	}
 
 	public String[] getDataAccessResourceFailureCodes() {
@@ -156,6 +169,7 @@ public class SQLErrorCodes {
 
 	public void setTransientDataAccessResourceCodes(String... transientDataAccessResourceCodes) {
 		this.transientDataAccessResourceCodes = StringUtils.sortStringArray(transientDataAccessResourceCodes);
+		this.errorCodeGroups = null;
 	}
 
 	public String[] getTransientDataAccessResourceCodes() {
@@ -164,6 +178,7 @@ public class SQLErrorCodes {
 
 	public void setCannotAcquireLockCodes(String... cannotAcquireLockCodes) {
 		this.cannotAcquireLockCodes = StringUtils.sortStringArray(cannotAcquireLockCodes);
+		this.errorCodeGroups = null;
 	}
 
 	public String[] getCannotAcquireLockCodes() {
@@ -172,6 +187,7 @@ public class SQLErrorCodes {
 
 	public void setDeadlockLoserCodes(String... deadlockLoserCodes) {
 		this.deadlockLoserCodes = StringUtils.sortStringArray(deadlockLoserCodes);
+		this.errorCodeGroups = null;
 	}
 
 	public String[] getDeadlockLoserCodes() {
@@ -180,6 +196,7 @@ public class SQLErrorCodes {
 
 	public void setCannotSerializeTransactionCodes(String... cannotSerializeTransactionCodes) {
 		this.cannotSerializeTransactionCodes = StringUtils.sortStringArray(cannotSerializeTransactionCodes);
+		this.errorCodeGroups = null;
 	}
 
 	public String[] getCannotSerializeTransactionCodes() {
@@ -219,4 +236,72 @@ public class SQLErrorCodes {
 		return this.customSqlExceptionTranslator;
 	}
 
+	/**
+	 * Determine the group of error codes that the given error code belongs to,
+	 * based on a lookup table which is built on first use and rebuilt after any
+	 * change of error codes through the corresponding setters.
+	 * <p>If a code is specified for several groups, the group declared first
+	 * in {@link ErrorCodeGroup} wins.
+	 * @param errorCode the error code (or SQL state) to look up
+	 * @return the corresponding group, or {@code null} if none
+	 * @since 5.2.3
+	 */
+	@Nullable
+	ErrorCodeGroup getErrorCodeGroup(String errorCode) {
+		Map<String, ErrorCodeGroup> errorCodeGroups = this.errorCodeGroups;
+		if (errorCodeGroups == null) {
+			errorCodeGroups = new HashMap<>();
+			for (ErrorCodeGroup group : ErrorCodeGroup.values()) {
+				for (String code : getErrorCodes(group)) {
+					errorCodeGroups.putIfAbsent(code, group);
+				}
+			}
+			this.errorCodeGroups = errorCodeGroups;
+		}
+		return errorCodeGroups.get(errorCode);
+	}
+
+	private String[] getErrorCodes(ErrorCodeGroup group) {
+		switch (group) {
+			case BAD_SQL_GRAMMAR: return this.badSqlGrammarCodes;
+			case INVALID_RESULT_SET_ACCESS: return this.invalidResultSetAccessCodes;
+			case DUPLICATE_KEY: return this.duplicateKeyCodes;
+			case DATA_INTEGRITY_VIOLATION: return this.dataIntegrityViolationCodes;
+			case PERMISSION_DENIED: return this.permissionDeniedCodes;
+			case DATA_ACCESS_RESOURCE_FAILURE: return this.dataAccessResourceFailureCodes;
+			case TRANSIENT_DATA_ACCESS_RESOURCE: return this.transientDataAccessResourceCodes;
+			case CANNOT_ACQUIRE_LOCK: return this.cannotAcquireLockCodes;
+			case DEADLOCK_LOSER: return this.deadlockLoserCodes;
+			default: return this.cannotSerializeTransactionCodes;
+		}
+	}
+
+
+	/**
+	 * Groups of error codes, in order of precedence.
+	 * @since 5.2.3
+	 */
+	enum ErrorCodeGroup {
+
+		BAD_SQL_GRAMMAR,
+
+		INVALID_RESULT_SET_ACCESS,
+
+		DUPLICATE_KEY,
+
+		DATA_INTEGRITY_VIOLATION,
+
+		PERMISSION_DENIED,
+
+		DATA_ACCESS_RESOURCE_FAILURE,
+
+		TRANSIENT_DATA_ACCESS_RESOURCE,
+
+		CANNOT_ACQUIRE_LOCK,
+
+		DEADLOCK_LOSER,
+
+		CANNOT_SERIALIZE_TRANSACTION
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -203,27 +203,23 @@ public class SQLErrorCodesFactory {
 			logger.debug("Looking up default SQLErrorCodes for DataSource [" + identify(dataSource) + "]");
 		}
 
-		// Try efficient lock-free access for existing cache entry
+		// Lock-free access for existing cache entry; concurrent lookups for a new
+		// DataSource may each extract the meta-data but will end up registering
+		// equivalent SQLErrorCodes for it.
 		SQLErrorCodes sec = this.dataSourceCache.get(dataSource);
 		if (sec == null) {
-			synchronized (this.dataSourceCache) {
-				// Double-check within full dataSourceCache lock
-				sec = this.dataSourceCache.get(dataSource);
-				if (sec == null) {
-					// We could not find it - got to look it up.
-					try {
-						String name = JdbcUtils.extractDatabaseMetaData(dataSource, "getDatabaseProductName");
-						if (StringUtils.hasLength(name)) {
-							return registerDatabase(dataSource, name);
-						}
-					}
-					catch (MetaDataAccessException ex) {
-						logger.warn("Error while extracting database name - falling back to empty error codes", ex);
-					}
-					// Fallback is to return an empty SQLErrorCodes instance.
-					return new SQLErrorCodes();
+			// We could not find it - got to look it up.
+			try {
+				String name = JdbcUtils.extractDatabaseMetaData(dataSource, "getDatabaseProductName");
+				if (StringUtils.hasLength(name)) {
+					return registerDatabase(dataSource, name);
 				}
 			}
+			catch (MetaDataAccessException ex) {
+				logger.warn("Error while extracting database name - falling back to empty error codes", ex);
+			}
+			// Fallback is to return an empty SQLErrorCodes instance.
+			return new SQLErrorCodes();
 		}
 
 		if (logger.isDebugEnabled()) {
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.namedparam.NamedParameterBatchWriter;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author agent
+ */
+public class BatchWriterTests {
+
+	private static final String SQL = "INSERT INTO PERSON (NAME, AGE) VALUES (?, ?)";
+
+	private Connection connection;
+
+	private PreparedStatement preparedStatement;
+
+	private DatabaseMetaData databaseMetaData;
+
+	private JdbcTemplate template;
+
+
+	@BeforeEach
+	public void setup() throws Exception {
+		this.connection = mock(Connection.class);
+		this.preparedStatement = mock(PreparedStatement.class);
+		this.databaseMetaData = mock(DatabaseMetaData.class);
+		DataSource dataSource = mock(DataSource.class);
+		given(dataSource.getConnection()).willReturn(this.connection);
+		given(this.connection.prepareStatement(anyString())).willReturn(this.preparedStatement);
+		given(this.connection.getMetaData()).willReturn(this.databaseMetaData);
+		given(this.databaseMetaData.supportsBatchUpdates()).willReturn(true);
+		given(this.databaseMetaData.getDatabaseProductName()).willReturn("MySQL");
+		this.template = new JdbcTemplate(dataSource);
+	}
+
+
+	@Test
+	public void flushOnBatchSize() throws Exception {
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1, 1}, new int[] {1});
+
+		BatchWriter writer = new BatchWriter(this.template, SQL);
+		writer.setBatchSize(2);
+		writer.add("Bubba", 22);
+		assertThat(writer.getPendingRowCount()).isEqualTo(1);
+		verify(this.preparedStatement, never()).executeBatch();
+
+		writer.add("Joe", 33);
+		assertThat(writer.getPendingRowCount()).isEqualTo(0);
+		verify(this.preparedStatement).executeBatch();
+
+		writer.add("Jim", 44);
+		writer.close();
+		verify(this.preparedStatement, times(2)).executeBatch();
+		verify(this.preparedStatement, times(3)).addBatch();
+		verify(this.preparedStatement).setString(1, "Jim");
+		verify(this.preparedStatement).setObject(2, 44);
+		assertThat(writer.getRowsWritten()).isEqualTo(3);
+		assertThat(writer.getRowsAffected()).isEqualTo(3);
+
+		assertThatIllegalStateException().isThrownBy(() -> writer.add("Jack", 55));
+	}
+
+	@Test
+	public void flushOnBatchByteLimit() throws Exception {
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1, 1});
+
+		BatchWriter writer = new BatchWriter(this.template, SQL);
+		writer.setBatchByteLimit(40);
+		writer.add("Bubba Bubba Bubba", 22);
+		writer.add("Bubba Bubba Bubba", 33);
+		verify(this.preparedStatement).executeBatch();
+		assertThat(writer.getPendingRowCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void multiRowValues() throws Exception {
+		given(this.preparedStatement.executeUpdate()).willReturn(3);
+
+		BatchWriter writer = new BatchWriter(this.template, SQL);
+		writer.setMultiRowValues(true);
+		writer.add("Bubba", 22);
+		writer.add("Joe", 33);
+		writer.add("Jim", 44);
+		writer.flush();
+
+		verify(this.connection).prepareStatement("INSERT INTO PERSON (NAME, AGE) VALUES (?, ?), (?, ?), (?, ?)");
+		verify(this.preparedStatement).setString(5, "Jim");
+		verify(this.preparedStatement).setObject(6, 44);
+		assertThat(writer.getRowsWritten()).isEqualTo(3);
+		assertThat(writer.getRowsAffected()).isEqualTo(3);
+	}
+
+	@Test
+	public void multiRowValuesWithMismatchedRowLength() throws Exception {
+		BatchWriter writer = new BatchWriter(this.template, SQL);
+		writer.setMultiRowValues(true);
+		writer.add("Bubba", 22);
+		assertThatExceptionOfType(InvalidDataAccessApiUsageException.class).isThrownBy(() ->
+				writer.add("Joe", 33, "extra"))
+			.withMessageContaining("3 arguments")
+			.withMessageContaining("2 placeholders");
+		assertThatExceptionOfType(InvalidDataAccessApiUsageException.class).isThrownBy(() ->
+				writer.add("Jim"));
+		assertThat(writer.getPendingRowCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void multiRowValuesNotSupportedByDatabase() throws Exception {
+		given(this.databaseMetaData.getDatabaseProductName()).willReturn("Oracle");
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1, 1});
+
+		BatchWriter writer = new BatchWriter(this.template, SQL);
+		writer.setMultiRowValues(true);
+		writer.add("Bubba", 22);
+		writer.add("Joe", 33);
+		writer.flush();
+
+		verify(this.connection).prepareStatement(SQL);
+		verify(this.preparedStatement, times(2)).addBatch();
+	}
+
+	@Test
+	public void splitValuesClause() {
+		assertThat(BatchWriter.splitValuesClause(SQL)).containsExactly(
+				"INSERT INTO PERSON (NAME, AGE) VALUES ", "(?, ?)", "");
+		assertThat(BatchWriter.splitValuesClause("insert into t (a, b) values (?, 'x)') on conflict do nothing"))
+				.containsExactly("insert into t (a, b) values ", "(?, 'x)')", " on conflict do nothing");
+		assertThat(BatchWriter.splitValuesClause("insert into t (a) values (?), (?)")).isNull();
+		assertThat(BatchWriter.splitValuesClause("insert into t (a) values (?) returning ?")).isNull();
+		assertThat(BatchWriter.splitValuesClause("insert into t (a) select ? from dual")).isNull();
+		assertThat(BatchWriter.splitValuesClause("update t set a = ?")).isNull();
+	}
+
+	@Test
+	public void namedParameters() throws Exception {
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1});
+
+		NamedParameterBatchWriter writer = new NamedParameterBatchWriter(
+				new NamedParameterJdbcTemplate(this.template), "INSERT INTO PERSON (NAME, AGE) VALUES (:name, :age)");
+		Map<String, Object> params = new HashMap<>();
+		params.put("age", 22);
+		params.put("name", "Bubba");
+		writer.add(params);
+		writer.close();
+
+		verify(this.connection).prepareStatement(SQL);
+		verify(this.preparedStatement).setString(1, "Bubba");
+		verify(this.preparedStatement).setObject(2, 22);
+		assertThat(writer.getRowsWritten()).isEqualTo(1);
+	}
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author agent
+ */
+public class ColumnMapRowMapperTests {
+
+	private final ResultSet resultSet = mock(ResultSet.class);
+
+	private final ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		given(this.resultSet.getMetaData()).willReturn(this.metaData);
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.metaData.getColumnCount()).willReturn(3);
+		given(this.metaData.getColumnLabel(1)).willReturn("ID");
+		given(this.metaData.getColumnLabel(2)).willReturn("Name");
+		given(this.metaData.getColumnLabel(3)).willReturn("name");
+		given(this.resultSet.getObject(1)).willReturn(1, 2);
+		given(this.resultSet.getObject(2)).willReturn("first", "second");
+		given(this.resultSet.getObject(3)).willReturn("other");
+	}
+
+
+	@Test
+	public void columnKeysSharedAcrossRows() throws Exception {
+		List<Map<String, Object>> rows =
+				new RowMapperResultSetExtractor<>(new ColumnMapRowMapper()).extractData(this.resultSet);
+
+		assertThat(rows).hasSize(2);
+		assertThat(rows.get(0)).containsExactly(entry("ID", 1), entry("Name", "first"));
+		assertThat(rows.get(1)).containsExactly(entry("ID", 2), entry("Name", "second"));
+		assertThat(rows.get(0).get("id")).isEqualTo(1);
+		assertThat(rows.get(1).get("NAME")).isEqualTo("second");
+		assertThat(rows.get(0).containsKey("name")).isTrue();
+		assertThat(rows.get(0).containsKey("other")).isFalse();
+		verify(this.resultSet, times(1)).getMetaData();
+	}
+
+	@Test
+	public void firstOfEquallyNamedColumnsWinsEvenIfNull() throws Exception {
+		given(this.resultSet.getObject(2)).willReturn(null, "second");
+		List<Map<String, Object>> rows =
+				new RowMapperResultSetExtractor<>(new ColumnMapRowMapper()).extractData(this.resultSet);
+
+		assertThat(rows.get(0)).containsExactly(entry("ID", 1), entry("Name", null));
+		assertThat(rows.get(1)).containsExactly(entry("ID", 2), entry("Name", "second"));
+
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getObject(1)).willReturn(1, 2);
+		given(this.resultSet.getObject(2)).willReturn(null, "second");
+		ColumnMapRowMapper perRowMapper = new ColumnMapRowMapper() {
+			@Override
+			protected Map<String, Object> createColumnMap(int columnCount) {
+				return new LinkedCaseInsensitiveMap<>(columnCount);
+			}
+		};
+		assertThat(new RowMapperResultSetExtractor<>(perRowMapper).extractData(this.resultSet)).isEqualTo(rows);
+	}
+
+	@Test
+	public void columnMapEqualToLinkedCaseInsensitiveMap() throws Exception {
+		Map<String, Object> row = new ColumnMapRowMapper().mapRow(nextRow(), 0);
+		Map<String, Object> expected = new LinkedCaseInsensitiveMap<>();
+		expected.put("ID", 1);
+		expected.put("Name", "first");
+		assertThat(row).isEqualTo(expected);
+		assertThat(expected).isEqualTo(row);
+		assertThat(row.hashCode()).isEqualTo(expected.hashCode());
+	}
+
+	@Test
+	public void columnMapModifiable() throws Exception {
+		List<Map<String, Object>> rows =
+				new RowMapperResultSetExtractor<>(new ColumnMapRowMapper()).extractData(this.resultSet);
+
+		Map<String, Object> row = rows.get(0);
+		assertThat(row.put("id", 5)).isEqualTo(1);
+		row.put("extra", "value");
+		assertThat(row.remove("NAME")).isEqualTo("first");
+		assertThat(row).containsExactly(entry("ID", 5), entry("extra", "value"));
+		assertThat(row.get("EXTRA")).isEqualTo("value");
+		assertThat(rows.get(1)).containsExactly(entry("ID", 2), entry("Name", "second"));
+
+		Iterator<Map.Entry<String, Object>> it = rows.get(1).entrySet().iterator();
+		it.next().setValue(3);
+		it.next();
+		it.remove();
+		assertThat(rows.get(1)).containsExactly(entry("ID", 3));
+	}
+
+	@Test
+	public void customColumnMap() throws Exception {
+		ColumnMapRowMapper rowMapper = new ColumnMapRowMapper() {
+			@Override
+			protected Map<String, Object> createColumnMap(int columnCount) {
+				return new TreeMap<>();
+			}
+		};
+		Map<String, Object> row = rowMapper.mapRow(nextRow(), 0);
+		assertThat(row).isInstanceOf(TreeMap.class);
+		assertThat(row).containsExactly(entry("ID", 1), entry("Name", "first"), entry("name", "other"));
+	}
+
+
+	private ResultSet nextRow() throws Exception {
+		this.resultSet.next();
+		return this.resultSet;
+	}
+
+}
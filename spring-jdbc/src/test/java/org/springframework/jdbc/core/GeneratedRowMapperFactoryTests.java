@@ -0,0 +1,223 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.test.AbstractPerson;
+import org.springframework.jdbc.core.test.ConcretePerson;
+import org.springframework.jdbc.core.test.ConstructorPerson;
+import org.springframework.jdbc.core.test.DatePerson;
+import org.springframework.jdbc.core.test.Person;
+import org.springframework.jdbc.core.test.SpacePerson;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author agent
+ */
+public class GeneratedRowMapperFactoryTests extends AbstractRowMapperTests {
+
+	@Test
+	public void testStaticQueryWithRowMapper() throws Exception {
+		Mock mock = new Mock();
+		List<Person> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				GeneratedRowMapperFactory.rowMapperFor(Person.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testStaticQueryWithResultSetExtractor() throws Exception {
+		Mock mock = new Mock();
+		List<Person> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				GeneratedRowMapperFactory.resultSetExtractorFor(Person.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testMappingWithInheritance() throws Exception {
+		Mock mock = new Mock();
+		List<ConcretePerson> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				GeneratedRowMapperFactory.rowMapperFor(ConcretePerson.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testMappingWithConstructor() throws Exception {
+		Mock mock = new Mock();
+		List<ConstructorPerson> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				GeneratedRowMapperFactory.rowMapperFor(ConstructorPerson.class));
+		assertThat(result.size()).isEqualTo(1);
+		ConstructorPerson person = result.get(0);
+		assertThat(person.getName()).isEqualTo("Bubba");
+		assertThat(person.getAge()).isEqualTo(22L);
+		assertThat(person.getBirth_date()).usingComparator(Date::compareTo).isEqualTo(new java.util.Date(1221222L));
+		assertThat(person.getBalance()).isEqualTo(new BigDecimal("1234.56"));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testQueryWithSpaceInColumnNameAndLocalDateTime() throws Exception {
+		Mock mock = new Mock(MockType.THREE);
+		List<SpacePerson> result = mock.getJdbcTemplate().query(
+				"select last_name as \"Last Name\", age, birth_date, balance from people",
+				GeneratedRowMapperFactory.rowMapperFor(SpacePerson.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testQueryWithSpaceInColumnNameAndLocalDate() throws Exception {
+		Mock mock = new Mock(MockType.THREE);
+		List<DatePerson> result = mock.getJdbcTemplate().query(
+				"select last_name as \"Last Name\", age, birth_date, balance from people",
+				GeneratedRowMapperFactory.rowMapperFor(DatePerson.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testRowMapperCachedPerResultSetShape() throws Exception {
+		GeneratedRowMapperFactory factory = GeneratedRowMapperFactory.getFactory(getClass().getClassLoader());
+		ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+		given(rsmd.getColumnCount()).willReturn(2);
+		given(rsmd.getColumnLabel(1)).willReturn("name");
+		given(rsmd.getColumnLabel(2)).willReturn("age");
+		RowMapper<Person> rowMapper = factory.getRowMapper(Person.class, rsmd);
+		assertThat(rowMapper).isInstanceOf(GeneratedRowMapper.class);
+		assertThat(factory.getRowMapper(Person.class, rsmd)).isSameAs(rowMapper);
+
+		ResultSetMetaData otherRsmd = mock(ResultSetMetaData.class);
+		given(otherRsmd.getColumnCount()).willReturn(1);
+		given(otherRsmd.getColumnLabel(1)).willReturn("name");
+		RowMapper<Person> otherRowMapper = factory.getRowMapper(Person.class, otherRsmd);
+		assertThat(otherRowMapper).isInstanceOf(GeneratedRowMapper.class).isNotSameAs(rowMapper);
+
+		ResultSet rs = mock(ResultSet.class);
+		given(rs.getString(1)).willReturn("Bubba");
+		given(rs.getLong(2)).willReturn(22L);
+		Person person = rowMapper.mapRow(rs, 0);
+		assertThat(person.getName()).isEqualTo("Bubba");
+		assertThat(person.getAge()).isEqualTo(22L);
+	}
+
+	@Test
+	public void testFallbackForNonPublicClass() throws Exception {
+		GeneratedRowMapperFactory factory = GeneratedRowMapperFactory.getFactory(getClass().getClassLoader());
+		ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+		given(rsmd.getColumnCount()).willReturn(1);
+		given(rsmd.getColumnLabel(1)).willReturn("name");
+		assertThat(factory.getRowMapper(NonPublicPerson.class, rsmd)).isInstanceOf(BeanPropertyRowMapper.class);
+	}
+
+	@Test
+	public void testFallbackForPublicClassNestedInNonPublicClass() throws Exception {
+		GeneratedRowMapperFactory factory = GeneratedRowMapperFactory.getFactory(getClass().getClassLoader());
+		ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+		given(rsmd.getColumnCount()).willReturn(1);
+		given(rsmd.getColumnLabel(1)).willReturn("name");
+		assertThat(factory.getRowMapper(NonPublicHolder.NestedPerson.class, rsmd))
+				.isInstanceOf(BeanPropertyRowMapper.class);
+	}
+
+	@Test
+	public void testRowMapperCacheStartsOverWhenFull() throws Exception {
+		GeneratedRowMapperFactory factory = GeneratedRowMapperFactory.getFactory(getClass().getClassLoader());
+		RowMapper<Person> rowMapper = factory.getRowMapper(Person.class, createMetaData("name", "age"));
+		assertThat(factory.getRowMapper(Person.class, createMetaData("name", "age"))).isSameAs(rowMapper);
+
+		for (int i = 0; i < GeneratedRowMapperFactory.CACHE_LIMIT; i++) {
+			factory.getRowMapper(Person.class, createMetaData("name", "column" + i));
+		}
+		RowMapper<Person> newRowMapper = factory.getRowMapper(Person.class, createMetaData("name", "age"));
+		assertThat(newRowMapper).isInstanceOf(GeneratedRowMapper.class).isNotSameAs(rowMapper);
+		assertThat(newRowMapper.getClass().getClassLoader()).isNotSameAs(rowMapper.getClass().getClassLoader());
+		assertThat(factory.getRowMapper(Person.class, createMetaData("name", "age"))).isSameAs(newRowMapper);
+	}
+
+	@Test
+	public void testAbstractClassNotAccepted() throws Exception {
+		Mock mock = new Mock();
+		assertThatExceptionOfType(InvalidDataAccessApiUsageException.class).isThrownBy(() ->
+				mock.getJdbcTemplate().query("select name, age, birth_date, balance from people",
+						GeneratedRowMapperFactory.rowMapperFor(AbstractPerson.class)));
+	}
+
+
+	private static ResultSetMetaData createMetaData(String... columns) throws Exception {
+		ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+		given(rsmd.getColumnCount()).willReturn(columns.length);
+		for (int i = 0; i < columns.length; i++) {
+			given(rsmd.getColumnLabel(i + 1)).willReturn(columns[i]);
+		}
+		return rsmd;
+	}
+
+
+	static class NonPublicPerson {
+
+		private String name;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+
+	static class NonPublicHolder {
+
+		public static class NestedPerson {
+
+			private String name;
+
+			public String getName() {
+				return this.name;
+			}
+
+			public void setName(String name) {
+				this.name = name;
+			}
+		}
+	}
+
+}
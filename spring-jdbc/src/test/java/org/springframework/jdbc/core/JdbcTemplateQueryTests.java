@@ -23,9 +23,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.SQLWarning;
 import java.sql.Statement;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -33,12 +36,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.SQLWarningException;
+import org.springframework.jdbc.UncategorizedSQLException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -97,6 +105,74 @@ public class JdbcTemplateQueryTests {
 		verify(this.statement).close();
 	}
 
+	@Test
+	public void testQueryForStream() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < 3";
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(11, 12);
+		given(this.statement.getConnection()).willReturn(this.connection);
+		this.template.setFetchSize(10);
+		try (Stream<Integer> stream = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1))) {
+			verify(this.statement).setFetchSize(10);
+			verify(this.resultSet, never()).next();
+			assertThat(stream.map(age -> age + 1).collect(Collectors.toList())).containsExactly(12, 13);
+			verify(this.resultSet, never()).close();
+			verify(this.statement, never()).close();
+			verify(this.connection, never()).close();
+		}
+		verify(this.resultSet).close();
+		verify(this.statement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamWithArgs() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < ?";
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(11, 12);
+		given(this.preparedStatement.getConnection()).willReturn(this.connection);
+		try (Stream<Integer> stream = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1), 3)) {
+			assertThat(stream.iterator().next()).isEqualTo(11);
+		}
+		verify(this.preparedStatement).setObject(1, 3);
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamWithSQLExceptionOnExecution() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < 3";
+		given(this.statement.executeQuery(sql)).willThrow(new SQLException("failed"));
+		assertThatExceptionOfType(UncategorizedSQLException.class).isThrownBy(() ->
+				this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1)));
+		verify(this.statement).close();
+		verify(this.connection, atLeastOnce()).close();
+	}
+
+	@Test
+	public void testQueryForStreamWithFailingPreparedStatementSetter() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < ?";
+		assertThatIllegalStateException().isThrownBy(() ->
+				this.template.queryForStream(sql, ps -> {
+					throw new IllegalStateException("Expected failure");
+				}, (rs, rowNum) -> rs.getInt(1)));
+		verify(this.preparedStatement, never()).executeQuery();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamWithWarning() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < 3";
+		given(this.statement.getWarnings()).willReturn(new SQLWarning("Expected warning"));
+		this.template.setIgnoreWarnings(false);
+		assertThatExceptionOfType(SQLWarningException.class).isThrownBy(() ->
+				this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1)));
+		verify(this.statement).close();
+		verify(this.connection).close();
+	}
+
 	@Test
 	public void testQueryForListWithEmptyResult() throws Exception {
 		String sql = "SELECT AGE FROM CUSTMR WHERE ID < 3";
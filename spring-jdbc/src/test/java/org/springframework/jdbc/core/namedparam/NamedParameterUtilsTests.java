@@ -16,6 +16,7 @@
 
 package org.springframework.jdbc.core.namedparam;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -303,4 +304,62 @@ public class NamedParameterUtilsTests {
 		assertThat(psql2.getParameterNames().get(0)).isEqualTo("xxx");
 	}
 
+	@Test
+	public void substituteNamedParametersCachedPerCollectionSize() {
+		ParsedSql psql = NamedParameterUtils.parseSqlStatement("select * from t where a = :a and id in (:ids)");
+		MapSqlParameterSource paramSource = new MapSqlParameterSource("a", 1);
+		String sql = NamedParameterUtils.substituteNamedParameters(psql, paramSource);
+		assertThat(sql).isEqualTo("select * from t where a = ? and id in (?)");
+		assertThat(NamedParameterUtils.substituteNamedParameters(psql, null)).isSameAs(sql);
+
+		paramSource.addValue("ids", Arrays.asList(1, 2, 3));
+		sql = NamedParameterUtils.substituteNamedParameters(psql, paramSource);
+		assertThat(sql).isEqualTo("select * from t where a = ? and id in (?, ?, ?)");
+		assertThat(NamedParameterUtils.substituteNamedParameters(
+				psql, new MapSqlParameterSource("ids", Arrays.asList(4, 5, 6)))).isSameAs(sql);
+		assertThat(NamedParameterUtils.substituteNamedParameters(
+				psql, new MapSqlParameterSource("ids", Arrays.asList(4, 5)))).isEqualTo(
+				"select * from t where a = ? and id in (?, ?)");
+	}
+
+	@Test
+	public void substituteNamedParametersWithExpressionListsOfVaryingLength() {
+		ParsedSql psql = NamedParameterUtils.parseSqlStatement("select * from t where (a, b) in (:lists)");
+		MapSqlParameterSource paramSource = new MapSqlParameterSource("lists",
+				Arrays.asList(new Object[] {1, 2}, new Object[] {3}));
+		assertThat(NamedParameterUtils.substituteNamedParameters(psql, paramSource)).isEqualTo(
+				"select * from t where (a, b) in ((?, ?), (?))");
+	}
+
+	@Test
+	public void padInClauseParameters() {
+		ParsedSql psql = NamedParameterUtils.parseSqlStatement(
+				"select * from t where id in ( :ids ) and a IN(:a) and b in (:b, :c) and d = :a");
+		MapSqlParameterSource paramSource = new MapSqlParameterSource()
+				.addValue("ids", Arrays.asList(1, 2, 3, 4, 5))
+				.addValue("a", Arrays.asList(1, 2, 3))
+				.addValue("b", Arrays.asList(1, 2, 3))
+				.addValue("c", 1);
+		SqlParameterSource paddedSource = NamedParameterUtils.padInClauseParameters(psql, paramSource);
+		assertThat(paddedSource.getValue("ids")).isEqualTo(Arrays.asList(1, 2, 3, 4, 5, 5, 5, 5));
+		assertThat(paddedSource.getValue("a")).isEqualTo(Arrays.asList(1, 2, 3));
+		assertThat(paddedSource.getValue("b")).isEqualTo(Arrays.asList(1, 2, 3));
+		assertThat(NamedParameterUtils.substituteNamedParameters(psql, paddedSource)).isEqualTo(
+				"select * from t where id in ( ?, ?, ?, ?, ?, ?, ?, ? ) and a IN(?, ?, ?) and b in (?, ?, ?, ?) and d = ?, ?, ?");
+
+		assertThat(NamedParameterUtils.padInClauseParameters(
+				psql, new MapSqlParameterSource("ids", Arrays.asList(1, 2)))).isInstanceOf(MapSqlParameterSource.class);
+	}
+
+	@Test
+	public void paddedSize() {
+		assertThat(NamedParameterUtils.getPaddedSize(0)).isEqualTo(0);
+		assertThat(NamedParameterUtils.getPaddedSize(1)).isEqualTo(1);
+		assertThat(NamedParameterUtils.getPaddedSize(3)).isEqualTo(4);
+		assertThat(NamedParameterUtils.getPaddedSize(9)).isEqualTo(16);
+		assertThat(NamedParameterUtils.getPaddedSize(512)).isEqualTo(512);
+		assertThat(NamedParameterUtils.getPaddedSize(513)).isEqualTo(600);
+		assertThat(NamedParameterUtils.getPaddedSize(1000)).isEqualTo(1000);
+	}
+
 }
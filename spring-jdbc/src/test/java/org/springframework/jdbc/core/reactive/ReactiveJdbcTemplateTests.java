@@ -0,0 +1,259 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.reactive;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.ReactiveDataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+
+/**
+ * @author agent
+ */
+public class ReactiveJdbcTemplateTests {
+
+	private EmbeddedDatabase database;
+
+	private Scheduler scheduler;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private ReactiveJdbcTemplate reactiveJdbcTemplate;
+
+	private TransactionalOperator transactionalOperator;
+
+
+	@BeforeEach
+	public void setup() {
+		this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(H2).build();
+		this.scheduler = Schedulers.newBoundedElastic(4, 100, "jdbc");
+		this.jdbcTemplate = new JdbcTemplate(this.database);
+		this.jdbcTemplate.execute("CREATE TABLE PERSON (ID INT PRIMARY KEY, NAME VARCHAR(20))");
+		this.jdbcTemplate.batchUpdate("INSERT INTO PERSON VALUES (?, ?)",
+				Arrays.asList(new Object[] {1, "Bubba"}, new Object[] {2, "Joe"}, new Object[] {3, "Jim"}));
+		this.reactiveJdbcTemplate = new ReactiveJdbcTemplate(this.jdbcTemplate, this.scheduler);
+		this.transactionalOperator = TransactionalOperator.create(
+				new ReactiveDataSourceTransactionManager(this.database, this.scheduler));
+	}
+
+	@AfterEach
+	public void shutdown() {
+		this.scheduler.dispose();
+		this.database.shutdown();
+	}
+
+
+	@Test
+	public void queryForObject() {
+		this.reactiveJdbcTemplate.queryForObject("SELECT NAME FROM PERSON WHERE ID = ?", String.class, 2)
+				.as(StepVerifier::create)
+				.expectNext("Joe")
+				.verifyComplete();
+	}
+
+	@Test
+	public void update() {
+		this.reactiveJdbcTemplate.update("UPDATE PERSON SET NAME = ? WHERE ID > ?", "Jack", 1)
+				.as(StepVerifier::create)
+				.expectNext(2)
+				.verifyComplete();
+		assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PERSON WHERE NAME = 'Jack'", Integer.class))
+				.isEqualTo(2);
+	}
+
+	@Test
+	public void query() {
+		this.reactiveJdbcTemplate.query("SELECT NAME FROM PERSON ORDER BY ID", (rs, rowNum) -> rs.getString(1))
+				.as(StepVerifier::create)
+				.expectNext("Bubba", "Joe", "Jim")
+				.verifyComplete();
+	}
+
+	@Test
+	public void queryWithBackpressure() {
+		this.reactiveJdbcTemplate.query("SELECT NAME FROM PERSON WHERE ID > ? ORDER BY ID",
+				(rs, rowNum) -> rowNum + ":" + rs.getString(1), 0)
+				.as(flux -> StepVerifier.create(flux, 0))
+				.thenRequest(1)
+				.expectNext("0:Bubba")
+				.expectNoEvent(Duration.ofMillis(50))
+				.thenRequest(1)
+				.expectNext("1:Joe")
+				.thenCancel()
+				.verify();
+	}
+
+	@Test
+	public void queryCancelledReleasesConnectionOnScheduler() throws Exception {
+		CountDownLatch closed = new CountDownLatch(1);
+		AtomicReference<String> closingThread = new AtomicReference<>();
+		DelegatingDataSource dataSource = new DelegatingDataSource(this.database) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				Connection con = super.getConnection();
+				return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+						new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+							if (method.getName().equals("close")) {
+								closingThread.set(Thread.currentThread().getName());
+								closed.countDown();
+							}
+							try {
+								return method.invoke(con, args);
+							}
+							catch (InvocationTargetException ex) {
+								throw ex.getTargetException();
+							}
+						});
+			}
+		};
+
+		CountDownLatch firstRow = new CountDownLatch(1);
+		BaseSubscriber<String> subscriber = new BaseSubscriber<String>() {
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+				request(1);
+			}
+			@Override
+			protected void hookOnNext(String value) {
+				firstRow.countDown();
+			}
+		};
+		new ReactiveJdbcTemplate(new JdbcTemplate(dataSource), this.scheduler)
+				.query("SELECT NAME FROM PERSON ORDER BY ID", (rs, rowNum) -> rs.getString(1))
+				.subscribe(subscriber);
+		assertThat(firstRow.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// Cancel on the test thread: the Connection needs to be released on the scheduler
+		subscriber.cancel();
+		assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(closingThread.get()).startsWith("jdbc");
+	}
+
+	@Test
+	public void queryWithBadSqlGrammar() {
+		this.reactiveJdbcTemplate.query("SELECT NAME FROM NO_SUCH_TABLE", (rs, rowNum) -> rs.getString(1))
+				.as(StepVerifier::create)
+				.verifyError(BadSqlGrammarException.class);
+	}
+
+	@Test
+	public void transactionCommit() {
+		this.reactiveJdbcTemplate.update("INSERT INTO PERSON VALUES (?, ?)", 4, "Jack")
+				.then(this.reactiveJdbcTemplate.queryForObject("SELECT COUNT(*) FROM PERSON", Integer.class))
+				.as(this.transactionalOperator::transactional)
+				.as(StepVerifier::create)
+				.expectNext(4)
+				.verifyComplete();
+		assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PERSON", Integer.class)).isEqualTo(4);
+	}
+
+	@Test
+	public void transactionRollback() {
+		this.reactiveJdbcTemplate.update("INSERT INTO PERSON VALUES (?, ?)", 4, "Jack")
+				.thenMany(this.reactiveJdbcTemplate.query("SELECT NAME FROM PERSON ORDER BY ID",
+						(rs, rowNum) -> rs.getString(1)))
+				.then(this.reactiveJdbcTemplate.update("INSERT INTO PERSON VALUES (?, ?)", 1, "Duplicate"))
+				.as(this.transactionalOperator::transactional)
+				.as(StepVerifier::create)
+				.verifyError(DuplicateKeyException.class);
+		assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PERSON", Integer.class)).isEqualTo(3);
+	}
+
+	@Test
+	public void transactionWithCancelledQueryReleasesCursorBeforeCommit() {
+		List<String> events = new CopyOnWriteArrayList<>();
+		DelegatingDataSource dataSource = new DelegatingDataSource(this.database) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				Connection con = super.getConnection();
+				return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+						new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+							if (method.getName().equals("commit") || method.getName().equals("close")) {
+								events.add(method.getName());
+							}
+							Object result = invoke(method, con, args);
+							if (method.getName().equals("prepareStatement") && ((String) args[0]).startsWith("SELECT")) {
+								PreparedStatement ps = (PreparedStatement) result;
+								return Proxy.newProxyInstance(getClass().getClassLoader(),
+										new Class<?>[] {PreparedStatement.class}, (psProxy, psMethod, psArgs) -> {
+											if (psMethod.getName().equals("close")) {
+												events.add("closeQuery");
+											}
+											return invoke(psMethod, ps, psArgs);
+										});
+							}
+							return result;
+						});
+			}
+		};
+		ReactiveJdbcTemplate template = new ReactiveJdbcTemplate(new JdbcTemplate(dataSource), this.scheduler);
+		TransactionalOperator operator = TransactionalOperator.create(
+				new ReactiveDataSourceTransactionManager(dataSource, this.scheduler));
+
+		template.update("INSERT INTO PERSON VALUES (?, ?)", 4, "Jack")
+				.thenMany(template.query("SELECT NAME FROM PERSON ORDER BY ID", (rs, rowNum) -> rs.getString(1)).take(1))
+				.as(operator::transactional)
+				.as(StepVerifier::create)
+				.expectNext("Bubba")
+				.verifyComplete();
+
+		// The cursor cancelled by take(1) needs to be released before the Connection is
+		assertThat(events).containsExactly("closeQuery", "commit", "close");
+		assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PERSON", Integer.class)).isEqualTo(4);
+	}
+
+
+	private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException ex) {
+			throw ex.getTargetException();
+		}
+	}
+
+}
@@ -1676,6 +1676,56 @@ public class DataSourceTransactionManagerTests  {
 		verify(con).close();
 	}
 
+	@Test
+	public void testTransactionWithStatementCache() throws Exception {
+		PreparedStatement ps1 = mock(PreparedStatement.class);
+		PreparedStatement ps2 = mock(PreparedStatement.class);
+		given(con.prepareStatement("some SQL statement")).willReturn(ps1, ps2);
+		tm.setStatementCacheSize(10);
+
+		TransactionTemplate tt = new TransactionTemplate(tm);
+		tt.execute(new TransactionCallbackWithoutResult() {
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				try {
+					Connection tCon = DataSourceUtils.getConnection(ds);
+					assertThat(DataSourceUtils.getTargetConnection(tCon)).isSameAs(con);
+					PreparedStatement ps = tCon.prepareStatement("some SQL statement");
+					ps.setInt(1, 1);
+					ps.executeUpdate();
+					ps.close();
+					assertThat(ps.isClosed()).isTrue();
+					DataSourceUtils.releaseConnection(tCon, ds);
+
+					tCon = DataSourceUtils.getConnection(ds);
+					PreparedStatement psAgain = tCon.prepareStatement("some SQL statement");
+					assertThat(psAgain).isSameAs(ps);
+					PreparedStatement psNested = tCon.prepareStatement("some SQL statement");
+					assertThat(psNested).isSameAs(ps2);
+					psNested.close();
+					psAgain.executeUpdate();
+					psAgain.close();
+					DataSourceUtils.releaseConnection(tCon, ds);
+				}
+				catch (SQLException ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+		});
+
+		boolean condition = !TransactionSynchronizationManager.hasResource(ds);
+		assertThat(condition).as("Hasn't thread connection").isTrue();
+		verify(con, times(2)).prepareStatement("some SQL statement");
+		verify(ps1, times(2)).executeUpdate();
+		verify(ps1, times(2)).clearParameters();
+		verify(ps1).close();
+		verify(ps2).close();
+		InOrder ordered = inOrder(ps1, con);
+		ordered.verify(con).commit();
+		ordered.verify(ps1).close();
+		ordered.verify(con).close();
+	}
+
 
 	private static class TestTransactionSynchronization implements TransactionSynchronization {
 
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author agent
+ */
+public class SingleConnectionDataSourceTests {
+
+	private static final String SQL = "some SQL statement";
+
+	private final Connection con = mock(Connection.class);
+
+	private final PreparedStatement ps1 = mock(PreparedStatement.class);
+
+	private final PreparedStatement ps2 = mock(PreparedStatement.class);
+
+
+	@BeforeEach
+	public void setup() throws Exception {
+		given(this.con.prepareStatement(SQL)).willReturn(this.ps1, this.ps2);
+	}
+
+
+	@Test
+	public void testStatementCache() throws Exception {
+		SingleConnectionDataSource ds = new SingleConnectionDataSource(this.con, true);
+		ds.setStatementCacheSize(10);
+
+		Connection tCon = ds.getConnection();
+		assertThat(DataSourceUtils.getTargetConnection(tCon)).isSameAs(this.con);
+		PreparedStatement ps = tCon.prepareStatement(SQL);
+		ps.setInt(1, 1);
+		ps.executeUpdate();
+		ps.close();
+		assertThat(ps.isClosed()).isTrue();
+		tCon.close();
+
+		tCon = ds.getConnection();
+		PreparedStatement psAgain = tCon.prepareStatement(SQL);
+		assertThat(psAgain).isSameAs(ps);
+		psAgain.executeUpdate();
+		psAgain.close();
+		tCon.close();
+
+		verify(this.con, times(1)).prepareStatement(SQL);
+		verify(this.ps1, times(2)).executeUpdate();
+		verify(this.ps1, never()).close();
+		verify(this.con, never()).close();
+
+		ds.destroy();
+		InOrder ordered = inOrder(this.ps1, this.con);
+		ordered.verify(this.ps1).close();
+		ordered.verify(this.con).close();
+	}
+
+	@Test
+	public void testStatementSettingsResetBeforeReuse() throws Exception {
+		given(this.ps1.getFetchSize()).willReturn(0);
+		given(this.ps1.getFetchDirection()).willReturn(ResultSet.FETCH_FORWARD);
+		given(this.ps1.getMaxFieldSize()).willReturn(0);
+		given(this.ps1.getLargeMaxRows()).willReturn(0L);
+		given(this.ps1.isPoolable()).willReturn(true);
+		SingleConnectionDataSource ds = new SingleConnectionDataSource(this.con, true);
+		ds.setStatementCacheSize(10);
+
+		PreparedStatement ps = ds.getConnection().prepareStatement(SQL);
+		ps.setFetchSize(100);
+		ps.setFetchSize(200);
+		ps.setFetchDirection(ResultSet.FETCH_REVERSE);
+		ps.setMaxFieldSize(10);
+		ps.setLargeMaxRows(1000L);
+		ps.setPoolable(false);
+		ps.close();
+
+		verify(this.ps1).setFetchSize(0);
+		verify(this.ps1).setFetchDirection(ResultSet.FETCH_FORWARD);
+		verify(this.ps1).setMaxFieldSize(0);
+		verify(this.ps1).setLargeMaxRows(0L);
+		verify(this.ps1).setPoolable(true);
+		verify(this.ps1, never()).close();
+		assertThat(ds.getConnection().prepareStatement(SQL)).isSameAs(ps);
+	}
+
+	@Test
+	public void testStatementWithNonRestorableSettingNotReused() throws Exception {
+		SingleConnectionDataSource ds = new SingleConnectionDataSource(this.con, true);
+		ds.setStatementCacheSize(10);
+
+		PreparedStatement ps = ds.getConnection().prepareStatement(SQL);
+		ps.setCursorName("cursor");
+		ps.close();
+		verify(this.ps1).close();
+
+		PreparedStatement psAgain = ds.getConnection().prepareStatement(SQL);
+		assertThat(psAgain).isNotSameAs(ps);
+		psAgain.executeUpdate();
+		verify(this.ps2).executeUpdate();
+		verify(this.con, times(2)).prepareStatement(SQL);
+	}
+
+	@Test
+	public void testStatementCacheSizeChange() throws Exception {
+		SingleConnectionDataSource ds = new SingleConnectionDataSource(this.con, true);
+		ds.setStatementCacheSize(10);
+		ds.getConnection().prepareStatement(SQL).close();
+		verify(this.ps1, never()).close();
+
+		ds.setStatementCacheSize(0);
+		verify(this.ps1).close();
+		assertThat(ds.getStatementCacheSize()).isEqualTo(0);
+		assertThat(ds.getConnection().prepareStatement(SQL)).isSameAs(this.ps2);
+		verify(this.con, never()).close();
+	}
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+
+/**
+ * @author agent
+ */
+public class ReadWriteRoutingDataSourceTests {
+
+	private EmbeddedDatabase primary;
+
+	private EmbeddedDatabase replica1;
+
+	private EmbeddedDatabase replica2;
+
+	private ReadWriteRoutingDataSource router;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate transactionTemplate;
+
+
+	@BeforeEach
+	public void setup() {
+		this.primary = createDatabase("primary");
+		this.replica1 = createDatabase("replica1");
+		this.replica2 = createDatabase("replica2");
+		this.router = new ReadWriteRoutingDataSource();
+		this.router.setPrimaryDataSource(this.primary);
+		this.router.setReplicaDataSources(Arrays.asList(this.replica1, this.replica2));
+		this.router.setHealthCheckInterval(Duration.ofHours(1));
+		this.router.afterPropertiesSet();
+
+		DataSource dataSource = new LazyConnectionDataSourceProxy(this.router);
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	}
+
+	@AfterEach
+	public void shutdown() {
+		this.primary.shutdown();
+		this.replica1.shutdown();
+		this.replica2.shutdown();
+	}
+
+	private EmbeddedDatabase createDatabase(String name) {
+		EmbeddedDatabase database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(H2).build();
+		JdbcTemplate template = new JdbcTemplate(database);
+		template.execute("CREATE TABLE NODE (NAME VARCHAR(20))");
+		template.update("INSERT INTO NODE VALUES (?)", name);
+		return database;
+	}
+
+	private String currentNode(boolean readOnly) {
+		this.transactionTemplate.setReadOnly(readOnly);
+		return this.transactionTemplate.execute(status ->
+				this.jdbcTemplate.queryForObject("SELECT NAME FROM NODE", String.class));
+	}
+
+
+	@Test
+	public void readWriteTransactionRoutedToPrimary() {
+		assertThat(currentNode(false)).isEqualTo("primary");
+		assertThat(this.router.getReplicaConnectionCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void readOnlyTransactionRoutedToReplicas() {
+		for (int i = 0; i < 20; i++) {
+			assertThat(currentNode(true)).isIn("replica1", "replica2");
+		}
+		assertThat(this.router.getReplicaConnectionCount()).isEqualTo(20);
+		assertThat(this.router.getFallbackCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void nonTransactionalAccessRoutedToPrimary() {
+		assertThat(this.jdbcTemplate.queryForObject("SELECT NAME FROM NODE", String.class)).isEqualTo("primary");
+	}
+
+	@Test
+	public void weightedReplicaSelection() {
+		this.router.setReplicaDataSources(Collections.emptyList());
+		this.router.addReplicaDataSource(this.replica1, 3);
+		this.router.addReplicaDataSource(this.replica2, 1);
+		for (int i = 0; i < 200; i++) {
+			currentNode(true);
+		}
+		assertThat(this.router.getReplicaStatus()).hasSize(2);
+		long count1 = this.router.getReplicaStatus().get(0).getConnectionCount();
+		long count2 = this.router.getReplicaStatus().get(1).getConnectionCount();
+		assertThat(count1 + count2).isEqualTo(200);
+		assertThat(count1).isGreaterThan(count2);
+	}
+
+	@Test
+	public void unhealthyReplicaSkipped() {
+		this.router.setReplicaHealthCheck(replica -> {
+			if (replica == this.replica1) {
+				throw new SQLException("Replica down");
+			}
+			return Duration.ZERO;
+		});
+		for (int i = 0; i < 10; i++) {
+			assertThat(currentNode(true)).isEqualTo("replica2");
+		}
+		ReadWriteRoutingDataSource.ReplicaStatus status = this.router.getReplicaStatus().get(0);
+		assertThat(status.isAvailable()).isFalse();
+		assertThat(status.getFailureCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void laggingReplicaSkipped() {
+		this.router.setMaxReplicationLag(Duration.ofSeconds(10));
+		this.router.setReplicaHealthCheck(replica ->
+				(replica == this.replica2 ? Duration.ofMinutes(1) : Duration.ofSeconds(1)));
+		for (int i = 0; i < 10; i++) {
+			assertThat(currentNode(true)).isEqualTo("replica1");
+		}
+		ReadWriteRoutingDataSource.ReplicaStatus status = this.router.getReplicaStatus().get(1);
+		assertThat(status.isAvailable()).isFalse();
+		assertThat(status.getReplicationLag()).isEqualTo(Duration.ofMinutes(1));
+	}
+
+	@Test
+	public void fallbackToPrimaryWithoutAvailableReplica() {
+		this.router.setReplicaHealthCheck(replica -> {
+			throw new SQLException("Replica down");
+		});
+		assertThat(currentNode(true)).isEqualTo("primary");
+		assertThat(this.router.getFallbackCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void replicaRecheckedAfterInterval() {
+		boolean[] down = new boolean[] {true};
+		this.router.setHealthCheckInterval(Duration.ZERO);
+		this.router.setReplicaHealthCheck(replica -> {
+			if (down[0]) {
+				throw new SQLException("Replica down");
+			}
+			return Duration.ZERO;
+		});
+		assertThat(currentNode(true)).isEqualTo("primary");
+		down[0] = false;
+		assertThat(currentNode(true)).isIn("replica1", "replica2");
+	}
+
+	@Test
+	public void primaryDataSourceRequired() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new ReadWriteRoutingDataSource().afterPropertiesSet());
+	}
+
+}
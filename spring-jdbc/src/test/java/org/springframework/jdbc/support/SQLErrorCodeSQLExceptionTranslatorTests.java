@@ -118,6 +118,24 @@ public class SQLErrorCodeSQLExceptionTranslatorTests {
 		assertThat(daex.getCause()).isEqualTo(dataTruncation);
 	}
 
+	@Test
+	public void errorCodeTranslationAfterErrorCodesChange() {
+		SQLErrorCodes errorCodes = new SQLErrorCodes();
+		errorCodes.setDuplicateKeyCodes("30", "10", "20");
+		errorCodes.setDeadlockLoserCodes("20", "40");
+		SQLExceptionTranslator sext = new SQLErrorCodeSQLExceptionTranslator(errorCodes);
+
+		checkTranslation(sext, 10, DuplicateKeyException.class);
+		checkTranslation(sext, 20, DuplicateKeyException.class);
+		checkTranslation(sext, 30, DuplicateKeyException.class);
+		checkTranslation(sext, 40, DeadlockLoserDataAccessException.class);
+
+		errorCodes.setDuplicateKeyCodes("10");
+		checkTranslation(sext, 20, DeadlockLoserDataAccessException.class);
+		assertThat(sext.translate("", "", new SQLException("", "", 30)))
+				.isNotInstanceOf(DuplicateKeyException.class);
+	}
+
 	@SuppressWarnings("serial")
 	@Test
 	public void customTranslateMethodTranslation() {
@@ -0,0 +1,468 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jms.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.jms.CompletionListener;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.jms.support.destination.DestinationResolver;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+/**
+ * Asynchronous sender of JMS messages, queueing messages for delivery on a
+ * background {@link Executor} and returning a {@link ListenableFuture} for
+ * each message, completed once the message has been accepted by the broker.
+ * A {@code CompletableFuture} is available through
+ * {@link ListenableFuture#completable()}.
+ *
+ * <p>Queued messages are sent in batches, using a single Session per batch
+ * as obtained through the given {@link JmsTemplate}. The template's settings
+ * for connection handling, destination resolution, message conversion,
+ * message ids/timestamps and QoS apply accordingly. Messages are delivered
+ * in submission order.
+ *
+ * <p>With a {@link JmsTemplate#setSessionTransacted transacted} template,
+ * each batch is sent within a local transaction and committed at once,
+ * with all futures of the batch completing or failing together. Otherwise,
+ * messages are sent through JMS 2.0 asynchronous send with a
+ * {@link CompletionListener} where supported by the provider, falling back
+ * to a regular synchronous send against JMS 1.1 providers.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see JmsTemplate
+ * @see javax.jms.MessageProducer#send(Message, CompletionListener)
+ */
+public class AsyncJmsSender implements DisposableBean {
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private final JmsTemplate jmsTemplate;
+
+	private Executor executor = new SimpleAsyncTaskExecutor(ClassUtils.getShortName(getClass()) + "-");
+
+	private int batchSize = 100;
+
+	private volatile boolean asyncSendSupported = true;
+
+	private final Queue<PendingMessage> pendingMessages = new ConcurrentLinkedQueue<>();
+
+	private final AtomicBoolean sendScheduled = new AtomicBoolean();
+
+	private final Lock sendLock = new ReentrantLock();
+
+	private volatile boolean active = true;
+
+
+	/**
+	 * Create a new AsyncJmsSender for the given JmsTemplate.
+	 * @param jmsTemplate the JmsTemplate to obtain Sessions from and
+	 * to take sender settings from
+	 */
+	public AsyncJmsSender(JmsTemplate jmsTemplate) {
+		Assert.notNull(jmsTemplate, "JmsTemplate must not be null");
+		this.jmsTemplate = jmsTemplate;
+	}
+
+
+	/**
+	 * Return the JmsTemplate that this sender operates with.
+	 */
+	public final JmsTemplate getJmsTemplate() {
+		return this.jmsTemplate;
+	}
+
+	/**
+	 * Set the Executor to send messages on.
+	 * <p>Default is a {@link SimpleAsyncTaskExecutor}: Sending happens on a
+	 * single thread at any given time, which keeps sending while messages
+	 * are queued and terminates once the queue has been drained.
+	 */
+	public void setExecutor(Executor executor) {
+		Assert.notNull(executor, "Executor must not be null");
+		this.executor = executor;
+	}
+
+	/**
+	 * Set the maximum number of messages to send within a single Session
+	 * (and a single transaction in case of a transacted template).
+	 * <p>Default is 100.
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the maximum number of messages to send within a single Session.
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Return the number of messages currently queued for sending.
+	 */
+	public int getPendingMessageCount() {
+		return this.pendingMessages.size();
+	}
+
+
+	/**
+	 * Send a message to the template's default destination.
+	 * @param messageCreator callback to create a message
+	 * @return a future for the completion of the send operation
+	 * @see JmsTemplate#getDefaultDestination()
+	 * @see JmsTemplate#getDefaultDestinationName()
+	 */
+	public ListenableFuture<Void> send(MessageCreator messageCreator) {
+		Destination defaultDestination = this.jmsTemplate.getDefaultDestination();
+		if (defaultDestination != null) {
+			return send(defaultDestination, messageCreator);
+		}
+		String defaultDestinationName = this.jmsTemplate.getDefaultDestinationName();
+		Assert.state(defaultDestinationName != null, "No 'defaultDestination' or 'defaultDestinationName' " +
+				"specified on JmsTemplate. Check configuration of JmsTemplate.");
+		return send(defaultDestinationName, messageCreator);
+	}
+
+	/**
+	 * Send a message to the specified destination.
+	 * @param destination the destination to send this message to
+	 * @param messageCreator callback to create a message
+	 * @return a future for the completion of the send operation
+	 */
+	public ListenableFuture<Void> send(Destination destination, MessageCreator messageCreator) {
+		Assert.notNull(destination, "Destination must not be null");
+		return enqueue(new PendingMessage(destination, null, messageCreator));
+	}
+
+	/**
+	 * Send a message to the specified destination.
+	 * @param destinationName the name of the destination to send this message to
+	 * (to be resolved to an actual destination by the template's DestinationResolver)
+	 * @param messageCreator callback to create a message
+	 * @return a future for the completion of the send operation
+	 */
+	public ListenableFuture<Void> send(String destinationName, MessageCreator messageCreator) {
+		Assert.notNull(destinationName, "Destination name must not be null");
+		return enqueue(new PendingMessage(null, destinationName, messageCreator));
+	}
+
+	/**
+	 * Send the given object to the template's default destination, converting
+	 * the object to a JMS message with the template's MessageConverter.
+	 * @param message the object to convert to a message
+	 * @return a future for the completion of the send operation
+	 */
+	public ListenableFuture<Void> convertAndSend(Object message) {
+		return send(createMessageCreator(message));
+	}
+
+	/**
+	 * Send the given object to the specified destination, converting
+	 * the object to a JMS message with the template's MessageConverter.
+	 * @param destination the destination to send this message to
+	 * @param message the object to convert to a message
+	 * @return a future for the completion of the send operation
+	 */
+	public ListenableFuture<Void> convertAndSend(Destination destination, Object message) {
+		return send(destination, createMessageCreator(message));
+	}
+
+	/**
+	 * Send the given object to the specified destination, converting
+	 * the object to a JMS message with the template's MessageConverter.
+	 * @param destinationName the name of the destination to send this message to
+	 * (to be resolved to an actual destination by the template's DestinationResolver)
+	 * @param message the object to convert to a message
+	 * @return a future for the completion of the send operation
+	 */
+	public ListenableFuture<Void> convertAndSend(String destinationName, Object message) {
+		return send(destinationName, createMessageCreator(message));
+	}
+
+	private MessageCreator createMessageCreator(Object message) {
+		MessageConverter converter = this.jmsTemplate.getMessageConverter();
+		Assert.state(converter != null, "No 'messageConverter' specified on JmsTemplate. " +
+				"Check configuration of JmsTemplate.");
+		return session -> converter.toMessage(message, session);
+	}
+
+	/**
+	 * Stop accepting messages and send all messages queued so far,
+	 * blocking until they have been handed off to the broker.
+	 */
+	@Override
+	public void destroy() {
+		this.active = false;
+		sendPendingMessages();
+	}
+
+
+	private ListenableFuture<Void> enqueue(PendingMessage pendingMessage) {
+		if (!this.active) {
+			pendingMessage.future.setException(
+					new IllegalStateException("AsyncJmsSender has been shut down already"));
+			return pendingMessage.future;
+		}
+		this.pendingMessages.add(pendingMessage);
+		if (this.sendScheduled.compareAndSet(false, true)) {
+			try {
+				this.executor.execute(this::sendPendingMessages);
+			}
+			catch (RuntimeException ex) {
+				// Typically a TaskRejectedException: send on the calling thread instead
+				if (logger.isDebugEnabled()) {
+					logger.debug("Executor rejected send task - sending JMS messages on calling thread", ex);
+				}
+				sendPendingMessages();
+			}
+		}
+		return pendingMessage.future;
+	}
+
+	/**
+	 * Send queued messages in batches until the queue has been drained.
+	 */
+	private void sendPendingMessages() {
+		this.sendLock.lock();
+		try {
+			while (true) {
+				List<PendingMessage> batch = new ArrayList<>(Math.min(this.batchSize, 16));
+				PendingMessage pendingMessage;
+				while (batch.size() < this.batchSize && (pendingMessage = this.pendingMessages.poll()) != null) {
+					batch.add(pendingMessage);
+				}
+				if (batch.isEmpty()) {
+					this.sendScheduled.set(false);
+					// Re-check: a message might have been queued before the flag got reset
+					if (this.pendingMessages.isEmpty() || !this.sendScheduled.compareAndSet(false, true)) {
+						return;
+					}
+				}
+				else {
+					sendBatch(batch);
+				}
+			}
+		}
+		finally {
+			this.sendLock.unlock();
+		}
+	}
+
+	private void sendBatch(List<PendingMessage> batch) {
+		try {
+			this.jmsTemplate.execute(session -> {
+				doSendBatch(session, batch);
+				return null;
+			}, false);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to send batch of " + batch.size() + " JMS messages", ex);
+			}
+			for (PendingMessage pendingMessage : batch) {
+				pendingMessage.future.setException(ex);
+			}
+		}
+	}
+
+	/**
+	 * Send the given batch of messages within the given Session.
+	 * @param session the JMS Session to send with
+	 * @param batch the messages to send
+	 * @throws JMSException if sending failed for the entire batch
+	 */
+	private void doSendBatch(Session session, List<PendingMessage> batch) throws JMSException {
+		boolean transacted = (session.getTransacted() && this.jmsTemplate.isSessionLocallyTransacted(session));
+		Map<Destination, MessageProducer> producers = new HashMap<>();
+		try {
+			List<PendingMessage> sentMessages = new ArrayList<>(batch.size());
+			for (PendingMessage pendingMessage : batch) {
+				Message message;
+				MessageProducer producer;
+				try {
+					Destination destination = pendingMessage.resolveDestination(session);
+					producer = producers.get(destination);
+					if (producer == null) {
+						producer = this.jmsTemplate.createProducer(session, destination);
+						producers.put(destination, producer);
+					}
+					message = pendingMessage.messageCreator.createMessage(session);
+				}
+				catch (JMSException ex) {
+					pendingMessage.future.setException(JmsUtils.convertJmsAccessException(ex));
+					continue;
+				}
+				catch (RuntimeException ex) {
+					pendingMessage.future.setException(ex);
+					continue;
+				}
+				if (transacted) {
+					doSend(producer, message);
+					sentMessages.add(pendingMessage);
+				}
+				else {
+					try {
+						doSendAsync(producer, message, pendingMessage.future);
+					}
+					catch (JMSException ex) {
+						pendingMessage.future.setException(JmsUtils.convertJmsAccessException(ex));
+					}
+					catch (RuntimeException ex) {
+						pendingMessage.future.setException(ex);
+					}
+				}
+			}
+			if (transacted) {
+				JmsUtils.commitIfNecessary(session);
+				for (PendingMessage pendingMessage : sentMessages) {
+					pendingMessage.future.set(null);
+				}
+			}
+		}
+		finally {
+			// Blocks until incomplete asynchronous sends have been completed (as of JMS 2.0)
+			producers.values().forEach(JmsUtils::closeMessageProducer);
+		}
+	}
+
+	private void doSendAsync(MessageProducer producer, Message message, SettableListenableFuture<Void> future)
+			throws JMSException {
+
+		if (this.asyncSendSupported) {
+			try {
+				doSend(producer, message, new CompletionListener() {
+					@Override
+					public void onCompletion(Message message) {
+						future.set(null);
+					}
+					@Override
+					public void onException(Message message, Exception ex) {
+						future.setException(ex instanceof JMSException ?
+								JmsUtils.convertJmsAccessException((JMSException) ex) : ex);
+					}
+				});
+				return;
+			}
+			catch (AbstractMethodError | UnsupportedOperationException ex) {
+				// JMS 1.1 provider or no asynchronous send support -> fall back to synchronous send
+				this.asyncSendSupported = false;
+			}
+		}
+		doSend(producer, message);
+		future.set(null);
+	}
+
+	/**
+	 * Actually send the given JMS message, applying the template's QoS settings.
+	 * @param producer the JMS MessageProducer to send with
+	 * @param message the JMS Message to send
+	 * @throws JMSException if thrown by JMS API methods
+	 * @see JmsTemplate#doSend(MessageProducer, Message)
+	 */
+	protected void doSend(MessageProducer producer, Message message) throws JMSException {
+		this.jmsTemplate.doSend(producer, message);
+	}
+
+	/**
+	 * Actually send the given JMS message asynchronously, applying the
+	 * template's QoS settings (JMS 2.0).
+	 * @param producer the JMS MessageProducer to send with
+	 * @param message the JMS Message to send
+	 * @param completionListener the listener to notify once the send completed
+	 * @throws JMSException if thrown by JMS API methods
+	 */
+	protected void doSend(MessageProducer producer, Message message, CompletionListener completionListener)
+			throws JMSException {
+
+		JmsTemplate template = this.jmsTemplate;
+		if (template.getDeliveryDelay() >= 0) {
+			producer.setDeliveryDelay(template.getDeliveryDelay());
+		}
+		if (template.isExplicitQosEnabled()) {
+			producer.send(message, template.getDeliveryMode(), template.getPriority(), template.getTimeToLive(),
+					completionListener);
+		}
+		else {
+			producer.send(message, completionListener);
+		}
+	}
+
+
+	/**
+	 * A message queued for sending, along with its future.
+	 */
+	private final class PendingMessage {
+
+		@Nullable
+		private final Destination destination;
+
+		@Nullable
+		private final String destinationName;
+
+		private final MessageCreator messageCreator;
+
+		private final SettableListenableFuture<Void> future = new SettableListenableFuture<>();
+
+		PendingMessage(@Nullable Destination destination, @Nullable String destinationName,
+				MessageCreator messageCreator) {
+
+			Assert.notNull(messageCreator, "MessageCreator must not be null");
+			this.destination = destination;
+			this.destinationName = destinationName;
+			this.messageCreator = messageCreator;
+		}
+
+		Destination resolveDestination(Session session) throws JMSException {
+			if (this.destination != null) {
+				return this.destination;
+			}
+			Assert.state(this.destinationName != null, "No destination specified");
+			DestinationResolver resolver = jmsTemplate.getDestinationResolver();
+			return resolver.resolveDestinationName(session, this.destinationName, jmsTemplate.isPubSubDomain());
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jms.listener;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link ConsumerScalingPolicy} which derives the number of consumers from
+ * the observed receive rate and processing time: the average number of busy
+ * consumers (receive rate multiplied by processing time), divided by a target
+ * utilization. For example, 200 messages per second with a processing time of
+ * 20 ms keep 4 consumers busy on average, leading to 5 consumers for the
+ * default target utilization of 0.8.
+ *
+ * <p>Since the receive rate cannot exceed the capacity of the currently
+ * scheduled consumers, a backlog on the destination is detected through the
+ * fraction of time that consumers spent processing rather than waiting for
+ * messages: If this utilization reaches the
+ * {@link #setBacklogThreshold "backlogThreshold"}, the number of consumers
+ * is multiplied by the {@link #setGrowthFactor "growthFactor"} per interval,
+ * quickly ramping up to the "maxConcurrentConsumers" limit under a load spike.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see DefaultMessageListenerContainer#setScalingPolicy
+ */
+public class AdaptiveConsumerScalingPolicy implements ConsumerScalingPolicy {
+
+	private double targetUtilization = 0.8;
+
+	private double backlogThreshold = 0.9;
+
+	private double growthFactor = 2.0;
+
+
+	/**
+	 * Set the target fraction of time that consumers should be busy with
+	 * message processing, between 0 (exclusive) and 1 (inclusive).
+	 * <p>Default is 0.8, leaving some headroom for fluctuations in load.
+	 */
+	public void setTargetUtilization(double targetUtilization) {
+		Assert.isTrue(targetUtilization > 0 && targetUtilization <= 1,
+				"'targetUtilization' must be between 0 (exclusive) and 1 (inclusive)");
+		this.targetUtilization = targetUtilization;
+	}
+
+	/**
+	 * Return the target fraction of time that consumers should be busy.
+	 */
+	public double getTargetUtilization() {
+		return this.targetUtilization;
+	}
+
+	/**
+	 * Set the consumer utilization from which on a backlog of messages
+	 * is assumed, between 0 (exclusive) and 1 (inclusive).
+	 * <p>Default is 0.9.
+	 * @see ListenerContainerMetrics#getConsumerUtilization()
+	 */
+	public void setBacklogThreshold(double backlogThreshold) {
+		Assert.isTrue(backlogThreshold > 0 && backlogThreshold <= 1,
+				"'backlogThreshold' must be between 0 (exclusive) and 1 (inclusive)");
+		this.backlogThreshold = backlogThreshold;
+	}
+
+	/**
+	 * Return the consumer utilization from which on a backlog is assumed.
+	 */
+	public double getBacklogThreshold() {
+		return this.backlogThreshold;
+	}
+
+	/**
+	 * Set the factor to multiply the number of consumers with per sampling
+	 * interval while a backlog is detected. Adds at least one consumer per
+	 * interval in any case.
+	 * <p>Default is 2.0, doubling the number of consumers per interval.
+	 */
+	public void setGrowthFactor(double growthFactor) {
+		Assert.isTrue(growthFactor > 1, "'growthFactor' must be greater than 1");
+		this.growthFactor = growthFactor;
+	}
+
+	/**
+	 * Return the factor to multiply the number of consumers with under a backlog.
+	 */
+	public double getGrowthFactor() {
+		return this.growthFactor;
+	}
+
+
+	@Override
+	public int determineConsumerCount(ListenerContainerMetrics metrics) {
+		int consumerCount = (int) Math.ceil(metrics.getBusyConsumerCount() / this.targetUtilization);
+		if (metrics.getMessageCount() > 0 && metrics.getConsumerUtilization() >= this.backlogThreshold) {
+			int current = metrics.getScheduledConsumerCount();
+			consumerCount = Math.max(consumerCount, Math.max(current + 1, (int) Math.ceil(current * this.growthFactor)));
+		}
+		return consumerCount;
+	}
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jms.listener;
+
+/**
+ * Strategy interface for determining the number of concurrent consumers
+ * of a {@link DefaultMessageListenerContainer} with dynamic scaling, based
+ * on the container's recently observed {@link ListenerContainerMetrics}.
+ *
+ * <p>The container evaluates its policy once per sampling interval and
+ * adapts the number of scheduled consumers accordingly: scheduling new
+ * consumers as soon as further messages come in, and releasing consumers
+ * once they turn out to be idle. The returned count is always constrained
+ * to the range between the container's "concurrentConsumers" and
+ * "maxConcurrentConsumers" settings.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see DefaultMessageListenerContainer#setScalingPolicy
+ * @see AdaptiveConsumerScalingPolicy
+ */
+@FunctionalInterface
+public interface ConsumerScalingPolicy {
+
+	/**
+	 * Determine the number of consumers to keep scheduled.
+	 * @param metrics the metrics observed within the last sampling interval
+	 * @return the desired number of consumers (to be constrained to the
+	 * container's "concurrentConsumers" and "maxConcurrentConsumers" range)
+	 */
+	int determineConsumerCount(ListenerContainerMetrics metrics);
+
+}
@@ -19,6 +19,8 @@ package org.springframework.jms.listener;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.jms.Connection;
 import javax.jms.JMSException;
@@ -28,6 +30,7 @@ import javax.jms.Session;
 import org.springframework.core.Constants;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.jms.JmsException;
 import org.springframework.jms.support.JmsUtils;
 import org.springframework.jms.support.destination.CachingDestinationResolver;
@@ -99,6 +102,13 @@ import org.springframework.util.backoff.FixedBackOff;
  * number of 1 consumer, otherwise you'd receive the same message multiple times on
  * the same node.
  *
+ * <p>Alternatively, a {@link #setScalingPolicy "scalingPolicy"} such as an
+ * {@link AdaptiveConsumerScalingPolicy} may determine the number of consumers
+ * within the "concurrentConsumers" and "maxConcurrentConsumers" range, based on
+ * the receive rate and processing time as observed by this listener container.
+ * See {@link #getMetrics()} for the container-level metrics that such a policy
+ * is driven by.
+ *
  * <p><b>Note: Don't use Spring's {@link org.springframework.jms.connection.CachingConnectionFactory}
  * in combination with dynamic scaling.</b> Ideally, don't use it with a message
  * listener container at all, since it is generally preferable to let the
@@ -136,6 +146,11 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 	 */
 	public static final long DEFAULT_RECOVERY_INTERVAL = 5000;
 
+	/**
+	 * The default metrics sampling interval: 1000 ms = 1 second.
+	 */
+	public static final long DEFAULT_METRICS_SAMPLING_INTERVAL = 1000;
+
 
 	/**
 	 * Constant that indicates to cache no JMS resources at all.
@@ -178,6 +193,8 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 	@Nullable
 	private Executor taskExecutor;
 
+	private boolean virtualThreads = false;
+
 	private BackOff backOff = new FixedBackOff(DEFAULT_RECOVERY_INTERVAL, Long.MAX_VALUE);
 
 	private int cacheLevel = CACHE_AUTO;
@@ -192,6 +209,13 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 
 	private int idleTaskExecutionLimit = 1;
 
+	@Nullable
+	private volatile ConsumerScalingPolicy scalingPolicy;
+
+	private volatile long metricsSamplingInterval = DEFAULT_METRICS_SAMPLING_INTERVAL;
+
+	private volatile int targetConsumerCount;
+
 	private final Set<AsyncMessageListenerInvoker> scheduledInvokers = new HashSet<>();
 
 	private int activeInvokerCount = 0;
@@ -209,6 +233,25 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 
 	private final Object recoveryMonitor = new Object();
 
+	private final LongAdder messageCount = new LongAdder();
+
+	private final LongAdder processingTime = new LongAdder();
+
+	private final LongAdder receiveTime = new LongAdder();
+
+	@Nullable
+	private volatile ListenerContainerMetrics metrics;
+
+	private volatile long lastSampleTime = System.nanoTime();
+
+	private long lastSampleMessageCount;
+
+	private long lastSampleProcessingTime;
+
+	private long lastSampleReceiveTime;
+
+	private final Object metricsMonitor = new Object();
+
 
 	/**
 	 * Set the Spring {@code TaskExecutor} to use for running the listener threads.
@@ -228,6 +271,19 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 		this.taskExecutor = taskExecutor;
 	}
 
+	/**
+	 * Specify whether the default {@code TaskExecutor} should run the listener
+	 * threads as virtual threads, if supported on the current JVM.
+	 * <p>Default is "false", using regular platform threads. Only applies if no
+	 * explicit {@link #setTaskExecutor TaskExecutor} has been specified.
+	 * @since 5.2.3
+	 * @see #createDefaultTaskExecutor()
+	 * @see org.springframework.core.task.VirtualThreadTaskExecutor
+	 */
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
 	/**
 	 * Specify the {@link BackOff} instance to use to compute the interval
 	 * between recovery attempts. If the {@link BackOffExecution} implementation
@@ -508,6 +564,55 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 		}
 	}
 
+	/**
+	 * Specify a policy for determining the number of concurrent consumers
+	 * within the "concurrentConsumers" and "maxConcurrentConsumers" range,
+	 * evaluated once per {@link #setMetricsSamplingInterval sampling interval}.
+	 * <p>Default is none, scaling according to the "idleConsumerLimit" and
+	 * "idleTaskExecutionLimit" settings. With a policy specified, new consumers
+	 * get scheduled up to the policy's consumer count once further messages come
+	 * in, and consumers get released in between messages as long as the policy's
+	 * consumer count is exceeded, also for long-lived tasks
+	 * (see {@link #setMaxMessagesPerTask}).
+	 * <p><b>This setting can be modified at runtime, for example through JMX.</b>
+	 * @since 5.2.3
+	 * @see AdaptiveConsumerScalingPolicy
+	 * @see #setMaxConcurrentConsumers
+	 */
+	public void setScalingPolicy(@Nullable ConsumerScalingPolicy scalingPolicy) {
+		this.scalingPolicy = scalingPolicy;
+		this.targetConsumerCount = 0;
+	}
+
+	/**
+	 * Return the policy for determining the number of concurrent consumers, if any.
+	 * @since 5.2.3
+	 */
+	@Nullable
+	public ConsumerScalingPolicy getScalingPolicy() {
+		return this.scalingPolicy;
+	}
+
+	/**
+	 * Specify the interval for sampling the {@link #getMetrics() metrics} of this
+	 * listener container, in milliseconds. This is also the interval in which a
+	 * specified {@link #setScalingPolicy "scalingPolicy"} gets evaluated.
+	 * <p>Default is 1000 ms.
+	 * @since 5.2.3
+	 */
+	public void setMetricsSamplingInterval(long metricsSamplingInterval) {
+		Assert.isTrue(metricsSamplingInterval > 0, "'metricsSamplingInterval' must be greater than 0");
+		this.metricsSamplingInterval = metricsSamplingInterval;
+	}
+
+	/**
+	 * Return the interval for sampling the metrics of this listener container.
+	 * @since 5.2.3
+	 */
+	public long getMetricsSamplingInterval() {
+		return this.metricsSamplingInterval;
+	}
+
 
 	//-------------------------------------------------------------------------
 	// Implementation of AbstractMessageListenerContainer's template methods
@@ -690,17 +795,93 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 		}
 	}
 
+	/**
+	 * Return the metrics of this listener container, with the receive rate and
+	 * processing time referring to the most recent sampling interval.
+	 * <p>Metrics get sampled on demand, at most once per interval: A snapshot
+	 * returned within the interval after the latest sample is the same instance.
+	 * @since 5.2.3
+	 * @see #setMetricsSamplingInterval
+	 * @see #sampleMetrics()
+	 */
+	public ListenerContainerMetrics getMetrics() {
+		ListenerContainerMetrics metrics = this.metrics;
+		if (metrics != null && !isMetricsSampleDue(System.nanoTime())) {
+			return metrics;
+		}
+		synchronized (this.metricsMonitor) {
+			metrics = this.metrics;
+			if (metrics != null && !isMetricsSampleDue(System.nanoTime())) {
+				return metrics;
+			}
+			return doSampleMetrics();
+		}
+	}
+
+	/**
+	 * Sample the metrics of this listener container right away, independent
+	 * from the sampling interval, and re-evaluate the scaling policy (if any)
+	 * against them. The sampling interval starts anew from this point on.
+	 * @return the newly sampled metrics
+	 * @since 5.2.3
+	 * @see #getMetrics()
+	 * @see #setScalingPolicy
+	 */
+	public ListenerContainerMetrics sampleMetrics() {
+		synchronized (this.metricsMonitor) {
+			return doSampleMetrics();
+		}
+	}
+
+	private boolean isMetricsSampleDue(long now) {
+		return (now - this.lastSampleTime >= TimeUnit.MILLISECONDS.toNanos(this.metricsSamplingInterval));
+	}
+
+	private ListenerContainerMetrics doSampleMetrics() {
+		long now = System.nanoTime();
+		long messageCount = this.messageCount.sum();
+		long processingTime = this.processingTime.sum();
+		long receiveTime = this.receiveTime.sum();
+		ListenerContainerMetrics metrics;
+		synchronized (this.lifecycleMonitor) {
+			metrics = new ListenerContainerMetrics(this.concurrentConsumers, this.maxConcurrentConsumers,
+					this.scheduledInvokers.size(), getIdleInvokerCount(), messageCount,
+					TimeUnit.NANOSECONDS.toMillis(now - this.lastSampleTime),
+					messageCount - this.lastSampleMessageCount,
+					processingTime - this.lastSampleProcessingTime,
+					receiveTime - this.lastSampleReceiveTime);
+		}
+		this.lastSampleMessageCount = messageCount;
+		this.lastSampleProcessingTime = processingTime;
+		this.lastSampleReceiveTime = receiveTime;
+		this.lastSampleTime = now;
+		this.metrics = metrics;
+
+		ConsumerScalingPolicy scalingPolicy = this.scalingPolicy;
+		if (scalingPolicy != null) {
+			int targetConsumerCount = scalingPolicy.determineConsumerCount(metrics);
+			if (targetConsumerCount != this.targetConsumerCount && logger.isDebugEnabled()) {
+				logger.debug("Scaling policy determined consumer count " + targetConsumerCount + " for " + metrics);
+			}
+			this.targetConsumerCount = targetConsumerCount;
+		}
+		return metrics;
+	}
+
 
 	/**
 	 * Create a default TaskExecutor. Called if no explicit TaskExecutor has been specified.
 	 * <p>The default implementation builds a {@link org.springframework.core.task.SimpleAsyncTaskExecutor}
-	 * with the specified bean name (or the class name, if no bean name specified) as thread name prefix.
+	 * with the specified bean name (or the class name, if no bean name specified) as thread name prefix,
+	 * or a {@link org.springframework.core.task.VirtualThreadTaskExecutor} if the
+	 * {@link #setVirtualThreads "virtualThreads"} flag has been set.
 	 * @see org.springframework.core.task.SimpleAsyncTaskExecutor#SimpleAsyncTaskExecutor(String)
 	 */
 	protected TaskExecutor createDefaultTaskExecutor() {
 		String beanName = getBeanName();
 		String threadNamePrefix = (beanName != null ? beanName + "-" : DEFAULT_THREAD_NAME_PREFIX);
-		return new SimpleAsyncTaskExecutor(threadNamePrefix);
+		return (this.virtualThreads ? new VirtualThreadTaskExecutor(threadNamePrefix) :
+				new SimpleAsyncTaskExecutor(threadNamePrefix));
 	}
 
 	/**
@@ -742,6 +923,10 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 	@Override
 	protected void messageReceived(Object invoker, Session session) {
 		((AsyncMessageListenerInvoker) invoker).setIdle(false);
+		this.messageCount.increment();
+		if (this.scalingPolicy != null) {
+			getMetrics();
+		}
 		scheduleNewInvokerIfAppropriate();
 	}
 
@@ -751,6 +936,9 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 	@Override
 	protected void noMessageReceived(Object invoker, Session session) {
 		((AsyncMessageListenerInvoker) invoker).setIdle(true);
+		if (this.scalingPolicy != null) {
+			getMetrics();
+		}
 	}
 
 	/**
@@ -758,6 +946,8 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 	 * invokers for this listener container, but only if the specified
 	 * "maxConcurrentConsumers" limit has not been reached yet, and only
 	 * if the specified "idleConsumerLimit" has not been reached either.
+	 * With a {@link #setScalingPolicy "scalingPolicy"} specified, as many
+	 * invokers get scheduled as needed to reach the policy's consumer count.
 	 * <p>Called once a message has been received, in order to scale up while
 	 * processing the message in the invoker that originally received it.
 	 * @see #setTaskExecutor
@@ -768,7 +958,16 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 		if (isRunning()) {
 			resumePausedTasks();
 			synchronized (this.lifecycleMonitor) {
-				if (this.scheduledInvokers.size() < this.maxConcurrentConsumers &&
+				if (this.scalingPolicy != null) {
+					int newInvokerCount = getTargetConsumerCount() - this.scheduledInvokers.size();
+					for (int i = 0; i < newInvokerCount; i++) {
+						scheduleNewInvoker();
+					}
+					if (newInvokerCount > 0 && logger.isDebugEnabled()) {
+						logger.debug("Raised scheduled invoker count: " + this.scheduledInvokers.size());
+					}
+				}
+				else if (this.scheduledInvokers.size() < this.maxConcurrentConsumers &&
 						getIdleInvokerCount() < this.idleConsumerLimit) {
 					scheduleNewInvoker();
 					if (logger.isDebugEnabled()) {
@@ -786,12 +985,23 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 	 * that this invoker task has already accumulated (in a row)
 	 */
 	private boolean shouldRescheduleInvoker(int idleTaskExecutionCount) {
+		if (this.scalingPolicy != null) {
+			return (this.scheduledInvokers.size() <= getTargetConsumerCount());
+		}
 		boolean superfluous =
 				(idleTaskExecutionCount >= this.idleTaskExecutionLimit && getIdleInvokerCount() > 1);
 		return (this.scheduledInvokers.size() <=
 				(superfluous ? this.concurrentConsumers : this.maxConcurrentConsumers));
 	}
 
+	/**
+	 * Determine the number of consumers to keep scheduled according to the
+	 * scaling policy, constrained to the configured consumer range.
+	 */
+	private int getTargetConsumerCount() {
+		return Math.min(Math.max(this.targetConsumerCount, this.concurrentConsumers), this.maxConcurrentConsumers);
+	}
+
 	/**
 	 * Determine whether this listener container currently has more
 	 * than one idle instance among its scheduled invokers.
@@ -1061,6 +1271,10 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 
 		private volatile boolean idle = true;
 
+		private long receiveStartTime;
+
+		private long messageStartTime;
+
 		@Nullable
 		private volatile Thread currentReceiveThread;
 
@@ -1171,7 +1385,8 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 					if (wasWaiting) {
 						activeInvokerCount++;
 					}
-					if (scheduledInvokers.size() > maxConcurrentConsumers) {
+					if (scheduledInvokers.size() >
+							(scalingPolicy != null ? getTargetConsumerCount() : maxConcurrentConsumers)) {
 						active = false;
 					}
 				}
@@ -1186,7 +1401,16 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 			this.currentReceiveThread = Thread.currentThread();
 			try {
 				initResourcesIfNecessary();
+				this.receiveStartTime = System.nanoTime();
 				boolean messageReceived = receiveAndExecute(this, this.session, this.consumer);
+				long endTime = System.nanoTime();
+				if (messageReceived) {
+					receiveTime.add(this.messageStartTime - this.receiveStartTime);
+					processingTime.add(endTime - this.messageStartTime);
+				}
+				else {
+					receiveTime.add(endTime - this.receiveStartTime);
+				}
 				this.lastMessageSucceeded = true;
 				return messageReceived;
 			}
@@ -1272,6 +1496,9 @@ public class DefaultMessageListenerContainer extends AbstractPollingMessageListe
 
 		public void setIdle(boolean idle) {
 			this.idle = idle;
+			if (!idle) {
+				this.messageStartTime = System.nanoTime();
+			}
 		}
 
 		public boolean isIdle() {
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jms.listener;
+
+/**
+ * Snapshot of the consumer state and message throughput of a
+ * {@link DefaultMessageListenerContainer}, with rates and averages
+ * referring to the most recent sampling interval.
+ *
+ * @author agent
+ * @since 5.2.3
+ * @see DefaultMessageListenerContainer#getMetrics()
+ * @see ConsumerScalingPolicy
+ */
+public final class ListenerContainerMetrics {
+
+	private final int concurrentConsumers;
+
+	private final int maxConcurrentConsumers;
+
+	private final int scheduledConsumerCount;
+
+	private final int idleConsumerCount;
+
+	private final long totalMessageCount;
+
+	private final long samplingInterval;
+
+	private final long messageCount;
+
+	private final long processingTime;
+
+	private final long receiveTime;
+
+
+	/**
+	 * Create a new ListenerContainerMetrics snapshot.
+	 * @param concurrentConsumers the configured minimum number of consumers
+	 * @param maxConcurrentConsumers the configured maximum number of consumers
+	 * @param scheduledConsumerCount the number of currently scheduled consumers
+	 * @param idleConsumerCount the number of currently idle consumers
+	 * @param totalMessageCount the number of messages received since startup
+	 * @param samplingInterval the length of the sampling interval (in milliseconds)
+	 * @param messageCount the number of messages received within the interval
+	 * @param processingTime the accumulated processing time of the messages
+	 * received within the interval (in nanoseconds)
+	 * @param receiveTime the accumulated time that consumers spent waiting
+	 * for messages within the interval (in nanoseconds)
+	 */
+	public ListenerContainerMetrics(int concurrentConsumers, int maxConcurrentConsumers,
+			int scheduledConsumerCount, int idleConsumerCount, long totalMessageCount,
+			long samplingInterval, long messageCount, long processingTime, long receiveTime) {
+
+		this.concurrentConsumers = concurrentConsumers;
+		this.maxConcurrentConsumers = maxConcurrentConsumers;
+		this.scheduledConsumerCount = scheduledConsumerCount;
+		this.idleConsumerCount = idleConsumerCount;
+		this.totalMessageCount = totalMessageCount;
+		this.samplingInterval = samplingInterval;
+		this.messageCount = messageCount;
+		this.processingTime = processingTime;
+		this.receiveTime = receiveTime;
+	}
+
+
+	/**
+	 * Return the configured minimum number of consumers.
+	 * @see DefaultMessageListenerContainer#getConcurrentConsumers()
+	 */
+	public int getConcurrentConsumers() {
+		return this.concurrentConsumers;
+	}
+
+	/**
+	 * Return the configured maximum number of consumers.
+	 * @see DefaultMessageListenerContainer#getMaxConcurrentConsumers()
+	 */
+	public int getMaxConcurrentConsumers() {
+		return this.maxConcurrentConsumers;
+	}
+
+	/**
+	 * Return the number of consumers scheduled at the end of the interval.
+	 * @see DefaultMessageListenerContainer#getScheduledConsumerCount()
+	 */
+	public int getScheduledConsumerCount() {
+		return this.scheduledConsumerCount;
+	}
+
+	/**
+	 * Return the number of consumers which did not receive a message
+	 * in their latest receive attempt at the end of the interval.
+	 */
+	public int getIdleConsumerCount() {
+		return this.idleConsumerCount;
+	}
+
+	/**
+	 * Return the total number of messages received since startup.
+	 */
+	public long getTotalMessageCount() {
+		return this.totalMessageCount;
+	}
+
+	/**
+	 * Return the length of the sampling interval (in milliseconds).
+	 */
+	public long getSamplingInterval() {
+		return this.samplingInterval;
+	}
+
+	/**
+	 * Return the number of messages received within the interval.
+	 */
+	public long getMessageCount() {
+		return this.messageCount;
+	}
+
+	/**
+	 * Return the receive rate within the interval, in messages per second.
+	 */
+	public double getMessageRate() {
+		return (this.samplingInterval > 0 ? this.messageCount * 1000.0 / this.samplingInterval : 0);
+	}
+
+	/**
+	 * Return the average processing time of the messages received
+	 * within the interval (in milliseconds), including listener execution
+	 * and transaction completion.
+	 */
+	public double getAverageProcessingTime() {
+		return (this.messageCount > 0 ? this.processingTime / 1000000.0 / this.messageCount : 0);
+	}
+
+	/**
+	 * Return the average number of consumers busy with message processing
+	 * within the interval, i.e. the receive rate multiplied by the average
+	 * processing time.
+	 */
+	public double getBusyConsumerCount() {
+		return (this.samplingInterval > 0 ? this.processingTime / 1000000.0 / this.samplingInterval : 0);
+	}
+
+	/**
+	 * Return the fraction of time within the interval that consumers spent
+	 * processing messages rather than waiting for messages, between 0 and 1.
+	 * A value close to 1 indicates a backlog of messages on the destination,
+	 * with consumers hardly ever waiting for further messages to arrive.
+	 */
+	public double getConsumerUtilization() {
+		long totalTime = this.processingTime + this.receiveTime;
+		return (totalTime > 0 ? (double) this.processingTime / totalTime : 0);
+	}
+
+
+	@Override
+	public String toString() {
+		return "ListenerContainerMetrics: consumers=" + this.scheduledConsumerCount +
+				" (idle=" + this.idleConsumerCount + ", min=" + this.concurrentConsumers +
+				", max=" + this.maxConcurrentConsumers + "), messageRate=" +
+				String.format("%.1f", getMessageRate()) + "/s, averageProcessingTime=" +
+				String.format("%.2f", getAverageProcessingTime()) + "ms, consumerUtilization=" +
+				String.format("%.2f", getConsumerUtilization()) + ", totalMessages=" + this.totalMessageCount;
+	}
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jms.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import javax.jms.CompletionListener;
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jms.UncategorizedJmsException;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link AsyncJmsSender}.
+ *
+ * @author agent
+ */
+class AsyncJmsSenderTests {
+
+	private ConnectionFactory connectionFactory;
+
+	private Connection connection;
+
+	private Session session;
+
+	private Queue queue;
+
+	private MessageProducer producer;
+
+	private TextMessage message;
+
+	private final List<Runnable> tasks = new ArrayList<>();
+
+
+	@BeforeEach
+	void setupMocks() throws Exception {
+		this.connectionFactory = mock(ConnectionFactory.class);
+		this.connection = mock(Connection.class);
+		this.session = mock(Session.class);
+		this.queue = mock(Queue.class);
+		this.producer = mock(MessageProducer.class);
+		this.message = mock(TextMessage.class);
+
+		given(this.connectionFactory.createConnection()).willReturn(this.connection);
+		given(this.connection.createSession(false, Session.AUTO_ACKNOWLEDGE)).willReturn(this.session);
+		given(this.connection.createSession(true, Session.AUTO_ACKNOWLEDGE)).willReturn(this.session);
+		given(this.session.createProducer(this.queue)).willReturn(this.producer);
+		given(this.session.createTextMessage("text")).willReturn(this.message);
+	}
+
+	private AsyncJmsSender createSender(boolean transacted) {
+		JmsTemplate template = new JmsTemplate(this.connectionFactory);
+		template.setSessionTransacted(transacted);
+		given(this.session.getTransacted()).willReturn(transacted);
+		AsyncJmsSender sender = new AsyncJmsSender(template);
+		sender.setExecutor(this.tasks::add);
+		return sender;
+	}
+
+	private void runTasks() {
+		List<Runnable> tasksToRun = new ArrayList<>(this.tasks);
+		this.tasks.clear();
+		tasksToRun.forEach(Runnable::run);
+	}
+
+
+	@Test
+	void sendWithCompletionListener() throws Exception {
+		willAnswer(invocation -> {
+			CompletionListener listener = invocation.getArgument(1);
+			listener.onCompletion(this.message);
+			return null;
+		}).given(this.producer).send(any(TextMessage.class), any(CompletionListener.class));
+
+		AsyncJmsSender sender = createSender(false);
+		ListenableFuture<Void> future1 = sender.send(this.queue, session -> session.createTextMessage("text"));
+		ListenableFuture<Void> future2 = sender.send(this.queue, session -> session.createTextMessage("text"));
+		assertThat(sender.getPendingMessageCount()).isEqualTo(2);
+		assertThat(this.tasks).hasSize(1);
+		assertThat(future1.isDone()).isFalse();
+
+		runTasks();
+		assertThat(sender.getPendingMessageCount()).isEqualTo(0);
+		assertThat(future1.get()).isNull();
+		assertThat(future2.get()).isNull();
+		verify(this.producer, times(2)).send(any(TextMessage.class), any(CompletionListener.class));
+		verify(this.producer).close();
+		verify(this.session).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	void sendWithCompletionListenerException() throws Exception {
+		willAnswer(invocation -> {
+			CompletionListener listener = invocation.getArgument(1);
+			listener.onException(this.message, new JMSException("failed"));
+			return null;
+		}).given(this.producer).send(any(TextMessage.class), any(CompletionListener.class));
+
+		AsyncJmsSender sender = createSender(false);
+		ListenableFuture<Void> future = sender.send(this.queue, session -> session.createTextMessage("text"));
+		runTasks();
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(future::get)
+				.withCauseInstanceOf(UncategorizedJmsException.class);
+	}
+
+	@Test
+	void sendWithFallbackToSynchronousSend() throws Exception {
+		willThrow(new UnsupportedOperationException())
+				.given(this.producer).send(any(TextMessage.class), any(CompletionListener.class));
+
+		AsyncJmsSender sender = createSender(false);
+		ListenableFuture<Void> future1 = sender.send(this.queue, session -> session.createTextMessage("text"));
+		ListenableFuture<Void> future2 = sender.send(this.queue, session -> session.createTextMessage("text"));
+		runTasks();
+		assertThat(future1.get()).isNull();
+		assertThat(future2.get()).isNull();
+		verify(this.producer, times(1)).send(any(TextMessage.class), any(CompletionListener.class));
+		verify(this.producer, times(2)).send(this.message);
+	}
+
+	@Test
+	void sendTransactedBatches() throws Exception {
+		AsyncJmsSender sender = createSender(true);
+		sender.setBatchSize(2);
+		List<ListenableFuture<Void>> futures = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			futures.add(sender.send(this.queue, session -> session.createTextMessage("text")));
+		}
+		runTasks();
+		for (ListenableFuture<Void> future : futures) {
+			assertThat(future.get()).isNull();
+		}
+		verify(this.producer, times(3)).send(this.message);
+		verify(this.producer, never()).send(any(TextMessage.class), any(CompletionListener.class));
+		verify(this.session, times(2)).commit();
+	}
+
+	@Test
+	void sendTransactedBatchWithCommitFailure() throws Exception {
+		willThrow(new JMSException("commit failed")).given(this.session).commit();
+
+		AsyncJmsSender sender = createSender(true);
+		ListenableFuture<Void> future1 = sender.send(this.queue, session -> session.createTextMessage("text"));
+		ListenableFuture<Void> future2 = sender.send(this.queue, session -> session.createTextMessage("text"));
+		runTasks();
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(future1::get)
+				.withCauseInstanceOf(UncategorizedJmsException.class);
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(future2::get)
+				.withCauseInstanceOf(UncategorizedJmsException.class);
+	}
+
+	@Test
+	void messageCreatorFailureOnlyAffectsCurrentMessage() throws Exception {
+		AsyncJmsSender sender = createSender(true);
+		ListenableFuture<Void> future1 = sender.send(this.queue, session -> {
+			throw new IllegalArgumentException("invalid");
+		});
+		ListenableFuture<Void> future2 = sender.send(this.queue, session -> session.createTextMessage("text"));
+		runTasks();
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(future1::get)
+				.withCauseInstanceOf(IllegalArgumentException.class);
+		assertThat(future2.get()).isNull();
+		verify(this.producer).send(this.message);
+		verify(this.session).commit();
+	}
+
+	@Test
+	void sendAfterDestroy() throws Exception {
+		AsyncJmsSender sender = createSender(true);
+		ListenableFuture<Void> future1 = sender.send(this.queue, session -> session.createTextMessage("text"));
+		sender.destroy();
+		assertThat(future1.get()).isNull();
+
+		ListenableFuture<Void> future2 = sender.send(this.queue, session -> session.createTextMessage("text"));
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(future2::get)
+				.withCauseInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void sendOnCallingThreadIfExecutorRejects() throws Exception {
+		AsyncJmsSender sender = new AsyncJmsSender(new JmsTemplate(this.connectionFactory));
+		given(this.session.getTransacted()).willReturn(false);
+		willThrow(new UnsupportedOperationException())
+				.given(this.producer).send(any(TextMessage.class), any(CompletionListener.class));
+		sender.setExecutor(task -> {
+			throw new TaskRejectedException("rejected");
+		});
+
+		ListenableFuture<Void> future = sender.send(this.queue, session -> session.createTextMessage("text"));
+		assertThat(future.isDone()).isTrue();
+		assertThat(future.get()).isNull();
+		verify(this.producer).send(this.message);
+	}
+
+}
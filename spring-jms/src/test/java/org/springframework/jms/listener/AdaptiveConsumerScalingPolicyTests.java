@@ -0,0 +1,85 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jms.listener;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link AdaptiveConsumerScalingPolicy}.
+ *
+ * @author agent
+ */
+public class AdaptiveConsumerScalingPolicyTests {
+
+	private final AdaptiveConsumerScalingPolicy policy = new AdaptiveConsumerScalingPolicy();
+
+
+	@Test
+	public void consumerCountFromRateAndProcessingTime() {
+		// 200 messages per second at 20 ms each -> 4 busy consumers / 0.8
+		ListenerContainerMetrics metrics = metrics(10, 200, 20, 500);
+		assertThat(metrics.getMessageRate()).isEqualTo(200);
+		assertThat(metrics.getAverageProcessingTime()).isEqualTo(20);
+		assertThat(metrics.getBusyConsumerCount()).isEqualTo(4);
+		assertThat(this.policy.determineConsumerCount(metrics)).isEqualTo(5);
+
+		this.policy.setTargetUtilization(0.5);
+		assertThat(this.policy.determineConsumerCount(metrics)).isEqualTo(8);
+	}
+
+	@Test
+	public void consumerCountWithoutMessages() {
+		assertThat(this.policy.determineConsumerCount(metrics(3, 0, 0, 3000))).isEqualTo(0);
+	}
+
+	@Test
+	public void consumerCountGrowsUnderBacklog() {
+		// 2 consumers fully busy: 100 messages per second at 20 ms each
+		ListenerContainerMetrics metrics = metrics(2, 100, 20, 0);
+		assertThat(metrics.getConsumerUtilization()).isEqualTo(1);
+		assertThat(this.policy.determineConsumerCount(metrics)).isEqualTo(4);
+
+		this.policy.setGrowthFactor(1.2);
+		assertThat(this.policy.determineConsumerCount(metrics)).isEqualTo(3);
+
+		this.policy.setBacklogThreshold(1);
+		assertThat(this.policy.determineConsumerCount(metrics(2, 100, 20, 100))).isEqualTo(3);
+	}
+
+	@Test
+	public void invalidSettings() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.policy.setTargetUtilization(0));
+		assertThatIllegalArgumentException().isThrownBy(() -> this.policy.setTargetUtilization(1.5));
+		assertThatIllegalArgumentException().isThrownBy(() -> this.policy.setBacklogThreshold(0));
+		assertThatIllegalArgumentException().isThrownBy(() -> this.policy.setGrowthFactor(1));
+	}
+
+
+	private static ListenerContainerMetrics metrics(
+			int consumers, long messageCount, long processingTimeMillis, long receiveTimeMillis) {
+
+		return new ListenerContainerMetrics(1, 20, consumers, 0, messageCount, 1000, messageCount,
+				TimeUnit.MILLISECONDS.toNanos(messageCount * processingTimeMillis),
+				TimeUnit.MILLISECONDS.toNanos(receiveTimeMillis));
+	}
+
+}
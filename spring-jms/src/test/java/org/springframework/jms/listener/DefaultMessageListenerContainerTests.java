@@ -16,14 +16,22 @@
 
 package org.springframework.jms.listener;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
 import javax.jms.Destination;
 import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
 
+import org.awaitility.Awaitility;
 import org.junit.jupiter.api.Test;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -32,6 +40,9 @@ import org.springframework.util.backoff.BackOff;
 import org.springframework.util.backoff.BackOffExecution;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -106,6 +117,61 @@ public class DefaultMessageListenerContainerTests {
 		runnable2.waitForCompletion();
 	}
 
+	@Test
+	public void metricsSampledWithScalingPolicy() {
+		List<ListenerContainerMetrics> evaluatedMetrics = new ArrayList<>();
+		DefaultMessageListenerContainer container = createContainer(createSuccessfulConnectionFactory());
+		container.setMaxConcurrentConsumers(3);
+		container.setScalingPolicy(metrics -> {
+			evaluatedMetrics.add(metrics);
+			return 5;
+		});
+		container.setMetricsSamplingInterval(TimeUnit.HOURS.toMillis(1));
+
+		ListenerContainerMetrics metrics = container.getMetrics();
+		assertThat(container.getMetrics()).isSameAs(metrics);
+		assertThat(evaluatedMetrics).containsExactly(metrics);
+		assertThat(metrics.getConcurrentConsumers()).isEqualTo(1);
+		assertThat(metrics.getMaxConcurrentConsumers()).isEqualTo(3);
+		assertThat(metrics.getTotalMessageCount()).isEqualTo(0);
+		assertThat(metrics.getMessageRate()).isEqualTo(0);
+
+		ListenerContainerMetrics resampled = container.sampleMetrics();
+		assertThat(resampled).isNotSameAs(metrics);
+		assertThat(container.getMetrics()).isSameAs(resampled);
+		assertThat(evaluatedMetrics).containsExactly(metrics, resampled);
+	}
+
+	@Test
+	public void consumerCountFollowsScalingPolicy() throws JMSException {
+		AtomicInteger policyConsumerCount = new AtomicInteger(3);
+		DefaultMessageListenerContainer container = createContainer(createMessageProducingConnectionFactory());
+		container.setMaxConcurrentConsumers(5);
+		container.setReceiveTimeout(10);
+		container.setMessageListener((MessageListener) message -> {});
+		container.setScalingPolicy(metrics -> policyConsumerCount.get());
+		container.setMetricsSamplingInterval(TimeUnit.HOURS.toMillis(1));
+		container.afterPropertiesSet();
+		container.start();
+		try {
+			Awaitility.await().atMost(5, TimeUnit.SECONDS)
+					.until(() -> container.getScheduledConsumerCount() == 3);
+
+			policyConsumerCount.set(1);
+			container.sampleMetrics();
+			Awaitility.await().atMost(5, TimeUnit.SECONDS)
+					.until(() -> container.getScheduledConsumerCount() == 1);
+
+			policyConsumerCount.set(10);
+			container.sampleMetrics();
+			Awaitility.await().atMost(5, TimeUnit.SECONDS)
+					.until(() -> container.getScheduledConsumerCount() == 5);
+		}
+		finally {
+			container.shutdown();
+		}
+	}
+
 
 	private DefaultMessageListenerContainer createRunningContainer() {
 		DefaultMessageListenerContainer container = createContainer(createSuccessfulConnectionFactory());
@@ -160,6 +226,18 @@ public class DefaultMessageListenerContainerTests {
 		}
 	}
 
+	private ConnectionFactory createMessageProducingConnectionFactory() throws JMSException {
+		MessageConsumer consumer = mock(MessageConsumer.class);
+		given(consumer.receive(anyLong())).willReturn(mock(Message.class));
+		Session session = mock(Session.class);
+		given(session.createConsumer(any(Destination.class), isNull())).willReturn(consumer);
+		Connection connection = mock(Connection.class);
+		given(connection.createSession(false, Session.AUTO_ACKNOWLEDGE)).willReturn(session);
+		ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+		given(connectionFactory.createConnection()).willReturn(connection);
+		return connectionFactory;
+	}
+
 	private ConnectionFactory createSuccessfulConnectionFactory() {
 		try {
 			ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
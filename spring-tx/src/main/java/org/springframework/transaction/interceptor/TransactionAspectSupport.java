@@ -33,6 +33,7 @@ import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
 import org.springframework.core.KotlinDetector;
+import org.springframework.core.MethodClassKey;
 import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.ReactiveAdapter;
 import org.springframework.core.ReactiveAdapterRegistry;
@@ -179,6 +180,9 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	private final ConcurrentMap<Method, ReactiveTransactionSupport> transactionSupportCache =
 			new ConcurrentReferenceHashMap<>(1024);
 
+	private final ConcurrentMap<MethodClassKey, JoinpointAttribute> joinpointAttributeCache =
+			new ConcurrentReferenceHashMap<>(1024);
+
 
 	protected TransactionAspectSupport() {
 		if (reactiveStreamsPresent) {
@@ -353,11 +357,13 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		}
 
 		PlatformTransactionManager ptm = asPlatformTransactionManager(tm);
-		final String joinpointIdentification = methodIdentification(method, targetClass, txAttr);
+		JoinpointAttribute joinpointAttribute = getJoinpointAttribute(method, targetClass, txAttr);
+		final String joinpointIdentification = joinpointAttribute.joinpointIdentification;
 
 		if (txAttr == null || !(ptm instanceof CallbackPreferringPlatformTransactionManager)) {
 			// Standard transaction demarcation with getTransaction and commit/rollback calls.
-			TransactionInfo txInfo = createTransactionIfNecessary(ptm, txAttr, joinpointIdentification);
+			TransactionInfo txInfo = createTransactionIfNecessary(
+					ptm, joinpointAttribute.transactionAttribute, joinpointIdentification);
 
 			Object retVal;
 			try {
@@ -508,6 +514,29 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		}
 	}
 
+	/**
+	 * Determine the joinpoint identification and the correspondingly named
+	 * transaction attribute for the given method, reusing a previously
+	 * resolved combination for the same attribute instance.
+	 * <p>A custom {@link #methodIdentification(Method, Class)} result is
+	 * never cached, since it may vary between invocations.
+	 */
+	private JoinpointAttribute getJoinpointAttribute(Method method, @Nullable Class<?> targetClass,
+			@Nullable TransactionAttribute txAttr) {
+
+		String customIdentification = methodIdentification(method, targetClass);
+		if (customIdentification != null) {
+			return new JoinpointAttribute(txAttr, customIdentification);
+		}
+		MethodClassKey cacheKey = new MethodClassKey(method, targetClass);
+		JoinpointAttribute joinpointAttribute = this.joinpointAttributeCache.get(cacheKey);
+		if (joinpointAttribute == null || joinpointAttribute.sourceAttribute != txAttr) {
+			joinpointAttribute = new JoinpointAttribute(txAttr, methodIdentification(method, targetClass, txAttr));
+			this.joinpointAttributeCache.put(cacheKey, joinpointAttribute);
+		}
+		return joinpointAttribute;
+	}
+
 	private String methodIdentification(Method method, @Nullable Class<?> targetClass,
 			@Nullable TransactionAttribute txAttr) {
 
@@ -552,19 +581,11 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 * tell if there was a transaction created.
 	 * @see #getTransactionAttributeSource()
 	 */
-	@SuppressWarnings("serial")
 	protected TransactionInfo createTransactionIfNecessary(@Nullable PlatformTransactionManager tm,
 			@Nullable TransactionAttribute txAttr, final String joinpointIdentification) {
 
 		// If no name specified, apply method identification as transaction name.
-		if (txAttr != null && txAttr.getName() == null) {
-			txAttr = new DelegatingTransactionAttribute(txAttr) {
-				@Override
-				public String getName() {
-					return joinpointIdentification;
-				}
-			};
-		}
+		txAttr = namedTransactionAttribute(txAttr, joinpointIdentification);
 
 		TransactionStatus status = null;
 		if (txAttr != null) {
@@ -581,6 +602,26 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		return prepareTransactionInfo(tm, txAttr, joinpointIdentification, status);
 	}
 
+	/**
+	 * Apply the given joinpoint identification as transaction name
+	 * if the given attribute does not specify a name of its own.
+	 */
+	@Nullable
+	@SuppressWarnings("serial")
+	private static TransactionAttribute namedTransactionAttribute(
+			@Nullable TransactionAttribute txAttr, final String joinpointIdentification) {
+
+		if (txAttr != null && txAttr.getName() == null) {
+			return new DelegatingTransactionAttribute(txAttr) {
+				@Override
+				public String getName() {
+					return joinpointIdentification;
+				}
+			};
+		}
+		return txAttr;
+	}
+
 	/**
 	 * Prepare a TransactionInfo for the given attribute and status object.
 	 * @param txAttr the TransactionAttribute (may be {@code null})
@@ -689,6 +730,28 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	}
 
 
+	/**
+	 * Cached joinpoint identification for a transactional method, along with
+	 * the transaction attribute carrying that identification as its name.
+	 */
+	private static final class JoinpointAttribute {
+
+		@Nullable
+		private final TransactionAttribute sourceAttribute;
+
+		@Nullable
+		private final TransactionAttribute transactionAttribute;
+
+		private final String joinpointIdentification;
+
+		public JoinpointAttribute(@Nullable TransactionAttribute sourceAttribute, String joinpointIdentification) {
+			this.sourceAttribute = sourceAttribute;
+			this.transactionAttribute = namedTransactionAttribute(sourceAttribute, joinpointIdentification);
+			this.joinpointIdentification = joinpointIdentification;
+		}
+	}
+
+
 	/**
 	 * Opaque object used to hold transaction information. Subclasses
 	 * must pass it back to methods on this class, but not see its internals.
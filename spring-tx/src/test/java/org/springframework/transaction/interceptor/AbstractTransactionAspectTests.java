@@ -17,6 +17,8 @@
 package org.springframework.transaction.interceptor;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -37,6 +39,7 @@ import org.springframework.transaction.interceptor.TransactionAspectSupport.Tran
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.mock;
@@ -118,6 +121,41 @@ public abstract class AbstractTransactionAspectTests {
 		verify(ptm).commit(status);
 	}
 
+	/**
+	 * Check that the joinpoint identification is consistently applied as transaction
+	 * name across invocations, and that a replaced transaction attribute is picked up.
+	 */
+	@Test
+	public void transactionNameAppliedAcrossInvocations() throws Exception {
+		MapTransactionAttributeSource tas = new MapTransactionAttributeSource();
+		tas.register(getNameMethod, new DefaultTransactionAttribute());
+
+		TransactionStatus status = mock(TransactionStatus.class);
+		PlatformTransactionManager ptm = mock(PlatformTransactionManager.class);
+		List<TransactionDefinition> definitions = new ArrayList<>();
+		given(ptm.getTransaction(any())).willAnswer(invocation -> {
+			definitions.add(invocation.getArgument(0));
+			return status;
+		});
+
+		TestBean tb = new TestBean();
+		ITestBean itb = (ITestBean) advised(tb, ptm, tas);
+
+		itb.getName();
+		itb.getName();
+		DefaultTransactionAttribute readOnlyTxatt = new DefaultTransactionAttribute();
+		readOnlyTxatt.setReadOnly(true);
+		tas.register(getNameMethod, readOnlyTxatt);
+		itb.getName();
+
+		assertThat(definitions).hasSize(3);
+		assertThat(definitions.get(0).getName()).contains("getName");
+		assertThat(definitions).extracting(TransactionDefinition::getName).containsOnly(definitions.get(0).getName());
+		assertThat(definitions.get(1).isReadOnly()).isFalse();
+		assertThat(definitions.get(2).isReadOnly()).isTrue();
+		verify(ptm, times(3)).commit(status);
+	}
+
 	/**
 	 * Check that a transaction is created and committed using
 	 * CallbackPreferringPlatformTransactionManager.
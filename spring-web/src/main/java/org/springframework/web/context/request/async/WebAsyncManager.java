@@ -32,6 +32,7 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.web.context.request.RequestAttributes;
@@ -119,6 +120,8 @@ public final class WebAsyncManager {
 	 * Configure an AsyncTaskExecutor for use with concurrent processing via
 	 * {@link #startCallableProcessing(Callable, Object...)}.
 	 * <p>By default a {@link SimpleAsyncTaskExecutor} instance is used.
+	 * Consider a {@link VirtualThreadTaskExecutor} for blocking {@code Callable}
+	 * handlers on a JVM with virtual thread support.
 	 */
 	public void setTaskExecutor(AsyncTaskExecutor taskExecutor) {
 		this.taskExecutor = taskExecutor;
@@ -348,7 +351,7 @@ public final class WebAsyncManager {
 		if (taskExecutorWarning && logger.isWarnEnabled()) {
 			synchronized (DEFAULT_TASK_EXECUTOR) {
 				AsyncTaskExecutor executor = this.taskExecutor;
-				if (taskExecutorWarning &&
+				if (taskExecutorWarning && !isVirtualThreadExecutor(executor) &&
 						(executor instanceof SimpleAsyncTaskExecutor || executor instanceof SyncTaskExecutor)) {
 					String executorTypeName = executor.getClass().getSimpleName();
 					logger.warn("\n!!!\n" +
@@ -364,6 +367,11 @@ public final class WebAsyncManager {
 		}
 	}
 
+	private static boolean isVirtualThreadExecutor(AsyncTaskExecutor executor) {
+		// Unthrottled thread-per-task execution is fine on virtual threads
+		return (executor instanceof VirtualThreadTaskExecutor && VirtualThreadTaskExecutor.isVirtualThreadsSupported());
+	}
+
 	private String formatRequestUri() {
 		HttpServletRequest request = this.asyncWebRequest.getNativeRequest(HttpServletRequest.class);
 		return request != null ? request.getRequestURI() : "servlet container";